@@ -0,0 +1,51 @@
+package com.workshop.benchmark.batch;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.io.Closeable;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Publikování jednotlivých zpráv z HTTP přes group commit.
+ *
+ * Souběžné požadavky skládá {@link MicroBatcher} do dávek, dávka jde do brokeru
+ * najednou přes {@link MicroBatcher.BatchSink} a každý požadavek se dokončí až
+ * potvrzením své zprávy. Modul brokeru dodává jen odeslání dávky a doplnění zprávy.
+ *
+ * @param <T> typ zprávy brokeru
+ */
+public class BatchPublisher<T> implements Closeable {
+
+    private final Consumer<T> preparer;
+    private final MicroBatcher<T> batcher;
+
+    /**
+     * @param preparer doplní zprávu (id, timestamp, claim check) ve vlákně volajícího před zařazením
+     */
+    public BatchPublisher(MicroBatcher.BatchSink<T> sink, Consumer<T> preparer, int maxBatchSize, long maxWaitMs,
+                          int queueCapacity, long ackTimeoutMs, MeterRegistry meterRegistry, String broker) {
+        this.preparer = preparer;
+        this.batcher = new MicroBatcher<>("publish-batcher", sink, maxBatchSize, maxWaitMs, queueCapacity,
+                ackTimeoutMs, meterRegistry, broker);
+    }
+
+    /**
+     * Zařadí zprávu do další dávky.
+     *
+     * @return future s velikostí dávky, dokončený potvrzením brokeru
+     */
+    public CompletableFuture<Integer> submit(T message) {
+        preparer.accept(message);
+        return batcher.submit(message);
+    }
+
+    public int getQueued() {
+        return batcher.getQueued();
+    }
+
+    @Override
+    public void close() {
+        batcher.close();
+    }
+}
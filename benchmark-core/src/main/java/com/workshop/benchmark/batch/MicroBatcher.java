@@ -0,0 +1,199 @@
+package com.workshop.benchmark.batch;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group commit souběžných požadavků do dávek pro broker.
+ *
+ * Požadavky se řadí do omezené fronty, jedno vlákno z nich skládá dávky. Dávka se
+ * odešle, jakmile má maxBatchSize položek, nebo maxWait od první položky. Vlákno na
+ * potvrzení nečeká - zatímco broker potvrzuje jednu dávku, skládá se další.
+ * Future položky se dokončí až potvrzením od brokeru.
+ *
+ * @param <T> typ položky
+ */
+public class MicroBatcher<T> implements Closeable {
+
+    /**
+     * Odeslání dávky do brokeru.
+     */
+    public interface BatchSink<T> {
+
+        /**
+         * @return future pro každou položku (ve stejném pořadí), dokončený potvrzením brokeru
+         */
+        List<CompletableFuture<?>> publish(List<T> batch);
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(MicroBatcher.class);
+    private static final long IDLE_POLL_MS = 100;
+
+    private final BatchSink<T> sink;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final long ackTimeoutMs;
+    private final BlockingQueue<Pending<T>> queue;
+    private final Thread flusher;
+    private volatile boolean running = true;
+
+    private final DistributionSummary batchSizeSummary;
+    private final Timer batchAckTimer;
+    private final Counter rejectedCounter;
+
+    public MicroBatcher(String name, BatchSink<T> sink, int maxBatchSize, long maxWaitMs, int queueCapacity,
+                        long ackTimeoutMs, MeterRegistry meterRegistry, String broker) {
+        this.sink = sink;
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        this.ackTimeoutMs = ackTimeoutMs;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        
+        this.batchSizeSummary = DistributionSummary.builder("publish.batch.size")
+                .description("Messages per group-committed publish batch")
+                .tag("broker", broker)
+                .register(meterRegistry);
+        
+        this.batchAckTimer = Timer.builder("publish.batch.ack")
+                .description("Time from sending a publish batch to the broker acknowledging all of it")
+                .tag("broker", broker)
+                .register(meterRegistry);
+        
+        this.rejectedCounter = Counter.builder("publish.rejected")
+                .description("Publish requests rejected because the batching queue was full")
+                .tag("broker", broker)
+                .register(meterRegistry);
+        
+        this.flusher = new Thread(this::run, name);
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Zařadí položku do další dávky.
+     *
+     * @return future s velikostí dávky, ve které broker položku potvrdil;
+     *         při plné frontě selže s {@link RejectedExecutionException}
+     */
+    public CompletableFuture<Integer> submit(T item) {
+        CompletableFuture<Integer> future = new CompletableFuture<>();
+        if (!running || !queue.offer(new Pending<>(item, future))) {
+            rejectedCounter.increment();
+            future.completeExceptionally(new RejectedExecutionException("Fronta publikování je plná"));
+        }
+        return future;
+    }
+
+    public int getQueued() {
+        return queue.size();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        flusher.interrupt();
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<Pending<T>> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        remaining.forEach(p -> p.future.completeExceptionally(new RejectedExecutionException("Publikování ukončeno")));
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                Pending<T> first = queue.poll(IDLE_POLL_MS, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    flush(collect(first));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Chyba při odesílání dávky: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Doplní dávku do maxBatchSize, nejdéle maxWait od první položky.
+     */
+    private List<Pending<T>> collect(Pending<T> first) throws InterruptedException {
+        List<Pending<T>> batch = new ArrayList<>(maxBatchSize);
+        batch.add(first);
+        long deadline = System.nanoTime() + maxWaitNanos;
+        
+        while (batch.size() < maxBatchSize) {
+            // Nejdřív vše, co už čeká, bez blokování
+            queue.drainTo(batch, maxBatchSize - batch.size());
+            long remainingNanos = deadline - System.nanoTime();
+            if (batch.size() >= maxBatchSize || remainingNanos <= 0) {
+                break;
+            }
+            Pending<T> next = queue.poll(remainingNanos, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+        return batch;
+    }
+
+    private void flush(List<Pending<T>> batch) {
+        int size = batch.size();
+        batchSizeSummary.record(size);
+        
+        List<T> items = new ArrayList<>(size);
+        for (Pending<T> pending : batch) {
+            items.add(pending.item);
+        }
+        
+        long startNanos = System.nanoTime();
+        List<CompletableFuture<?>> acks;
+        try {
+            acks = sink.publish(items);
+        } catch (Exception e) {
+            batch.forEach(p -> p.future.completeExceptionally(e));
+            return;
+        }
+        
+        for (int i = 0; i < size; i++) {
+            CompletableFuture<Integer> future = batch.get(i).future;
+            acks.get(i).orTimeout(ackTimeoutMs, TimeUnit.MILLISECONDS).whenComplete((result, ex) -> {
+                if (ex != null) {
+                    future.completeExceptionally(ex);
+                } else {
+                    future.complete(size);
+                }
+            });
+        }
+        CompletableFuture.allOf(acks.toArray(CompletableFuture[]::new))
+                .whenComplete((result, ex) -> batchAckTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS));
+    }
+
+    private static final class Pending<T> {
+        private final T item;
+        private final CompletableFuture<Integer> future;
+        
+        private Pending(T item, CompletableFuture<Integer> future) {
+            this.item = item;
+            this.future = future;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.workshop.benchmark.claimcheck;
+
+import lombok.Value;
+
+/**
+ * Odkaz na blob v {@link BlobStore} - segment, offset, délka a CRC32C obsahu.
+ *
+ * V obsahu zprávy se přenáší jako text "claim-check:segment:offset:length:crc".
+ */
+@Value
+public class BlobRef {
+
+    public static final String PREFIX = "claim-check:";
+
+    long segment;
+    int offset;
+    int length;
+    int checksum;
+
+    public String encode() {
+        return PREFIX + segment + ":" + offset + ":" + length + ":" + Integer.toUnsignedString(checksum);
+    }
+
+    public static boolean isReference(String content) {
+        return content != null && content.startsWith(PREFIX);
+    }
+
+    public static BlobRef parse(String reference) {
+        if (!isReference(reference)) {
+            throw new IllegalArgumentException("Neplatný claim check: " + reference);
+        }
+        String[] parts = reference.substring(PREFIX.length()).split(":");
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("Neplatný claim check: " + reference);
+        }
+        return new BlobRef(Long.parseLong(parts[0]), Integer.parseInt(parts[1]), Integer.parseInt(parts[2]),
+                Integer.parseUnsignedInt(parts[3]));
+    }
+}
@@ -0,0 +1,218 @@
+package com.workshop.benchmark.claimcheck;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Lokální append-only úložiště blobů v memory-mapped segmentech.
+ *
+ * - zápis je sekvenční do aktivního segmentu, po zaplnění se založí nový (rolling)
+ * - čtení vrací read-only výřez mapovaného segmentu, data se nekopírují
+ * - uzavřené segmenty starší než retence maže úklidové vlákno
+ *
+ * Blob větší než velikost segmentu dostane vlastní segment.
+ */
+public class BlobStore implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(BlobStore.class);
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final Duration retention;
+    private final Map<Long, MappedByteBuffer> segments = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService cleaner;
+
+    // Aktivní segment - chráněno zámkem instance
+    private long nextSegment;
+    private long activeSegment = -1;
+    private MappedByteBuffer active;
+
+    public BlobStore(Path directory, int segmentBytes, Duration retention, Duration cleanupInterval) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.segmentBytes = segmentBytes;
+        this.retention = retention;
+        this.nextSegment = listSegments().stream().mapToLong(BlobStore::segmentId).max().orElse(-1) + 1;
+        
+        this.cleaner = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "blob-store-cleaner");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMs = cleanupInterval.toMillis();
+        cleaner.scheduleWithFixedDelay(this::cleanupQuietly, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        
+        log.info("Blob store v {} (segment {} B, retence {})", directory, segmentBytes, retention);
+    }
+
+    /**
+     * Připojí blob na konec aktivního segmentu. CRC32C se počítá mimo zámek.
+     */
+    public BlobRef put(byte[] data) {
+        CRC32C crc = new CRC32C();
+        crc.update(data);
+        int checksum = (int) crc.getValue();
+        synchronized (this) {
+            if (active == null || active.remaining() < data.length) {
+                roll(Math.max(segmentBytes, data.length));
+            }
+            int offset = active.position();
+            active.put(data);
+            return new BlobRef(activeSegment, offset, data.length, checksum);
+        }
+    }
+
+    /**
+     * Read-only výřez mapovaného segmentu - bez kopírování dat.
+     *
+     * @throws IllegalStateException pokud segment už smazala retence
+     */
+    public ByteBuffer get(BlobRef ref) {
+        MappedByteBuffer segment = segments.computeIfAbsent(ref.getSegment(), this::mapForRead);
+        // Absolutní slice nemění pozici sdíleného bufferu, je bezpečný i při souběžném zápisu
+        return segment.slice(ref.getOffset(), ref.getLength()).asReadOnlyBuffer();
+    }
+
+    /**
+     * Smaže uzavřené segmenty, které jsou starší než retence.
+     *
+     * @return počet smazaných segmentů
+     */
+    public int cleanup() {
+        Instant cutoff = Instant.now().minus(retention);
+        int deleted = 0;
+        for (Path path : listSegments()) {
+            long id = segmentId(path);
+            try {
+                if (id == currentSegment() || Files.getLastModifiedTime(path).toInstant().isAfter(cutoff)) {
+                    continue;
+                }
+                // Mapování zůstane platné pro rozpracované čtenáře, soubor zmizí z adresáře
+                segments.remove(id);
+                Files.deleteIfExists(path);
+                deleted++;
+            } catch (IOException e) {
+                log.warn("⚠ Segment {} nelze smazat: {}", path, e.getMessage());
+            }
+        }
+        if (deleted > 0) {
+            log.info("🧹 Blob store: smazáno {} segmentů starších než {}", deleted, retention);
+        }
+        return deleted;
+    }
+
+    public int getSegmentCount() {
+        return listSegments().size();
+    }
+
+    public long getDiskBytes() {
+        long bytes = 0;
+        for (Path path : listSegments()) {
+            try {
+                bytes += Files.size(path);
+            } catch (IOException e) {
+                // Segment mezitím smazal úklid
+            }
+        }
+        return bytes;
+    }
+
+    @Override
+    public synchronized void close() {
+        cleaner.shutdownNow();
+        if (active != null) {
+            active.force();
+        }
+        segments.clear();
+        active = null;
+    }
+
+    private synchronized long currentSegment() {
+        return activeSegment;
+    }
+
+    private void roll(int size) {
+        if (active != null) {
+            sealActive();
+        }
+        long id = nextSegment++;
+        Path path = segmentPath(id);
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            active = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Nelze založit segment " + path, e);
+        }
+        activeSegment = id;
+        segments.put(id, active);
+        log.debug("Blob store: nový segment {}", path);
+    }
+
+    private void sealActive() {
+        active.force();
+        // Zápisy přes mmap nemusí aktualizovat mtime - retence se počítá od uzavření segmentu
+        try {
+            Files.setLastModifiedTime(segmentPath(activeSegment), FileTime.from(Instant.now()));
+        } catch (IOException e) {
+            log.warn("⚠ Nelze nastavit čas uzavření segmentu {}: {}", activeSegment, e.getMessage());
+        }
+    }
+
+    private MappedByteBuffer mapForRead(long id) {
+        Path path = segmentPath(id);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (NoSuchFileException e) {
+            throw new IllegalStateException("Segment " + id + " už neexistuje (smazán retencí)");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Nelze namapovat segment " + path, e);
+        }
+    }
+
+    private void cleanupQuietly() {
+        try {
+            cleanup();
+        } catch (Exception e) {
+            log.error("Chyba úklidu blob store: {}", e.getMessage());
+        }
+    }
+
+    private List<Path> listSegments() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX)).toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Nelze číst adresář " + directory, e);
+        }
+    }
+
+    private Path segmentPath(long id) {
+        return directory.resolve(String.format("%020d%s", id, SEGMENT_SUFFIX));
+    }
+
+    private static long segmentId(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
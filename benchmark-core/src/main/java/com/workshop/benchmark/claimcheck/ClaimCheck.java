@@ -0,0 +1,145 @@
+package com.workshop.benchmark.claimcheck;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32C;
+
+/**
+ * Claim check pro velké payloady.
+ *
+ * Producer uloží obsah nad limitem do {@link BlobStore} a brokerem posílá jen odkaz,
+ * consumer si obsah přečte přímo z mapovaného segmentu. Režim lze přepínat za běhu,
+ * aby šla propustnost změřit se zapnutým i vypnutým claim checkem.
+ */
+public class ClaimCheck {
+
+    private final BlobStore store;
+    private final int thresholdBytes;
+    private volatile boolean enabled;
+
+    private final Counter storedCounter;
+    private final DistributionSummary storedBytes;
+    private final Counter resolvedCounter;
+    private final Counter missingCounter;
+    private final Counter corruptCounter;
+
+    public ClaimCheck(BlobStore store, int thresholdBytes, boolean enabled, MeterRegistry meterRegistry, String broker) {
+        this.store = store;
+        this.thresholdBytes = thresholdBytes;
+        this.enabled = enabled;
+        
+        this.storedCounter = Counter.builder("claimcheck.stored")
+                .description("Payloads moved to the local blob store")
+                .tag("broker", broker)
+                .register(meterRegistry);
+        
+        this.storedBytes = DistributionSummary.builder("claimcheck.stored.size")
+                .description("Size of payloads moved to the local blob store")
+                .baseUnit("bytes")
+                .tag("broker", broker)
+                .register(meterRegistry);
+        
+        this.resolvedCounter = Counter.builder("claimcheck.resolved")
+                .description("Claim checks resolved by the consumer")
+                .tag("broker", broker)
+                .register(meterRegistry);
+        
+        this.missingCounter = Counter.builder("claimcheck.missing")
+                .description("Claim checks whose blob was already removed by retention")
+                .tag("broker", broker)
+                .register(meterRegistry);
+        
+        this.corruptCounter = Counter.builder("claimcheck.corrupt")
+                .description("Claim checks whose blob did not match the CRC32C from the reference")
+                .tag("broker", broker)
+                .register(meterRegistry);
+        
+        Gauge.builder("claimcheck.store.segments", store, BlobStore::getSegmentCount)
+                .description("Segments in the local blob store")
+                .tag("broker", broker)
+                .register(meterRegistry);
+        
+        Gauge.builder("claimcheck.store.disk", store, BlobStore::getDiskBytes)
+                .description("Disk space used by the local blob store")
+                .baseUnit("bytes")
+                .tag("broker", broker)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Vrátí obsah beze změny, nebo odkaz do blob store, pokud je obsah nad limitem.
+     * Limit se porovnává s délkou textu - pro ASCII payloady odpovídá bajtům.
+     */
+    public String checkIn(String content) {
+        if (!enabled || content == null || content.length() < thresholdBytes) {
+            return content;
+        }
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        BlobRef ref = store.put(bytes);
+        storedCounter.increment();
+        storedBytes.record(bytes.length);
+        return ref.encode();
+    }
+
+    /**
+     * Payload odkazovaný claim checkem jako read-only buffer nad mapovaným segmentem.
+     *
+     * @return null pokud obsah není claim check
+     * @throws IllegalStateException pokud blob už smazala retence
+     */
+    public ByteBuffer resolve(String content) {
+        if (!BlobRef.isReference(content)) {
+            return null;
+        }
+        try {
+            ByteBuffer blob = store.get(BlobRef.parse(content));
+            resolvedCounter.increment();
+            return blob;
+        } catch (IllegalStateException e) {
+            missingCounter.increment();
+            throw e;
+        }
+    }
+
+    /**
+     * Přečte celý payload z {@link #resolve(String)} a porovná jeho CRC32C s odkazem.
+     *
+     * @throws IllegalStateException pokud blob neodpovídá odkazu (přepsaný nebo poškozený segment)
+     */
+    public void verify(String content, ByteBuffer payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(payload.duplicate());
+        BlobRef ref = BlobRef.parse(content);
+        if ((int) crc.getValue() != ref.getChecksum()) {
+            corruptCounter.increment();
+            throw new IllegalStateException("Poškozený claim check " + content);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public ClaimCheckStatus getStatus() {
+        return ClaimCheckStatus.builder()
+                .enabled(enabled)
+                .thresholdBytes(thresholdBytes)
+                .stored((long) storedCounter.count())
+                .storedBytes((long) storedBytes.totalAmount())
+                .resolved((long) resolvedCounter.count())
+                .missing((long) missingCounter.count())
+                .corrupt((long) corruptCounter.count())
+                .segments(store.getSegmentCount())
+                .diskBytes(store.getDiskBytes())
+                .build();
+    }
+}
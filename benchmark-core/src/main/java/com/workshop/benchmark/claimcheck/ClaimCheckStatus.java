@@ -0,0 +1,25 @@
+package com.workshop.benchmark.claimcheck;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Stav claim checku a blob store.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClaimCheckStatus {
+    private boolean enabled;
+    private int thresholdBytes;
+    private long stored;
+    private long storedBytes;
+    private long resolved;
+    private long missing;
+    private long corrupt;
+    private int segments;
+    private long diskBytes;
+}
@@ -0,0 +1,103 @@
+package com.workshop.benchmark.consumer;
+
+import com.workshop.benchmark.metrics.MetricsEngine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Evidence zpracovaných zpráv consumeru - počty, latence a pokusy o zpracování.
+ *
+ * Úspěšná zpráva nealokuje: počty jsou {@link LongAdder} (bez soupeření vláken o jednu proměnnou),
+ * pokusy drží {@link PartitionRetries} v primitivních slotech a latenci zapíše {@link MetricsEngine}.
+ * Při souběhu se může řádek průběhu vynechat nebo zopakovat, počty samotné jsou přesné.
+ */
+public class ConsumerBookkeeping {
+
+    private static final Logger log = LoggerFactory.getLogger(ConsumerBookkeeping.class);
+    private static final long PROGRESS_LOG_EVERY = 100;
+
+    private final MetricsEngine metrics;
+    private final boolean progressLog;
+    private final LongAdder processed = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder deadLettered = new LongAdder();
+    private final PartitionRetries retries = new PartitionRetries();
+
+    public ConsumerBookkeeping(MetricsEngine metrics) {
+        this(metrics, true);
+    }
+
+    /**
+     * @param progressLog řádek průběhu každých 100 zpráv - test alokací ho vypíná
+     */
+    ConsumerBookkeeping(MetricsEngine metrics, boolean progressLog) {
+        this.metrics = metrics;
+        this.progressLog = progressLog;
+    }
+
+    /**
+     * Úspěšně zpracovaná a potvrzená zpráva.
+     */
+    public void recordConsumed(long startNanos) {
+        metrics.recordMessageConsumed(System.nanoTime() - startNanos);
+        processed.increment();
+        if (progressLog && processed.sum() % PROGRESS_LOG_EVERY == 0) {
+            log.info("  Zpracováno: {} zpráv", processed.sum());
+        }
+    }
+
+    /**
+     * Úspěšně zpracovaná zpráva z partition - zapomene i její předchozí pokusy.
+     */
+    public void recordConsumed(int partition, long offset, long startNanos) {
+        retries.clear(partition, offset);
+        recordConsumed(startNanos);
+    }
+
+    /**
+     * @return počet dosavadních pokusů o zpracování zprávy
+     */
+    public int getRetryCount(int partition, long offset) {
+        return retries.get(partition, offset);
+    }
+
+    public void recordRetry() {
+        retried.increment();
+    }
+
+    public void recordRetry(int partition, long offset, int retryCount) {
+        retries.set(partition, offset, retryCount);
+        recordRetry();
+    }
+
+    public void recordDeadLettered() {
+        deadLettered.increment();
+        metrics.recordMessageFailed();
+    }
+
+    public void recordDeadLettered(int partition, long offset) {
+        retries.clear(partition, offset);
+        recordDeadLettered();
+    }
+
+    public long getProcessedCount() {
+        return processed.sum();
+    }
+
+    public long getRetriedCount() {
+        return retried.sum();
+    }
+
+    public long getDeadLetteredCount() {
+        return deadLettered.sum();
+    }
+
+    public void reset() {
+        processed.reset();
+        retried.reset();
+        deadLettered.reset();
+        retries.clearAll();
+    }
+}
@@ -0,0 +1,93 @@
+package com.workshop.benchmark.consumer;
+
+import java.util.Arrays;
+
+/**
+ * Počty pokusů o zpracování podle partition a offsetu - primitivní sloty místo mapy s klíčem "partition:offset".
+ *
+ * Nepotvrzený offset po ACK některé další zprávy už znovu nepřijde, stačí proto na partition jeden slot
+ * s posledním neúspěšným offsetem. Slot vznikne jednou pro každou partition.
+ *
+ * Do slotu zapisuje víc vláken - pokusy consumer vlákno, úspěch a DLQ i vlákno zapisovače sinku
+ * nebo jeho retry. Offset a počet se proto mění společně pod zámkem slotu. Úspěšná zpráva jen
+ * porovná offset a zámek bere, jen když slot drží právě ji - bez alokace a boxingu.
+ */
+public class PartitionRetries {
+
+    private static final long NONE = -1;
+
+    private volatile Slot[] slots = new Slot[0];
+
+    /**
+     * @return počet dosavadních pokusů, 0 pro zprávu bez předchozí chyby
+     */
+    public int get(int partition, long offset) {
+        Slot slot = slot(partition);
+        if (slot == null) {
+            return 0;
+        }
+        synchronized (slot) {
+            return slot.offset == offset ? slot.count : 0;
+        }
+    }
+
+    public void set(int partition, long offset, int count) {
+        Slot slot = slotFor(partition);
+        synchronized (slot) {
+            slot.count = count;
+            slot.offset = offset;
+        }
+    }
+
+    /**
+     * Zapomene pokusy zprávy, pokud je slot partition drží.
+     */
+    public void clear(int partition, long offset) {
+        Slot slot = slot(partition);
+        if (slot == null || slot.offset != offset) {
+            return;
+        }
+        synchronized (slot) {
+            if (slot.offset == offset) {
+                slot.offset = NONE;
+                slot.count = 0;
+            }
+        }
+    }
+
+    public void clearAll() {
+        for (Slot slot : slots) {
+            synchronized (slot) {
+                slot.offset = NONE;
+                slot.count = 0;
+            }
+        }
+    }
+
+    private Slot slot(int partition) {
+        Slot[] current = slots;
+        return partition < current.length ? current[partition] : null;
+    }
+
+    /**
+     * Rozšíření pole kopíruje reference na existující sloty, souběžný zápis do slotu se tak neztratí.
+     */
+    private synchronized Slot slotFor(int partition) {
+        Slot[] current = slots;
+        if (partition >= current.length) {
+            Slot[] grown = Arrays.copyOf(current, partition + 1);
+            for (int i = current.length; i < grown.length; i++) {
+                grown[i] = new Slot();
+            }
+            slots = grown;
+            current = grown;
+        }
+        return current[partition];
+    }
+
+    private static final class Slot {
+        // Volatile kvůli porovnání bez zámku v clear
+        private volatile long offset = NONE;
+        private int count;
+    }
+}
@@ -0,0 +1,29 @@
+package com.workshop.benchmark.driver;
+
+import com.workshop.benchmark.workload.ProcessingSpec;
+
+/**
+ * Řízení chování consumera za běhu - injekce chyb a zpomalení zpracování.
+ */
+public interface ConsumerControl {
+
+    /**
+     * Podíl zpráv, jejichž zpracování selže (0 = bez chyb).
+     */
+    void setFailureRate(double failureRate);
+
+    /**
+     * Doba zpracování jedné zprávy v ms.
+     */
+    void setProcessingDelayMs(long delayMs);
+
+    /**
+     * Model zpracování zprávy (sleep, cpu, alloc, downstream).
+     */
+    void setProcessing(ProcessingSpec processing);
+
+    /**
+     * Návrat ke konfiguraci z application.yml.
+     */
+    void resetToDefaults();
+}
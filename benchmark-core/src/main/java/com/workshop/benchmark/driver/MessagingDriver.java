@@ -0,0 +1,40 @@
+package com.workshop.benchmark.driver;
+
+import com.workshop.benchmark.metrics.MetricsEngine;
+
+/**
+ * SPI pro broker - jednotné rozhraní, přes které benchmark runner
+ * posílá stejnou zátěž do RabbitMQ i Kafka.
+ */
+public interface MessagingDriver {
+
+    /**
+     * Název brokeru v reportu (např. "rabbitmq", "kafka").
+     */
+    String getName();
+
+    /**
+     * Odešle jednu zprávu. Může být asynchronní - potvrzení čeká {@link #flush()}.
+     *
+     * @return false pokud broker právě omezuje publikování a zpráva odeslána nebyla -
+     *         generátor ji přeplánuje po {@link #throttleNanos()}, driver nikdy neblokuje
+     */
+    boolean send(long id, String content);
+
+    /**
+     * Za kolik ns má smysl zopakovat odmítnuté odeslání.
+     */
+    default long throttleNanos() {
+        return 0;
+    }
+
+    /**
+     * Počká na potvrzení všech dosud odeslaných zpráv.
+     */
+    void flush();
+
+    /**
+     * Metriky aplikace, ve které driver běží.
+     */
+    MetricsEngine getMetrics();
+}
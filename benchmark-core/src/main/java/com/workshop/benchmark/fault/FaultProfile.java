@@ -0,0 +1,52 @@
+package com.workshop.benchmark.fault;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Porucha sítě, kterou {@link FaultProxy} vkládá mezi aplikaci a broker.
+ *
+ * Zpoždění a jitter platí pro každý směr zvlášť - round-trip se prodlouží zhruba o dvojnásobek.
+ * Propustnost je společná pro všechna spojení v daném směru.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FaultProfile {
+    private String name;
+    /** Zpoždění každého bloku dat v ms (jeden směr). */
+    @Builder.Default
+    private long latencyMs = 0;
+    /** Náhodné zpoždění navíc 0..jitterMs, pořadí bajtů zůstává zachované. */
+    @Builder.Default
+    private long jitterMs = 0;
+    /** Propustnost v B/s pro každý směr, 0 = bez omezení. */
+    @Builder.Default
+    private long bandwidthBytesPerSec = 0;
+    /** Pravděpodobnost, že přeposlání bloku dat spojení shodí (TCP RST). */
+    @Builder.Default
+    private double resetProbability = 0;
+
+    public static FaultProfile none() {
+        return FaultProfile.builder().name("none").build();
+    }
+
+    public boolean isNone() {
+        return latencyMs == 0 && jitterMs == 0 && bandwidthBytesPerSec == 0 && resetProbability == 0;
+    }
+
+    /**
+     * @throws IllegalArgumentException při záporných hodnotách nebo pravděpodobnosti mimo 0..1
+     */
+    public void validate() {
+        if (latencyMs < 0 || jitterMs < 0 || bandwidthBytesPerSec < 0) {
+            throw new IllegalArgumentException("latencyMs, jitterMs a bandwidthBytesPerSec nesmí být záporné");
+        }
+        if (resetProbability < 0 || resetProbability > 1) {
+            throw new IllegalArgumentException("resetProbability musí být 0..1");
+        }
+    }
+}
@@ -0,0 +1,373 @@
+package com.workshop.benchmark.fault;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * TCP proxy mezi aplikací a brokerem, která za běhu vkládá poruchy sítě podle {@link FaultProfile}.
+ *
+ * Každý směr spojení má vlastní čtecí a zapisovací vlákno a mezi nimi omezenou frontu bloků.
+ * Čtecí vlákno bloku přidělí čas doručení (teď + latence + jitter, nejdříve po předchozím bloku),
+ * zapisovací vlákno počká na tento čas a na volnou kapacitu pásma. Latence tak nesnižuje propustnost
+ * jako prosté uspání, plná fronta zpomalí čtení a zachová TCP backpressure.
+ * Reset zavře obě strany s SO_LINGER 0, klient dostane RST.
+ *
+ * Změna profilu platí pro bloky přečtené po změně, navázaná spojení zůstávají.
+ */
+public class FaultProxy implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(FaultProxy.class);
+    private static final int CHUNK_BYTES = 64 * 1024;
+    private static final int QUEUE_CHUNKS = 64;
+    private static final int CONNECT_TIMEOUT_MS = 10_000;
+    private static final Chunk EOF = new Chunk(new byte[0], -1, 0);
+
+    private final int listenPort;
+    private final String targetHost;
+    private final int targetPort;
+    private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+    private final Pacer toBroker = new Pacer();
+    private final Pacer toClient = new Pacer();
+    private final AtomicLong totalConnections = new AtomicLong();
+    private final Counter bytesToBrokerCounter;
+    private final Counter bytesToClientCounter;
+    private final Counter resetsCounter;
+    private volatile FaultProfile profile = FaultProfile.none();
+    private volatile ServerSocket serverSocket;
+    private volatile boolean running;
+
+    public FaultProxy(int listenPort, String targetHost, int targetPort, MeterRegistry meterRegistry, String broker) {
+        this.listenPort = listenPort;
+        this.targetHost = targetHost;
+        this.targetPort = targetPort;
+        
+        this.bytesToBrokerCounter = Counter.builder("fault.proxy.bytes")
+                .description("Bytes forwarded by the fault-injection proxy")
+                .tag("broker", broker)
+                .tag("direction", "to-broker")
+                .register(meterRegistry);
+        this.bytesToClientCounter = Counter.builder("fault.proxy.bytes")
+                .description("Bytes forwarded by the fault-injection proxy")
+                .tag("broker", broker)
+                .tag("direction", "to-client")
+                .register(meterRegistry);
+        this.resetsCounter = Counter.builder("fault.proxy.resets")
+                .description("Proxied connections reset with TCP RST")
+                .tag("broker", broker)
+                .register(meterRegistry);
+        Gauge.builder("fault.proxy.connections", connections, Set::size)
+                .description("Open proxied connections")
+                .tag("broker", broker)
+                .register(meterRegistry);
+        Gauge.builder("fault.proxy.latency", this, proxy -> proxy.profile.getLatencyMs())
+                .description("Injected one-way latency in milliseconds")
+                .tag("broker", broker)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Otevře naslouchací port a začne přijímat spojení.
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        try {
+            ServerSocket socket = new ServerSocket();
+            socket.setReuseAddress(true);
+            socket.bind(new InetSocketAddress(listenPort));
+            serverSocket = socket;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Fault proxy nemůže naslouchat na portu " + listenPort, e);
+        }
+        running = true;
+        daemon("fault-proxy-accept", this::acceptLoop).start();
+        log.info("🔌 Fault proxy :{} -> {}:{}", listenPort, targetHost, targetPort);
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public FaultProfile getProfile() {
+        return profile;
+    }
+
+    /**
+     * @throws IllegalArgumentException při neplatném profilu
+     */
+    public void setProfile(FaultProfile profile) {
+        profile.validate();
+        this.profile = profile;
+        log.info("🔌 Fault profil '{}': latence {} ms ± {} ms, pásmo {} B/s, reset {}", profile.getName(),
+                profile.getLatencyMs(), profile.getJitterMs(), profile.getBandwidthBytesPerSec(),
+                profile.getResetProbability());
+    }
+
+    public void clearProfile() {
+        setProfile(FaultProfile.none());
+    }
+
+    /**
+     * Shodí všechna otevřená spojení (TCP RST), klienti se musí připojit znovu.
+     *
+     * @return počet shozených spojení
+     */
+    public int resetConnections() {
+        int count = 0;
+        for (Connection connection : List.copyOf(connections)) {
+            if (connection.reset()) {
+                count++;
+            }
+        }
+        log.info("🔌 Fault proxy: shozeno {} spojení", count);
+        return count;
+    }
+
+    public FaultProxyStatus getStatus() {
+        return FaultProxyStatus.builder()
+                .running(running)
+                .listen(":" + listenPort)
+                .target(targetHost + ":" + targetPort)
+                .profile(profile)
+                .activeConnections(connections.size())
+                .totalConnections(totalConnections.get())
+                .resets((long) resetsCounter.count())
+                .bytesToBroker((long) bytesToBrokerCounter.count())
+                .bytesToClient((long) bytesToClientCounter.count())
+                .build();
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            Socket client;
+            try {
+                client = serverSocket.accept();
+            } catch (IOException e) {
+                if (running) {
+                    log.warn("⚠ Fault proxy accept selhal: {}", e.getMessage());
+                }
+                continue;
+            }
+            
+            Socket upstream = new Socket();
+            try {
+                client.setTcpNoDelay(true);
+                upstream.setTcpNoDelay(true);
+                upstream.connect(new InetSocketAddress(targetHost, targetPort), CONNECT_TIMEOUT_MS);
+            } catch (IOException e) {
+                log.warn("⚠ Fault proxy se nepřipojí k {}:{}: {}", targetHost, targetPort, e.getMessage());
+                closeQuietly(client);
+                closeQuietly(upstream);
+                continue;
+            }
+            
+            Connection connection = new Connection(totalConnections.incrementAndGet(), client, upstream);
+            connections.add(connection);
+            connection.start();
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        closeQuietly(serverSocket);
+        for (Connection connection : List.copyOf(connections)) {
+            connection.close();
+        }
+    }
+
+    private static Thread daemon(String name, Runnable task) {
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            if (closeable != null) {
+                closeable.close();
+            }
+        } catch (IOException ignored) {
+            // zavíráme, chyba nás nezajímá
+        }
+    }
+
+    private static void parkUntil(long deadlineNanos) throws InterruptedException {
+        long remaining;
+        while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+
+    private record Chunk(byte[] data, int length, long dueNanos) {
+    }
+
+    /**
+     * Společné pásmo jednoho směru - každý blok obsadí linku na length / rychlost.
+     */
+    private static final class Pacer {
+        private long nextFreeNanos;
+        
+        /**
+         * @return čas, kdy je blok "odvysílaný"
+         */
+        synchronized long reserve(int bytes, long bytesPerSec) {
+            long now = System.nanoTime();
+            nextFreeNanos = Math.max(now, nextFreeNanos) + bytes * TimeUnit.SECONDS.toNanos(1) / bytesPerSec;
+            return nextFreeNanos;
+        }
+    }
+
+    private final class Connection {
+        private final long id;
+        private final Socket client;
+        private final Socket upstream;
+        private final List<Thread> threads = new CopyOnWriteArrayList<>();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private final AtomicInteger openDirections = new AtomicInteger(2);
+        
+        Connection(long id, Socket client, Socket upstream) {
+            this.id = id;
+            this.client = client;
+            this.upstream = upstream;
+        }
+        
+        void start() {
+            pipe(client, upstream, toBroker, bytesToBrokerCounter, "to-broker");
+            pipe(upstream, client, toClient, bytesToClientCounter, "to-client");
+            threads.forEach(Thread::start);
+        }
+        
+        private void pipe(Socket from, Socket to, Pacer pacer, Counter bytes, String direction) {
+            BlockingQueue<Chunk> queue = new ArrayBlockingQueue<>(QUEUE_CHUNKS);
+            threads.add(daemon("fault-proxy-" + id + "-" + direction + "-read", () -> read(from, queue)));
+            threads.add(daemon("fault-proxy-" + id + "-" + direction + "-write", () -> write(queue, to, pacer, bytes)));
+        }
+        
+        private void read(Socket from, BlockingQueue<Chunk> queue) {
+            long lastDueNanos = 0;
+            try {
+                InputStream in = from.getInputStream();
+                while (!closed.get()) {
+                    byte[] buffer = new byte[CHUNK_BYTES];
+                    int length = in.read(buffer);
+                    if (length < 0) {
+                        queue.put(EOF);
+                        return;
+                    }
+                    
+                    FaultProfile current = profile;
+                    if (current.getResetProbability() > 0
+                            && ThreadLocalRandom.current().nextDouble() < current.getResetProbability()) {
+                        reset();
+                        return;
+                    }
+                    long delayMs = current.getLatencyMs()
+                            + (current.getJitterMs() > 0 ? ThreadLocalRandom.current().nextLong(current.getJitterMs() + 1) : 0);
+                    // TCP nepřeháže pořadí - blok nepředběhne předchozí ani s menším jitterem
+                    long dueNanos = Math.max(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMs), lastDueNanos);
+                    lastDueNanos = dueNanos;
+                    queue.put(new Chunk(buffer, length, dueNanos));
+                }
+            } catch (IOException | InterruptedException e) {
+                close();
+            }
+        }
+        
+        private void write(BlockingQueue<Chunk> queue, Socket to, Pacer pacer, Counter bytes) {
+            try {
+                OutputStream out = to.getOutputStream();
+                while (!closed.get()) {
+                    Chunk chunk = queue.take();
+                    if (chunk == EOF) {
+                        to.shutdownOutput();
+                        if (openDirections.decrementAndGet() == 0) {
+                            close();
+                        }
+                        return;
+                    }
+                    
+                    parkUntil(chunk.dueNanos());
+                    long bandwidth = profile.getBandwidthBytesPerSec();
+                    if (bandwidth > 0) {
+                        parkUntil(pacer.reserve(chunk.length(), bandwidth));
+                    }
+                    out.write(chunk.data(), 0, chunk.length());
+                    out.flush();
+                    bytes.increment(chunk.length());
+                }
+            } catch (IOException | InterruptedException e) {
+                close();
+            }
+        }
+        
+        /**
+         * @return false, pokud už spojení bylo zavřené
+         */
+        boolean reset() {
+            if (closed.get()) {
+                return false;
+            }
+            try {
+                client.setSoLinger(true, 0);
+                upstream.setSoLinger(true, 0);
+            } catch (IOException ignored) {
+                // socket už je zavřený, RST nepošleme
+            }
+            if (!close()) {
+                return false;
+            }
+            resetsCounter.increment();
+            return true;
+        }
+        
+        /**
+         * @return true, pokud spojení zavřelo toto volání
+         */
+        boolean close() {
+            if (!closed.compareAndSet(false, true)) {
+                return false;
+            }
+            connections.remove(this);
+            closeQuietly(client);
+            closeQuietly(upstream);
+            for (Thread thread : threads) {
+                if (thread != Thread.currentThread()) {
+                    thread.interrupt();
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.workshop.benchmark.fault;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Stav fault proxy a aktuální porucha.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FaultProxyStatus {
+    private boolean running;
+    private String listen;
+    private String target;
+    private FaultProfile profile;
+    private int activeConnections;
+    private long totalConnections;
+    private long resets;
+    private long bytesToBroker;
+    private long bytesToClient;
+}
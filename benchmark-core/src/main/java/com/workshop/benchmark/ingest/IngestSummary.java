@@ -0,0 +1,23 @@
+package com.workshop.benchmark.ingest;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Výsledek hromadného nahrání zpráv.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngestSummary {
+    private long read;
+    private long accepted;
+    private long failed;
+    private double durationSeconds;
+    private double throughputMsgPerSec;
+    /** Chyba, která ukončila čtení (neplatné JSON), jinak null. */
+    private String error;
+}
@@ -0,0 +1,104 @@
+package com.workshop.benchmark.ingest;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Streamované nahrání NDJSON (jedna JSON zpráva na řádek).
+ *
+ * Tělo se čte průběžně Jackson streaming parserem, celé se nikdy nedrží v paměti.
+ * Počet odeslaných a dosud nepotvrzených zpráv omezuje semafor - když broker
+ * nestíhá, čtení se zastaví a zpomalí se upload klienta (TCP backpressure),
+ * místo aby se zprávy hromadily na heapu.
+ */
+public class NdjsonIngester {
+
+    private static final Logger log = LoggerFactory.getLogger(NdjsonIngester.class);
+
+    private final ObjectMapper objectMapper;
+    private final int maxInFlight;
+
+    public NdjsonIngester(ObjectMapper objectMapper, int maxInFlight) {
+        this.objectMapper = objectMapper;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Přečte všechny zprávy ze streamu, odešle je a počká na potvrzení všech.
+     *
+     * @param sender odeslání jedné zprávy, future se dokončí potvrzením brokeru
+     */
+    public <T> IngestSummary ingest(InputStream body, Class<T> type,
+                                    Function<T, CompletableFuture<?>> sender) throws IOException {
+        ObjectReader reader = objectMapper.readerFor(type);
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        AtomicLong accepted = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        long read = 0;
+        String error = null;
+        long startNanos = System.nanoTime();
+        
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            while (true) {
+                T message;
+                try {
+                    if (parser.nextToken() == null) {
+                        break;
+                    }
+                    if (parser.currentToken() != JsonToken.START_OBJECT) {
+                        throw new IllegalArgumentException("očekáván JSON objekt, nalezeno " + parser.currentToken());
+                    }
+                    message = reader.readValue(parser);
+                } catch (JsonProcessingException | IllegalArgumentException e) {
+                    // Za chybou v JSON se nedá spolehlivě navázat - čtení končí, odeslané zprávy platí
+                    error = "Neplatná zpráva na řádku " + parser.currentLocation().getLineNr() + ": "
+                            + e.getMessage().lines().findFirst().orElse("");
+                    failed.incrementAndGet();
+                    break;
+                }
+                read++;
+                
+                inFlight.acquireUninterruptibly();
+                CompletableFuture<?> ack;
+                try {
+                    ack = sender.apply(message);
+                } catch (Exception e) {
+                    ack = CompletableFuture.failedFuture(e);
+                }
+                ack.whenComplete((result, ex) -> {
+                    (ex == null ? accepted : failed).incrementAndGet();
+                    inFlight.release();
+                });
+            }
+        } finally {
+            // Počkáme na potvrzení všech odeslaných zpráv
+            inFlight.acquireUninterruptibly(maxInFlight);
+        }
+        
+        double durationSeconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+        IngestSummary summary = IngestSummary.builder()
+                .read(read)
+                .accepted(accepted.get())
+                .failed(failed.get())
+                .durationSeconds(durationSeconds)
+                .throughputMsgPerSec(durationSeconds > 0 ? accepted.get() / durationSeconds : 0)
+                .error(error)
+                .build();
+        
+        log.info("✓ Ingest: {} přijato, {} selhalo, {} msg/s", summary.getAccepted(), summary.getFailed(),
+                String.format("%.2f", summary.getThroughputMsgPerSec()));
+        return summary;
+    }
+}
@@ -0,0 +1,150 @@
+package com.workshop.benchmark.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Stáhne {@link LatencyHistogramExport} z N instancí a sloučí je do celkových percentilů.
+ *
+ * Exporty se stahují paralelně. Sloučení sčítá počty v odpovídajících bucketech histogramů,
+ * je tedy lineární v počtu instancí a bucketů a nepotřebuje jednotlivé vzorky.
+ */
+public class FleetAggregator {
+
+    private static final Logger log = LoggerFactory.getLogger(FleetAggregator.class);
+    public static final String EXPORT_PATH = "/api/workshop/metrics/histogram";
+
+    private final ObjectMapper objectMapper;
+    private final Duration timeout;
+    private final HttpClient httpClient;
+
+    public FleetAggregator(ObjectMapper objectMapper, Duration timeout) {
+        this.objectMapper = objectMapper;
+        this.timeout = timeout;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(timeout)
+                .build();
+    }
+
+    /**
+     * @param instances základní URL instancí, např. http://host:8082
+     */
+    public FleetSummary aggregate(List<String> instances) {
+        List<CompletableFuture<HttpResponse<byte[]>>> responses = new ArrayList<>(instances.size());
+        for (String instance : instances) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(stripSlash(instance) + EXPORT_PATH))
+                    .timeout(timeout)
+                    .GET()
+                    .build();
+            responses.add(httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray()));
+        }
+        
+        List<LatencyHistogramExport> exports = new ArrayList<>(instances.size());
+        List<String> errors = new ArrayList<>();
+        long payloadBytes = 0;
+        for (int i = 0; i < instances.size(); i++) {
+            try {
+                HttpResponse<byte[]> response = responses.get(i).join();
+                if (response.statusCode() != 200) {
+                    throw new IllegalStateException("HTTP " + response.statusCode());
+                }
+                payloadBytes += response.body().length;
+                exports.add(objectMapper.readValue(response.body(), LatencyHistogramExport.class));
+            } catch (Exception e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                String message = cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+                errors.add(instances.get(i) + ": " + message);
+                log.warn("⚠ Export metrik z {} nelze načíst: {}", instances.get(i), message);
+            }
+        }
+        
+        FleetSummary summary = merge(exports);
+        summary.setInstances(instances.size());
+        summary.setPayloadBytes(payloadBytes);
+        summary.getErrors().addAll(errors);
+        return summary;
+    }
+
+    /**
+     * Sloučí exporty - součty počtů a propustností, percentily ze sloučených histogramů.
+     */
+    public FleetSummary merge(List<LatencyHistogramExport> exports) {
+        long start = System.nanoTime();
+        Histogram producer = LatencyHistograms.empty();
+        Histogram consumer = LatencyHistograms.empty();
+        List<String> brokers = new ArrayList<>();
+        List<String> errors = new ArrayList<>();
+        long produced = 0;
+        long consumed = 0;
+        long failed = 0;
+        double throughput = 0;
+        double consumeThroughput = 0;
+        int merged = 0;
+        
+        for (LatencyHistogramExport export : exports) {
+            // Nejdřív dekódovat oba histogramy - instance se sloučí celá, nebo vůbec
+            Histogram instanceProducer;
+            Histogram instanceConsumer;
+            try {
+                instanceProducer = LatencyHistograms.decode(export.getProducerLatency());
+                instanceConsumer = LatencyHistograms.decode(export.getConsumerLatency());
+            } catch (IllegalArgumentException e) {
+                errors.add(export.getInstance() + ": " + e.getMessage());
+                continue;
+            }
+            producer.add(instanceProducer);
+            consumer.add(instanceConsumer);
+            merged++;
+            produced += export.getProduced();
+            consumed += export.getConsumed();
+            failed += export.getFailed();
+            if (export.getDurationSeconds() > 0) {
+                throughput += export.getProduced() / export.getDurationSeconds();
+                consumeThroughput += export.getConsumed() / export.getDurationSeconds();
+            }
+            if (!brokers.contains(export.getBroker())) {
+                brokers.add(export.getBroker());
+            }
+        }
+        
+        return FleetSummary.builder()
+                .instances(exports.size())
+                .merged(merged)
+                .brokers(brokers)
+                .totalProduced(produced)
+                .totalConsumed(consumed)
+                .totalFailed(failed)
+                .throughputMsgPerSec(throughput)
+                .consumeThroughputMsgPerSec(consumeThroughput)
+                .producerLatency(LatencyStats.fromHistogram(producer))
+                .consumerLatency(LatencyStats.fromHistogram(consumer))
+                .mergeMillis((System.nanoTime() - start) / 1_000_000.0)
+                .errors(errors)
+                .build();
+    }
+
+    /**
+     * @return instance, které nejsou mezi nakonfigurovanými členy flotily (bez ohledu na koncové lomítko)
+     */
+    public static List<String> nonMembers(List<String> instances, List<String> members) {
+        List<String> allowed = members.stream().map(FleetAggregator::stripSlash).toList();
+        return instances.stream()
+                .filter(instance -> !allowed.contains(stripSlash(instance)))
+                .toList();
+    }
+
+    private static String stripSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+}
@@ -0,0 +1,31 @@
+package com.workshop.benchmark.metrics;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Souhrn za všechny instance - percentily ze sloučených histogramů, ne průměr percentilů.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FleetSummary {
+    private int instances;
+    private int merged;
+    private List<String> brokers;
+    private long totalProduced;
+    private long totalConsumed;
+    private long totalFailed;
+    private double throughputMsgPerSec;         // součet propustností instancí (odesláno)
+    private double consumeThroughputMsgPerSec;  // součet propustností instancí (zpracováno)
+    private LatencyStats producerLatency;
+    private LatencyStats consumerLatency;
+    private long payloadBytes;                  // velikost stažených exportů
+    private double mergeMillis;
+    private List<String> errors;
+}
@@ -0,0 +1,27 @@
+package com.workshop.benchmark.metrics;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Export latencí jedné instance od posledního resetu ve tvaru, který lze sloučit s ostatními instancemi.
+ *
+ * Histogramy jsou HdrHistogram (µs, 3 platné číslice) komprimované a v Base64 - typicky jednotky kB.
+ * Percentily z nich nelze průměrovat, histogramy ale sčítat ano.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LatencyHistogramExport {
+    private String instance;            // pid@host
+    private String broker;
+    private double durationSeconds;
+    private long produced;
+    private long consumed;
+    private long failed;
+    private String producerLatency;
+    private String consumerLatency;
+}
@@ -0,0 +1,51 @@
+package com.workshop.benchmark.metrics;
+
+import org.HdrHistogram.AbstractHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.zip.DataFormatException;
+
+/**
+ * Serializace histogramů latence pro {@link LatencyHistogramExport}.
+ */
+public final class LatencyHistograms {
+
+    /** Platné číslice - relativní chyba hodnot nejvýše 0,1 %. */
+    public static final int SIGNIFICANT_DIGITS = 3;
+
+    private LatencyHistograms() {
+    }
+
+    /**
+     * Prázdný histogram, který se při slučování sám rozšíří na potřebný rozsah.
+     */
+    public static Histogram empty() {
+        Histogram histogram = new Histogram(SIGNIFICANT_DIGITS);
+        histogram.setAutoResize(true);
+        return histogram;
+    }
+
+    public static String encode(AbstractHistogram histogram) {
+        ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+        return Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), length));
+    }
+
+    /**
+     * @throws IllegalArgumentException pokud data nejsou komprimovaný HdrHistogram
+     */
+    public static Histogram decode(String encoded) {
+        if (encoded == null || encoded.isEmpty()) {
+            return empty();
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Base64.getDecoder().decode(encoded));
+            return Histogram.decodeFromCompressedByteBuffer(buffer, 0);
+        } catch (DataFormatException | RuntimeException e) {
+            throw new IllegalArgumentException("Neplatný histogram latence: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.workshop.benchmark.metrics;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.HdrHistogram.AbstractHistogram;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LatencyStats {
+    private double avgMs;
+    private double minMs;
+    private double maxMs;
+    private double p50Ms;
+    private double p95Ms;
+    private double p99Ms;
+
+    /**
+     * Výpočet statistik ze vzorků latence v nanosekundách.
+     */
+    public static LatencyStats fromNanos(List<Long> latencies) {
+        if (latencies.isEmpty()) {
+            return new LatencyStats(0, 0, 0, 0, 0, 0);
+        }
+        
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        
+        long sum = sorted.stream().mapToLong(Long::longValue).sum();
+        double avgNanos = (double) sum / sorted.size();
+        long minNanos = sorted.get(0);
+        long maxNanos = sorted.get(sorted.size() - 1);
+        
+        long p50Nanos = sorted.get(sorted.size() / 2);
+        long p95Nanos = sorted.get((int) (sorted.size() * 0.95));
+        long p99Nanos = sorted.get((int) (sorted.size() * 0.99));
+        
+        return new LatencyStats(
+                avgNanos / 1_000_000.0,  // Convert to ms
+                minNanos / 1_000_000.0,
+                maxNanos / 1_000_000.0,
+                p50Nanos / 1_000_000.0,
+                p95Nanos / 1_000_000.0,
+                p99Nanos / 1_000_000.0
+        );
+    }
+
+    /**
+     * Výpočet statistik z prvních count vzorků pole (pole se seřadí na místě, bez boxingu).
+     */
+    public static LatencyStats fromNanos(long[] latencies, int count) {
+        if (count == 0) {
+            return new LatencyStats(0, 0, 0, 0, 0, 0);
+        }
+        
+        Arrays.sort(latencies, 0, count);
+        long sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum += latencies[i];
+        }
+        
+        return new LatencyStats(
+                (double) sum / count / 1_000_000.0,
+                latencies[0] / 1_000_000.0,
+                latencies[count - 1] / 1_000_000.0,
+                latencies[count / 2] / 1_000_000.0,
+                latencies[(int) (count * 0.95)] / 1_000_000.0,
+                latencies[(int) (count * 0.99)] / 1_000_000.0
+        );
+    }
+
+    /**
+     * Výpočet statistik z histogramu latencí v mikrosekundách (přesnost podle platných číslic histogramu).
+     */
+    public static LatencyStats fromHistogram(AbstractHistogram histogram) {
+        if (histogram.getTotalCount() == 0) {
+            return new LatencyStats(0, 0, 0, 0, 0, 0);
+        }
+        
+        return new LatencyStats(
+                histogram.getMean() / 1_000.0,
+                histogram.getMinValue() / 1_000.0,
+                histogram.getMaxValue() / 1_000.0,
+                histogram.getValueAtPercentile(50) / 1_000.0,
+                histogram.getValueAtPercentile(95) / 1_000.0,
+                histogram.getValueAtPercentile(99) / 1_000.0
+        );
+    }
+}
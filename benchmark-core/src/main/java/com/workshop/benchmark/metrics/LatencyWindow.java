@@ -0,0 +1,42 @@
+package com.workshop.benchmark.metrics;
+
+import java.util.Arrays;
+
+/**
+ * Vzorky latence za jeden interval živých metrik.
+ * Primitivní pole bez boxingu, při výběru se vymění za prázdné.
+ */
+class LatencyWindow {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int MAX_SAMPLES = 1 << 20;
+
+    private long[] samples = new long[INITIAL_CAPACITY];
+    private int count;
+
+    synchronized void record(long latencyNanos) {
+        if (count == samples.length) {
+            if (count >= MAX_SAMPLES) {
+                // Strop paměti - při extrémní propustnosti se zbytek intervalu nevzorkuje
+                return;
+            }
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = latencyNanos;
+    }
+
+    /**
+     * Statistiky za uplynulý interval a začátek nového.
+     */
+    LatencyStats drain() {
+        long[] drained;
+        int drainedCount;
+        synchronized (this) {
+            drained = samples;
+            drainedCount = count;
+            samples = new long[Math.max(INITIAL_CAPACITY, Math.min(MAX_SAMPLES, drainedCount))];
+            count = 0;
+        }
+        return LatencyStats.fromNanos(drained, drainedCount);
+    }
+}
@@ -0,0 +1,225 @@
+package com.workshop.benchmark.metrics;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Živý stream metrik pro libovolný počet odběratelů.
+ *
+ * Snapshot se počítá a serializuje jednou za interval a stejný JSON dostanou
+ * všichni odběratelé - cena monitoringu nezávisí na počtu připojených dashboardů.
+ * Bez odběratelů se nic nepočítá ani nesbírá.
+ *
+ * Odesílání běží mimo vlákno výpočtu na omezeném poolu, každý odběratel má nejvýš jedno
+ * rozpracované odeslání a čekající snapshot nahradí novější. Pomalý klient tak ostatní
+ * nezdrží - jen přijde o mezilehlé snapshoty, a když jedno odeslání trvá déle než
+ * sendTimeoutMs, je odpojen.
+ */
+public class LiveMetricsPublisher implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(LiveMetricsPublisher.class);
+    private static final int SENDER_THREADS = 4;
+
+    private final MetricsEngine metrics;
+    private final LongSupplier brokerDepth;
+    private final ObjectMapper objectMapper;
+    private final long sendTimeoutNanos;
+    private final List<Subscription> subscribers = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService ticker;
+    private final ExecutorService senders;
+
+    private long lastTickNanos;
+    private long lastProduced;
+    private long lastConsumed;
+    private long lastFailed;
+
+    /**
+     * @param brokerDepth hloubka fronty / lag podle brokeru, -1 pokud není k dispozici
+     * @param sendTimeoutMs jak dlouho smí trvat odeslání jednomu odběrateli, než je odpojen
+     */
+    public LiveMetricsPublisher(MetricsEngine metrics, LongSupplier brokerDepth, ObjectMapper objectMapper,
+                                long intervalMs, long sendTimeoutMs) {
+        this.metrics = metrics;
+        this.brokerDepth = brokerDepth;
+        this.objectMapper = objectMapper;
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        this.ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "live-metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.senders = Executors.newFixedThreadPool(SENDER_THREADS, r -> {
+            Thread thread = new Thread(r, "live-metrics-send");
+            thread.setDaemon(true);
+            return thread;
+        });
+        resetBaseline();
+        ticker.scheduleAtFixedRate(this::tickQuietly, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Přihlásí odběratele JSON snapshotů.
+     *
+     * @param onDropped ukončení spojení odběratele, kterého odpojil timeout odeslání
+     * @return odhlášení
+     */
+    public Runnable subscribe(Consumer<String> subscriber, Runnable onDropped) {
+        Subscription subscription = new Subscription(subscriber, onDropped);
+        subscribers.add(subscription);
+        metrics.setLiveWindowsEnabled(true);
+        return () -> unsubscribe(subscription);
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @Override
+    public void close() {
+        ticker.shutdownNow();
+        senders.shutdownNow();
+        subscribers.clear();
+        metrics.setLiveWindowsEnabled(false);
+    }
+
+    private void unsubscribe(Subscription subscription) {
+        subscription.active = false;
+        subscribers.remove(subscription);
+        if (subscribers.isEmpty()) {
+            metrics.setLiveWindowsEnabled(false);
+        }
+    }
+
+    private void tickQuietly() {
+        try {
+            tick();
+        } catch (Exception e) {
+            log.error("Chyba výpočtu živých metrik: {}", e.getMessage());
+        }
+    }
+
+    private void tick() throws JsonProcessingException {
+        if (subscribers.isEmpty()) {
+            resetBaseline();
+            return;
+        }
+        
+        String json = objectMapper.writeValueAsString(snapshot());
+        long now = System.nanoTime();
+        for (Subscription subscription : subscribers) {
+            long sendingSince = subscription.sendingSinceNanos;
+            if (sendingSince != 0 && now - sendingSince > sendTimeoutNanos) {
+                drop(subscription);
+            } else {
+                subscription.offer(json);
+            }
+        }
+    }
+
+    /**
+     * Odpojí odběratele se zaseknutým odesláním. Ukončení spojení běží ve vlastním vlákně -
+     * může čekat na stejný zámek jako zaseknuté odeslání.
+     */
+    private void drop(Subscription subscription) {
+        unsubscribe(subscription);
+        log.warn("⚠ Odběratel živých metrik neodebírá déle než {} ms, odpojen",
+                TimeUnit.NANOSECONDS.toMillis(sendTimeoutNanos));
+        Thread closer = new Thread(subscription.onDropped, "live-metrics-drop");
+        closer.setDaemon(true);
+        closer.start();
+    }
+
+    private MetricsSnapshot snapshot() {
+        long now = System.nanoTime();
+        long produced = metrics.getProducedCount();
+        long consumed = metrics.getConsumedCount();
+        long failed = metrics.getFailedCount();
+        double intervalSeconds = (now - lastTickNanos) / 1_000_000_000.0;
+        
+        MetricsSnapshot snapshot = MetricsSnapshot.builder()
+                .broker(metrics.getBroker())
+                .timestamp(System.currentTimeMillis())
+                .intervalSeconds(intervalSeconds)
+                .producedPerSec((produced - lastProduced) / intervalSeconds)
+                .consumedPerSec((consumed - lastConsumed) / intervalSeconds)
+                .failedPerSec((failed - lastFailed) / intervalSeconds)
+                .producerLatency(metrics.drainProducerWindow())
+                .consumerLatency(metrics.drainConsumerWindow())
+                .backlog(Math.max(0, produced - consumed - failed))
+                .brokerDepth(brokerDepth.getAsLong())
+                .build();
+        
+        lastTickNanos = now;
+        lastProduced = produced;
+        lastConsumed = consumed;
+        lastFailed = failed;
+        return snapshot;
+    }
+
+    private void resetBaseline() {
+        lastTickNanos = System.nanoTime();
+        lastProduced = metrics.getProducedCount();
+        lastConsumed = metrics.getConsumedCount();
+        lastFailed = metrics.getFailedCount();
+    }
+
+    /**
+     * Doručování jednomu odběrateli - nejvýš jedno odeslání v poolu, čeká jen nejnovější snapshot.
+     */
+    private final class Subscription {
+
+        private final Consumer<String> subscriber;
+        private final Runnable onDropped;
+        private final AtomicReference<String> pending = new AtomicReference<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile long sendingSinceNanos;
+        private volatile boolean active = true;
+        
+        Subscription(Consumer<String> subscriber, Runnable onDropped) {
+            this.subscriber = subscriber;
+            this.onDropped = onDropped;
+        }
+        
+        void offer(String json) {
+            pending.set(json);
+            if (scheduled.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+        
+        private void drain() {
+            try {
+                String json;
+                while (active && (json = pending.getAndSet(null)) != null) {
+                    sendingSinceNanos = System.nanoTime();
+                    subscriber.accept(json);
+                    sendingSinceNanos = 0;
+                }
+            } catch (Exception e) {
+                // Odpojený klient
+                unsubscribe(this);
+            } finally {
+                sendingSinceNanos = 0;
+                scheduled.set(false);
+            }
+            // Snapshot přišel mezi posledním čtením a uvolněním
+            if (active && pending.get() != null && scheduled.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+    }
+}
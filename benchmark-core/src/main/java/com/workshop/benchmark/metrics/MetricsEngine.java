@@ -0,0 +1,286 @@
+package com.workshop.benchmark.metrics;
+
+import com.workshop.benchmark.profiling.HotMethod;
+import com.workshop.benchmark.profiling.JfrReport;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Společné měření výkonu messaging operací pro všechny brokery.
+ *
+ * Countery v Micrometeru zůstávají monotónní (Prometheus), souhrn
+ * {@link #getSummary()} ale počítá jen zprávy od posledního resetu.
+ */
+public class MetricsEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(MetricsEngine.class);
+
+    protected final MeterRegistry meterRegistry;
+    protected final String broker;
+    private final List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+    private volatile long startTime;
+
+    private final Counter messagesProducedCounter;
+    private final Counter messagesConsumedCounter;
+    private final Counter messagesFailedCounter;
+    private final Timer producerLatencyTimer;
+    private final Timer consumerLatencyTimer;
+
+    // Okna pro živé metriky - plní se jen, když je někdo odebírá
+    private final LatencyWindow producerWindow = new LatencyWindow();
+    private final LatencyWindow consumerWindow = new LatencyWindow();
+    private volatile boolean liveWindowsEnabled;
+
+    // Mergeovatelné histogramy (µs) od posledního resetu - export pro agregaci přes instance
+    private final Histogram producerHistogram = new ConcurrentHistogram(LatencyHistograms.SIGNIFICANT_DIGITS);
+    private final Histogram consumerHistogram = new ConcurrentHistogram(LatencyHistograms.SIGNIFICANT_DIGITS);
+
+    private volatile JfrReport profile;
+
+    // Start instance - uptime JVM v ms při připravenosti a první zpracované zprávě
+    private volatile long readyUptimeMs = -1;
+    private volatile long firstConsumedUptimeMs = -1;
+
+    private volatile long producedAtReset;
+    private volatile long consumedAtReset;
+    private volatile long failedAtReset;
+
+    public MetricsEngine(MeterRegistry meterRegistry, String broker) {
+        this.meterRegistry = meterRegistry;
+        this.broker = broker;
+        this.startTime = System.currentTimeMillis();
+        
+        // Inicializace counterů
+        this.messagesProducedCounter = Counter.builder("messages.produced")
+                .description("Total number of messages produced")
+                .tag("broker", broker)
+                .register(meterRegistry);
+        
+        this.messagesConsumedCounter = Counter.builder("messages.consumed")
+                .description("Total number of messages consumed")
+                .tag("broker", broker)
+                .register(meterRegistry);
+        
+        this.messagesFailedCounter = Counter.builder("messages.failed")
+                .description("Total number of failed messages")
+                .tag("broker", broker)
+                .register(meterRegistry);
+        
+        // Inicializace timerů
+        this.producerLatencyTimer = Timer.builder("messages.producer.latency")
+                .description("Producer latency")
+                .tag("broker", broker)
+                .register(meterRegistry);
+        
+        this.consumerLatencyTimer = Timer.builder("messages.consumer.latency")
+                .description("Consumer latency")
+                .tag("broker", broker)
+                .register(meterRegistry);
+    }
+
+    public void recordMessageProduced(long latencyNanos) {
+        messagesProducedCounter.increment();
+        producerLatencyTimer.record(latencyNanos, TimeUnit.NANOSECONDS);
+        latencies.add(latencyNanos);
+        producerHistogram.recordValue(Math.max(0, latencyNanos / 1000));
+        if (liveWindowsEnabled) {
+            producerWindow.record(latencyNanos);
+        }
+    }
+
+    public void recordMessageConsumed(long latencyNanos) {
+        if (firstConsumedUptimeMs < 0) {
+            firstConsumedUptimeMs = ManagementFactory.getRuntimeMXBean().getUptime();
+            log.info("⏱ První zpráva zpracována {} ms od startu JVM", firstConsumedUptimeMs);
+        }
+        messagesConsumedCounter.increment();
+        consumerLatencyTimer.record(latencyNanos, TimeUnit.NANOSECONDS);
+        consumerHistogram.recordValue(Math.max(0, latencyNanos / 1000));
+        if (liveWindowsEnabled) {
+            consumerWindow.record(latencyNanos);
+        }
+    }
+
+    public void recordMessageFailed() {
+        messagesFailedCounter.increment();
+    }
+
+    /**
+     * Celkový počet zpracovaných zpráv od startu aplikace.
+     */
+    public long getConsumedCount() {
+        return (long) messagesConsumedCounter.count();
+    }
+
+    public long getProducedCount() {
+        return (long) messagesProducedCounter.count();
+    }
+
+    public long getFailedCount() {
+        return (long) messagesFailedCounter.count();
+    }
+
+    public String getBroker() {
+        return broker;
+    }
+
+    /**
+     * Označí připravenost aplikace (ApplicationReadyEvent).
+     */
+    public void markReady() {
+        readyUptimeMs = ManagementFactory.getRuntimeMXBean().getUptime();
+    }
+
+    /**
+     * Doba startu - do připravenosti a do první zpracované zprávy.
+     */
+    public StartupReport getStartupReport(boolean aotEnabled, boolean lazyInitialization) {
+        boolean cds = ManagementFactory.getRuntimeMXBean().getInputArguments().stream()
+                .anyMatch(argument -> argument.startsWith("-XX:SharedArchiveFile"));
+        return StartupReport.builder()
+                .broker(broker)
+                .jvmToReadyMs(readyUptimeMs)
+                .jvmToFirstMessageConsumedMs(firstConsumedUptimeMs)
+                .aotEnabled(aotEnabled)
+                .lazyInitialization(lazyInitialization)
+                .cdsArchive(cds)
+                .build();
+    }
+
+    /**
+     * Zapne/vypne sběr latencí pro živé metriky.
+     */
+    public void setLiveWindowsEnabled(boolean enabled) {
+        this.liveWindowsEnabled = enabled;
+    }
+
+    /**
+     * Percentily latence producera od posledního volání.
+     */
+    public LatencyStats drainProducerWindow() {
+        return producerWindow.drain();
+    }
+
+    /**
+     * Percentily latence consumera od posledního volání.
+     */
+    public LatencyStats drainConsumerWindow() {
+        return consumerWindow.drain();
+    }
+
+    public double getDurationSeconds() {
+        return (System.currentTimeMillis() - startTime) / 1000.0;
+    }
+
+    public void resetStartTime() {
+        this.producedAtReset = (long) messagesProducedCounter.count();
+        this.consumedAtReset = (long) messagesConsumedCounter.count();
+        this.failedAtReset = (long) messagesFailedCounter.count();
+        this.startTime = System.currentTimeMillis();
+        this.latencies.clear();
+        this.producerHistogram.reset();
+        this.consumerHistogram.reset();
+        this.profile = null;
+    }
+
+    /**
+     * Počty a histogramy latence od posledního resetu pro slučování s ostatními instancemi.
+     */
+    public LatencyHistogramExport exportHistograms() {
+        return LatencyHistogramExport.builder()
+                .instance(ManagementFactory.getRuntimeMXBean().getName())
+                .broker(broker)
+                .durationSeconds(getDurationSeconds())
+                .produced((long) messagesProducedCounter.count() - producedAtReset)
+                .consumed((long) messagesConsumedCounter.count() - consumedAtReset)
+                .failed((long) messagesFailedCounter.count() - failedAtReset)
+                .producerLatency(LatencyHistograms.encode(producerHistogram.copy()))
+                .consumerLatency(LatencyHistograms.encode(consumerHistogram.copy()))
+                .build();
+    }
+
+    /**
+     * JFR report běhu, který se zahrne do souhrnu.
+     */
+    public void setProfile(JfrReport profile) {
+        this.profile = profile;
+    }
+
+    public PerformanceSummary getSummary() {
+        double durationSeconds = getDurationSeconds();
+        
+        long produced = (long) messagesProducedCounter.count() - producedAtReset;
+        long consumed = (long) messagesConsumedCounter.count() - consumedAtReset;
+        long failed = (long) messagesFailedCounter.count() - failedAtReset;
+        
+        double throughput = durationSeconds > 0 ? produced / durationSeconds : 0;
+        double successRate = produced > 0 ? (consumed * 100.0 / produced) : 0;
+        
+        LatencyStats latencyStats = LatencyStats.fromNanos(latencies);
+        
+        return PerformanceSummary.builder()
+                .totalProduced(produced)
+                .totalConsumed(consumed)
+                .totalFailed(failed)
+                .durationSeconds(durationSeconds)
+                .throughputMsgPerSec(throughput)
+                .successRatePercent(successRate)
+                .latencyStats(latencyStats)
+                .profile(profile)
+                .build();
+    }
+
+    public void printSummary(String title) {
+        PerformanceSummary summary = getSummary();
+        
+        log.info("=".repeat(60));
+        log.info("{}", title);
+        log.info("=".repeat(60));
+        log.info("Celkem odesláno:     {}", summary.getTotalProduced());
+        log.info("Celkem zpracováno:   {}", summary.getTotalConsumed());
+        log.info("Celkem selhalo:      {}", summary.getTotalFailed());
+        log.info("Doba běhu:           {} s", format(summary.getDurationSeconds()));
+        log.info("Propustnost:         {} msg/s", format(summary.getThroughputMsgPerSec()));
+        log.info("Úspěšnost:           {} %", format(summary.getSuccessRatePercent()));
+        log.info("");
+        log.info("Latence (ms):");
+        log.info("  Průměrná:          {}", format(summary.getLatencyStats().getAvgMs()));
+        log.info("  Minimální:         {}", format(summary.getLatencyStats().getMinMs()));
+        log.info("  Maximální:         {}", format(summary.getLatencyStats().getMaxMs()));
+        log.info("  P50 (medián):      {}", format(summary.getLatencyStats().getP50Ms()));
+        log.info("  P95:               {}", format(summary.getLatencyStats().getP95Ms()));
+        log.info("  P99:               {}", format(summary.getLatencyStats().getP99Ms()));
+        
+        JfrReport profile = summary.getProfile();
+        if (profile != null && profile.getError() == null) {
+            log.info("");
+            log.info("JFR profil:");
+            log.info("  GC pauzy:          {}x, celkem {} ms, max {} ms", profile.getGcCount(),
+                    format(profile.getGcPauseTotalMs()), format(profile.getGcPauseMaxMs()));
+            log.info("  Alokace/zpráva:    {} B", format(profile.getAllocatedBytesPerMessage()));
+            if (profile.getVirtualThreadPinnedCount() > 0) {
+                log.info("  Pinning VT:        {}x", profile.getVirtualThreadPinnedCount());
+            }
+            for (HotMethod method : profile.getHotMethods().subList(0, Math.min(3, profile.getHotMethods().size()))) {
+                log.info("  Hot metoda:        {} ({} %)", method.getMethod(), format(method.getPercent()));
+            }
+            log.info("  Záznam:            {}", profile.getRecordingFile());
+        }
+        log.info("=".repeat(60));
+    }
+
+    private static String format(double value) {
+        return String.format("%.2f", value);
+    }
+}
@@ -0,0 +1,30 @@
+package com.workshop.benchmark.metrics;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Kompaktní přírůstek metrik za jeden interval živého streamu.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MetricsSnapshot {
+    private String broker;
+    private long timestamp;
+    private double intervalSeconds;
+    private double producedPerSec;
+    private double consumedPerSec;
+    private double failedPerSec;
+    /** Percentily latence producera za interval. */
+    private LatencyStats producerLatency;
+    /** Percentily latence consumera za interval. */
+    private LatencyStats consumerLatency;
+    /** Odeslané a dosud nezpracované zprávy (podle čítačů aplikace). */
+    private long backlog;
+    /** Hloubka fronty / lag consumer group podle brokeru, -1 pokud není k dispozici. */
+    private long brokerDepth;
+}
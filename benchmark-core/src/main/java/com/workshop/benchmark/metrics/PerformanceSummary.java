@@ -1,5 +1,6 @@
-package com.workshop.kafka.metrics;
+package com.workshop.benchmark.metrics;
 
+import com.workshop.benchmark.profiling.JfrReport;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -17,5 +18,6 @@ public class PerformanceSummary {
     private double throughputMsgPerSec;
     private double successRatePercent;
     private LatencyStats latencyStats;
+    private JfrReport profile;          // JFR report posledního běhu, null bez profilování
 }
 
@@ -0,0 +1,22 @@
+package com.workshop.benchmark.metrics;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Doba startu instance měřená od startu JVM (-1 = ještě nenastalo).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StartupReport {
+    private String broker;
+    private long jvmToReadyMs;
+    private long jvmToFirstMessageConsumedMs;
+    private boolean aotEnabled;
+    private boolean lazyInitialization;
+    private boolean cdsArchive;
+}
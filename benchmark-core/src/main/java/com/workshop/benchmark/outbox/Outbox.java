@@ -0,0 +1,201 @@
+package com.workshop.benchmark.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outbox tabulka v relační databázi.
+ *
+ * Zprávy se vkládají spojením volajícího, takže se potvrdí nebo odvolají spolu
+ * s jeho transakcí. {@link OutboxRelay} tabulku čte v pořadí id a odeslané řádky maže.
+ *
+ * Id přiděluje sekvence při vložení, ale transakce se mohou potvrdit v jiném pořadí -
+ * relay proto maže přesně přečtené řádky, ne rozsah id, a později potvrzený řádek
+ * s nižším id najde při dalším čtení.
+ *
+ * Řádky, které relay nedokáže přečíst, přesouvá do tabulky {@code <table>_poison}
+ * i s chybou - outbox za nimi nestojí a zůstanou k ruční kontrole.
+ */
+public class Outbox {
+
+    private static final Logger log = LoggerFactory.getLogger(Outbox.class);
+
+    private final DataSource dataSource;
+    private final String table;
+    private final String poisonTable;
+    private final String insertSql;
+    private final String pollSql;
+    private final String deleteSql;
+    private final String statsSql;
+    private final String poisonSql;
+    private final Counter writtenCounter;
+
+    public Outbox(DataSource dataSource, String table, MeterRegistry meterRegistry, String broker) throws SQLException {
+        this.dataSource = dataSource;
+        this.table = table;
+        this.poisonTable = table + "_poison";
+        this.insertSql = "INSERT INTO " + table + " (payload, created_at) VALUES (?, ?)";
+        this.pollSql = "SELECT id, payload, created_at FROM " + table + " ORDER BY id FETCH FIRST ? ROWS ONLY";
+        this.deleteSql = "DELETE FROM " + table + " WHERE id = ?";
+        // Nejnižší id místo MIN(created_at) - čte se z primárního indexu, ne celá tabulka
+        this.statsSql = "SELECT COUNT(*), (SELECT created_at FROM " + table + " ORDER BY id FETCH FIRST 1 ROW ONLY) FROM " + table;
+        this.poisonSql = "INSERT INTO " + poisonTable + " (id, payload, created_at, error) VALUES (?, ?, ?, ?)";
+        createTable();
+        
+        this.writtenCounter = Counter.builder("outbox.written")
+                .description("Messages inserted into the outbox, including inserts later rolled back by the caller")
+                .tag("broker", broker)
+                .register(meterRegistry);
+        
+        Gauge.builder("outbox.depth", this, Outbox::getDepth)
+                .description("Outbox rows not yet relayed to the broker")
+                .tag("broker", broker)
+                .register(meterRegistry);
+        
+        Gauge.builder("outbox.relay.lag", this, Outbox::getLagMs)
+                .description("Age of the oldest outbox row not yet relayed to the broker")
+                .baseUnit("milliseconds")
+                .tag("broker", broker)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Vloží zprávy spojením volajícího - transakci potvrzuje volající.
+     */
+    public void append(Connection connection, List<byte[]> payloads) throws SQLException {
+        long now = System.currentTimeMillis();
+        try (PreparedStatement insert = connection.prepareStatement(insertSql)) {
+            for (byte[] payload : payloads) {
+                insert.setBytes(1, payload);
+                insert.setLong(2, now);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+        writtenCounter.increment(payloads.size());
+    }
+
+    /**
+     * Nejstarší řádky v pořadí id.
+     */
+    public List<OutboxRecord> poll(int max) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement select = connection.prepareStatement(pollSql)) {
+            select.setInt(1, max);
+            List<OutboxRecord> records = new ArrayList<>(max);
+            try (ResultSet rs = select.executeQuery()) {
+                while (rs.next()) {
+                    records.add(new OutboxRecord(rs.getLong(1), rs.getBytes(2), rs.getLong(3)));
+                }
+            }
+            return records;
+        }
+    }
+
+    /**
+     * Smaže odeslané řádky jedním dávkovým příkazem v jedné transakci.
+     */
+    public void delete(List<OutboxRecord> records) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement delete = connection.prepareStatement(deleteSql)) {
+                for (OutboxRecord record : records) {
+                    delete.setLong(1, record.getId());
+                    delete.addBatch();
+                }
+                delete.executeBatch();
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * Přesune nečitelný řádek do tabulky poison v jedné transakci.
+     */
+    public void quarantine(OutboxRecord record, String error) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement insert = connection.prepareStatement(poisonSql);
+                 PreparedStatement delete = connection.prepareStatement(deleteSql)) {
+                insert.setLong(1, record.getId());
+                insert.setBytes(2, record.getPayload());
+                insert.setLong(3, record.getCreatedAtMillis());
+                insert.setString(4, error);
+                insert.executeUpdate();
+                delete.setLong(1, record.getId());
+                delete.executeUpdate();
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    public String getPoisonTable() {
+        return poisonTable;
+    }
+
+    public long getWrittenCount() {
+        return (long) writtenCounter.count();
+    }
+
+    public long getDepth() {
+        return stats()[0];
+    }
+
+    /**
+     * Stáří nejstaršího neodeslaného řádku v ms (0 = outbox je prázdný).
+     */
+    public long getLagMs() {
+        long oldest = stats()[1];
+        return oldest > 0 ? System.currentTimeMillis() - oldest : 0;
+    }
+
+    private long[] stats() {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(statsSql)) {
+            rs.next();
+            return new long[] {rs.getLong(1), rs.getLong(2)};
+        } catch (SQLException e) {
+            log.debug("Stav outboxu nelze načíst: {}", e.getMessage());
+            return new long[] {0, 0};
+        }
+    }
+
+    private void createTable() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS " + table + " ("
+                    + "id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                    + "payload VARBINARY NOT NULL, "
+                    + "created_at BIGINT NOT NULL)");
+            statement.execute("CREATE TABLE IF NOT EXISTS " + poisonTable + " ("
+                    + "id BIGINT PRIMARY KEY, "
+                    + "payload VARBINARY NOT NULL, "
+                    + "created_at BIGINT NOT NULL, "
+                    + "error VARCHAR)");
+        }
+        log.info("✓ Outbox tabulka {} připravena", table);
+    }
+}
@@ -0,0 +1,13 @@
+package com.workshop.benchmark.outbox;
+
+import lombok.Value;
+
+/**
+ * Řádek outbox tabulky čekající na odeslání do brokeru.
+ */
+@Value
+public class OutboxRecord {
+    long id;
+    byte[] payload;
+    long createdAtMillis;
+}
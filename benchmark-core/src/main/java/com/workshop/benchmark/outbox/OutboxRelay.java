@@ -0,0 +1,224 @@
+package com.workshop.benchmark.outbox;
+
+import com.workshop.benchmark.batch.MicroBatcher;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Relay z outbox tabulky do brokeru.
+ *
+ * Jedno vlákno čte outbox v pořadí id po dávkách batchSize, celou dávku předá
+ * {@link MicroBatcher.BatchSink} a počká na potvrzení brokeru (acks=all / publisher confirms).
+ * Potvrzený začátek dávky se smaže jedním dávkovým příkazem, zbytek se zkusí znovu po retryBackoff.
+ * Řádek, který decoder nepřečte, se přesune stranou ({@link Outbox#quarantine}), aby dávku neblokoval.
+ *
+ * Doručení je at-least-once - po pádu mezi potvrzením a smazáním se dávka odešle znovu.
+ *
+ * @param <T> typ zprávy pro broker
+ */
+public class OutboxRelay<T> implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final Outbox outbox;
+    private final Function<byte[], T> decoder;
+    private final MicroBatcher.BatchSink<T> sink;
+    private final int batchSize;
+    private final long pollIntervalMs;
+    private final long ackTimeoutMs;
+    private final long retryBackoffMs;
+    private final Thread relay;
+    private volatile boolean running = true;
+    private volatile String state = "IDLE";
+    private volatile String lastError;
+    private volatile long drainStartNanos;
+    private volatile long drainRelayed;
+
+    private final Counter relayedCounter;
+    private final Counter poisonCounter;
+    private final DistributionSummary batchSizeSummary;
+    private final Timer batchTimer;
+
+    public OutboxRelay(String name, Outbox outbox, Function<byte[], T> decoder, MicroBatcher.BatchSink<T> sink,
+                       int batchSize, long pollIntervalMs, long ackTimeoutMs, long retryBackoffMs,
+                       MeterRegistry meterRegistry, String broker) {
+        this.outbox = outbox;
+        this.decoder = decoder;
+        this.sink = sink;
+        this.batchSize = batchSize;
+        this.pollIntervalMs = pollIntervalMs;
+        this.ackTimeoutMs = ackTimeoutMs;
+        this.retryBackoffMs = retryBackoffMs;
+        
+        this.relayedCounter = Counter.builder("outbox.relayed")
+                .description("Outbox rows acknowledged by the broker and deleted")
+                .tag("broker", broker)
+                .register(meterRegistry);
+        
+        this.poisonCounter = Counter.builder("outbox.poison")
+                .description("Outbox rows that could not be decoded and were moved to the poison table")
+                .tag("broker", broker)
+                .register(meterRegistry);
+        
+        this.batchSizeSummary = DistributionSummary.builder("outbox.relay.batch.size")
+                .description("Outbox rows per relay batch")
+                .tag("broker", broker)
+                .register(meterRegistry);
+        
+        this.batchTimer = Timer.builder("outbox.relay.batch")
+                .description("Time to read, publish, confirm and delete one relay batch")
+                .tag("broker", broker)
+                .register(meterRegistry);
+        
+        this.relay = new Thread(this::run, name);
+        relay.setDaemon(true);
+        relay.start();
+    }
+
+    public OutboxStatus getStatus() {
+        long elapsedNanos = System.nanoTime() - drainStartNanos;
+        return OutboxStatus.builder()
+                .enabled(true)
+                .state(state)
+                .depth(outbox.getDepth())
+                .lagMs(outbox.getLagMs())
+                .written(outbox.getWrittenCount())
+                .relayed((long) relayedCounter.count())
+                .poison((long) poisonCounter.count())
+                .batches(batchSizeSummary.count())
+                .relayThroughputMsgPerSec(drainStartNanos != 0 && elapsedNanos > 0
+                        ? drainRelayed * 1_000_000_000.0 / elapsedNanos : 0)
+                .lastError(lastError)
+                .build();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        // Bez interruptu - přerušené vlákno může databázi zavřít soubor pod rukama
+        LockSupport.unpark(relay);
+        try {
+            relay.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                List<OutboxRecord> batch = outbox.poll(batchSize);
+                if (batch.isEmpty()) {
+                    if ("RELAYING".equals(state)) {
+                        log.info("✓ Outbox dohrán: {} zpráv", drainRelayed);
+                    }
+                    state = "IDLE";
+                    drainStartNanos = 0;
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(pollIntervalMs));
+                    continue;
+                }
+                if (drainStartNanos == 0) {
+                    drainStartNanos = System.nanoTime();
+                    drainRelayed = 0;
+                    state = "RELAYING";
+                }
+                
+                long startNanos = System.nanoTime();
+                List<OutboxRecord> records = new ArrayList<>(batch.size());
+                List<T> messages = decode(batch, records);
+                if (messages.isEmpty()) {
+                    continue;
+                }
+                int confirmed = relayBatch(messages);
+                if (confirmed > 0) {
+                    outbox.delete(records.subList(0, confirmed));
+                    drainRelayed += confirmed;
+                    relayedCounter.increment(confirmed);
+                    batchSizeSummary.record(confirmed);
+                    batchTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+                }
+                if (confirmed < records.size()) {
+                    // Broker nepotvrdil celou dávku - zbytek zkusíme znovu později
+                    state = "WAITING_FOR_BROKER";
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(retryBackoffMs));
+                } else {
+                    state = "RELAYING";
+                }
+            } catch (Exception e) {
+                lastError = e.getMessage();
+                state = "ERROR";
+                log.warn("⚠ Chyba outbox relay: {}", e.getMessage());
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(retryBackoffMs));
+            }
+        }
+    }
+
+    /**
+     * Přečte řádky dávky, každý zvlášť. Nečitelný řádek přesune stranou - jinak by ho relay
+     * zkoušel donekonečna a outbox za ním by stál.
+     *
+     * @param decoded sem přidá přečtené řádky ve stejném pořadí jako vrácené zprávy
+     */
+    private List<T> decode(List<OutboxRecord> batch, List<OutboxRecord> decoded) throws SQLException {
+        List<T> messages = new ArrayList<>(batch.size());
+        for (OutboxRecord record : batch) {
+            T message;
+            try {
+                message = decoder.apply(record.getPayload());
+            } catch (Exception e) {
+                outbox.quarantine(record, e.getMessage());
+                poisonCounter.increment();
+                lastError = e.getMessage();
+                log.warn("⚠ Řádek outboxu {} nelze přečíst, přesunut do {}: {}", record.getId(),
+                        outbox.getPoisonTable(), e.getMessage());
+                continue;
+            }
+            messages.add(message);
+            decoded.add(record);
+        }
+        return messages;
+    }
+
+    /**
+     * Odešle dávku a počká na potvrzení.
+     *
+     * @return počet potvrzených zpráv od začátku dávky
+     */
+    private int relayBatch(List<T> messages) {
+        List<CompletableFuture<?>> acks;
+        try {
+            acks = sink.publish(messages);
+        } catch (Exception e) {
+            lastError = e.getMessage();
+            return 0;
+        }
+        
+        int confirmed = 0;
+        for (CompletableFuture<?> ack : acks) {
+            try {
+                ack.get(ackTimeoutMs, TimeUnit.MILLISECONDS);
+                confirmed++;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                lastError = e.getMessage();
+                break;
+            }
+        }
+        return confirmed;
+    }
+}
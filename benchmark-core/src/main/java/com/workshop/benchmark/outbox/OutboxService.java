@@ -0,0 +1,147 @@
+package com.workshop.benchmark.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.workshop.benchmark.batch.MicroBatcher;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Transactional outbox nad relační databází.
+ *
+ * Zpráva se v jedné transakci zapíše do business tabulky workshop_message i do outboxu -
+ * buď se potvrdí obojí, nebo nic, a transakce nečeká na broker. {@link OutboxRelay}
+ * pak outbox odesílá po velkých dávkách přes {@link MicroBatcher.BatchSink} brokeru.
+ * Zprávy putují outboxem jako JSON.
+ *
+ * @param <T> typ zprávy brokeru
+ */
+public class OutboxService<T> implements Closeable {
+
+    private static final String OUTBOX_TABLE = "workshop_outbox";
+    private static final String MESSAGE_INSERT_SQL =
+            "INSERT INTO workshop_message (id, content, created_at) VALUES (?, ?, ?)";
+
+    private final DataSource dataSource;
+    private final ObjectMapper objectMapper;
+    private final Class<T> type;
+    private final Function<T, Object[]> preparer;
+    private final MicroBatcher.BatchSink<T> sink;
+    private final int batchSize;
+    private final long pollIntervalMs;
+    private final long ackTimeoutMs;
+    private final long retryBackoffMs;
+    private final MeterRegistry meterRegistry;
+    private final String broker;
+
+    private Outbox outbox;
+    private OutboxRelay<T> relay;
+
+    /**
+     * @param preparer doplní zprávu před zápisem a vrátí její řádek workshop_message (id, content, created_at)
+     */
+    public OutboxService(DataSource dataSource, ObjectMapper objectMapper, Class<T> type,
+                         Function<T, Object[]> preparer, MicroBatcher.BatchSink<T> sink, int batchSize,
+                         long pollIntervalMs, long ackTimeoutMs, long retryBackoffMs,
+                         MeterRegistry meterRegistry, String broker) {
+        this.dataSource = dataSource;
+        this.objectMapper = objectMapper;
+        this.type = type;
+        this.preparer = preparer;
+        this.sink = sink;
+        this.batchSize = batchSize;
+        this.pollIntervalMs = pollIntervalMs;
+        this.ackTimeoutMs = ackTimeoutMs;
+        this.retryBackoffMs = retryBackoffMs;
+        this.meterRegistry = meterRegistry;
+        this.broker = broker;
+    }
+
+    /**
+     * Připraví tabulky a spustí relay. Bez volání je outbox vypnutý.
+     */
+    public void start() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS workshop_message ("
+                    + "id BIGINT PRIMARY KEY, content VARCHAR NOT NULL, created_at BIGINT NOT NULL)");
+        }
+        outbox = new Outbox(dataSource, OUTBOX_TABLE, meterRegistry, broker);
+        relay = new OutboxRelay<>("outbox-relay", outbox, this::decode, sink, batchSize,
+                pollIntervalMs, ackTimeoutMs, retryBackoffMs, meterRegistry, broker);
+    }
+
+    public boolean isEnabled() {
+        return relay != null;
+    }
+
+    /**
+     * Uloží zprávy do workshop_message a do outboxu v jedné transakci.
+     */
+    public void save(List<T> messages) throws SQLException {
+        List<Object[]> rows = new ArrayList<>(messages.size());
+        List<byte[]> payloads = new ArrayList<>(messages.size());
+        for (T message : messages) {
+            rows.add(preparer.apply(message));
+            payloads.add(encode(message));
+        }
+        
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement insert = connection.prepareStatement(MESSAGE_INSERT_SQL)) {
+                for (Object[] row : rows) {
+                    for (int i = 0; i < row.length; i++) {
+                        insert.setObject(i + 1, row[i]);
+                    }
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+                // Stejné spojení - outbox se potvrdí spolu s business zápisem
+                outbox.append(connection, payloads);
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    public OutboxStatus getStatus() {
+        return isEnabled() ? relay.getStatus() : OutboxStatus.builder().state("DISABLED").build();
+    }
+
+    private byte[] encode(T message) {
+        try {
+            return objectMapper.writeValueAsBytes(message);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Zprávu nelze zapsat do outboxu", e);
+        }
+    }
+
+    private T decode(byte[] payload) {
+        try {
+            return objectMapper.readValue(payload, type);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Řádek outboxu nelze přečíst: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (isEnabled()) {
+            relay.close();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.workshop.benchmark.outbox;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Stav outboxu a relay do brokeru.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxStatus {
+    private boolean enabled;
+    private String state;
+    private long depth;
+    private long lagMs;                 // stáří nejstaršího neodeslaného řádku
+    private long written;               // včetně vložení odvolaných rollbackem
+    private long relayed;
+    private long poison;                // nečitelné řádky přesunuté do tabulky poison
+    private long batches;
+    private double relayThroughputMsgPerSec;
+    private String lastError;
+}
@@ -0,0 +1,19 @@
+package com.workshop.benchmark.profiling;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Metoda na vrcholu zásobníku ve vzorcích JFR (jdk.ExecutionSample).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HotMethod {
+    private String method;
+    private long samples;
+    private double percent;
+}
@@ -0,0 +1,83 @@
+package com.workshop.benchmark.profiling;
+
+import jdk.jfr.Recording;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Spouští JFR záznam pro jeden běh benchmarku.
+ * 
+ * Záznam obsahuje jen události potřebné pro report (GC, vzorky alokací, vzorky
+ * zásobníků, soupeření o zámky), takže režie zůstává v jednotkách procent.
+ * Soubor .jfr zůstává v adresáři pro pozdější analýzu v JDK Mission Control.
+ */
+public class JfrProfiler {
+
+    private static final Logger log = LoggerFactory.getLogger(JfrProfiler.class);
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+
+    private final Path directory;
+    private final int topN;
+    private volatile boolean enabled;
+
+    /**
+     * @param topN počet položek v žebříčcích vláken, metod a zámků
+     */
+    public JfrProfiler(Path directory, boolean enabled, int topN) {
+        this.directory = directory;
+        this.enabled = enabled;
+        this.topN = topN;
+    }
+
+    public static JfrProfiler disabled() {
+        return new JfrProfiler(null, false, 0);
+    }
+
+    public boolean isEnabled() {
+        return enabled && directory != null;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Spustí záznam. Pokud je profilování vypnuté nebo JFR není k dispozici,
+     * vrátí sezení, jehož stop() vrací null.
+     */
+    public JfrSession start(String runName) {
+        if (!isEnabled()) {
+            return JfrSession.NONE;
+        }
+        
+        try {
+            Files.createDirectories(directory);
+            Path file = directory.resolve(runName.replaceAll("[^A-Za-z0-9_-]", "-")
+                    + "-" + LocalDateTime.now().format(FILE_TIME) + ".jfr");
+            
+            Recording recording = new Recording();
+            recording.setName("workshop-" + runName);
+            recording.enable("jdk.GarbageCollection");
+            recording.enable("jdk.ObjectAllocationSample").with("throttle", "150/s");
+            recording.enable("jdk.ExecutionSample").withPeriod(Duration.ofMillis(10));
+            recording.enable("jdk.JavaMonitorEnter").withThreshold(Duration.ofMillis(1)).withStackTrace();
+            recording.enable("jdk.ThreadPark").withThreshold(Duration.ofMillis(1)).withStackTrace();
+            // Na JDK 17 událost neexistuje a nastavení se ignoruje
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ofMillis(1)).withStackTrace();
+            recording.setDestination(file);
+            recording.start();
+            
+            log.info("🎥 JFR záznam běhu '{}' -> {}", runName, file);
+            return new JfrSession(recording, file, topN);
+        } catch (Exception e) {
+            log.warn("⚠ JFR záznam nelze spustit: {}", e.getMessage());
+            return JfrSession.NONE;
+        }
+    }
+}
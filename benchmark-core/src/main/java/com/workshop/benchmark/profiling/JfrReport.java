@@ -0,0 +1,33 @@
+package com.workshop.benchmark.profiling;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Výsledek JFR záznamu jednoho běhu benchmarku.
+ * Surový záznam zůstává na disku v {@code recordingFile} pro JDK Mission Control.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JfrReport {
+    private String recordingFile;
+    private double durationSeconds;
+    private long messages;
+    private long gcCount;
+    private double gcPauseTotalMs;
+    private double gcPauseMaxMs;
+    private long allocatedBytes;          // odhad z jdk.ObjectAllocationSample
+    private double allocatedBytesPerMessage;
+    private List<ThreadCpu> threads;
+    private List<HotMethod> hotMethods;
+    private List<LockSite> lockContention;
+    private long virtualThreadPinnedCount;  // jdk.VirtualThreadPinned (JDK 21+)
+    private List<LockSite> pinnedSites;
+    private String error;
+}
@@ -0,0 +1,239 @@
+package com.workshop.benchmark.profiling;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Probíhající JFR záznam jednoho běhu. stop() záznam ukončí, uloží a rozebere.
+ */
+public class JfrSession {
+
+    private static final Logger log = LoggerFactory.getLogger(JfrSession.class);
+
+    static final JfrSession NONE = new JfrSession(null, null, 0);
+
+    private final Recording recording;
+    private final Path file;
+    private final int topN;
+    private final long startNanos;
+    private final Map<Long, Long> cpuNanosBefore;
+
+    JfrSession(Recording recording, Path file, int topN) {
+        this.recording = recording;
+        this.file = file;
+        this.topN = topN;
+        this.startNanos = System.nanoTime();
+        this.cpuNanosBefore = recording != null ? threadCpuNanos() : Map.of();
+    }
+
+    /**
+     * Ukončí záznam a vrátí report, null pokud se nezaznamenávalo.
+     *
+     * @param messages počet zpráv běhu - pro alokace na zprávu
+     */
+    public JfrReport stop(long messages) {
+        if (recording == null) {
+            return null;
+        }
+        
+        double durationSeconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+        List<ThreadCpu> threads = threadCpuSinceStart();
+        
+        JfrReport.JfrReportBuilder report = JfrReport.builder()
+                .recordingFile(file.toString())
+                .durationSeconds(durationSeconds)
+                .messages(messages)
+                .threads(threads);
+        try {
+            recording.stop();
+            recording.close();
+            parse(report, messages);
+        } catch (Exception e) {
+            log.warn("⚠ JFR záznam {} nelze zpracovat: {}", file, e.getMessage());
+            report.error(e.getMessage());
+        }
+        return report.build();
+    }
+
+    private void parse(JfrReport.JfrReportBuilder report, long messages) throws Exception {
+        long gcCount = 0;
+        Duration gcPauseTotal = Duration.ZERO;
+        Duration gcPauseMax = Duration.ZERO;
+        long allocated = 0;
+        long executionSamples = 0;
+        Map<String, Long> methodSamples = new HashMap<>();
+        Map<String, LockSite> locks = new HashMap<>();
+        Map<String, LockSite> pinned = new HashMap<>();
+        long pinnedCount = 0;
+        
+        try (RecordingFile recordingFile = new RecordingFile(file)) {
+            while (recordingFile.hasMoreEvents()) {
+                RecordedEvent event = recordingFile.readEvent();
+                switch (event.getEventType().getName()) {
+                    case "jdk.GarbageCollection" -> {
+                        gcCount++;
+                        gcPauseTotal = gcPauseTotal.plus(event.getDuration("sumOfPauses"));
+                        Duration longest = event.getDuration("longestPause");
+                        if (longest.compareTo(gcPauseMax) > 0) {
+                            gcPauseMax = longest;
+                        }
+                    }
+                    case "jdk.ObjectAllocationSample" -> allocated += event.getLong("weight");
+                    case "jdk.ExecutionSample" -> {
+                        RecordedStackTrace stack = event.getStackTrace();
+                        if (stack != null && !stack.getFrames().isEmpty()) {
+                            executionSamples++;
+                            methodSamples.merge(methodName(stack.getFrames().get(0)), 1L, Long::sum);
+                        }
+                    }
+                    case "jdk.JavaMonitorEnter" -> recordLock(locks, event, event.getClass("monitorClass"));
+                    case "jdk.ThreadPark" -> {
+                        // Jen zámky (…Sync), čekání na podmínku / práci není soupeření
+                        RecordedClass parked = event.getClass("parkedClass");
+                        if (parked != null && parked.getName().endsWith("Sync")) {
+                            recordLock(locks, event, parked);
+                        }
+                    }
+                    case "jdk.VirtualThreadPinned" -> {
+                        // Blokující operace na vrcholu zásobníku, místo v aplikaci jako site
+                        pinnedCount++;
+                        RecordedStackTrace stack = event.getStackTrace();
+                        String blocking = stack != null && !stack.getFrames().isEmpty()
+                                ? methodName(stack.getFrames().get(0)) : "?";
+                        recordSite(pinned, event, blocking);
+                    }
+                    default -> {
+                    }
+                }
+            }
+        }
+        
+        long totalSamples = executionSamples;
+        List<HotMethod> hotMethods = methodSamples.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(topN)
+                .map(entry -> HotMethod.builder()
+                        .method(entry.getKey())
+                        .samples(entry.getValue())
+                        .percent(entry.getValue() * 100.0 / totalSamples)
+                        .build())
+                .toList();
+        
+        report.gcCount(gcCount)
+                .gcPauseTotalMs(gcPauseTotal.toNanos() / 1_000_000.0)
+                .gcPauseMaxMs(gcPauseMax.toNanos() / 1_000_000.0)
+                .allocatedBytes(allocated)
+                .allocatedBytesPerMessage(messages > 0 ? (double) allocated / messages : 0)
+                .hotMethods(hotMethods)
+                .lockContention(topSites(locks))
+                .virtualThreadPinnedCount(pinnedCount)
+                .pinnedSites(topSites(pinned));
+    }
+
+    private List<LockSite> topSites(Map<String, LockSite> sites) {
+        return sites.values().stream()
+                .sorted(Comparator.comparingDouble(LockSite::getTotalMs).reversed())
+                .limit(topN)
+                .toList();
+    }
+
+    private static void recordLock(Map<String, LockSite> locks, RecordedEvent event, RecordedClass lockClass) {
+        recordSite(locks, event, lockClass != null ? lockClass.getName() : "?");
+    }
+
+    private static void recordSite(Map<String, LockSite> locks, RecordedEvent event, String lock) {
+        String site = applicationSite(event.getStackTrace());
+        double ms = event.getDuration().toNanos() / 1_000_000.0;
+        
+        LockSite entry = locks.computeIfAbsent(lock + " @ " + site,
+                key -> LockSite.builder().lock(lock).site(site).build());
+        entry.setCount(entry.getCount() + 1);
+        entry.setTotalMs(entry.getTotalMs() + ms);
+        entry.setMaxMs(Math.max(entry.getMaxMs(), ms));
+    }
+
+    /**
+     * První rámec mimo JDK - místo v kódu aplikace, které o zámek soupeří.
+     */
+    private static String applicationSite(RecordedStackTrace stack) {
+        if (stack == null || stack.getFrames().isEmpty()) {
+            return "?";
+        }
+        for (RecordedFrame frame : stack.getFrames()) {
+            String type = frame.getMethod().getType().getName();
+            if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                return methodName(frame);
+            }
+        }
+        return methodName(stack.getFrames().get(0));
+    }
+
+    private static String methodName(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName();
+    }
+
+    /**
+     * CPU čas vláken živých na konci běhu, sečtený podle jména vlákna.
+     */
+    private List<ThreadCpu> threadCpuSinceStart() {
+        Map<Long, Long> cpuNanosAfter = threadCpuNanos();
+        ThreadInfo[] infos = ManagementFactory.getThreadMXBean()
+                .getThreadInfo(cpuNanosAfter.keySet().stream().mapToLong(Long::longValue).toArray(), 0);
+        
+        Map<String, Long> byName = new HashMap<>();
+        long total = 0;
+        for (ThreadInfo info : infos) {
+            if (info == null) {
+                continue;
+            }
+            long cpuNanos = cpuNanosAfter.get(info.getThreadId())
+                    - cpuNanosBefore.getOrDefault(info.getThreadId(), 0L);
+            if (cpuNanos > 0) {
+                byName.merge(info.getThreadName(), cpuNanos, Long::sum);
+                total += cpuNanos;
+            }
+        }
+        
+        long totalNanos = total;
+        return byName.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(topN)
+                .map(entry -> ThreadCpu.builder()
+                        .thread(entry.getKey())
+                        .cpuMs(entry.getValue() / 1_000_000.0)
+                        .percent(entry.getValue() * 100.0 / totalNanos)
+                        .build())
+                .toList();
+    }
+
+    private static Map<Long, Long> threadCpuNanos() {
+        Map<Long, Long> cpu = new HashMap<>();
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadCpuTimeSupported()) {
+            long[] ids = threads.getAllThreadIds();
+            long[] nanos = threads.getThreadCpuTime(ids);
+            for (int i = 0; i < ids.length; i++) {
+                if (nanos[i] >= 0) {
+                    cpu.put(ids[i], nanos[i]);
+                }
+            }
+        }
+        return cpu;
+    }
+}
@@ -0,0 +1,21 @@
+package com.workshop.benchmark.profiling;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Místo soupeření o zámek (jdk.JavaMonitorEnter, jdk.ThreadPark na zámku).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LockSite {
+    private String lock;
+    private String site;
+    private long count;
+    private double totalMs;
+    private double maxMs;
+}
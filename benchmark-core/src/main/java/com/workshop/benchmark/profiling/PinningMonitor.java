@@ -0,0 +1,82 @@
+package com.workshop.benchmark.profiling;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.time.Duration;
+
+/**
+ * Průběžné sledování pinningu virtuálních vláken k carrier vláknu.
+ * 
+ * Virtuální vlákno, které blokuje uvnitř synchronized (např. synchronizedList
+ * v MetricsEngine) nebo v nativním volání, drží carrier vlákno a omezuje paralelismus.
+ * Události jdk.VirtualThreadPinned (JDK 21+) se čtou z JFR streamu do timeru
+ * virtual.thread.pinned.
+ */
+public class PinningMonitor implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(PinningMonitor.class);
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private final Timer pinnedTimer;
+    private final Duration threshold;
+    private RecordingStream stream;
+
+    public PinningMonitor(MeterRegistry meterRegistry, String broker, Duration threshold) {
+        this.threshold = threshold;
+        this.pinnedTimer = Timer.builder("virtual.thread.pinned")
+                .description("Virtual thread blocked while pinned to its carrier thread")
+                .tag("broker", broker)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Spustí sledování. Na JDK bez virtuálních vláken nedělá nic.
+     */
+    public synchronized void start() {
+        if (Runtime.version().feature() < 21) {
+            log.warn("⚠ Pinning virtuálních vláken nelze sledovat na JDK {}", Runtime.version().feature());
+            return;
+        }
+        if (stream != null) {
+            return;
+        }
+        
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, event -> {
+            pinnedTimer.record(event.getDuration());
+            if (log.isDebugEnabled()) {
+                log.debug("Pinning {} ms: {}", event.getDuration().toMillis(), topFrame(event.getStackTrace()));
+            }
+        });
+        stream.startAsync();
+        log.info("✓ Sledování pinningu virtuálních vláken (práh {} ms)", threshold.toMillis());
+    }
+
+    public long getPinnedCount() {
+        return pinnedTimer.count();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (stream != null) {
+            stream.close();
+            stream = null;
+        }
+    }
+
+    private static String topFrame(RecordedStackTrace stack) {
+        if (stack == null || stack.getFrames().isEmpty()) {
+            return "?";
+        }
+        RecordedFrame frame = stack.getFrames().get(0);
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName();
+    }
+}
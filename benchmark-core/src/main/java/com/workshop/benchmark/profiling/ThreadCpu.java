@@ -0,0 +1,19 @@
+package com.workshop.benchmark.profiling;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * CPU čas jednoho vlákna během běhu.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ThreadCpu {
+    private String thread;
+    private double cpuMs;
+    private double percent;            // podíl na CPU všech vláken
+}
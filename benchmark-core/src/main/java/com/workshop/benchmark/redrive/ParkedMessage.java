@@ -0,0 +1,23 @@
+package com.workshop.benchmark.redrive;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Zpráva odložená z DLQ do parking lotu.
+ *
+ * @param <T> typ zprávy brokeru
+ */
+@Data
+@AllArgsConstructor
+public class ParkedMessage<T> {
+    private long sequence;
+    private Long messageId;
+    private T message;
+    private String error;
+    private long parkedAt;
+    /**
+     * Pozice zprávy v DLQ (např. partition a offset), null = broker ji neposkytuje.
+     */
+    private String source;
+}
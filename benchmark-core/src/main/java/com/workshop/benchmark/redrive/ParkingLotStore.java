@@ -0,0 +1,71 @@
+package com.workshop.benchmark.redrive;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Parking lot - úložiště zpráv z DLQ čekajících na redrive.
+ * Zprávy jsou seřazené podle pořadí příchodu, odebrání je O(log n).
+ *
+ * Zpráva se známou pozicí v DLQ se uloží jen jednou - opakované čtení DLQ od začátku
+ * (obnova po restartu, rebalance) parking lot nezdvojí.
+ *
+ * @param <T> typ zprávy brokeru
+ */
+public class ParkingLotStore<T> {
+
+    private final ConcurrentNavigableMap<Long, ParkedMessage<T>> messages = new ConcurrentSkipListMap<>();
+    private final Map<String, Long> sequenceBySource = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    public void park(Long messageId, T message, String error) {
+        park(messageId, message, error, null);
+    }
+
+    /**
+     * @param source pozice zprávy v DLQ, null = bez deduplikace
+     * @return false pokud zpráva z této pozice už v parking lotu je
+     */
+    public boolean park(Long messageId, T message, String error, String source) {
+        long seq = sequence.incrementAndGet();
+        if (source != null && sequenceBySource.putIfAbsent(source, seq) != null) {
+            return false;
+        }
+        messages.put(seq, new ParkedMessage<>(seq, messageId, message, error, System.currentTimeMillis(), source));
+        return true;
+    }
+
+    public Collection<ParkedMessage<T>> getAll() {
+        return messages.values();
+    }
+
+    public void remove(ParkedMessage<T> parked) {
+        messages.remove(parked.getSequence());
+        if (parked.getSource() != null) {
+            sequenceBySource.remove(parked.getSource(), parked.getSequence());
+        }
+    }
+
+    /**
+     * Odebere zprávu podle pozice v DLQ - záznam o redrive čtený z DLQ při obnově.
+     */
+    public void removeBySource(String source) {
+        Long seq = sequenceBySource.remove(source);
+        if (seq != null) {
+            messages.remove(seq);
+        }
+    }
+
+    public int size() {
+        return messages.size();
+    }
+
+    public void clear() {
+        messages.clear();
+        sequenceBySource.clear();
+    }
+}
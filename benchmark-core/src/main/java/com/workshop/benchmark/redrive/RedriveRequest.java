@@ -0,0 +1,36 @@
+package com.workshop.benchmark.redrive;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Parametry redrive - filtry a omezení rychlosti.
+ * Nevyplněné hodnoty znamenají "bez filtru" / výchozí konfiguraci.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RedriveRequest {
+    private Long fromId;
+    private Long toId;
+    private String errorContains;
+    private Double ratePerSecond;
+    private Integer batchSize;
+
+    boolean matches(ParkedMessage<?> parked) {
+        Long id = parked.getMessageId();
+        if (fromId != null && (id == null || id < fromId)) {
+            return false;
+        }
+        if (toId != null && (id == null || id > toId)) {
+            return false;
+        }
+        if (errorContains != null && !errorContains.isEmpty()) {
+            return parked.getError() != null && parked.getError().contains(errorContains);
+        }
+        return true;
+    }
+}
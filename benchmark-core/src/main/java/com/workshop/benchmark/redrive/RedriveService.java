@@ -0,0 +1,187 @@
+package com.workshop.benchmark.redrive;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Redrive zpráv z parking lotu zpět do brokeru.
+ *
+ * Zprávy se odesílají v dávkách omezených token bucketem, aby redrive
+ * nezahltil hlavní consumery. Zpráva opouští parking lot až po potvrzení
+ * od brokeru. Běh lze kdykoli zastavit, rozpracovaná dávka se dokončí.
+ *
+ * Samotné odeslání dávky dodává aplikace brokeru přes {@link Republisher}.
+ *
+ * @param <T> typ zprávy brokeru
+ */
+public class RedriveService<T> implements Closeable {
+
+    /**
+     * Odeslání dávky z parking lotu zpět do hlavního topicu / exchange.
+     */
+    public interface Republisher<T> {
+
+        /**
+         * Volá se z vlákna redrive, smí čekat (např. na řízení toku producera).
+         *
+         * @return future pro každou zprávu (ve stejném pořadí), dokončený potvrzením brokeru
+         */
+        List<CompletableFuture<?>> republish(List<ParkedMessage<T>> batch);
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(RedriveService.class);
+
+    private final ParkingLotStore<T> parkingLot;
+    private final Republisher<T> republisher;
+    private final double defaultRatePerSecond;
+    private final int defaultBatchSize;
+    private final long ackTimeoutMs;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> new Thread(r, "dlq-redrive"));
+
+    private final Counter redrivenCounter;
+    private final AtomicLong matched = new AtomicLong();
+    private final AtomicLong redriven = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private volatile String state = "IDLE";
+    private volatile boolean stopRequested;
+    private volatile long startNanos;
+    private volatile long endNanos;
+
+    public RedriveService(ParkingLotStore<T> parkingLot, Republisher<T> republisher, double defaultRatePerSecond,
+                          int defaultBatchSize, long ackTimeoutMs, MeterRegistry meterRegistry, String broker) {
+        this.parkingLot = parkingLot;
+        this.republisher = republisher;
+        this.defaultRatePerSecond = defaultRatePerSecond;
+        this.defaultBatchSize = defaultBatchSize;
+        this.ackTimeoutMs = ackTimeoutMs;
+        
+        this.redrivenCounter = Counter.builder("messages.redriven")
+                .description("Messages moved from the DLQ parking lot back to the main topic or exchange")
+                .tag("broker", broker)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Spustí redrive na pozadí.
+     *
+     * @throws IllegalArgumentException pokud rychlost nebo velikost dávky není kladná
+     * @throws IllegalStateException pokud redrive již běží
+     */
+    public synchronized RedriveStatus start(RedriveRequest request) {
+        double rate = request.getRatePerSecond() != null ? request.getRatePerSecond() : defaultRatePerSecond;
+        int batchSize = request.getBatchSize() != null ? request.getBatchSize() : defaultBatchSize;
+        if (!(rate > 0) || Double.isInfinite(rate)) {
+            throw new IllegalArgumentException("ratePerSecond musí být kladné číslo, je " + rate);
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize musí být kladný, je " + batchSize);
+        }
+        if (isRunning()) {
+            throw new IllegalStateException("Redrive již běží");
+        }
+        
+        List<ParkedMessage<T>> selected = parkingLot.getAll().stream()
+                .filter(request::matches)
+                .toList();
+        
+        matched.set(selected.size());
+        redriven.set(0);
+        failed.set(0);
+        stopRequested = false;
+        startNanos = System.nanoTime();
+        endNanos = 0;
+        state = "RUNNING";
+        
+        log.info("🔁 Redrive {} zpráv z parking lotu, {} msg/s, dávka {}", selected.size(), rate, batchSize);
+        
+        executor.execute(() -> run(selected, new TokenBucket(rate, batchSize), batchSize));
+        return getStatus();
+    }
+
+    /**
+     * Požádá o zastavení běžícího redrive.
+     */
+    public RedriveStatus stop() {
+        if (isRunning()) {
+            stopRequested = true;
+            state = "STOPPING";
+        }
+        return getStatus();
+    }
+
+    public RedriveStatus getStatus() {
+        long end = endNanos != 0 ? endNanos : System.nanoTime();
+        double durationSeconds = startNanos != 0 ? (end - startNanos) / 1_000_000_000.0 : 0;
+        long total = matched.get();
+        long done = redriven.get() + failed.get();
+        
+        return RedriveStatus.builder()
+                .state(state)
+                .matched(total)
+                .redriven(redriven.get())
+                .failed(failed.get())
+                .remainingInParkingLot(parkingLot.size())
+                .progressPercent(total > 0 ? done * 100.0 / total : 0)
+                .durationSeconds(durationSeconds)
+                .throughputMsgPerSec(durationSeconds > 0 ? redriven.get() / durationSeconds : 0)
+                .build();
+    }
+
+    private boolean isRunning() {
+        return "RUNNING".equals(state) || "STOPPING".equals(state);
+    }
+
+    private void run(List<ParkedMessage<T>> selected, TokenBucket tokenBucket, int batchSize) {
+        try {
+            for (int from = 0; from < selected.size() && !stopRequested; from += batchSize) {
+                List<ParkedMessage<T>> batch = selected.subList(from, Math.min(from + batchSize, selected.size()));
+                tokenBucket.acquire(batch.size());
+                redriveBatch(batch);
+            }
+            state = stopRequested ? "STOPPED" : "COMPLETED";
+        } catch (Exception e) {
+            log.error("Chyba při redrive: {}", e.getMessage(), e);
+            state = "FAILED";
+        } finally {
+            endNanos = System.nanoTime();
+            RedriveStatus status = getStatus();
+            log.info("✓ Redrive {}: {} zpráv, {} msg/s", status.getState(), status.getRedriven(),
+                    String.format("%.2f", status.getThroughputMsgPerSec()));
+        }
+    }
+
+    private void redriveBatch(List<ParkedMessage<T>> batch) {
+        List<CompletableFuture<?>> acks = republisher.republish(batch);
+        
+        for (int i = 0; i < batch.size(); i++) {
+            try {
+                acks.get(i).get(ackTimeoutMs, TimeUnit.MILLISECONDS);
+                parkingLot.remove(batch.get(i));
+                redriven.incrementAndGet();
+                redrivenCounter.increment();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Redrive přerušen", e);
+            } catch (Exception e) {
+                failed.incrementAndGet();
+                log.warn("⚠ Redrive zprávy {} selhal: {}", batch.get(i).getMessageId(), e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        stopRequested = true;
+        executor.shutdown();
+    }
+}
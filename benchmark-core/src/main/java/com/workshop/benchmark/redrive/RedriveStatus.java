@@ -0,0 +1,21 @@
+package com.workshop.benchmark.redrive;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RedriveStatus {
+    private String state;
+    private long matched;
+    private long redriven;
+    private long failed;
+    private long remainingInParkingLot;
+    private double progressPercent;
+    private double durationSeconds;
+    private double throughputMsgPerSec;
+}
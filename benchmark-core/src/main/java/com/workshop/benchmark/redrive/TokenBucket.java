@@ -0,0 +1,46 @@
+package com.workshop.benchmark.redrive;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Token bucket pro omezení rychlosti.
+ * Rychlost &lt;= 0 znamená bez omezení.
+ */
+public class TokenBucket {
+
+    private final double tokensPerNano;
+    private final double capacity;
+    private double tokens;
+    private long lastRefillNanos;
+
+    public TokenBucket(double ratePerSecond, double burst) {
+        this.tokensPerNano = ratePerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.capacity = Math.max(1, burst);
+        this.tokens = this.capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * Odebere tokeny a počká, dokud by jich v bucketu nebylo dost.
+     */
+    public void acquire(int permits) {
+        long waitNanos = reserve(permits);
+        if (waitNanos > 0) {
+            LockSupport.parkNanos(waitNanos);
+        }
+    }
+
+    private synchronized long reserve(int permits) {
+        if (tokensPerNano <= 0) {
+            return 0;
+        }
+        
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * tokensPerNano);
+        lastRefillNanos = now;
+        tokens -= permits;
+        
+        return tokens >= 0 ? 0 : (long) (-tokens / tokensPerNano);
+    }
+}
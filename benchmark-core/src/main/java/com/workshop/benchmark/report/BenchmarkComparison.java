@@ -0,0 +1,93 @@
+package com.workshop.benchmark.report;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.workshop.benchmark.runner.BenchmarkResult;
+import com.workshop.benchmark.workload.Workload;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CLI runner - spustí stejný workload proti oběma aplikacím
+ * (POST /api/workshop/benchmark) a zapíše srovnávací report.
+ *
+ * Použití:
+ * <pre>
+ * java -cp benchmark-core.jar com.workshop.benchmark.report.BenchmarkComparison \
+ *     [workload.json] [--out target/benchmark-report] \
+ *     [--rabbitmq http://localhost:8081] [--kafka http://localhost:8082]
+ * </pre>
+ */
+public class BenchmarkComparison {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> targets = new LinkedHashMap<>();
+        targets.put("rabbitmq", "http://localhost:8081");
+        targets.put("kafka", "http://localhost:8082");
+        Path out = Path.of("target", "benchmark-report");
+        Path workloadFile = null;
+        
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--out" -> out = Path.of(args[++i]);
+                case "--rabbitmq" -> targets.put("rabbitmq", args[++i]);
+                case "--kafka" -> targets.put("kafka", args[++i]);
+                default -> workloadFile = Path.of(args[i]);
+            }
+        }
+        
+        BenchmarkComparison comparison = new BenchmarkComparison();
+        Workload workload = workloadFile != null
+                ? comparison.objectMapper.readValue(workloadFile.toFile(), Workload.class)
+                : new Workload();
+        
+        ComparisonReport report = comparison.run(workload, targets);
+        ReportWriter writer = new ReportWriter();
+        writer.writeJson(report, out.resolve("comparison.json"));
+        writer.writeHtml(report, out.resolve("comparison.html"));
+        System.out.println("Report zapsán do " + out.toAbsolutePath());
+    }
+
+    public ComparisonReport run(Workload workload, Map<String, String> targets) throws IOException, InterruptedException {
+        workload.validate();
+        List<BenchmarkResult> results = new ArrayList<>();
+        for (Map.Entry<String, String> target : targets.entrySet()) {
+            System.out.println("▶ " + target.getKey() + " (" + target.getValue() + ")");
+            results.add(runRemote(target.getValue(), workload));
+        }
+        
+        return ComparisonReport.builder()
+                .generatedAt(Instant.now().toString())
+                .workload(workload)
+                .results(results)
+                .build();
+    }
+
+    private BenchmarkResult runRemote(String baseUrl, Workload workload) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/workshop/benchmark"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(workload)))
+                .build();
+        
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IOException("Benchmark na " + baseUrl + " selhal: HTTP " + response.statusCode());
+        }
+        return objectMapper.readValue(response.body(), BenchmarkResult.class);
+    }
+}
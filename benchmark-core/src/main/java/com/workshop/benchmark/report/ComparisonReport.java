@@ -0,0 +1,20 @@
+package com.workshop.benchmark.report;
+
+import com.workshop.benchmark.runner.BenchmarkResult;
+import com.workshop.benchmark.workload.Workload;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ComparisonReport {
+    private String generatedAt;
+    private Workload workload;
+    private List<BenchmarkResult> results;
+}
@@ -0,0 +1,86 @@
+package com.workshop.benchmark.report;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.workshop.benchmark.runner.BenchmarkResult;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * Zápis srovnávacího reportu jako JSON a HTML (brokery vedle sebe).
+ */
+public class ReportWriter {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    public void writeJson(ComparisonReport report, Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        objectMapper.writeValue(file.toFile(), report);
+    }
+
+    public void writeHtml(ComparisonReport report, Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Files.writeString(file, toHtml(report));
+    }
+
+    String toHtml(ComparisonReport report) {
+        List<BenchmarkResult> results = report.getResults();
+        StringBuilder html = new StringBuilder();
+        html.append("<!DOCTYPE html>\n<html>\n<head>\n<meta charset=\"UTF-8\">\n")
+                .append("<title>Benchmark ").append(escape(report.getWorkload().getName())).append("</title>\n")
+                .append("<style>body{font-family:sans-serif}table{border-collapse:collapse}")
+                .append("td,th{border:1px solid #999;padding:4px 10px;text-align:right}th:first-child,td:first-child{text-align:left}</style>\n")
+                .append("</head>\n<body>\n")
+                .append("<h1>Benchmark: ").append(escape(report.getWorkload().getName())).append("</h1>\n")
+                .append("<p>").append(report.getWorkload().getMessageCount()).append(" zpráv, payload ")
+                .append(escape(report.getWorkload().resolvePayload().getDistribution())).append(", vygenerováno ")
+                .append(escape(report.getGeneratedAt())).append("</p>\n")
+                .append("<table>\n<tr><th>Metrika</th>");
+        for (BenchmarkResult result : results) {
+            html.append("<th>").append(escape(result.getBroker())).append("</th>");
+        }
+        html.append("</tr>\n");
+        
+        row(html, results, "Odesláno", r -> String.valueOf(r.getSent()));
+        row(html, results, "Zpracováno", r -> String.valueOf(r.getConsumed()));
+        row(html, results, "Propustnost producera (msg/s)", r -> format(r.getProducerThroughputMsgPerSec()));
+        row(html, results, "Propustnost end-to-end (msg/s)", r -> format(r.getEndToEndThroughputMsgPerSec()));
+        row(html, results, "Propustnost producera (MB/s)", r -> format(r.getProducerThroughputMBPerSec()));
+        row(html, results, "Propustnost end-to-end (MB/s)", r -> format(r.getEndToEndThroughputMBPerSec()));
+        row(html, results, "Průměrný payload (B)", r -> format(r.getAveragePayloadBytes()));
+        row(html, results, "Latence producera P50 (ms)", r -> format(r.getProducerLatency().getP50Ms()));
+        row(html, results, "Latence producera P95 (ms)", r -> format(r.getProducerLatency().getP95Ms()));
+        row(html, results, "Latence producera P99 (ms)", r -> format(r.getProducerLatency().getP99Ms()));
+        row(html, results, "Latence producera max (ms)", r -> format(r.getProducerLatency().getMaxMs()));
+        row(html, results, "CPU na zprávu (µs)", r -> format(r.getCpuMicrosPerMessage()));
+        row(html, results, "Alokace na zprávu (B)", r -> format(r.getAllocatedBytesPerMessage()));
+        
+        html.append("</table>\n</body>\n</html>\n");
+        return html.toString();
+    }
+
+    private static void row(StringBuilder html, List<BenchmarkResult> results, String label,
+                            Function<BenchmarkResult, String> value) {
+        html.append("<tr><td>").append(label).append("</td>");
+        for (BenchmarkResult result : results) {
+            html.append("<td>").append(value.apply(result)).append("</td>");
+        }
+        html.append("</tr>\n");
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+
+    private static String escape(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+}
@@ -0,0 +1,31 @@
+package com.workshop.benchmark.runner;
+
+import com.workshop.benchmark.metrics.LatencyStats;
+import com.workshop.benchmark.profiling.JfrReport;
+import com.workshop.benchmark.workload.Workload;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BenchmarkResult {
+    private String broker;
+    private Workload workload;
+    private long sent;
+    private long consumed;
+    private double sendDurationSeconds;
+    private double totalDurationSeconds;
+    private double producerThroughputMsgPerSec;
+    private double endToEndThroughputMsgPerSec;
+    private double averagePayloadBytes;
+    private double producerThroughputMBPerSec;
+    private double endToEndThroughputMBPerSec;
+    private LatencyStats producerLatency;
+    private double cpuMicrosPerMessage;
+    private double allocatedBytesPerMessage;
+    private JfrReport profile;
+}
@@ -0,0 +1,152 @@
+package com.workshop.benchmark.runner;
+
+import com.workshop.benchmark.driver.MessagingDriver;
+import com.workshop.benchmark.metrics.MetricsEngine;
+import com.workshop.benchmark.profiling.JfrProfiler;
+import com.workshop.benchmark.profiling.JfrReport;
+import com.workshop.benchmark.profiling.JfrSession;
+import com.workshop.benchmark.workload.PayloadPool;
+import com.workshop.benchmark.workload.Workload;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Spouští workload přes {@link MessagingDriver} a měří propustnost,
+ * latenci producera, CPU a alokace na zprávu.
+ * Se zapnutým profilováním běží měřená část pod JFR záznamem.
+ */
+public class BenchmarkRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(BenchmarkRunner.class);
+    private static final long DRAIN_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long MIN_RESCHEDULE_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final double BYTES_PER_MB = 1024.0 * 1024.0;
+
+    private final JfrProfiler profiler;
+
+    public BenchmarkRunner() {
+        this(JfrProfiler.disabled());
+    }
+
+    public BenchmarkRunner(JfrProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    /**
+     * @throws IllegalArgumentException pro neplatný workload (viz {@link Workload#validate()})
+     */
+    public BenchmarkResult run(MessagingDriver driver, Workload workload) {
+        workload.validate();
+        MetricsEngine metrics = driver.getMetrics();
+        PayloadPool payloads = new PayloadPool(workload.resolvePayload());
+        int count = workload.getMessageCount();
+        
+        log.info("Benchmark '{}' na {}: {} zpráv, průměrně {} B (warmup {})", workload.getName(), driver.getName(),
+                count, String.format("%.0f", payloads.getAverageBytes()), workload.getWarmupMessages());
+        
+        // Warmup - JIT, spojení, metadata topiců
+        if (workload.getWarmupMessages() > 0) {
+            long consumedBefore = metrics.getConsumedCount();
+            sendAll(driver, workload, count + 1, workload.getWarmupMessages(), payloads);
+            awaitConsumed(metrics, consumedBefore + workload.getWarmupMessages(), workload.getDrainTimeoutMs());
+        }
+        
+        metrics.resetStartTime();
+        long consumedBefore = metrics.getConsumedCount();
+        ResourceSnapshot resourcesBefore = ResourceSnapshot.take();
+        JfrSession recording = profiler.start("benchmark-" + driver.getName() + "-" + workload.getName());
+        long startNanos = System.nanoTime();
+        
+        long bytesSent = sendAll(driver, workload, 1, count, payloads);
+        long sendEndNanos = System.nanoTime();
+        
+        long consumed = awaitConsumed(metrics, consumedBefore + count, workload.getDrainTimeoutMs()) - consumedBefore;
+        long endNanos = System.nanoTime();
+        ResourceSnapshot resourcesAfter = ResourceSnapshot.take();
+        JfrReport profile = recording.stop(count);
+        metrics.setProfile(profile);
+        
+        double sendSeconds = (sendEndNanos - startNanos) / 1_000_000_000.0;
+        double totalSeconds = (endNanos - startNanos) / 1_000_000_000.0;
+        
+        BenchmarkResult result = BenchmarkResult.builder()
+                .broker(driver.getName())
+                .workload(workload)
+                .sent(count)
+                .consumed(consumed)
+                .sendDurationSeconds(sendSeconds)
+                .totalDurationSeconds(totalSeconds)
+                .producerThroughputMsgPerSec(count / sendSeconds)
+                .endToEndThroughputMsgPerSec(consumed / totalSeconds)
+                .averagePayloadBytes((double) bytesSent / count)
+                .producerThroughputMBPerSec(bytesSent / sendSeconds / BYTES_PER_MB)
+                .endToEndThroughputMBPerSec(bytesSent * ((double) consumed / count) / totalSeconds / BYTES_PER_MB)
+                .producerLatency(metrics.getSummary().getLatencyStats())
+                .cpuMicrosPerMessage(resourcesAfter.cpuNanosSince(resourcesBefore) / 1000.0 / count)
+                .allocatedBytesPerMessage((double) resourcesAfter.allocatedBytesSince(resourcesBefore) / count)
+                .profile(profile)
+                .build();
+        
+        log.info("✓ Benchmark {}: {} msg/s ({} MB/s) end-to-end, {} µs CPU/msg, {} B/msg", driver.getName(),
+                String.format("%.2f", result.getEndToEndThroughputMsgPerSec()),
+                String.format("%.2f", result.getEndToEndThroughputMBPerSec()),
+                String.format("%.2f", result.getCpuMicrosPerMessage()),
+                String.format("%.0f", result.getAllocatedBytesPerMessage()));
+        return result;
+    }
+
+    /**
+     * @return počet odeslaných bajtů payloadu
+     */
+    private long sendAll(MessagingDriver driver, Workload workload, long firstId, int count, PayloadPool payloads) {
+        double rate = workload.getTargetRatePerSecond();
+        long intervalNanos = rate > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / rate) : 0;
+        long nextSendNanos = System.nanoTime();
+        long bytes = 0;
+        int i = 0;
+        String payload = null;
+        
+        while (i < count) {
+            long waitNanos = nextSendNanos - System.nanoTime();
+            if (waitNanos > 0) {
+                LockSupport.parkNanos(waitNanos);
+            }
+            if (payload == null) {
+                payload = payloads.next();
+            }
+            if (!driver.send(firstId + i, payload)) {
+                // Broker omezuje publikování - stejnou zprávu zkusíme znovu později
+                nextSendNanos = System.nanoTime() + Math.max(driver.throttleNanos(), MIN_RESCHEDULE_NANOS);
+                continue;
+            }
+            bytes += payload.length();
+            payload = null;
+            i++;
+            if (intervalNanos > 0) {
+                nextSendNanos += intervalNanos;
+            }
+        }
+        driver.flush();
+        return bytes;
+    }
+
+    /**
+     * Čeká, dokud consumer nezpracuje požadovaný počet zpráv nebo nevyprší timeout.
+     *
+     * @return celkový počet zpracovaných zpráv
+     */
+    private long awaitConsumed(MetricsEngine metrics, long target, long timeoutMs) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        long consumed;
+        while ((consumed = metrics.getConsumedCount()) < target && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(DRAIN_POLL_NANOS);
+        }
+        if (consumed < target) {
+            log.warn("⚠ Timeout při čekání na consumery: zpracováno {}/{}", consumed, target);
+        }
+        return consumed;
+    }
+}
@@ -0,0 +1,55 @@
+package com.workshop.benchmark.runner;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Snímek spotřeby CPU procesu a alokací všech vláken.
+ * Rozdíl dvou snímků dává náklady jednoho běhu benchmarku.
+ */
+final class ResourceSnapshot {
+
+    private final long processCpuNanos;
+    private final Map<Long, Long> allocatedBytesByThread;
+
+    private ResourceSnapshot(long processCpuNanos, Map<Long, Long> allocatedBytesByThread) {
+        this.processCpuNanos = processCpuNanos;
+        this.allocatedBytesByThread = allocatedBytesByThread;
+    }
+
+    static ResourceSnapshot take() {
+        long cpu = 0;
+        if (ManagementFactory.getOperatingSystemMXBean() instanceof com.sun.management.OperatingSystemMXBean os) {
+            cpu = os.getProcessCpuTime();
+        }
+        
+        Map<Long, Long> allocated = new HashMap<>();
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported()) {
+            long[] ids = threads.getAllThreadIds();
+            long[] bytes = threads.getThreadAllocatedBytes(ids);
+            for (int i = 0; i < ids.length; i++) {
+                if (bytes[i] >= 0) {
+                    allocated.put(ids[i], bytes[i]);
+                }
+            }
+        }
+        return new ResourceSnapshot(cpu, allocated);
+    }
+
+    long cpuNanosSince(ResourceSnapshot before) {
+        return processCpuNanos - before.processCpuNanos;
+    }
+
+    /**
+     * Alokace vláken živých na konci měření (vlákna ukončená během běhu se nezapočítají).
+     */
+    long allocatedBytesSince(ResourceSnapshot before) {
+        long total = 0;
+        for (Map.Entry<Long, Long> entry : allocatedBytesByThread.entrySet()) {
+            total += entry.getValue() - before.allocatedBytesByThread.getOrDefault(entry.getKey(), 0L);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,57 @@
+package com.workshop.benchmark.scenario;
+
+import com.workshop.benchmark.fault.FaultProfile;
+import com.workshop.benchmark.workload.PayloadSpec;
+import com.workshop.benchmark.workload.ProcessingSpec;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Jedna fáze scénáře.
+ *
+ * Ramp: ratePerSecond -&gt; rampToRatePerSecond během fáze.
+ * Spike: krátká fáze s vysokou rychlostí.
+ * Soak: dlouhá fáze se stálou rychlostí.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Phase {
+    private String name;
+    @Builder.Default
+    private double durationSeconds = 10;
+    @Builder.Default
+    private double ratePerSecond = 100;
+    /** Cílová rychlost na konci fáze (lineární ramp), null = konstantní rychlost. */
+    private Double rampToRatePerSecond;
+    @Builder.Default
+    private PayloadSpec payload = new PayloadSpec();
+    /** Podíl zpráv, jejichž zpracování v consumeru selže. */
+    @Builder.Default
+    private double failureRate = 0;
+    /** Zpomalení consumera - doba zpracování jedné zprávy v ms. */
+    @Builder.Default
+    private long consumerDelayMs = 1;
+    /** Model zpracování v consumeru, null = sleep po dobu consumerDelayMs. */
+    private ProcessingSpec processing;
+    /** Porucha sítě přes fault proxy, null = bez poruchy. */
+    private FaultProfile fault;
+
+    /**
+     * Okamžitá rychlost v čase t od začátku fáze.
+     */
+    public double rateAt(double elapsedSeconds) {
+        if (rampToRatePerSecond == null || durationSeconds <= 0) {
+            return ratePerSecond;
+        }
+        double progress = Math.min(1.0, elapsedSeconds / durationSeconds);
+        return ratePerSecond + (rampToRatePerSecond - ratePerSecond) * progress;
+    }
+
+    public ProcessingSpec resolveProcessing() {
+        return processing != null ? processing : ProcessingSpec.sleep(consumerDelayMs);
+    }
+}
@@ -0,0 +1,32 @@
+package com.workshop.benchmark.scenario;
+
+import com.workshop.benchmark.fault.FaultProfile;
+import com.workshop.benchmark.metrics.PerformanceSummary;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PhaseResult {
+    private String phase;
+    private long sent;
+    private double targetRatePerSecond;
+    /** Naměřená doba fáze včetně flush - při zahlcení může přesáhnout plánovanou. */
+    private double durationSeconds;
+    private double achievedRatePerSecond;
+    private long bytesSent;
+    private double achievedMBPerSecond;
+    /** Zprávy odeslané od začátku scénáře a dosud nezpracované na konci fáze. */
+    private long backlogAtEnd;
+    private PerformanceSummary summary;
+    /** Porucha sítě během fáze, null = bez poruchy. */
+    private FaultProfile fault;
+    /** Změna propustnosti consumera proti první fázi bez poruchy v %, null bez srovnání. */
+    private Double throughputChangePercent;
+    /** Změna p99 latence proti první fázi bez poruchy v %, null bez srovnání. */
+    private Double p99ChangePercent;
+}
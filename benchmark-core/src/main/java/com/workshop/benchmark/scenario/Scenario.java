@@ -0,0 +1,22 @@
+package com.workshop.benchmark.scenario;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Zátěžový scénář složený z fází (ramp, spike, soak...).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Scenario {
+    private String name;
+    @Builder.Default
+    private List<Phase> phases = new ArrayList<>();
+}
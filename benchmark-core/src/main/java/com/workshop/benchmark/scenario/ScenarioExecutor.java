@@ -0,0 +1,195 @@
+package com.workshop.benchmark.scenario;
+
+import com.workshop.benchmark.driver.ConsumerControl;
+import com.workshop.benchmark.driver.MessagingDriver;
+import com.workshop.benchmark.fault.FaultProfile;
+import com.workshop.benchmark.fault.FaultProxy;
+import com.workshop.benchmark.metrics.MetricsEngine;
+import com.workshop.benchmark.workload.PayloadPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Spouští scénář fázi po fázi a pro každou fázi vrací vlastní {@link com.workshop.benchmark.metrics.PerformanceSummary}.
+ *
+ * Backlog consumera se mezi fázemi nečeká - přelévá se do další fáze,
+ * stejně jako v produkci.
+ *
+ * Fáze s poruchou sítě ({@link Phase#getFault()}) nastaví profil na {@link FaultProxy}.
+ * Výsledek pak u každé fáze uvádí změnu propustnosti a p99 proti první fázi bez poruchy.
+ */
+public class ScenarioExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(ScenarioExecutor.class);
+    private static final double BYTES_PER_MB = 1024.0 * 1024.0;
+    private static final long MIN_RESCHEDULE_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final FaultProxy faultProxy;
+
+    public ScenarioExecutor() {
+        this(null);
+    }
+
+    /**
+     * @param faultProxy proxy pro fáze s poruchou sítě, null = poruchy nejsou k dispozici
+     */
+    public ScenarioExecutor(FaultProxy faultProxy) {
+        this.faultProxy = faultProxy;
+    }
+
+    /**
+     * @throws IllegalStateException pokud scénář obsahuje poruchy sítě a fault proxy neběží
+     */
+    public ScenarioResult execute(Scenario scenario, MessagingDriver driver, ConsumerControl consumerControl) {
+        boolean faults = scenario.getPhases().stream().anyMatch(phase -> phase.getFault() != null);
+        boolean proxyRunning = faultProxy != null && faultProxy.isRunning();
+        if (faults && !proxyRunning) {
+            throw new IllegalStateException("Scénář obsahuje poruchy sítě, ale fault proxy neběží");
+        }
+        
+        MetricsEngine metrics = driver.getMetrics();
+        List<PhaseResult> results = new ArrayList<>();
+        long consumedAtStart = metrics.getConsumedCount();
+        long nextId = 1;
+        long totalSent = 0;
+        long scenarioStart = System.nanoTime();
+        
+        log.info("▶ Scénář '{}' na {}: {} fází", scenario.getName(), driver.getName(), scenario.getPhases().size());
+        try {
+            for (Phase phase : scenario.getPhases()) {
+                consumerControl.setFailureRate(phase.getFailureRate());
+                consumerControl.setProcessing(phase.resolveProcessing());
+                if (proxyRunning) {
+                    faultProxy.setProfile(phase.getFault() != null ? phase.getFault() : FaultProfile.none());
+                }
+                PayloadPool payloads = new PayloadPool(phase.getPayload());
+                metrics.resetStartTime();
+                
+                long[] sentBytesNanos = runPhase(phase, driver, payloads, nextId);
+                long sent = sentBytesNanos[0];
+                long bytesSent = sentBytesNanos[1];
+                // Dosažená rychlost z naměřené doby - opožděný odesílatel ji nesmí vykázat jako cílovou
+                double durationSeconds = sentBytesNanos[2] / 1_000_000_000.0;
+                nextId += sent;
+                totalSent += sent;
+                
+                PhaseResult result = PhaseResult.builder()
+                        .phase(phase.getName())
+                        .sent(sent)
+                        .targetRatePerSecond(phase.getRampToRatePerSecond() != null
+                                ? (phase.getRatePerSecond() + phase.getRampToRatePerSecond()) / 2
+                                : phase.getRatePerSecond())
+                        .durationSeconds(durationSeconds)
+                        .achievedRatePerSecond(sent / durationSeconds)
+                        .bytesSent(bytesSent)
+                        .achievedMBPerSecond(bytesSent / durationSeconds / BYTES_PER_MB)
+                        .backlogAtEnd(totalSent - (metrics.getConsumedCount() - consumedAtStart))
+                        .summary(metrics.getSummary())
+                        .fault(phase.getFault())
+                        .build();
+                results.add(result);
+                
+                log.info("  Fáze '{}': {} zpráv, {} msg/s, {} MB/s, backlog {}", phase.getName(), sent,
+                        String.format("%.2f", result.getAchievedRatePerSecond()),
+                        String.format("%.2f", result.getAchievedMBPerSecond()), result.getBacklogAtEnd());
+            }
+        } finally {
+            consumerControl.resetToDefaults();
+            if (proxyRunning) {
+                faultProxy.clearProfile();
+            }
+        }
+        
+        if (faults) {
+            compareWithBaseline(results);
+        }
+        
+        return ScenarioResult.builder()
+                .scenario(scenario.getName())
+                .broker(driver.getName())
+                .durationSeconds((System.nanoTime() - scenarioStart) / 1_000_000_000.0)
+                .phases(results)
+                .build();
+    }
+
+    /**
+     * Doplní změnu propustnosti a p99 proti první fázi bez poruchy.
+     */
+    private void compareWithBaseline(List<PhaseResult> results) {
+        PhaseResult baseline = results.stream()
+                .filter(result -> result.getFault() == null)
+                .findFirst()
+                .orElse(null);
+        if (baseline == null) {
+            log.warn("⚠ Scénář nemá fázi bez poruchy, degradaci nelze spočítat");
+            return;
+        }
+        
+        double baseThroughput = baseline.getSummary().getThroughputMsgPerSec();
+        double baseP99 = baseline.getSummary().getLatencyStats().getP99Ms();
+        for (PhaseResult result : results) {
+            result.setThroughputChangePercent(changePercent(baseThroughput, result.getSummary().getThroughputMsgPerSec()));
+            result.setP99ChangePercent(changePercent(baseP99, result.getSummary().getLatencyStats().getP99Ms()));
+            if (result.getFault() != null) {
+                log.info("  Porucha ve fázi '{}': propustnost {} %, p99 {} %", result.getPhase(),
+                        format(result.getThroughputChangePercent()), format(result.getP99ChangePercent()));
+            }
+        }
+    }
+
+    private static Double changePercent(double baseline, double value) {
+        return baseline > 0 ? (value - baseline) * 100.0 / baseline : null;
+    }
+
+    private static String format(Double percent) {
+        return percent != null ? String.format("%+.1f", percent) : "n/a";
+    }
+
+    /**
+     * Odesílá zprávy po dobu fáze s rychlostí podle {@link Phase#rateAt(double)}.
+     * Fáze končí po uplynutí své doby, ne po posledním naplánovaném odeslání - co opožděný
+     * odesílatel nestihne, se neodešle a chybí v dosažené rychlosti.
+     *
+     * @return počet odeslaných zpráv, bajtů payloadu a naměřená doba fáze v ns
+     */
+    private long[] runPhase(Phase phase, MessagingDriver driver, PayloadPool payloads, long firstId) {
+        long startNanos = System.nanoTime();
+        long endNanos = startNanos + (long) (phase.getDurationSeconds() * TimeUnit.SECONDS.toNanos(1));
+        long nextSendNanos = startNanos;
+        long sent = 0;
+        long bytes = 0;
+        
+        long now;
+        while ((now = System.nanoTime()) < endNanos) {
+            if (nextSendNanos - now > 0) {
+                LockSupport.parkNanos(Math.min(nextSendNanos, endNanos) - now);
+                continue;
+            }
+            
+            double rate = phase.rateAt((nextSendNanos - startNanos) / 1_000_000_000.0);
+            if (rate <= 0) {
+                // Pauza - žádné zprávy, jen posun času
+                nextSendNanos += TimeUnit.MILLISECONDS.toNanos(10);
+                continue;
+            }
+            
+            String payload = payloads.next();
+            if (!driver.send(firstId + sent, payload)) {
+                // Broker omezuje publikování - odeslání přeplánujeme, vynechaná zpráva sníží dosaženou rychlost
+                nextSendNanos = Math.max(nextSendNanos,
+                        System.nanoTime() + Math.max(driver.throttleNanos(), MIN_RESCHEDULE_NANOS));
+                continue;
+            }
+            sent++;
+            bytes += payload.length();
+            nextSendNanos += (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        }
+        driver.flush();
+        return new long[] {sent, bytes, System.nanoTime() - startNanos};
+    }
+}
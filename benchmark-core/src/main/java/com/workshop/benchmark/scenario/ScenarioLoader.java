@@ -0,0 +1,54 @@
+package com.workshop.benchmark.scenario;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Načítání scénářů z YAML nebo JSON.
+ */
+public class ScenarioLoader {
+
+    private final ObjectMapper jsonMapper = new ObjectMapper()
+            .enable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    private final ObjectMapper yamlMapper = new ObjectMapper(new YAMLFactory())
+            .enable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    public Scenario load(Path file) throws IOException {
+        String name = file.getFileName().toString().toLowerCase();
+        return parse(Files.readString(file), name.endsWith(".yml") || name.endsWith(".yaml"));
+    }
+
+    public Scenario parse(String content, boolean yaml) throws IOException {
+        Scenario scenario = (yaml ? yamlMapper : jsonMapper).readValue(content, Scenario.class);
+        validate(scenario);
+        return scenario;
+    }
+
+    private void validate(Scenario scenario) {
+        if (scenario.getPhases() == null || scenario.getPhases().isEmpty()) {
+            throw new IllegalArgumentException("Scénář musí obsahovat alespoň jednu fázi");
+        }
+        for (Phase phase : scenario.getPhases()) {
+            if (phase.getDurationSeconds() <= 0) {
+                throw new IllegalArgumentException("Fáze '" + phase.getName() + "' musí mít kladnou délku");
+            }
+            if (phase.getFailureRate() < 0 || phase.getFailureRate() > 1) {
+                throw new IllegalArgumentException("Fáze '" + phase.getName() + "': failureRate musí být 0..1");
+            }
+            try {
+                phase.getPayload().validate();
+                phase.resolveProcessing().validate();
+                if (phase.getFault() != null) {
+                    phase.getFault().validate();
+                }
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Fáze '" + phase.getName() + "': " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.workshop.benchmark.scenario;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScenarioResult {
+    private String scenario;
+    private String broker;
+    private double durationSeconds;
+    private List<PhaseResult> phases;
+}
@@ -0,0 +1,492 @@
+package com.workshop.benchmark.sink;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only soubor zpracovaných zpráv se zápisem po dávkách přes {@link FileChannel}.
+ *
+ * Záznamy se řadí do omezené fronty, jediné zapisovací vlákno je po dávkách kóduje do
+ * znovupoužívaného direct bufferu a zapíše jedním gathering write (hlavička rámce + tělo) na konec
+ * aktivního segmentu. Alokace na záznam tak zůstává jen u future pro potvrzení.
+ * Future záznamu se dokončí, až je záznam trvalý podle {@link FsyncPolicy} - volající potvrdí
+ * zprávu brokeru (ack, commit offsetu) teprve potom.
+ *
+ * Formát segmentu {@code %020d.log}: rámce [magic int][počet int][délka těla int][CRC32C těla int]
+ * a tělo ze záznamů [délka int][data]. Segment se uzavře po překročení segmentBytes, nejstarší
+ * segmenty nad retainSegments se mažou. Po restartu se začíná novým segmentem, nedopsaný rámec
+ * na konci starého odhalí délka nebo CRC.
+ *
+ * @param <T> typ záznamu
+ */
+public class FileSink<T> implements Closeable {
+
+    public static final int FRAME_MAGIC = 0x57534B31; // "WSK1"
+    public static final int FRAME_HEADER_BYTES = 16;
+
+    private static final Logger log = LoggerFactory.getLogger(FileSink.class);
+    private static final long IDLE_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final FsyncPolicy fsyncPolicy;
+    private final long fsyncIntervalNanos;
+    private final int maxBatchSize;
+    private final int bufferBytes;
+    private final int retainSegments;
+    private final RecordEncoder<T> encoder;
+    private final BlockingQueue<Pending<T>> queue;
+
+    // Stav zapisovacího vlákna
+    private final ByteBuffer header;
+    private final ByteBuffer body;
+    private final ByteBuffer[] frame;
+    private final CRC32C crc = new CRC32C();
+    private final List<Pending<T>> batch;
+    private final List<CompletableFuture<Void>> framed;
+    private final List<CompletableFuture<Void>> unsynced = new ArrayList<>();
+    private FileChannel channel;
+    private long segmentPosition;
+    private long nextSegment;
+    private long lastSyncNanos;
+
+    private final AtomicLong records = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private volatile int unsyncedCount;
+    private volatile Path activeSegment;
+    private volatile long startNanos;
+    private volatile boolean running;
+    private Thread writer;
+
+    private final Counter recordsCounter;
+    private final Counter bytesCounter;
+    private final DistributionSummary batchSizeSummary;
+    private final Timer writeTimer;
+    private final Timer fsyncTimer;
+
+    public FileSink(Path directory, long segmentBytes, FsyncPolicy fsyncPolicy, long fsyncIntervalMs,
+                    int maxBatchSize, int queueCapacity, int bufferBytes, int retainSegments,
+                    RecordEncoder<T> encoder, MeterRegistry meterRegistry, String broker) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.fsyncPolicy = fsyncPolicy;
+        this.fsyncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(fsyncIntervalMs);
+        this.maxBatchSize = maxBatchSize;
+        this.bufferBytes = bufferBytes;
+        this.retainSegments = retainSegments;
+        this.encoder = encoder;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.header = ByteBuffer.allocateDirect(FRAME_HEADER_BYTES);
+        this.body = ByteBuffer.allocateDirect(bufferBytes);
+        this.frame = new ByteBuffer[]{header, body};
+        this.batch = new ArrayList<>(maxBatchSize);
+        this.framed = new ArrayList<>(maxBatchSize);
+        
+        this.recordsCounter = Counter.builder("sink.records")
+                .description("Records appended to the file sink")
+                .tag("broker", broker)
+                .register(meterRegistry);
+        
+        this.bytesCounter = Counter.builder("sink.written")
+                .description("Bytes appended to the file sink segments")
+                .baseUnit("bytes")
+                .tag("broker", broker)
+                .register(meterRegistry);
+        
+        this.batchSizeSummary = DistributionSummary.builder("sink.batch.size")
+                .description("Records per file sink write batch")
+                .tag("broker", broker)
+                .register(meterRegistry);
+        
+        this.writeTimer = Timer.builder("sink.write")
+                .description("Time of one gathering write of a sink frame")
+                .tag("broker", broker)
+                .register(meterRegistry);
+        
+        this.fsyncTimer = Timer.builder("sink.fsync")
+                .description("Time of one fsync of the active sink segment")
+                .tag("broker", broker)
+                .register(meterRegistry);
+        
+        Gauge.builder("sink.pending", this, s -> s.queue.size() + s.unsyncedCount)
+                .description("Records queued or written but not yet durable")
+                .tag("broker", broker)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Otevře nový segment a spustí zapisovací vlákno.
+     *
+     * @throws UncheckedIOException když nejde vytvořit adresář nebo segment
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        try {
+            Files.createDirectories(directory);
+            nextSegment = lastSegmentNumber() + 1;
+            openSegment();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Nelze otevřít sink v " + directory, e);
+        }
+        lastSyncNanos = System.nanoTime();
+        startNanos = lastSyncNanos;
+        running = true;
+        writer = new Thread(this::run, "file-sink");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("✓ Souborový sink spuštěn: {} (fsync {}, segment {} MB)",
+                directory, fsyncPolicy.name().toLowerCase(), segmentBytes / (1024 * 1024));
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Zařadí záznam k zápisu. Při plné frontě čeká - pomalý disk tak zpomalí i konzumenta.
+     *
+     * @return future dokončený, až je záznam trvalý podle fsync politiky;
+     *         po ukončení sinku selže s {@link RejectedExecutionException}
+     */
+    public CompletableFuture<Void> append(T item) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        Pending<T> pending = new Pending<>(item, future);
+        try {
+            while (running) {
+                if (queue.offer(pending, IDLE_POLL_NANOS, TimeUnit.NANOSECONDS)) {
+                    return future;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        failed.incrementAndGet();
+        future.completeExceptionally(new RejectedExecutionException("Souborový sink neběží"));
+        return future;
+    }
+
+    public FileSinkStatus getStatus() {
+        long written = bytes.get();
+        long batchCount = batches.get();
+        double seconds = running ? (System.nanoTime() - startNanos) / 1_000_000_000.0 : 0;
+        return FileSinkStatus.builder()
+                .enabled(running)
+                .fsyncPolicy(fsyncPolicy.name().toLowerCase())
+                .directory(directory.toString())
+                .activeSegment(activeSegment != null ? activeSegment.getFileName().toString() : null)
+                .records(records.get())
+                .bytes(written)
+                .batches(batchCount)
+                .avgBatchSize(batchCount > 0 ? (double) records.get() / batchCount : 0)
+                .writeMBPerSec(seconds > 0 ? written / seconds / (1024 * 1024) : 0)
+                .fsyncs(fsyncTimer.count())
+                .avgFsyncMs(fsyncTimer.mean(TimeUnit.MILLISECONDS))
+                .maxFsyncMs(fsyncTimer.max(TimeUnit.MILLISECONDS))
+                .pendingAcks(queue.size() + unsyncedCount)
+                .failed(failed.get())
+                .build();
+    }
+
+    /**
+     * Dopíše frontu, provede závěrečný fsync a zavře segment.
+     * Zapisovací vlákno se nepřerušuje - přerušení by zavřelo FileChannel uprostřed zápisu.
+     */
+    @Override
+    public void close() {
+        Thread current;
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            running = false;
+            current = writer;
+        }
+        try {
+            current.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Záznamy zařazené souběžně s ukončením už zapisovací vlákno nepřevezme
+        List<Pending<T>> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        failed.addAndGet(remaining.size());
+        remaining.forEach(p -> p.future.completeExceptionally(new RejectedExecutionException("Souborový sink ukončen")));
+        log.info("✓ Souborový sink ukončen: {} záznamů, {} MB", records.get(), bytes.get() / (1024 * 1024));
+    }
+
+    private void run() {
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending<T> first = queue.poll(pollTimeoutNanos(), TimeUnit.NANOSECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, maxBatchSize - 1);
+                    writeBatch();
+                }
+                if (fsyncPolicy == FsyncPolicy.INTERVAL && !unsynced.isEmpty()
+                        && System.nanoTime() - lastSyncNanos >= fsyncIntervalNanos) {
+                    sync();
+                }
+            } catch (InterruptedException e) {
+                // Pro zapisovací vlákno nevyužito, konec řídí příznak running
+                Thread.interrupted();
+            } catch (IOException e) {
+                failUnsynced(e);
+            } catch (Exception e) {
+                log.error("Chyba zápisu do sinku: {}", e.getMessage(), e);
+                failUnsynced(e);
+            }
+        }
+        try {
+            if (fsyncPolicy != FsyncPolicy.NONE) {
+                sync();
+            }
+            completeUnsynced();
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            failUnsynced(e);
+        }
+    }
+
+    /**
+     * U interval politiky nejdéle do dalšího plánovaného fsync.
+     */
+    private long pollTimeoutNanos() {
+        if (fsyncPolicy != FsyncPolicy.INTERVAL || unsynced.isEmpty()) {
+            return IDLE_POLL_NANOS;
+        }
+        return Math.max(0, Math.min(IDLE_POLL_NANOS, lastSyncNanos + fsyncIntervalNanos - System.nanoTime()));
+    }
+
+    private void writeBatch() throws IOException {
+        batchSizeSummary.record(batch.size());
+        batches.incrementAndGet();
+        try {
+            for (int i = 0; i < batch.size(); i++) {
+                Pending<T> pending = batch.get(i);
+                int start = body.position();
+                try {
+                    if (body.remaining() < 4) {
+                        throw new BufferOverflowException();
+                    }
+                    body.position(start + 4);
+                    encoder.encode(pending.item, body);
+                    body.putInt(start, body.position() - start - 4);
+                    framed.add(pending.future);
+                } catch (BufferOverflowException e) {
+                    body.position(start);
+                    if (framed.isEmpty()) {
+                        failed.incrementAndGet();
+                        pending.future.completeExceptionally(new IllegalArgumentException(
+                                "Záznam se nevejde do bufferu sinku (" + bufferBytes + " B)"));
+                    } else {
+                        // Plný buffer: zapsat dosavadní rámec a záznam zkusit znovu do prázdného
+                        writeFrame();
+                        i--;
+                    }
+                } catch (RuntimeException e) {
+                    body.position(start);
+                    failed.incrementAndGet();
+                    pending.future.completeExceptionally(e);
+                }
+            }
+            if (!framed.isEmpty()) {
+                writeFrame();
+            }
+        } catch (IOException e) {
+            // Rámec se nemusel zapsat celý, další zápis začne novým segmentem
+            closeQuietly();
+            framed.forEach(future -> future.completeExceptionally(e));
+            failed.addAndGet(framed.size());
+            framed.clear();
+            body.clear();
+            throw e;
+        } finally {
+            batch.clear();
+        }
+        
+        switch (fsyncPolicy) {
+            case BATCH -> sync();
+            case NONE -> completeUnsynced();
+            case INTERVAL -> unsyncedCount = unsynced.size();
+        }
+    }
+
+    private void writeFrame() throws IOException {
+        body.flip();
+        int bodyLength = body.remaining();
+        crc.reset();
+        crc.update(body);
+        body.rewind();
+        header.clear();
+        header.putInt(FRAME_MAGIC).putInt(framed.size()).putInt(bodyLength).putInt((int) crc.getValue());
+        header.flip();
+        
+        long frameBytes = FRAME_HEADER_BYTES + bodyLength;
+        if (channel == null || (segmentPosition > 0 && segmentPosition + frameBytes > segmentBytes)) {
+            rollSegment();
+        }
+        
+        long writeStart = System.nanoTime();
+        while (body.hasRemaining()) {
+            channel.write(frame);
+        }
+        writeTimer.record(System.nanoTime() - writeStart, TimeUnit.NANOSECONDS);
+        
+        segmentPosition += frameBytes;
+        records.addAndGet(framed.size());
+        bytes.addAndGet(frameBytes);
+        recordsCounter.increment(framed.size());
+        bytesCounter.increment(frameBytes);
+        unsynced.addAll(framed);
+        framed.clear();
+        body.clear();
+    }
+
+    private void sync() throws IOException {
+        if (channel != null && !unsynced.isEmpty()) {
+            long syncStart = System.nanoTime();
+            channel.force(false);
+            fsyncTimer.record(System.nanoTime() - syncStart, TimeUnit.NANOSECONDS);
+        }
+        lastSyncNanos = System.nanoTime();
+        completeUnsynced();
+    }
+
+    private void completeUnsynced() {
+        for (CompletableFuture<Void> future : unsynced) {
+            future.complete(null);
+        }
+        unsynced.clear();
+        unsyncedCount = 0;
+    }
+
+    private void failUnsynced(Exception e) {
+        if (!unsynced.isEmpty()) {
+            log.error("❌ Záznamy v sinku nejsou trvalé ({}), potvrzení zpráv se neodešle: {}",
+                    unsynced.size(), e.getMessage());
+        }
+        for (CompletableFuture<Void> future : unsynced) {
+            future.completeExceptionally(e);
+        }
+        failed.addAndGet(unsynced.size());
+        unsynced.clear();
+        unsyncedCount = 0;
+        closeQuietly();
+    }
+
+    /**
+     * Uzavře aktivní segment (s fsync, pokud politika fsync dělá) a otevře další.
+     */
+    private void rollSegment() throws IOException {
+        if (channel != null) {
+            if (fsyncPolicy != FsyncPolicy.NONE) {
+                sync();
+            }
+            channel.close();
+            channel = null;
+        }
+        openSegment();
+        deleteOldSegments();
+    }
+
+    private void openSegment() throws IOException {
+        Path segment = directory.resolve(String.format("%020d%s", nextSegment++, SEGMENT_SUFFIX));
+        channel = FileChannel.open(segment, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        segmentPosition = 0;
+        activeSegment = segment;
+        if (fsyncPolicy != FsyncPolicy.NONE) {
+            syncDirectory();
+        }
+        log.debug("📥 Nový segment sinku: {}", segment.getFileName());
+    }
+
+    /**
+     * Nový soubor je trvalý až s fsync adresáře. Na systémech, kde adresář nejde otevřít
+     * (Windows), se přeskočí.
+     */
+    private void syncDirectory() {
+        try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException e) {
+            log.debug("fsync adresáře {} není podporován: {}", directory, e.getMessage());
+        }
+    }
+
+    private void deleteOldSegments() throws IOException {
+        List<Path> segments = listSegments();
+        for (int i = 0; i < segments.size() - retainSegments; i++) {
+            Files.deleteIfExists(segments.get(i));
+        }
+    }
+
+    private long lastSegmentNumber() throws IOException {
+        List<Path> segments = listSegments();
+        if (segments.isEmpty()) {
+            return -1;
+        }
+        String name = segments.get(segments.size() - 1).getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private List<Path> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(p -> p.getFileName().toString().matches("\\d{20}\\" + SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private void closeQuietly() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // segment se stejně opouští
+            }
+            channel = null;
+        }
+    }
+
+    private static final class Pending<T> {
+        private final T item;
+        private final CompletableFuture<Void> future;
+        
+        private Pending(T item, CompletableFuture<Void> future) {
+            this.item = item;
+            this.future = future;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.workshop.benchmark.sink;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Stav souborového sinku zpracovaných zpráv.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FileSinkStatus {
+    private boolean enabled;
+    private String fsyncPolicy;
+    private String directory;
+    private String activeSegment;
+    private long records;
+    private long bytes;
+    private long batches;
+    private double avgBatchSize;
+    private double writeMBPerSec;       // od spuštění sinku
+    private long fsyncs;
+    private double avgFsyncMs;
+    private double maxFsyncMs;
+    private int pendingAcks;            // ve frontě nebo zapsané a čekající na fsync
+    private long failed;
+}
@@ -0,0 +1,26 @@
+package com.workshop.benchmark.sink;
+
+import java.util.Locale;
+
+/**
+ * Kdy {@link FileSink} volá fsync a tím i kdy potvrdí zapsané záznamy.
+ */
+public enum FsyncPolicy {
+    /** fsync po každé dávce - potvrzený záznam přežije i pád OS. */
+    BATCH,
+    /** fsync nejpozději po fsync intervalu, potvrzení čekají na něj. */
+    INTERVAL,
+    /** Bez fsync - potvrzení po zápisu do page cache, přežije jen pád procesu. */
+    NONE;
+
+    /**
+     * @throws IllegalArgumentException při neznámé politice
+     */
+    public static FsyncPolicy parse(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Neznámá fsync politika '" + value + "' (batch, interval, none)");
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.workshop.benchmark.sink;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Binární zápis záznamu pro {@link FileSink}.
+ *
+ * @param <T> typ záznamu
+ */
+@FunctionalInterface
+public interface RecordEncoder<T> {
+
+    /**
+     * Zapíše záznam od aktuální pozice bufferu. Při nedostatku místa vyhodí
+     * {@link java.nio.BufferOverflowException}, sink pak záznam zapíše do další dávky.
+     */
+    void encode(T item, ByteBuffer out);
+
+    /**
+     * Zapíše řetězec jako [délka int][UTF-8] přímo do bufferu, bez mezilehlého byte[].
+     * Null se zapíše jako délka -1.
+     */
+    static void putString(ByteBuffer out, String value) {
+        if (value == null) {
+            out.putInt(-1);
+            return;
+        }
+        int lengthAt = out.position();
+        out.position(lengthAt + 4);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                out.put((byte) c);
+            } else if (c < 0x800) {
+                out.put((byte) (0xC0 | (c >> 6)));
+                out.put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                out.put((byte) (0xF0 | (codePoint >> 18)));
+                out.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                out.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                out.put((byte) (0x80 | (codePoint & 0x3F)));
+            } else if (Character.isSurrogate(c)) {
+                // Osamocený surrogate se zapíše jako '?' stejně jako String.getBytes(UTF_8)
+                out.put((byte) '?');
+            } else {
+                out.put((byte) (0xE0 | (c >> 12)));
+                out.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                out.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+        out.putInt(lengthAt, out.position() - lengthAt - 4);
+    }
+}
@@ -0,0 +1,308 @@
+package com.workshop.benchmark.spool;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.workshop.benchmark.batch.MicroBatcher;
+import com.workshop.benchmark.redrive.TokenBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Lokální write-ahead spool producera pro výpadek brokeru.
+ *
+ * Zprávy, které broker nepřijal, se jako JSON zapíší do {@link Spool} a vlákno přehrávání
+ * je po obnovení brokeru odešle přes {@link MicroBatcher.BatchSink} rychlostí omezenou
+ * token bucketem. Záznam opouští spool až po potvrzení brokerem.
+ * Dokud přehrávání hlásí nedostupný broker, nové zprávy jdou rovnou do spoolu
+ * a producer nečeká na timeouty spojení.
+ *
+ * Záznam, který nejde dekódovat, se odloží do souboru poison-*.bin vedle segmentů
+ * a přehrávání pokračuje - jinak by zablokoval spool i všechna další odeslání.
+ *
+ * Doručení je at-least-once - po pádu uprostřed dávky se část zpráv odešle znovu.
+ * Během dohrávání se spoolované zprávy mísí s novými, pořadí není zaručeno.
+ *
+ * @param <T> typ zprávy brokeru
+ */
+public class ProducerSpool<T> implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(ProducerSpool.class);
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final long fsyncIntervalMs;
+    private final double replayRatePerSecond;
+    private final int replayBatchSize;
+    private final long retryBackoffMs;
+    private final long ackTimeoutMs;
+    private final ObjectMapper objectMapper;
+    private final Class<T> type;
+    private final MicroBatcher.BatchSink<T> sink;
+    private final MeterRegistry meterRegistry;
+    private final String broker;
+
+    private final Counter appendedCounter;
+    private final Counter replayedCounter;
+    private final Counter poisonCounter;
+    private final Timer syncTimer;
+
+    private Spool spool;
+    private Thread replayer;
+    private volatile boolean running;
+    private volatile String state = "DISABLED";
+    private volatile String lastError;
+    private volatile long drainStartNanos;
+    private volatile long drainReplayed;
+
+    public ProducerSpool(Path directory, int segmentBytes, long fsyncIntervalMs, double replayRatePerSecond,
+                         int replayBatchSize, long retryBackoffMs, long ackTimeoutMs, ObjectMapper objectMapper,
+                         Class<T> type, MicroBatcher.BatchSink<T> sink, MeterRegistry meterRegistry, String broker) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.fsyncIntervalMs = fsyncIntervalMs;
+        this.replayRatePerSecond = replayRatePerSecond;
+        this.replayBatchSize = replayBatchSize;
+        this.retryBackoffMs = retryBackoffMs;
+        this.ackTimeoutMs = ackTimeoutMs;
+        this.objectMapper = objectMapper;
+        this.type = type;
+        this.sink = sink;
+        this.meterRegistry = meterRegistry;
+        this.broker = broker;
+        
+        this.appendedCounter = Counter.builder("spool.appended")
+                .description("Messages written to the local producer spool")
+                .tag("broker", broker)
+                .register(meterRegistry);
+        
+        this.replayedCounter = Counter.builder("spool.replayed")
+                .description("Messages replayed from the spool and confirmed by the broker")
+                .tag("broker", broker)
+                .register(meterRegistry);
+        
+        this.poisonCounter = Counter.builder("spool.poison")
+                .description("Spool records that could not be decoded and were set aside")
+                .tag("broker", broker)
+                .register(meterRegistry);
+        
+        this.syncTimer = Timer.builder("spool.fsync")
+                .description("Duration of group fsync of the producer spool")
+                .tag("broker", broker)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Otevře spool a spustí vlákno přehrávání. Bez volání je spool vypnutý.
+     */
+    public void start() throws IOException {
+        spool = new Spool(directory, segmentBytes, Duration.ofMillis(fsyncIntervalMs),
+                durationNanos -> syncTimer.record(durationNanos, TimeUnit.NANOSECONDS));
+        
+        Gauge.builder("spool.depth", spool, Spool::getDepth)
+                .description("Messages waiting in the producer spool")
+                .tag("broker", broker)
+                .register(meterRegistry);
+        
+        Gauge.builder("spool.bytes", spool, Spool::getPendingBytes)
+                .description("Bytes waiting in the producer spool")
+                .baseUnit("bytes")
+                .tag("broker", broker)
+                .register(meterRegistry);
+        
+        running = true;
+        state = "IDLE";
+        replayer = new Thread(this::replayLoop, "spool-replay");
+        replayer.setDaemon(true);
+        replayer.start();
+    }
+
+    public boolean isEnabled() {
+        return spool != null;
+    }
+
+    /**
+     * Poslední pokus o přehrání selhal - broker je nejspíš stále nedostupný.
+     */
+    public boolean isBrokerUnavailable() {
+        return "WAITING_FOR_BROKER".equals(state);
+    }
+
+    /**
+     * Zapíše zprávu do spoolu.
+     */
+    public void append(T message) {
+        try {
+            spool.append(objectMapper.writeValueAsBytes(message));
+            appendedCounter.increment();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Zprávu nelze zapsat do spoolu", e);
+        }
+    }
+
+    public SpoolStatus getStatus() {
+        boolean enabled = isEnabled();
+        long elapsedNanos = System.nanoTime() - drainStartNanos;
+        return SpoolStatus.builder()
+                .enabled(enabled)
+                .state(state)
+                .depth(enabled ? spool.getDepth() : 0)
+                .pendingBytes(enabled ? spool.getPendingBytes() : 0)
+                .spooled((long) appendedCounter.count())
+                .replayed((long) replayedCounter.count())
+                .poison((long) poisonCounter.count())
+                .replayThroughputMsgPerSec(drainStartNanos != 0 && elapsedNanos > 0
+                        ? drainReplayed * 1_000_000_000.0 / elapsedNanos : 0)
+                .lastError(lastError)
+                .build();
+    }
+
+    private void replayLoop() {
+        TokenBucket tokenBucket = new TokenBucket(replayRatePerSecond, replayBatchSize);
+        while (running) {
+            List<SpoolRecord> batch = spool.poll(replayBatchSize);
+            if (batch.isEmpty()) {
+                if (!"IDLE".equals(state)) {
+                    log.info("✓ Spool dohrán: {} zpráv", drainReplayed);
+                }
+                state = "IDLE";
+                drainStartNanos = 0;
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(100));
+                continue;
+            }
+            if (drainStartNanos == 0) {
+                drainStartNanos = System.nanoTime();
+                drainReplayed = 0;
+                log.info("🔁 Přehrávání spoolu: {} zpráv čeká", spool.getDepth());
+            }
+            
+            tokenBucket.acquire(batch.size());
+            int done = replayBatch(batch);
+            if (done > 0) {
+                spool.commit(batch.subList(0, done));
+            }
+            if (done < batch.size()) {
+                // Broker stále nedostupný - zkusíme to znovu později
+                state = "WAITING_FOR_BROKER";
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(retryBackoffMs));
+            } else {
+                state = "REPLAYING";
+            }
+        }
+    }
+
+    /**
+     * Odešle dávku a počká na potvrzení. Nedekódovatelné záznamy odloží stranou.
+     *
+     * @return počet vyřízených záznamů od začátku dávky (potvrzených nebo odložených)
+     */
+    private int replayBatch(List<SpoolRecord> batch) {
+        List<T> messages = new ArrayList<>(batch.size());
+        boolean[] poison = new boolean[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            try {
+                messages.add(objectMapper.readValue(batch.get(i).getData(), type));
+            } catch (IOException e) {
+                if (!setAside(batch.get(i), e)) {
+                    // Záznam zůstane ve spoolu - dávka končí před ním
+                    batch = batch.subList(0, i);
+                    break;
+                }
+                poison[i] = true;
+            }
+        }
+        
+        List<CompletableFuture<?>> acks = List.of();
+        if (!messages.isEmpty()) {
+            try {
+                acks = sink.publish(messages);
+            } catch (Exception e) {
+                lastError = e.getMessage();
+                log.debug("Přehrání spoolu selhalo: {}", e.getMessage());
+            }
+        }
+        
+        int done = 0;
+        int next = 0;
+        int confirmed = 0;
+        for (; done < batch.size(); done++) {
+            if (poison[done]) {
+                continue;
+            }
+            if (next == acks.size() || !awaitAck(acks.get(next++))) {
+                break;
+            }
+            confirmed++;
+        }
+        drainReplayed += confirmed;
+        replayedCounter.increment(confirmed);
+        return done;
+    }
+
+    private boolean awaitAck(CompletableFuture<?> ack) {
+        try {
+            ack.get(ackTimeoutMs, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            lastError = e.getMessage();
+            return false;
+        }
+    }
+
+    /**
+     * Zapíše záznam beze změny do poison-&lt;segment&gt;-&lt;offset&gt;.bin. Opakované přečtení
+     * téhož záznamu (dávka selhala dřív, než se pozice posunula) soubor ani počítadlo nezdvojí.
+     *
+     * @return false pokud záznam nejde zapsat ani stranou
+     */
+    private boolean setAside(SpoolRecord record, IOException error) {
+        Path file = directory.resolve("poison-" + record.getSegment() + "-" + record.getNextOffset() + ".bin");
+        try {
+            Files.write(file, record.getData(), StandardOpenOption.CREATE_NEW);
+            poisonCounter.increment();
+            lastError = error.getMessage();
+            log.warn("⚠ Záznam spoolu nelze dekódovat, odložen do {}: {}", file, error.getMessage());
+        } catch (FileAlreadyExistsException e) {
+            // Už odložený při předchozím pokusu o dávku
+        } catch (IOException e) {
+            lastError = e.getMessage();
+            log.error("Záznam spoolu nelze odložit do {}: {}", file, e.getMessage());
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void close() {
+        if (!isEnabled()) {
+            return;
+        }
+        running = false;
+        replayer.interrupt();
+        try {
+            replayer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        spool.close();
+    }
+}
@@ -0,0 +1,310 @@
+package com.workshop.benchmark.spool;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Write-ahead spool - perzistentní FIFO fronta záznamů v memory-mapped segmentech.
+ *
+ * Formát záznamu: [délka int][CRC32 int][data]. Délka se zapisuje jako poslední,
+ * nulová délka nebo nesedící CRC znamená konec platných dat (i po pádu uprostřed zápisu).
+ *
+ * - zápis je v page cache ihned (přežije pád procesu), fsync probíhá skupinově
+ *   jednou za fsync interval pro všechny záznamy zapsané od posledního fsync
+ * - čtení ({@link #poll(int)}) pozici neposouvá, až {@link #commit(List)} po potvrzení brokerem
+ * - pozice čtení se ukládá do souboru "cursor", plně přečtené segmenty se mažou
+ *
+ * Zapisovat může více vláken, číst a commitovat jen jedno.
+ */
+public class Spool implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(Spool.class);
+    private static final String SEGMENT_SUFFIX = ".spool";
+    private static final int HEADER_BYTES = 8;
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final Map<Long, MappedByteBuffer> segments = new ConcurrentHashMap<>();
+    private final MappedByteBuffer cursor;
+    private final ScheduledExecutorService syncer;
+    private final LongConsumer syncListener;
+
+    private final AtomicLong depth = new AtomicLong();
+    private final AtomicLong pendingBytes = new AtomicLong();
+
+    // Zápis - chráněno zámkem instance
+    private long writeSegment;
+    private MappedByteBuffer writer;
+    private volatile boolean dirty;
+
+    // Čtení - jen vlákno přehrávání
+    private volatile long readSegment;
+    private volatile int readOffset;
+
+    /**
+     * @param syncListener dostává dobu trvání každého skupinového fsync v ns
+     */
+    public Spool(Path directory, int segmentBytes, Duration fsyncInterval, LongConsumer syncListener) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.segmentBytes = segmentBytes;
+        this.syncListener = syncListener;
+        
+        try (FileChannel channel = FileChannel.open(directory.resolve("cursor"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            this.cursor = channel.map(FileChannel.MapMode.READ_WRITE, 0, 16);
+        }
+        recover();
+        
+        this.syncer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "spool-fsync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMs = Math.max(1, fsyncInterval.toMillis());
+        syncer.scheduleWithFixedDelay(this::syncQuietly, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        
+        log.info("Spool v {}: {} záznamů ({} B) čeká na přehrání", directory, depth.get(), pendingBytes.get());
+    }
+
+    /**
+     * Připojí záznam na konec spoolu. Na disk ho dostane nejbližší skupinový fsync.
+     */
+    public synchronized void append(byte[] data) {
+        int size = HEADER_BYTES + data.length;
+        if (writer.remaining() < size) {
+            roll(Math.max(segmentBytes, size));
+        }
+        int position = writer.position();
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        writer.putInt(position + 4, (int) crc.getValue());
+        writer.put(position + HEADER_BYTES, data);
+        // Délka až nakonec - do té doby čtenář i obnova záznam ignorují
+        writer.putInt(position, data.length);
+        writer.position(position + size);
+        
+        depth.incrementAndGet();
+        pendingBytes.addAndGet(data.length);
+        dirty = true;
+    }
+
+    /**
+     * Přečte až max záznamů od aktuální pozice čtení, pozici neposouvá.
+     */
+    public List<SpoolRecord> poll(int max) {
+        long endSegment;
+        int endOffset;
+        synchronized (this) {
+            endSegment = writeSegment;
+            endOffset = writer.position();
+        }
+        
+        List<SpoolRecord> records = new ArrayList<>(Math.min(max, 1024));
+        long segment = readSegment;
+        int offset = readOffset;
+        while (records.size() < max && (segment < endSegment || (segment == endSegment && offset < endOffset))) {
+            MappedByteBuffer buffer = segments.get(segment);
+            int length = buffer != null && offset + HEADER_BYTES <= buffer.capacity() ? buffer.getInt(offset) : 0;
+            if (length <= 0) {
+                // Konec segmentu - pokračujeme dalším
+                segment++;
+                offset = 0;
+                continue;
+            }
+            byte[] data = new byte[length];
+            buffer.get(offset + HEADER_BYTES, data);
+            offset += HEADER_BYTES + length;
+            records.add(new SpoolRecord(data, segment, offset));
+        }
+        return records;
+    }
+
+    /**
+     * Posune pozici čtení za dané záznamy (prefix posledního {@link #poll(int)}).
+     */
+    public void commit(List<SpoolRecord> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        long bytes = 0;
+        for (SpoolRecord record : records) {
+            bytes += record.getData().length;
+        }
+        SpoolRecord last = records.get(records.size() - 1);
+        long previousSegment = readSegment;
+        
+        readSegment = last.getSegment();
+        readOffset = last.getNextOffset();
+        cursor.putLong(0, readSegment);
+        cursor.putInt(8, readOffset);
+        depth.addAndGet(-records.size());
+        pendingBytes.addAndGet(-bytes);
+        dirty = true;
+        
+        for (long segment = previousSegment; segment < readSegment; segment++) {
+            deleteSegment(segment);
+        }
+    }
+
+    public long getDepth() {
+        return depth.get();
+    }
+
+    public long getPendingBytes() {
+        return pendingBytes.get();
+    }
+
+    /**
+     * Skupinový fsync aktivního segmentu a pozice čtení.
+     */
+    public void sync() {
+        if (!dirty) {
+            return;
+        }
+        dirty = false;
+        MappedByteBuffer active;
+        synchronized (this) {
+            active = writer;
+        }
+        long start = System.nanoTime();
+        active.force();
+        cursor.force();
+        syncListener.accept(System.nanoTime() - start);
+    }
+
+    @Override
+    public void close() {
+        syncer.shutdownNow();
+        dirty = true;
+        sync();
+    }
+
+    private void roll(int size) {
+        // Uzavřený segment se synchronizuje hned, skupinový fsync řeší jen aktivní
+        writer.force();
+        writeSegment++;
+        writer = mapSegment(writeSegment, size);
+    }
+
+    private void recover() {
+        List<Long> ids = listSegments();
+        long first = ids.isEmpty() ? 0 : ids.get(0);
+        long last = ids.isEmpty() ? 0 : ids.get(ids.size() - 1);
+        
+        long cursorSegment = cursor.getLong(0);
+        int cursorOffset = cursor.getInt(8);
+        if (cursorSegment < first || cursorSegment > last) {
+            cursorSegment = first;
+            cursorOffset = 0;
+        }
+        readSegment = cursorSegment;
+        readOffset = cursorOffset;
+        
+        for (long id : ids) {
+            if (id < cursorSegment) {
+                // Přečtený segment, který se nestihl smazat
+                deleteSegment(id);
+            }
+        }
+        
+        writeSegment = last;
+        for (long id = cursorSegment; id <= last; id++) {
+            MappedByteBuffer buffer = mapSegment(id, segmentBytes);
+            int end = scan(buffer, id == cursorSegment ? cursorOffset : 0);
+            buffer.position(end);
+            if (id == last) {
+                writer = buffer;
+            }
+        }
+    }
+
+    /**
+     * Projde platné záznamy, započítá je do hloubky spoolu a vrátí konec platných dat.
+     */
+    private int scan(MappedByteBuffer buffer, int offset) {
+        while (offset + HEADER_BYTES <= buffer.capacity()) {
+            int length = buffer.getInt(offset);
+            if (length <= 0 || offset + HEADER_BYTES + length > buffer.capacity()) {
+                break;
+            }
+            byte[] data = new byte[length];
+            buffer.get(offset + HEADER_BYTES, data);
+            CRC32 crc = new CRC32();
+            crc.update(data);
+            if ((int) crc.getValue() != buffer.getInt(offset + 4)) {
+                log.warn("⚠ Spool: poškozený záznam na pozici {}, zbytek segmentu se ignoruje", offset);
+                break;
+            }
+            depth.incrementAndGet();
+            pendingBytes.addAndGet(length);
+            offset += HEADER_BYTES + length;
+        }
+        return offset;
+    }
+
+    private MappedByteBuffer mapSegment(long id, int size) {
+        Path path = segmentPath(id);
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(size, channel.size()));
+            segments.put(id, buffer);
+            return buffer;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Nelze namapovat segment spoolu " + path, e);
+        }
+    }
+
+    private void deleteSegment(long id) {
+        segments.remove(id);
+        try {
+            Files.deleteIfExists(segmentPath(id));
+        } catch (IOException e) {
+            log.warn("⚠ Segment spoolu {} nelze smazat: {}", id, e.getMessage());
+        }
+    }
+
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (Exception e) {
+            log.error("Chyba fsync spoolu: {}", e.getMessage());
+        }
+    }
+
+    private List<Long> listSegments() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Nelze číst adresář spoolu " + directory, e);
+        }
+    }
+
+    private Path segmentPath(long id) {
+        return directory.resolve(String.format("%020d%s", id, SEGMENT_SUFFIX));
+    }
+}
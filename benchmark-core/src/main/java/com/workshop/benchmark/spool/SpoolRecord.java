@@ -0,0 +1,13 @@
+package com.workshop.benchmark.spool;
+
+import lombok.Value;
+
+/**
+ * Záznam přečtený ze spoolu a pozice těsně za ním (pro commit).
+ */
+@Value
+public class SpoolRecord {
+    byte[] data;
+    long segment;
+    int nextOffset;
+}
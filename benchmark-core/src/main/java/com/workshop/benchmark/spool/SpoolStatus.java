@@ -0,0 +1,26 @@
+package com.workshop.benchmark.spool;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Stav producer spoolu a jeho přehrávání.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SpoolStatus {
+    private boolean enabled;
+    private String state;
+    private long depth;
+    private long pendingBytes;
+    private long spooled;
+    private long replayed;
+    /** Nedekódovatelné záznamy odložené do poison-*.bin. */
+    private long poison;
+    private double replayThroughputMsgPerSec;
+    private String lastError;
+}
@@ -0,0 +1,15 @@
+package com.workshop.benchmark.tracing;
+
+import lombok.Value;
+
+/**
+ * Časové značky vzorkované zprávy přenesené v hlavičkách (mikrosekundy epochy).
+ * Chybějící značka je 0 - odpovídající úsek se započítá jako nulový.
+ */
+@Value
+public class HopTrace {
+
+    long sentMicros;
+    long serializedMicros;
+    long receivedMicros;
+}
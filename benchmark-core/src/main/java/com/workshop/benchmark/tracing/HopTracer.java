@@ -0,0 +1,168 @@
+package com.workshop.benchmark.tracing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.observation.ObservationPredicate;
+import io.micrometer.observation.transport.ReceiverContext;
+import io.micrometer.observation.transport.SenderContext;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Per-hop tracing - latence jednotlivých úseků cesty zprávy.
+ * 
+ * Producer u vzorkované zprávy přidá hlavičku {@link #SENT_HEADER}, serializer / post-processor
+ * po serializaci {@link #SERIALIZED_HEADER} a consumer při příjmu {@link #RECEIVED_HEADER}.
+ * Po zpracování se zaznamenají úseky:
+ * - serialize: od volání send po dokončení serializace
+ * - broker: od serializace po příjem consumerem (síť, broker, fetch)
+ * - dispatch: od příjmu po vstup do listeneru (čekání v dávce, deserializace)
+ * - process: processMessage
+ * - total: end-to-end
+ * 
+ * Značky jsou v mikrosekundách epochy, producer a consumer nemusí běžet ve stejné JVM.
+ * Nevzorkované zprávy nenesou žádnou hlavičku a nic neměří.
+ */
+public class HopTracer {
+
+    public static final String SENT_HEADER = "x-trace-sent";
+    public static final String SERIALIZED_HEADER = "x-trace-serialized";
+    public static final String RECEIVED_HEADER = "x-trace-received";
+
+    private static final String[] STAGES = {"serialize", "broker", "dispatch", "process", "total"};
+    private static final int TOTAL = STAGES.length - 1;
+
+    private final String broker;
+    private final Timer[] stageTimers = new Timer[STAGES.length];
+    private volatile double sampleRate;
+
+    public HopTracer(MeterRegistry meterRegistry, String broker, double sampleRate) {
+        this.broker = broker;
+        setSampleRate(sampleRate);
+        
+        for (int i = 0; i < STAGES.length; i++) {
+            stageTimers[i] = Timer.builder("trace.stage")
+                    .description("Per-hop latency of sampled messages")
+                    .tag("broker", broker)
+                    .tag("stage", STAGES[i])
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Rozhodnutí o vzorkování zprávy.
+     */
+    public boolean sample() {
+        double rate = sampleRate;
+        return rate > 0 && ThreadLocalRandom.current().nextDouble() < rate;
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    public void setSampleRate(double sampleRate) {
+        if (sampleRate < 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("sampleRate musí být v intervalu 0..1: " + sampleRate);
+        }
+        this.sampleRate = sampleRate;
+    }
+
+    /**
+     * Micrometer observations šablon a listener containerů jen pro vzorkované zprávy.
+     * Rozhoduje hlavička {@link #SENT_HEADER} na nosiči (záznam / zpráva brokeru), ne nové losování -
+     * producer i consumer tak pozorují tytéž zprávy jako per-hop tracing.
+     * Ostatní observations (HTTP apod.) propouští beze změny.
+     *
+     * @param sampledCarrier test, zda nosič brokeru nese značku odeslání
+     */
+    public ObservationPredicate observationPredicate(Predicate<Object> sampledCarrier) {
+        return (name, context) -> {
+            if (!(name.startsWith("spring.kafka.") || name.startsWith("spring.rabbit."))) {
+                return true;
+            }
+            Object carrier = context instanceof SenderContext<?> sender ? sender.getCarrier()
+                    : context instanceof ReceiverContext<?> receiver ? receiver.getCarrier() : null;
+            return carrier != null && sampledCarrier.test(carrier);
+        };
+    }
+
+    /**
+     * Zaznamená úseky zpracované vzorkované zprávy.
+     */
+    public void record(HopTrace trace, long dispatchedMicros, long processedMicros) {
+        long sent = trace.getSentMicros();
+        long serialized = trace.getSerializedMicros() > 0 ? trace.getSerializedMicros() : sent;
+        long received = trace.getReceivedMicros() > 0 ? trace.getReceivedMicros() : dispatchedMicros;
+        
+        recordStage(0, serialized - sent);
+        recordStage(1, received - serialized);
+        recordStage(2, dispatchedMicros - received);
+        recordStage(3, processedMicros - dispatchedMicros);
+        recordStage(TOTAL, processedMicros - sent);
+    }
+
+    private void recordStage(int stage, long micros) {
+        // Rozdíl hodin mezi stroji může dát záporný úsek
+        stageTimers[stage].record(Math.max(0, micros), TimeUnit.MICROSECONDS);
+    }
+
+    /**
+     * Rozpad latence po úsecích. Percentily jsou z klouzavého okna Micrometer timeru.
+     */
+    public TraceBreakdown getBreakdown() {
+        HistogramSnapshot[] snapshots = new HistogramSnapshot[STAGES.length];
+        for (int i = 0; i < STAGES.length; i++) {
+            snapshots[i] = stageTimers[i].takeSnapshot();
+        }
+        double totalMean = snapshots[TOTAL].mean(TimeUnit.MILLISECONDS);
+        
+        List<TraceStage> stages = new ArrayList<>();
+        for (int i = 0; i < STAGES.length; i++) {
+            HistogramSnapshot snapshot = snapshots[i];
+            double mean = snapshot.mean(TimeUnit.MILLISECONDS);
+            stages.add(TraceStage.builder()
+                    .stage(STAGES[i])
+                    .samples(snapshot.count())
+                    .meanMs(mean)
+                    .p50Ms(percentile(snapshot, 0.5))
+                    .p95Ms(percentile(snapshot, 0.95))
+                    .p99Ms(percentile(snapshot, 0.99))
+                    .maxMs(snapshot.max(TimeUnit.MILLISECONDS))
+                    .sharePercent(totalMean > 0 ? mean / totalMean * 100 : 0)
+                    .build());
+        }
+        
+        return TraceBreakdown.builder()
+                .broker(broker)
+                .sampleRate(sampleRate)
+                .samples(snapshots[TOTAL].count())
+                .stages(stages)
+                .build();
+    }
+
+    private static double percentile(HistogramSnapshot snapshot, double percentile) {
+        for (ValueAtPercentile value : snapshot.percentileValues()) {
+            if (value.percentile() == percentile) {
+                return value.value(TimeUnit.MILLISECONDS);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Aktuální čas v mikrosekundách epochy.
+     */
+    public static long nowMicros() {
+        Instant now = Instant.now();
+        return now.getEpochSecond() * 1_000_000 + now.getNano() / 1_000;
+    }
+}
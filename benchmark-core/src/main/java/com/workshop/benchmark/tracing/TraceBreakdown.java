@@ -0,0 +1,22 @@
+package com.workshop.benchmark.tracing;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Rozpad latence po úsecích (serialize, broker, dispatch, process, total).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TraceBreakdown {
+    private String broker;
+    private double sampleRate;
+    private long samples;
+    private List<TraceStage> stages;
+}
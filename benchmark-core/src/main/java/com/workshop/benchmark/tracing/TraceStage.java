@@ -0,0 +1,24 @@
+package com.workshop.benchmark.tracing;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Latence jednoho úseku cesty zprávy přes vzorkované zprávy.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TraceStage {
+    private String stage;
+    private long samples;
+    private double meanMs;
+    private double p50Ms;
+    private double p95Ms;
+    private double p99Ms;
+    private double maxMs;
+    private double sharePercent;      // podíl na průměrné end-to-end latenci
+}
@@ -0,0 +1,233 @@
+package com.workshop.benchmark.view;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Souběžná mapa s primitivním klíčem long - bez boxingu klíčů a bez objektu Entry na položku.
+ *
+ * Klíče jsou rozdělené do segmentů, každý segment je otevřená adresace s lineárním
+ * sondováním (pole long[] klíčů a Object[] hodnot). Zápis drží zámek segmentu,
+ * čtení je optimistické ({@link StampedLock#tryOptimisticRead()}) a zámek bere jen
+ * při souběhu se zápisem do stejného segmentu. Prázdný slot má hodnotu null,
+ * takže null hodnoty mapa neukládá.
+ *
+ * @param <V> typ hodnoty
+ */
+public class LongObjectMap<V> {
+
+    private static final float LOAD_FACTOR = 0.75f;
+    private static final int REFERENCE_BYTES = 4;   // compressed oops
+
+    private final Segment[] segments;
+    private final int segmentMask;
+
+    /**
+     * @param segments počet segmentů (zaokrouhlí se na mocninu 2)
+     * @param initialCapacity počáteční kapacita celé mapy
+     */
+    public LongObjectMap(int segments, int initialCapacity) {
+        int count = powerOfTwo(Math.max(1, segments));
+        this.segments = new Segment[count];
+        this.segmentMask = count - 1;
+        int perSegment = powerOfTwo(Math.max(16, (int) (initialCapacity / LOAD_FACTOR / count)));
+        for (int i = 0; i < count; i++) {
+            this.segments[i] = new Segment(perSegment);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        long hash = mix(key);
+        return (V) segments[(int) (hash >>> 32) & segmentMask].get(key, hash);
+    }
+
+    /**
+     * @return předchozí hodnota nebo null
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Hodnota nesmí být null");
+        }
+        long hash = mix(key);
+        return (V) segments[(int) (hash >>> 32) & segmentMask].put(key, hash, value);
+    }
+
+    /**
+     * @return odebraná hodnota nebo null
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        long hash = mix(key);
+        return (V) segments[(int) (hash >>> 32) & segmentMask].remove(key, hash);
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size;
+        }
+        return size;
+    }
+
+    /**
+     * Paměť tabulek (pole klíčů a referencí) bez samotných hodnot.
+     */
+    public long getTableBytes() {
+        long bytes = 0;
+        for (Segment segment : segments) {
+            bytes += (long) segment.keys.length * (Long.BYTES + REFERENCE_BYTES);
+        }
+        return bytes;
+    }
+
+    private static long mix(long key) {
+        // Finalizer z MurmurHash3 - sekvenční id se rozprostřou po segmentech i slotech
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static int powerOfTwo(int value) {
+        int highest = Integer.highestOneBit(value);
+        return highest == value ? value : highest << 1;
+    }
+
+    private static final class Segment {
+        private final StampedLock lock = new StampedLock();
+        private long[] keys;
+        private Object[] values;
+        private int size;
+        
+        private Segment(int capacity) {
+            this.keys = new long[capacity];
+            this.values = new Object[capacity];
+        }
+        
+        private Object get(long key, long hash) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp != 0) {
+                Object value = find(keys, values, key, hash);
+                if (lock.validate(stamp)) {
+                    return value;
+                }
+            }
+            stamp = lock.readLock();
+            try {
+                return find(keys, values, key, hash);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        
+        /**
+         * Při optimistickém čtení mohou být pole uprostřed změny - hledání je omezené
+         * délkou pole a výsledek se zahodí, pokud validate selže.
+         */
+        private static Object find(long[] keys, Object[] values, long key, long hash) {
+            int length = Math.min(keys.length, values.length);
+            int mask = length - 1;
+            int slot = (int) hash & mask;
+            for (int probes = 0; probes < length; probes++) {
+                Object value = values[slot];
+                if (value == null) {
+                    return null;
+                }
+                if (keys[slot] == key) {
+                    return value;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return null;
+        }
+        
+        private Object put(long key, long hash, Object value) {
+            long stamp = lock.writeLock();
+            try {
+                int mask = keys.length - 1;
+                int slot = (int) hash & mask;
+                while (values[slot] != null) {
+                    if (keys[slot] == key) {
+                        Object previous = values[slot];
+                        values[slot] = value;
+                        return previous;
+                    }
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                values[slot] = value;
+                if (++size > keys.length * LOAD_FACTOR) {
+                    resize();
+                }
+                return null;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+        
+        private Object remove(long key, long hash) {
+            long stamp = lock.writeLock();
+            try {
+                int mask = keys.length - 1;
+                int slot = (int) hash & mask;
+                while (values[slot] != null) {
+                    if (keys[slot] == key) {
+                        Object previous = values[slot];
+                        shiftBack(slot);
+                        size--;
+                        return previous;
+                    }
+                    slot = (slot + 1) & mask;
+                }
+                return null;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+        
+        /**
+         * Zpětný posun po odebrání - řetězec sondování zůstane souvislý bez tombstonů.
+         */
+        private void shiftBack(int removed) {
+            int mask = keys.length - 1;
+            int gap = removed;
+            int slot = (gap + 1) & mask;
+            while (values[slot] != null) {
+                int home = (int) mix(keys[slot]) & mask;
+                // Položku lze posunout do mezery, pokud mezera leží mezi domovským slotem a slotem
+                if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+                    keys[gap] = keys[slot];
+                    values[gap] = values[slot];
+                    gap = slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            keys[gap] = 0;
+            values[gap] = null;
+        }
+        
+        private void resize() {
+            long[] oldKeys = keys;
+            Object[] oldValues = values;
+            long[] newKeys = new long[oldKeys.length * 2];
+            Object[] newValues = new Object[oldKeys.length * 2];
+            int mask = newKeys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldValues[i] != null) {
+                    int slot = (int) mix(oldKeys[i]) & mask;
+                    while (newValues[slot] != null) {
+                        slot = (slot + 1) & mask;
+                    }
+                    newKeys[slot] = oldKeys[i];
+                    newValues[slot] = oldValues[i];
+                }
+            }
+            keys = newKeys;
+            values = newValues;
+        }
+    }
+}
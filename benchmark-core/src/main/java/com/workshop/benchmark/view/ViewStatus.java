@@ -0,0 +1,29 @@
+package com.workshop.benchmark.view;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Stav materializovaného pohledu - obnova po startu, velikost a paměť.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ViewStatus {
+    private boolean enabled;
+    private boolean ready;
+    private int partitions;
+    private long entries;
+    private long restoredRecords;
+    private double restoreSeconds;
+    private double restoreRecordsPerSec;
+    private long updates;               // záznamy aplikované po obnově
+    private long tableBytes;
+    private long valueBytes;            // odhad velikosti hodnot
+    private double bytesPerEntry;
+    private double lookupMeanMicros;
+    private String lastError;
+}
@@ -0,0 +1,95 @@
+package com.workshop.benchmark.workload;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Předgenerované payloady podle {@link PayloadSpec}.
+ *
+ * Všechny payloady vzniknou před měřením, během běhu se jen cyklicky vybírají,
+ * takže generování nezkresluje propustnost ani alokace. Payloady stejné velikosti
+ * sdílí jednu instanci.
+ */
+public class PayloadPool {
+
+    private static final String ALPHABET = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789 ";
+
+    private final String[] payloads;
+    private final double averageBytes;
+    private int next;
+
+    public PayloadPool(PayloadSpec spec) {
+        Random random = new Random(42);
+        int[] sizes = "file".equals(spec.getDistribution())
+                ? readSizes(spec.getFile())
+                : sampleSizes(spec, random);
+        
+        int maxSize = 0;
+        long totalBytes = 0;
+        for (int size : sizes) {
+            maxSize = Math.max(maxSize, size);
+            totalBytes += size;
+        }
+        
+        // Pseudonáhodný text - realistická komprimovatelnost, deterministický obsah
+        StringBuilder source = new StringBuilder(maxSize);
+        for (int i = 0; i < maxSize; i++) {
+            source.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        String sourceText = source.toString();
+        
+        Map<Integer, String> bySize = new HashMap<>();
+        this.payloads = new String[sizes.length];
+        for (int i = 0; i < sizes.length; i++) {
+            payloads[i] = bySize.computeIfAbsent(sizes[i], size -> sourceText.substring(0, size));
+        }
+        this.averageBytes = sizes.length > 0 ? (double) totalBytes / sizes.length : 0;
+    }
+
+    /**
+     * Další payload v pořadí. Volá jediné vlákno generátoru zátěže.
+     */
+    public String next() {
+        String payload = payloads[next];
+        next = next + 1 == payloads.length ? 0 : next + 1;
+        return payload;
+    }
+
+    public double getAverageBytes() {
+        return averageBytes;
+    }
+
+    private static int[] sampleSizes(PayloadSpec spec, Random random) {
+        int[] sizes = new int[Math.max(1, spec.getPoolSize())];
+        for (int i = 0; i < sizes.length; i++) {
+            sizes[i] = Math.max(0, spec.nextSize(random));
+        }
+        return sizes;
+    }
+
+    private static int[] readSizes(String file) {
+        if (file == null) {
+            throw new IllegalArgumentException("Rozdělení 'file' vyžaduje cestu k souboru s velikostmi");
+        }
+        try {
+            List<String> lines = Files.readAllLines(Path.of(file));
+            int[] sizes = lines.stream()
+                    .map(String::trim)
+                    .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                    .mapToInt(Integer::parseInt)
+                    .toArray();
+            if (sizes.length == 0) {
+                throw new IllegalArgumentException("Soubor " + file + " neobsahuje žádné velikosti");
+            }
+            return sizes;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Nelze načíst velikosti payloadu z " + file, e);
+        }
+    }
+}
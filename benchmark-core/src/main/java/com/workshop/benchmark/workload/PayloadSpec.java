@@ -0,0 +1,135 @@
+package com.workshop.benchmark.workload;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Rozdělení velikosti payloadu.
+ *
+ * - fixed - vždy minBytes (výchozí 100 B)
+ * - uniform - rovnoměrně mezi minBytes (výchozí 1 B) a maxBytes (povinné)
+ * - lognormal - medián medianBytes, rozptyl sigma, oříznuto na minBytes..maxBytes
+ *   (výchozí 1 B..16 MB, ořez tak neovlivní tvar rozdělení)
+ * - file - velikosti přehrané ze souboru (jedno číslo na řádek), cyklicky
+ *
+ * Nezadané minBytes/maxBytes se doplní podle rozdělení - sdílený výchozí rozsah
+ * by lognormal se zadaným jen mediánem ořízl na jedinou velikost.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PayloadSpec {
+
+    public static final Set<String> DISTRIBUTIONS = Set.of("fixed", "uniform", "lognormal", "file");
+
+    private static final int DEFAULT_FIXED_BYTES = 100;
+    private static final int DEFAULT_LOGNORMAL_MAX_BYTES = 16 * 1024 * 1024;
+
+    @Builder.Default
+    private String distribution = "fixed";
+    /** Dolní mez (fixed: velikost), null = výchozí podle rozdělení. */
+    private Integer minBytes;
+    /** Horní mez, null = výchozí podle rozdělení. */
+    private Integer maxBytes;
+    /** Medián pro lognormal. */
+    @Builder.Default
+    private int medianBytes = 1000;
+    /** Směrodatná odchylka logaritmu velikosti pro lognormal. */
+    @Builder.Default
+    private double sigma = 1.0;
+    /** Soubor s velikostmi pro distribution = file. */
+    private String file;
+    /** Počet předgenerovaných payloadů. */
+    @Builder.Default
+    private int poolSize = 1024;
+
+    public static PayloadSpec fixed(int bytes) {
+        return PayloadSpec.builder().minBytes(bytes).maxBytes(bytes).build();
+    }
+
+    /**
+     * Náhodná velikost podle rozdělení (pro "file" se nepoužívá).
+     */
+    public int nextSize(Random random) {
+        int min = resolveMinBytes();
+        return switch (distribution) {
+            case "fixed" -> min;
+            case "uniform" -> {
+                int max = resolveMaxBytes();
+                yield max > min ? min + random.nextInt(max - min + 1) : min;
+            }
+            case "lognormal" -> (int) Math.max(min, Math.min(resolveMaxBytes(),
+                    Math.round(medianBytes * Math.exp(sigma * random.nextGaussian()))));
+            default -> throw new IllegalArgumentException("Neznámé rozdělení payloadu: " + distribution);
+        };
+    }
+
+    /**
+     * @throws IllegalArgumentException pro neznámé rozdělení nebo neplatný rozsah velikostí
+     */
+    public void validate() {
+        if (!DISTRIBUTIONS.contains(distribution)) {
+            throw new IllegalArgumentException("Neznámé rozdělení payloadu: " + distribution);
+        }
+        if (poolSize <= 0) {
+            throw new IllegalArgumentException("poolSize musí být kladné");
+        }
+        switch (distribution) {
+            case "fixed" -> {
+                if (resolveMinBytes() < 0) {
+                    throw new IllegalArgumentException("minBytes nesmí být záporné");
+                }
+            }
+            case "uniform" -> {
+                if (maxBytes == null) {
+                    throw new IllegalArgumentException("Rozdělení 'uniform' vyžaduje maxBytes");
+                }
+                validateRange();
+            }
+            case "lognormal" -> {
+                validateRange();
+                if (medianBytes < resolveMinBytes() || medianBytes > resolveMaxBytes()) {
+                    throw new IllegalArgumentException("medianBytes musí ležet mezi minBytes a maxBytes");
+                }
+                if (!(sigma > 0)) {
+                    throw new IllegalArgumentException("sigma musí být kladné");
+                }
+            }
+            default -> {
+                if (file == null) {
+                    throw new IllegalArgumentException("Rozdělení 'file' vyžaduje cestu k souboru s velikostmi");
+                }
+            }
+        }
+    }
+
+    private void validateRange() {
+        if (resolveMinBytes() < 0) {
+            throw new IllegalArgumentException("minBytes nesmí být záporné");
+        }
+        if (resolveMinBytes() >= resolveMaxBytes()) {
+            throw new IllegalArgumentException("minBytes (" + resolveMinBytes() + ") musí být menší než maxBytes ("
+                    + resolveMaxBytes() + ")");
+        }
+    }
+
+    private int resolveMinBytes() {
+        if (minBytes != null) {
+            return minBytes;
+        }
+        return "fixed".equals(distribution) ? DEFAULT_FIXED_BYTES : 1;
+    }
+
+    private int resolveMaxBytes() {
+        if (maxBytes != null) {
+            return maxBytes;
+        }
+        return "lognormal".equals(distribution) ? DEFAULT_LOGNORMAL_MAX_BYTES : resolveMinBytes();
+    }
+}
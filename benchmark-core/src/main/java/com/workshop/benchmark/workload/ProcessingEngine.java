@@ -0,0 +1,155 @@
+package com.workshop.benchmark.workload;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Provádí práci consumera podle {@link ProcessingSpec}.
+ * 
+ * Model lze měnit za běhu (scénáře, REST) - změna platí od další zprávy.
+ * Busy hash pro model cpu se při prvním použití kalibruje na iterace za mikrosekundu,
+ * takže delayMs odpovídá skutečnému CPU času na daném stroji (start aplikace se nezdrží).
+ */
+public class ProcessingEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(ProcessingEngine.class);
+    private static final int CALIBRATION_ITERATIONS = 5_000_000;
+    private static final int RETAINED_CHUNKS = 256;
+
+    private final ProcessingSpec defaults;
+    private volatile double iterationsPerMicro;
+    private final Object[] retained = new Object[RETAINED_CHUNKS];
+    private volatile Active active;
+    private volatile long blackhole;
+
+    /**
+     * Model a jeho semafor se mění společně, aby limit souběžnosti odpovídal modelu.
+     */
+    private record Active(ProcessingSpec spec, Semaphore downstream) {
+    }
+
+    public ProcessingEngine(ProcessingSpec defaults, MeterRegistry meterRegistry, String broker) {
+        defaults.validate();
+        this.defaults = defaults;
+        this.active = activate(defaults);
+        
+        Gauge.builder("processing.downstream.in.flight", this, e -> e.getStatus().getDownstreamInFlight())
+                .description("Simulated downstream calls currently holding a permit")
+                .tag("broker", broker)
+                .register(meterRegistry);
+        
+        Gauge.builder("processing.downstream.queued", this, e -> e.getStatus().getDownstreamQueued())
+                .description("Consumer threads waiting for a simulated downstream permit")
+                .tag("broker", broker)
+                .register(meterRegistry);
+        
+        log.info("Model zpracování: {} ({})", defaults.getModel(), defaults.getDistribution());
+    }
+
+    public ProcessingSpec getSpec() {
+        return active.spec();
+    }
+
+    public void setSpec(ProcessingSpec spec) {
+        spec.validate();
+        this.active = activate(spec);
+    }
+
+    public void resetToDefaults() {
+        this.active = activate(defaults);
+    }
+
+    /**
+     * Zpracování jedné zprávy podle aktuálního modelu.
+     */
+    public void process() throws InterruptedException {
+        Active current = active;
+        ProcessingSpec spec = current.spec();
+        switch (spec.getModel()) {
+            case "cpu" -> burn(spec.nextDelayMs(ThreadLocalRandom.current()));
+            case "alloc" -> allocate(spec.getAllocBytes(), spec.getAllocChunkBytes());
+            case "downstream" -> {
+                // Čekání na volné spojení k závislosti je součástí doby zpracování
+                current.downstream().acquire();
+                try {
+                    sleep(spec.nextDelayMs(ThreadLocalRandom.current()));
+                } finally {
+                    current.downstream().release();
+                }
+            }
+            default -> sleep(spec.nextDelayMs(ThreadLocalRandom.current()));
+        }
+    }
+
+    public ProcessingStatus getStatus() {
+        Active current = active;
+        Semaphore downstream = current.downstream();
+        return ProcessingStatus.builder()
+                .spec(current.spec())
+                .cpuIterationsPerMicro(iterationsPerMicro)
+                .downstreamInFlight(downstream != null
+                        ? current.spec().getDownstreamConcurrency() - downstream.availablePermits() : 0)
+                .downstreamQueued(downstream != null ? downstream.getQueueLength() : 0)
+                .build();
+    }
+
+    private Active activate(ProcessingSpec spec) {
+        if ("cpu".equals(spec.getModel()) && iterationsPerMicro == 0) {
+            iterationsPerMicro = calibrate();
+            log.info("⏱ Kalibrace CPU modelu: {} iterací/µs", String.format("%.1f", iterationsPerMicro));
+        }
+        Semaphore downstream = "downstream".equals(spec.getModel())
+                ? new Semaphore(spec.getDownstreamConcurrency(), true)
+                : null;
+        return new Active(spec, downstream);
+    }
+
+    private static void sleep(double delayMs) throws InterruptedException {
+        long nanos = (long) (delayMs * 1_000_000);
+        if (nanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        }
+    }
+
+    private void burn(double delayMs) {
+        long iterations = (long) (delayMs * 1000 * iterationsPerMicro);
+        blackhole += hash(System.nanoTime(), iterations);
+    }
+
+    private void allocate(long bytes, int chunkBytes) {
+        // Bloky se ukládají do malého sdíleného kruhu - escape analysis je nesmí odstranit
+        int slot = ThreadLocalRandom.current().nextInt(RETAINED_CHUNKS);
+        for (long remaining = bytes; remaining > 0; remaining -= chunkBytes) {
+            byte[] chunk = new byte[(int) Math.min(chunkBytes, remaining)];
+            chunk[0] = 1;
+            retained[slot] = chunk;
+            slot = (slot + 1) % RETAINED_CHUNKS;
+        }
+    }
+
+    private double calibrate() {
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            blackhole += hash(start, CALIBRATION_ITERATIONS);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return CALIBRATION_ITERATIONS / Math.max(1.0, best / 1000.0);
+    }
+
+    private static long hash(long seed, long iterations) {
+        long h = seed;
+        for (long i = 0; i < iterations; i++) {
+            h ^= h >>> 33;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 33;
+        }
+        return h;
+    }
+}
@@ -0,0 +1,97 @@
+package com.workshop.benchmark.workload;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Model zpracování zprávy v consumeru.
+ *
+ * Modely:
+ * - sleep - čekání (I/O-bound práce)
+ * - cpu - kalibrovaný busy hash, doba práce podle rozdělení (CPU-bound práce)
+ * - alloc - alokace allocBytes po blocích allocChunkBytes (zátěž GC)
+ * - downstream - volání pomalé závislosti s limitem souběžnosti downstreamConcurrency
+ *
+ * Doba práce (ms) pro sleep, cpu a downstream:
+ * - fixed - vždy delayMs
+ * - uniform - rovnoměrně mezi minDelayMs a maxDelayMs
+ * - exponential - průměr delayMs
+ * - pareto - minimum delayMs, tvar paretoShape (těžký chvost)
+ * Nenulové maxDelayMs ořízne exponential a pareto.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProcessingSpec {
+
+    public static final Set<String> MODELS = Set.of("sleep", "cpu", "alloc", "downstream");
+    public static final Set<String> DISTRIBUTIONS = Set.of("fixed", "uniform", "exponential", "pareto");
+
+    @Builder.Default
+    private String model = "sleep";
+    @Builder.Default
+    private String distribution = "fixed";
+    @Builder.Default
+    private double delayMs = 1;
+    @Builder.Default
+    private double minDelayMs = 0;
+    /** Horní mez pro uniform, ořez pro exponential/pareto (0 = bez ořezu). */
+    @Builder.Default
+    private double maxDelayMs = 0;
+    @Builder.Default
+    private double paretoShape = 1.5;
+    @Builder.Default
+    private long allocBytes = 64 * 1024;
+    @Builder.Default
+    private int allocChunkBytes = 1024;
+    @Builder.Default
+    private int downstreamConcurrency = 10;
+
+    public static ProcessingSpec sleep(long delayMs) {
+        return ProcessingSpec.builder().delayMs(delayMs).build();
+    }
+
+    /**
+     * Náhodná doba práce v ms podle rozdělení.
+     */
+    public double nextDelayMs(Random random) {
+        double delay = switch (distribution) {
+            case "fixed" -> delayMs;
+            case "uniform" -> minDelayMs + random.nextDouble() * Math.max(0, maxDelayMs - minDelayMs);
+            case "exponential" -> -delayMs * Math.log(1 - random.nextDouble());
+            case "pareto" -> delayMs / Math.pow(1 - random.nextDouble(), 1 / paretoShape);
+            default -> throw new IllegalArgumentException("Neznámé rozdělení doby zpracování: " + distribution);
+        };
+        return maxDelayMs > 0 ? Math.min(delay, maxDelayMs) : delay;
+    }
+
+    /**
+     * @throws IllegalArgumentException pro neplatnou kombinaci parametrů
+     */
+    public void validate() {
+        if (!MODELS.contains(model)) {
+            throw new IllegalArgumentException("Neznámý model zpracování: " + model);
+        }
+        if (!DISTRIBUTIONS.contains(distribution)) {
+            throw new IllegalArgumentException("Neznámé rozdělení doby zpracování: " + distribution);
+        }
+        if (delayMs < 0 || minDelayMs < 0 || maxDelayMs < 0) {
+            throw new IllegalArgumentException("Doby zpracování nesmí být záporné");
+        }
+        if ("pareto".equals(distribution) && paretoShape <= 0) {
+            throw new IllegalArgumentException("paretoShape musí být kladné");
+        }
+        if ("alloc".equals(model) && (allocBytes < 0 || allocChunkBytes <= 0)) {
+            throw new IllegalArgumentException("allocBytes nesmí být záporné a allocChunkBytes musí být kladné");
+        }
+        if ("downstream".equals(model) && downstreamConcurrency <= 0) {
+            throw new IllegalArgumentException("downstreamConcurrency musí být kladné");
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.workshop.benchmark.workload;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Aktuální model zpracování a stav simulované závislosti.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProcessingStatus {
+    private ProcessingSpec spec;
+    private double cpuIterationsPerMicro;     // kalibrace busy hashe
+    private int downstreamInFlight;
+    private int downstreamQueued;
+}
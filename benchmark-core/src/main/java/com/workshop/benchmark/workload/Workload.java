@@ -0,0 +1,50 @@
+package com.workshop.benchmark.workload;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Definice zátěže - stejná pro všechny brokery.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Workload {
+    @Builder.Default
+    private String name = "default";
+    @Builder.Default
+    private int messageCount = 10_000;
+    @Builder.Default
+    private int warmupMessages = 1_000;
+    @Builder.Default
+    private int payloadBytes = 100;
+    /** Rozdělení velikosti payloadu, null = pevná velikost payloadBytes. */
+    private PayloadSpec payload;
+    /** Cílová rychlost odesílání, 0 = bez omezení. */
+    @Builder.Default
+    private double targetRatePerSecond = 0;
+    /** Jak dlouho čekat na zpracování všech zpráv consumerem. */
+    @Builder.Default
+    private long drainTimeoutMs = 60_000;
+
+    public PayloadSpec resolvePayload() {
+        return payload != null ? payload : PayloadSpec.fixed(payloadBytes);
+    }
+
+    /**
+     * @throws IllegalArgumentException pro neplatný počet zpráv, rychlost nebo rozdělení payloadu
+     */
+    public void validate() {
+        if (messageCount <= 0) {
+            throw new IllegalArgumentException("messageCount musí být kladné");
+        }
+        if (warmupMessages < 0 || payloadBytes < 0 || targetRatePerSecond < 0 || drainTimeoutMs < 0) {
+            throw new IllegalArgumentException(
+                    "warmupMessages, payloadBytes, targetRatePerSecond a drainTimeoutMs nesmí být záporné");
+        }
+        resolvePayload().validate();
+    }
+}
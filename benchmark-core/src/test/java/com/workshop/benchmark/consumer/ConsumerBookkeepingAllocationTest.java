@@ -0,0 +1,62 @@
+package com.workshop.benchmark.consumer;
+
+import com.sun.management.ThreadMXBean;
+import com.workshop.benchmark.metrics.MetricsEngine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Úspěšně zpracovaná zpráva nesmí v evidenci consumeru alokovat.
+ *
+ * Měří alokované bajty volajícího vlákna přes ThreadMXBean - pokusy v {@link PartitionRetries},
+ * počty v LongAdder a latenci v {@link MetricsEngine} se SimpleMeterRegistry.
+ */
+class ConsumerBookkeepingAllocationTest {
+
+    private static final int WARMUP_MESSAGES = 500_000;
+    private static final int MEASURED_MESSAGES = 200_000;
+    private static final int PARTITIONS = 8;
+
+    @Test
+    void recordConsumedDoesNotAllocate() {
+        ThreadMXBean threads = allocationCounter();
+        ConsumerBookkeeping bookkeeping = new ConsumerBookkeeping(
+                new MetricsEngine(new SimpleMeterRegistry(), "test"), false);
+        
+        // Zahřátí - první zpráva v MetricsEngine, sloty všech partition, rozsah histogramu
+        // (pauza GC při měření by jinak histogram zvětšila) a JIT - přechod na C2 jednorázově alokuje
+        bookkeeping.recordConsumed(System.nanoTime() - TimeUnit.MINUTES.toNanos(1));
+        consume(bookkeeping, 0, WARMUP_MESSAGES);
+        
+        long before = threads.getCurrentThreadAllocatedBytes();
+        consume(bookkeeping, WARMUP_MESSAGES, MEASURED_MESSAGES);
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        
+        assertEquals(0, allocated, "Alokované bajty na " + MEASURED_MESSAGES + " zpráv");
+        assertEquals(WARMUP_MESSAGES + MEASURED_MESSAGES + 1, bookkeeping.getProcessedCount());
+    }
+
+    private static ThreadMXBean allocationCounter() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof ThreadMXBean threads && threads.isThreadAllocatedMemorySupported()
+                && threads.isThreadAllocatedMemoryEnabled(), "JVM neměří alokace vláken");
+        return (ThreadMXBean) bean;
+    }
+
+    private static void consume(ConsumerBookkeeping bookkeeping, long firstOffset, int messages) {
+        for (long offset = firstOffset; offset < firstOffset + messages; offset++) {
+            int partition = (int) (offset % PARTITIONS);
+            if (offset % 1000 == 0) {
+                // Část zpráv s předchozí chybou - úspěch pak uvolňuje obsazený slot
+                bookkeeping.recordRetry(partition, offset, 1);
+            }
+            bookkeeping.recordConsumed(partition, offset, System.nanoTime());
+        }
+    }
+}
@@ -1,10 +1,32 @@
 package com.workshop.kafka;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.workshop.benchmark.fault.FaultProxy;
+import com.workshop.benchmark.ingest.NdjsonIngester;
+import com.workshop.benchmark.metrics.FleetAggregator;
+import com.workshop.benchmark.metrics.LiveMetricsPublisher;
+import com.workshop.benchmark.outbox.OutboxService;
+import com.workshop.benchmark.profiling.JfrProfiler;
+import com.workshop.benchmark.profiling.PinningMonitor;
+import com.workshop.benchmark.runner.BenchmarkRunner;
+import com.workshop.benchmark.scenario.ScenarioExecutor;
+import com.workshop.benchmark.scenario.ScenarioLoader;
+import com.workshop.benchmark.spool.ProducerSpool;
+import com.workshop.kafka.metrics.ConsumerLagProbe;
+import com.workshop.kafka.metrics.MetricsService;
+import com.workshop.kafka.consumer.MessageConsumer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.LazyInitializationExcludeFilter;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Bean;
 import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
+import java.nio.file.Path;
+import java.time.Duration;
+
 /**
  * Kafka Workshop - Spring Boot Application
  * 
@@ -22,5 +44,99 @@ public class KafkaWorkshopApplication {
     public static void main(String[] args) {
         SpringApplication.run(KafkaWorkshopApplication.class, args);
     }
-}
 
+    /**
+     * Beany, které zůstávají eager i s lazy inicializací (profil fast-startup):
+     * listenery se registrují až při vytvoření beanu a spool i outbox mají přehrát zprávy hned po startu.
+     */
+    @Bean
+    public static LazyInitializationExcludeFilter eagerMessagingBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(MessageConsumer.class, ProducerSpool.class, OutboxService.class);
+    }
+
+    /**
+     * JFR profilování běhů benchmarku - záznamy zůstávají v adresáři.
+     */
+    @Bean
+    public JfrProfiler jfrProfiler(@Value("${workshop.kafka.profiling.enabled:false}") boolean enabled,
+                                   @Value("${workshop.kafka.profiling.directory}") String directory,
+                                   @Value("${workshop.kafka.profiling.top:10}") int top) {
+        return new JfrProfiler(Path.of(directory), enabled, top);
+    }
+
+    /**
+     * Sledování pinningu virtuálních vláken - jen ve virtuálním režimu.
+     */
+    @Bean(destroyMethod = "close")
+    public PinningMonitor pinningMonitor(MeterRegistry meterRegistry,
+                                         @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        PinningMonitor monitor = new PinningMonitor(meterRegistry, "kafka", Duration.ofMillis(1));
+        if (virtualThreads) {
+            monitor.start();
+        }
+        return monitor;
+    }
+
+    /**
+     * Společný benchmark runner (benchmark-core).
+     */
+    @Bean
+    public BenchmarkRunner benchmarkRunner(JfrProfiler jfrProfiler) {
+        return new BenchmarkRunner(jfrProfiler);
+    }
+
+    @Bean
+    public ScenarioLoader scenarioLoader() {
+        return new ScenarioLoader();
+    }
+
+    /**
+     * TCP proxy pro vkládání poruch sítě mezi aplikaci a broker - poslouchá jen při enabled.
+     */
+    @Bean(destroyMethod = "close")
+    public FaultProxy faultProxy(MeterRegistry meterRegistry,
+                                 @Value("${workshop.kafka.fault-proxy.enabled:false}") boolean enabled,
+                                 @Value("${workshop.kafka.fault-proxy.listen-port:19092}") int listenPort,
+                                 @Value("${workshop.kafka.fault-proxy.target-host:localhost}") String targetHost,
+                                 @Value("${workshop.kafka.fault-proxy.target-port:9094}") int targetPort) {
+        FaultProxy proxy = new FaultProxy(listenPort, targetHost, targetPort, meterRegistry, "kafka");
+        if (enabled) {
+            proxy.start();
+        }
+        return proxy;
+    }
+
+    @Bean
+    public ScenarioExecutor scenarioExecutor(FaultProxy faultProxy) {
+        return new ScenarioExecutor(faultProxy);
+    }
+
+    /**
+     * Streamované nahrání NDJSON s omezeným počtem nepotvrzených zpráv.
+     */
+    @Bean
+    public NdjsonIngester ndjsonIngester(ObjectMapper objectMapper,
+                                         @Value("${workshop.kafka.ingest.max-in-flight:1000}") int maxInFlight) {
+        return new NdjsonIngester(objectMapper, maxInFlight);
+    }
+
+    /**
+     * Slučování histogramů latence z více instancí.
+     */
+    @Bean
+    public FleetAggregator fleetAggregator(ObjectMapper objectMapper,
+                                           @Value("${workshop.kafka.fleet.timeout-ms:5000}") long timeoutMs) {
+        return new FleetAggregator(objectMapper, Duration.ofMillis(timeoutMs));
+    }
+
+    /**
+     * Živé metriky - lag hlavní consumer group z brokeru.
+     */
+    @Bean(destroyMethod = "close")
+    public LiveMetricsPublisher liveMetricsPublisher(MetricsService metricsService, ConsumerLagProbe lagProbe,
+                                                     ObjectMapper objectMapper,
+                                                     @Value("${workshop.kafka.live-metrics.interval-ms:1000}") long intervalMs,
+                                                     @Value("${workshop.kafka.live-metrics.send-timeout-ms:5000}") long sendTimeoutMs) {
+        return new LiveMetricsPublisher(metricsService, lagProbe::totalLag, objectMapper, intervalMs, sendTimeoutMs);
+    }
+}
@@ -1,23 +1,61 @@
 package com.workshop.kafka.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.workshop.benchmark.batch.BatchPublisher;
+import com.workshop.benchmark.batch.MicroBatcher;
+import com.workshop.benchmark.claimcheck.BlobStore;
+import com.workshop.benchmark.claimcheck.ClaimCheck;
+import com.workshop.benchmark.consumer.ConsumerBookkeeping;
+import com.workshop.benchmark.outbox.OutboxService;
+import com.workshop.benchmark.redrive.ParkingLotStore;
+import com.workshop.benchmark.redrive.RedriveService;
+import com.workshop.benchmark.sink.FileSink;
+import com.workshop.benchmark.sink.FsyncPolicy;
+import com.workshop.benchmark.sink.RecordEncoder;
+import com.workshop.benchmark.spool.ProducerSpool;
+import com.workshop.benchmark.tracing.HopTracer;
+import com.workshop.benchmark.workload.ProcessingEngine;
+import com.workshop.benchmark.workload.ProcessingSpec;
+import com.workshop.kafka.metrics.MetricsService;
 import com.workshop.kafka.model.WorkshopMessage;
+import com.workshop.kafka.producer.KafkaBatchSink;
+import com.workshop.kafka.redrive.KafkaRepublisher;
+import com.workshop.kafka.tracing.KafkaTraceHeaders;
+import com.workshop.kafka.tracing.TraceConsumerInterceptor;
+import com.workshop.kafka.tracing.TracingJsonSerializer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationPredicate;
 import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.config.TopicConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.*;
 import org.springframework.kafka.listener.ContainerProperties;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
-import org.springframework.kafka.support.serializer.JsonSerializer;
 
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * Kafka konfigurace pro workshop.
@@ -34,6 +72,153 @@ public class KafkaConfig {
     @Value("${workshop.kafka.dlq-topic}")
     private String dlqTopicName;
 
+    @Value("${workshop.kafka.claim-check.enabled:false}")
+    private boolean claimCheckEnabled;
+
+    @Value("${workshop.kafka.claim-check.threshold-bytes:1048576}")
+    private int claimCheckThresholdBytes;
+
+    @Value("${workshop.kafka.claim-check.directory}")
+    private String claimCheckDirectory;
+
+    @Value("${workshop.kafka.claim-check.segment-bytes:268435456}")
+    private int claimCheckSegmentBytes;
+
+    @Value("${workshop.kafka.claim-check.retention:10m}")
+    private Duration claimCheckRetention;
+
+    @Value("${workshop.kafka.claim-check.cleanup-interval:1m}")
+    private Duration claimCheckCleanupInterval;
+
+    @Value("${workshop.kafka.tracing.enabled:false}")
+    private boolean tracingEnabled;
+
+    @Value("${workshop.kafka.tracing.sample-rate:0.01}")
+    private double tracingSampleRate;
+
+    @Value("${workshop.kafka.processing.model:sleep}")
+    private String processingModel;
+
+    @Value("${workshop.kafka.processing.distribution:fixed}")
+    private String processingDistribution;
+
+    // Bez processing.delay-ms platí původní processing-delay-ms
+    @Value("${workshop.kafka.processing.delay-ms:${workshop.kafka.processing-delay-ms:1}}")
+    private double processingDelayMs;
+
+    @Value("${workshop.kafka.processing.min-delay-ms:0}")
+    private double processingMinDelayMs;
+
+    @Value("${workshop.kafka.processing.max-delay-ms:0}")
+    private double processingMaxDelayMs;
+
+    @Value("${workshop.kafka.processing.pareto-shape:1.5}")
+    private double processingParetoShape;
+
+    @Value("${workshop.kafka.processing.alloc-bytes:65536}")
+    private long processingAllocBytes;
+
+    @Value("${workshop.kafka.processing.alloc-chunk-bytes:1024}")
+    private int processingAllocChunkBytes;
+
+    @Value("${workshop.kafka.processing.downstream-concurrency:10}")
+    private int processingDownstreamConcurrency;
+
+    @Value("${workshop.kafka.sink.enabled:false}")
+    private boolean sinkEnabled;
+
+    @Value("${workshop.kafka.sink.directory}")
+    private String sinkDirectory;
+
+    @Value("${workshop.kafka.sink.fsync:batch}")
+    private String sinkFsync;
+
+    @Value("${workshop.kafka.sink.fsync-interval-ms:10}")
+    private long sinkFsyncIntervalMs;
+
+    @Value("${workshop.kafka.sink.segment-bytes:268435456}")
+    private long sinkSegmentBytes;
+
+    @Value("${workshop.kafka.sink.retain-segments:8}")
+    private int sinkRetainSegments;
+
+    @Value("${workshop.kafka.sink.buffer-bytes:4194304}")
+    private int sinkBufferBytes;
+
+    @Value("${workshop.kafka.sink.max-batch-size:1000}")
+    private int sinkMaxBatchSize;
+
+    @Value("${workshop.kafka.sink.queue-capacity:10000}")
+    private int sinkQueueCapacity;
+
+    @Value("${workshop.kafka.sink.max-poll-records:500}")
+    private int sinkMaxPollRecords;
+
+    @Value("${workshop.kafka.redrive.rate-per-second:1000}")
+    private double redriveRatePerSecond;
+
+    @Value("${workshop.kafka.redrive.batch-size:500}")
+    private int redriveBatchSize;
+
+    @Value("${workshop.kafka.redrive.ack-timeout-ms:30000}")
+    private long redriveAckTimeoutMs;
+
+    @Value("${workshop.kafka.publish.max-batch-size:500}")
+    private int publishMaxBatchSize;
+
+    @Value("${workshop.kafka.publish.max-wait-ms:5}")
+    private long publishMaxWaitMs;
+
+    @Value("${workshop.kafka.publish.queue-capacity:10000}")
+    private int publishQueueCapacity;
+
+    @Value("${workshop.kafka.publish.ack-timeout-ms:30000}")
+    private long publishAckTimeoutMs;
+
+    @Value("${workshop.kafka.outbox.enabled:false}")
+    private boolean outboxEnabled;
+
+    @Value("${workshop.kafka.outbox.batch-size:1000}")
+    private int outboxBatchSize;
+
+    @Value("${workshop.kafka.outbox.poll-interval-ms:50}")
+    private long outboxPollIntervalMs;
+
+    @Value("${workshop.kafka.outbox.ack-timeout-ms:30000}")
+    private long outboxAckTimeoutMs;
+
+    @Value("${workshop.kafka.outbox.retry-backoff-ms:1000}")
+    private long outboxRetryBackoffMs;
+
+    @Value("${workshop.kafka.spool.enabled:false}")
+    private boolean spoolEnabled;
+
+    @Value("${workshop.kafka.spool.directory}")
+    private String spoolDirectory;
+
+    @Value("${workshop.kafka.spool.segment-bytes:67108864}")
+    private int spoolSegmentBytes;
+
+    @Value("${workshop.kafka.spool.fsync-interval-ms:10}")
+    private long spoolFsyncIntervalMs;
+
+    @Value("${workshop.kafka.spool.replay-rate-per-second:1000}")
+    private double spoolReplayRatePerSecond;
+
+    @Value("${workshop.kafka.spool.replay-batch-size:200}")
+    private int spoolReplayBatchSize;
+
+    @Value("${workshop.kafka.spool.retry-backoff-ms:1000}")
+    private long spoolRetryBackoffMs;
+
+    @Value("${workshop.kafka.spool.ack-timeout-ms:30000}")
+    private long spoolAckTimeoutMs;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private final AtomicLong idSequence = new AtomicLong(System.currentTimeMillis() * 1000);
+
     /**
      * Vytvoření hlavního topicu.
      */
@@ -46,13 +231,28 @@ public class KafkaConfig {
     }
 
     /**
-     * Vytvoření DLQ topicu.
+     * Vytvoření DLQ topicu - bez retence, parking lot se z něj po restartu obnovuje.
+     * U existujícího topicu retenci dorovná KafkaAdmin (spring.kafka.admin.modify-topic-configs).
      */
     @Bean
     public NewTopic workshopDLQTopic() {
         return TopicBuilder.name(dlqTopicName)
                 .partitions(1)
                 .replicas(1)
+                .config(TopicConfig.RETENTION_MS_CONFIG, "-1")
+                .build();
+    }
+
+    /**
+     * Log-compacted topic pro materializovaný pohled - broker drží poslední zprávu pro každý klíč.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "workshop.kafka.view.enabled", havingValue = "true")
+    public NewTopic workshopStateTopic(@Value("${workshop.kafka.view.topic:workshop-state}") String stateTopicName) {
+        return TopicBuilder.name(stateTopicName)
+                .partitions(3)
+                .replicas(1)
+                .compact()
                 .build();
     }
 
@@ -64,7 +264,8 @@ public class KafkaConfig {
         Map<String, Object> config = new HashMap<>();
         config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        // JSON serializer, který u vzorkovaných zpráv označí konec serializace
+        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, TracingJsonSerializer.class);
         config.put(ProducerConfig.ACKS_CONFIG, "all");
         config.put(ProducerConfig.RETRIES_CONFIG, 3);
         config.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "gzip");
@@ -78,7 +279,10 @@ public class KafkaConfig {
      */
     @Bean
     public KafkaTemplate<String, WorkshopMessage> kafkaTemplate() {
-        return new KafkaTemplate<>(producerFactory());
+        KafkaTemplate<String, WorkshopMessage> template = new KafkaTemplate<>(producerFactory());
+        // Micrometer observation (timer spring.kafka.template) - vzorkuje ji hopTracer
+        template.setObservationEnabled(tracingEnabled);
+        return template;
     }
 
     /**
@@ -93,8 +297,11 @@ public class KafkaConfig {
         config.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
         config.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
         config.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
-        config.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 10);
+        // Se sinkem větší poll - ACK čekají na fsync, dávka zápisu je nejvýš tak velká jako poll
+        config.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, sinkEnabled ? sinkMaxPollRecords : 10);
         config.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
+        // Značka příjmu vzorkovaných zpráv pro per-hop tracing
+        config.put(ConsumerConfig.INTERCEPTOR_CLASSES_CONFIG, TraceConsumerInterceptor.class.getName());
         
         return new DefaultKafkaConsumerFactory<>(
                 config,
@@ -112,7 +319,193 @@ public class KafkaConfig {
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
         factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.getContainerProperties().setObservationEnabled(tracingEnabled);
+        // ACK ze zapisovacího vlákna sinku, mimo pořadí - container commitne souvislý úsek offsetů
+        factory.getContainerProperties().setAsyncAcks(sinkEnabled);
+        if (virtualThreads) {
+            // Consumer smyčka i listener na virtuálním vlákně - blokující processMessage neblokuje carrier
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("kafka-listener-");
+            executor.setVirtualThreads(true);
+            factory.getContainerProperties().setListenerTaskExecutor(executor);
+        }
         return factory;
     }
-}
 
+    /**
+     * Lokální blob store pro claim check velkých payloadů.
+     */
+    @Bean(destroyMethod = "close")
+    public BlobStore claimCheckStore() throws IOException {
+        return new BlobStore(Path.of(claimCheckDirectory), claimCheckSegmentBytes,
+                claimCheckRetention, claimCheckCleanupInterval);
+    }
+
+    /**
+     * Claim check - obsah nad limitem jde do blob store, brokerem putuje jen odkaz.
+     */
+    @Bean
+    public ClaimCheck claimCheck(BlobStore claimCheckStore, MeterRegistry meterRegistry) {
+        return new ClaimCheck(claimCheckStore, claimCheckThresholdBytes, claimCheckEnabled,
+                meterRegistry, "kafka");
+    }
+
+    /**
+     * Evidence zpracovaných zpráv consumeru - počty a pokusy podle partition bez alokace na zprávu.
+     */
+    @Bean
+    public ConsumerBookkeeping consumerBookkeeping(MetricsService metricsService) {
+        return new ConsumerBookkeeping(metricsService);
+    }
+
+    /**
+     * Group commit zpráv z HTTP - dávky skládá core, odeslání dávky dodává {@link KafkaBatchSink}.
+     */
+    @Bean(destroyMethod = "close")
+    public BatchPublisher<WorkshopMessage> batchPublisher(KafkaBatchSink kafkaBatchSink, ClaimCheck claimCheck,
+                                                         MeterRegistry meterRegistry) {
+        Consumer<WorkshopMessage> preparer = message -> {
+            prepare(message);
+            message.setContent(claimCheck.checkIn(message.getContent()));
+        };
+        return new BatchPublisher<>(kafkaBatchSink, preparer, publishMaxBatchSize, publishMaxWaitMs,
+                publishQueueCapacity, publishAckTimeoutMs, meterRegistry, "kafka");
+    }
+
+    /**
+     * Transactional outbox nad embedded H2 - relay odesílá přes {@link KafkaBatchSink}.
+     */
+    @Bean(destroyMethod = "close")
+    public OutboxService<WorkshopMessage> outboxService(DataSource dataSource, ObjectMapper objectMapper,
+                                                       KafkaBatchSink kafkaBatchSink, ClaimCheck claimCheck,
+                                                       MeterRegistry meterRegistry) throws SQLException {
+        Function<WorkshopMessage, Object[]> preparer = message -> {
+            prepare(message);
+            Object[] row = {message.getId(), message.getContent(), message.getTimestamp()};
+            // Velký payload jde do blob store, outboxem putuje jen odkaz
+            message.setContent(claimCheck.checkIn(message.getContent()));
+            return row;
+        };
+        OutboxService<WorkshopMessage> outboxService = new OutboxService<>(dataSource, objectMapper,
+                WorkshopMessage.class, preparer, kafkaBatchSink, outboxBatchSize, outboxPollIntervalMs,
+                outboxAckTimeoutMs, outboxRetryBackoffMs, meterRegistry, "kafka");
+        if (outboxEnabled) {
+            outboxService.start();
+        }
+        return outboxService;
+    }
+
+    /**
+     * Doplní id, čas a broker zprávě z HTTP před odesláním nebo zápisem do outboxu.
+     */
+    private void prepare(WorkshopMessage message) {
+        if (message.getId() == null) {
+            message.setId(idSequence.incrementAndGet());
+        }
+        if (message.getTimestamp() == null) {
+            message.setTimestamp(System.currentTimeMillis());
+        }
+        message.setBroker("Kafka");
+        message.setRetryCount(0);
+    }
+
+    /**
+     * Lokální write-ahead spool producera pro výpadek brokeru - přehrává se s acks=all.
+     */
+    @Bean(destroyMethod = "close")
+    public ProducerSpool<WorkshopMessage> producerSpool(KafkaTemplate<String, WorkshopMessage> kafkaTemplate,
+                                                        ObjectMapper objectMapper, MeterRegistry meterRegistry)
+            throws IOException {
+        MicroBatcher.BatchSink<WorkshopMessage> replay = batch -> {
+            List<CompletableFuture<?>> acks = new ArrayList<>(batch.size());
+            for (WorkshopMessage message : batch) {
+                acks.add(kafkaTemplate.send(topicName, "msg-" + message.getId(), message));
+            }
+            kafkaTemplate.flush();
+            return acks;
+        };
+        ProducerSpool<WorkshopMessage> spool = new ProducerSpool<>(Path.of(spoolDirectory), spoolSegmentBytes,
+                spoolFsyncIntervalMs, spoolReplayRatePerSecond, spoolReplayBatchSize, spoolRetryBackoffMs,
+                spoolAckTimeoutMs, objectMapper, WorkshopMessage.class, replay, meterRegistry, "kafka");
+        if (spoolEnabled) {
+            spool.start();
+        }
+        return spool;
+    }
+
+    /**
+     * Parking lot zpráv z DLQ čekajících na redrive.
+     */
+    @Bean
+    public ParkingLotStore<WorkshopMessage> parkingLotStore() {
+        return new ParkingLotStore<>();
+    }
+
+    /**
+     * Redrive z parking lotu - dávky omezené token bucketem, odeslání přes {@link KafkaRepublisher}.
+     */
+    @Bean(destroyMethod = "close")
+    public RedriveService<WorkshopMessage> redriveService(ParkingLotStore<WorkshopMessage> parkingLotStore,
+                                                          KafkaRepublisher kafkaRepublisher, MeterRegistry meterRegistry) {
+        return new RedriveService<>(parkingLotStore, kafkaRepublisher, redriveRatePerSecond, redriveBatchSize,
+                redriveAckTimeoutMs, meterRegistry, "kafka");
+    }
+
+    /**
+     * Append-only soubor zpracovaných zpráv - consumer potvrdí offset až po trvalém zápisu.
+     */
+    @Bean(destroyMethod = "close")
+    public FileSink<WorkshopMessage> fileSink(MeterRegistry meterRegistry) {
+        FileSink<WorkshopMessage> sink = new FileSink<>(Path.of(sinkDirectory), sinkSegmentBytes,
+                FsyncPolicy.parse(sinkFsync), sinkFsyncIntervalMs, sinkMaxBatchSize, sinkQueueCapacity,
+                sinkBufferBytes, sinkRetainSegments, KafkaConfig::encodeMessage, meterRegistry, "kafka");
+        if (sinkEnabled) {
+            sink.start();
+        }
+        return sink;
+    }
+
+    /**
+     * Záznam sinku: [id long][timestamp long][retryCount int][content].
+     */
+    private static void encodeMessage(WorkshopMessage message, ByteBuffer out) {
+        out.putLong(message.getId() != null ? message.getId() : -1);
+        out.putLong(message.getTimestamp() != null ? message.getTimestamp() : -1);
+        out.putInt(message.getRetryCount() != null ? message.getRetryCount() : 0);
+        RecordEncoder.putString(out, message.getContent());
+    }
+
+    /**
+     * Per-hop tracing vzorkovaných zpráv.
+     */
+    @Bean
+    public HopTracer hopTracer(MeterRegistry meterRegistry) {
+        return new HopTracer(meterRegistry, "kafka", tracingEnabled ? tracingSampleRate : 0);
+    }
+
+    /**
+     * Observations šablony a listener containeru jen pro zprávy se značkou per-hop tracingu.
+     */
+    @Bean
+    public ObservationPredicate messagingObservationSampler(HopTracer hopTracer) {
+        return hopTracer.observationPredicate(KafkaTraceHeaders::isSampled);
+    }
+
+    /**
+     * Model zpracování zprávy v consumeru - výchozí hodnoty z application.yml, za běhu mění scénáře a REST.
+     */
+    @Bean
+    public ProcessingEngine processingEngine(MeterRegistry meterRegistry) {
+        ProcessingSpec defaults = ProcessingSpec.builder()
+                .model(processingModel)
+                .distribution(processingDistribution)
+                .delayMs(processingDelayMs)
+                .minDelayMs(processingMinDelayMs)
+                .maxDelayMs(processingMaxDelayMs)
+                .paretoShape(processingParetoShape)
+                .allocBytes(processingAllocBytes)
+                .allocChunkBytes(processingAllocChunkBytes)
+                .downstreamConcurrency(processingDownstreamConcurrency)
+                .build();
+        return new ProcessingEngine(defaults, meterRegistry, "kafka");
+    }
+}
@@ -1,21 +1,40 @@
 package com.workshop.kafka.consumer;
 
-import com.workshop.kafka.metrics.MetricsService;
+import com.workshop.benchmark.claimcheck.ClaimCheck;
+import com.workshop.benchmark.consumer.ConsumerBookkeeping;
+import com.workshop.benchmark.driver.ConsumerControl;
+import com.workshop.benchmark.redrive.ParkingLotStore;
+import com.workshop.benchmark.sink.FileSink;
+import com.workshop.benchmark.tracing.HopTracer;
+import com.workshop.benchmark.workload.ProcessingEngine;
+import com.workshop.benchmark.workload.ProcessingSpec;
 import com.workshop.kafka.model.WorkshopMessage;
+import com.workshop.kafka.redrive.KafkaRepublisher;
+import com.workshop.kafka.tracing.KafkaTraceHeaders;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.TopicPartition;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ConsumerSeekAware;
 import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.kafka.support.KafkaHeaders;
 import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Service;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Map;
 import java.util.Random;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Consumer service pro zpracování zpráv z Kafka.
@@ -24,14 +43,24 @@ import java.util.concurrent.ConcurrentHashMap;
 @Service
 @Slf4j
 @RequiredArgsConstructor
-public class MessageConsumer {
+public class MessageConsumer implements ConsumerControl, ConsumerSeekAware {
+
+    private static final String ERROR_MARKER = " [ERROR: ";
+    private static final long SINK_RETRY_BACKOFF_MS = 100;
 
-    private final MetricsService metricsService;
     private final KafkaTemplate<String, WorkshopMessage> kafkaTemplate;
+    private final ParkingLotStore<WorkshopMessage> parkingLot;
+    private final ClaimCheck claimCheck;
+    private final HopTracer hopTracer;
+    private final ProcessingEngine processingEngine;
+    private final FileSink<WorkshopMessage> fileSink;
+    private final ConsumerBookkeeping bookkeeping;
     private final Random random = new Random();
-    private final Map<String, Integer> retryCountMap = new ConcurrentHashMap<>();
-    
-    private int processedCount = 0;
+    private final ScheduledExecutorService sinkRetryExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "sink-retry");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     @Value("${workshop.kafka.dlq-topic}")
     private String dlqTopicName;
@@ -40,10 +69,38 @@ public class MessageConsumer {
     private int maxRetries;
 
     @Value("${workshop.kafka.simulate-failures:false}")
-    private boolean simulateFailures;
+    private boolean configuredSimulateFailures;
 
     @Value("${workshop.kafka.failure-rate:0.1}")
-    private double failureRate;
+    private double configuredFailureRate;
+
+    // Aktuální hodnoty - za běhu je mění scénáře přes ConsumerControl
+    private volatile boolean simulateFailures;
+    private volatile double failureRate;
+
+    @PostConstruct
+    @Override
+    public void resetToDefaults() {
+        this.simulateFailures = configuredSimulateFailures;
+        this.failureRate = configuredFailureRate;
+        processingEngine.resetToDefaults();
+    }
+
+    @Override
+    public void setFailureRate(double failureRate) {
+        this.failureRate = failureRate;
+        this.simulateFailures = failureRate > 0;
+    }
+
+    @Override
+    public void setProcessingDelayMs(long delayMs) {
+        processingEngine.setSpec(ProcessingSpec.sleep(delayMs));
+    }
+
+    @Override
+    public void setProcessing(ProcessingSpec processing) {
+        processingEngine.setSpec(processing);
+    }
 
     /**
      * Listener pro hlavní topic.
@@ -52,36 +109,45 @@ public class MessageConsumer {
     public void receiveMessage(@Payload WorkshopMessage message,
                               @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
                               @Header(KafkaHeaders.OFFSET) long offset,
+                              @Header(name = KafkaTraceHeaders.TRACE_HEADER, required = false) byte[] trace,
                               Acknowledgment acknowledgment) {
         
         long startTime = System.nanoTime();
-        String messageKey = partition + ":" + offset;
+        long dispatchedMicros = trace != null ? HopTracer.nowMicros() : 0;
         
         try {
             // Zpracování zprávy
             processMessage(message);
             
-            // ACK - úspěšné zpracování
-            acknowledgment.acknowledge();
-            
-            // Odstranění z retry mapy
-            retryCountMap.remove(messageKey);
-            
-            long latency = System.nanoTime() - startTime;
-            metricsService.recordMessageConsumed(latency);
-            
-            processedCount++;
-            if (processedCount % 100 == 0) {
-                log.info("  Zpracováno: {} zpráv", processedCount);
+            // Vzorkovaná zpráva - rozpad latence po úsecích
+            if (trace != null) {
+                hopTracer.record(KafkaTraceHeaders.unpack(trace), dispatchedMicros, HopTracer.nowMicros());
             }
             
+            if (fileSink.isRunning()) {
+                // ACK až po trvalém zápisu do sinku - container commitne offsety v pořadí
+                appendToSink(message, partition, offset, startTime, acknowledgment, 0);
+            } else {
+                // ACK - úspěšné zpracování
+                acknowledgment.acknowledge();
+                bookkeeping.recordConsumed(partition, offset, startTime);
+            }
+        
         } catch (Exception e) {
+            if (fileSink.isRunning()) {
+                // Async ACK commitují jen souvislý úsek offsetů a nack nepodporují - nepotvrzená
+                // zpráva by commit zastavila. Retry proto proběhne mimo vlákno listeneru, zpráva
+                // skončí v sinku nebo v DLQ.
+                retryWithSink(message, partition, offset, startTime, acknowledgment, e, 0);
+                return;
+            }
+            
             // Získání retry počtu
-            int currentRetryCount = retryCountMap.getOrDefault(messageKey, 0);
+            int currentRetryCount = bookkeeping.getRetryCount(partition, offset);
             
             if (currentRetryCount < maxRetries) {
                 // Retry s exponential backoff
-                retryCountMap.put(messageKey, currentRetryCount + 1);
+                bookkeeping.recordRetry(partition, offset, currentRetryCount + 1);
                 
                 long backoffMs = (long) Math.pow(2, currentRetryCount) * 1000;
                 log.warn("⚠ Chyba zpracování zprávy {} (pokus {}/{}): {}. Backoff: {} ms", 
@@ -94,7 +160,7 @@ public class MessageConsumer {
                 }
                 
                 // NEPOTVRZUJEME offset - zpráva bude znovu načtena
-                
+            
             } else {
                 // Přesun do DLQ
                 log.error("✗ Zpráva {} přesunuta do DLQ po {} pokusech", 
@@ -104,36 +170,194 @@ public class MessageConsumer {
                 
                 // ACK offset po přesunu do DLQ
                 acknowledgment.acknowledge();
-                retryCountMap.remove(messageKey);
-                metricsService.recordMessageFailed();
+                bookkeeping.recordDeadLettered(partition, offset);
             }
         }
     }
 
     /**
-     * Listener pro DLQ topic - pouze logování.
+     * Zápis zpracované zprávy do souborového sinku, ACK v callbacku po fsync.
+     * Nack jde s async ACK volat jen z consumer vlákna - při chybě zápisu se proto zápis zopakuje
+     * s backoffem a po maxRetries jde zpráva do DLQ. Nepotvrzený offset by commit partition zastavil.
+     */
+    private void appendToSink(WorkshopMessage message, int partition, long offset, long startTime,
+                              Acknowledgment acknowledgment, int attempt) {
+        fileSink.append(message).whenComplete((result, ex) -> {
+            if (ex == null) {
+                acknowledgment.acknowledge();
+                bookkeeping.recordConsumed(partition, offset, startTime);
+                return;
+            }
+            // Callback běží ve vlákně zapisovače sinku - append z něj by při plné frontě čekal sám na sebe
+            if (attempt < maxRetries && fileSink.isRunning()) {
+                long backoffMs = SINK_RETRY_BACKOFF_MS << attempt;
+                log.warn("⚠ Zápis zprávy {} do sinku selhal (pokus {}/{}): {}. Backoff: {} ms",
+                        message.getId(), attempt + 1, maxRetries, ex.getMessage(), backoffMs);
+                sinkRetryExecutor.schedule(() -> appendToSink(message, partition, offset, startTime,
+                        acknowledgment, attempt + 1), backoffMs, TimeUnit.MILLISECONDS);
+            } else {
+                sinkRetryExecutor.execute(() -> {
+                    log.error("✗ Zpráva {} není v sinku, přesunuta do DLQ: {}", message.getId(), ex.getMessage());
+                    sendToDLQ(message, ex.getMessage());
+                    acknowledgment.acknowledge();
+                    bookkeeping.recordDeadLettered(partition, offset);
+                });
+            }
+        });
+    }
+
+    /**
+     * Retry zpracování se zapnutým sinkem - s exponential backoff ve vlákně sink-retry, po úspěchu
+     * zápis do sinku, po maxRetries DLQ a ACK. Listener mezitím zpracovává další zprávy.
+     */
+    private void retryWithSink(WorkshopMessage message, int partition, long offset, long startTime,
+                               Acknowledgment acknowledgment, Exception error, int attempt) {
+        if (attempt >= maxRetries) {
+            log.error("✗ Zpráva {} přesunuta do DLQ po {} pokusech", message.getId(), maxRetries);
+            sendToDLQ(message, error.getMessage());
+            acknowledgment.acknowledge();
+            bookkeeping.recordDeadLettered(partition, offset);
+            return;
+        }
+        if (sinkRetryExecutor.isShutdown()) {
+            // Vypínání - offset zůstane nepotvrzený a zpráva se po restartu načte znovu
+            return;
+        }
+        
+        long backoffMs = (long) Math.pow(2, attempt) * 1000;
+        log.warn("⚠ Chyba zpracování zprávy {} (pokus {}/{}): {}. Backoff: {} ms",
+                message.getId(), attempt + 1, maxRetries, error.getMessage(), backoffMs);
+        sinkRetryExecutor.schedule(() -> {
+            try {
+                processMessage(message);
+            } catch (Exception e) {
+                retryWithSink(message, partition, offset, startTime, acknowledgment, e, attempt + 1);
+                return;
+            }
+            appendToSink(message, partition, offset, startTime, acknowledgment, 0);
+        }, backoffMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sinkRetryExecutor.shutdownNow();
+    }
+
+    /**
+     * DLQ se při každém přiřazení čte od začátku - parking lot je jen v paměti
+     * a po restartu se z DLQ topicu znovu sestaví.
+     */
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        List<TopicPartition> dlqPartitions = assignments.keySet().stream()
+                .filter(partition -> partition.topic().equals(dlqTopicName))
+                .toList();
+        if (!dlqPartitions.isEmpty()) {
+            callback.seekToBeginning(dlqPartitions);
+        }
+    }
+
+    /**
+     * Listener pro DLQ topic - odkládá zprávy do parking lotu pro pozdější redrive.
+     * Tombstone od {@link KafkaRepublisher} zprávu z parking lotu odebere.
      */
     @KafkaListener(topics = "${workshop.kafka.dlq-topic}", groupId = "workshop-dlq-consumer-group")
-    public void receiveDLQMessage(@Payload WorkshopMessage message,
+    public void receiveDLQMessage(@Payload(required = false) WorkshopMessage message,
+                                  @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
+                                  @Header(KafkaHeaders.OFFSET) long offset,
+                                  @Header(name = KafkaRepublisher.REDRIVEN_FROM_HEADER, required = false) byte[] redrivenFrom,
                                   Acknowledgment acknowledgment) {
         
-        log.info("📥 DLQ: Přijata zpráva {} do Dead Letter Queue", message.getId());
+        if (message == null) {
+            if (redrivenFrom != null) {
+                parkingLot.removeBySource(new String(redrivenFrom, StandardCharsets.UTF_8));
+            }
+            acknowledgment.acknowledge();
+            return;
+        }
+        
+        // Oddělení původního obsahu a chyby připojené v sendToDLQ
+        String error = null;
+        String content = message.getContent();
+        int errorAt = content != null ? content.indexOf(ERROR_MARKER) : -1;
+        if (errorAt >= 0) {
+            int errorEnd = content.endsWith("]") ? content.length() - 1 : content.length();
+            error = content.substring(errorAt + ERROR_MARKER.length(), errorEnd);
+            message.setContent(content.substring(0, errorAt));
+        }
+        if (parkingLot.park(message.getId(), message, error, KafkaRepublisher.source(partition, offset))) {
+            log.info("📥 DLQ: Přijata zpráva {} do Dead Letter Queue", message.getId());
+        }
         
         // ACK zprávy v DLQ
         acknowledgment.acknowledge();
     }
 
+    /**
+     * Znovuzpracování zprávy z replay - stejná cesta jako listener: zpracování s retry a exponential
+     * backoff, zápis do sinku (pokud běží) s retry a po maxRetries přesun do DLQ.
+     * Běží ve vlákně replay, backoff i čekání na zápis sinku blokují jen replay.
+     *
+     * @return true pokud je zpráva zpracovaná (a v sinku), false pokud skončila v DLQ
+     */
+    public boolean reprocess(WorkshopMessage message) throws InterruptedException {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                processMessage(message);
+                break;
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                if (attempt >= maxRetries) {
+                    log.error("✗ Replay: zpráva {} přesunuta do DLQ po {} pokusech", message.getId(), maxRetries);
+                    sendToDLQ(message, e.getMessage());
+                    return false;
+                }
+                long backoffMs = (long) Math.pow(2, attempt) * 1000;
+                log.warn("⚠ Replay: chyba zpracování zprávy {} (pokus {}/{}): {}. Backoff: {} ms",
+                        message.getId(), attempt + 1, maxRetries, e.getMessage(), backoffMs);
+                Thread.sleep(backoffMs);
+            }
+        }
+        
+        for (int attempt = 0; fileSink.isRunning(); attempt++) {
+            try {
+                fileSink.append(message).get();
+                break;
+            } catch (ExecutionException e) {
+                if (attempt >= maxRetries) {
+                    log.error("✗ Replay: zpráva {} není v sinku, přesunuta do DLQ: {}", message.getId(),
+                            e.getCause().getMessage());
+                    sendToDLQ(message, e.getCause().getMessage());
+                    return false;
+                }
+                long backoffMs = SINK_RETRY_BACKOFF_MS << attempt;
+                log.warn("⚠ Replay: zápis zprávy {} do sinku selhal (pokus {}/{}): {}. Backoff: {} ms",
+                        message.getId(), attempt + 1, maxRetries, e.getCause().getMessage(), backoffMs);
+                Thread.sleep(backoffMs);
+            }
+        }
+        return true;
+    }
+
     /**
      * Zpracování zprávy s možností simulace chyb.
      */
     private void processMessage(WorkshopMessage message) throws Exception {
+        // Claim check - payload se čte přímo z mapovaného segmentu, bez kopie, a ověří se jeho CRC32C.
+        // Chybějící nebo poškozený blob je chyba zpracování -> retry / DLQ.
+        ByteBuffer payload = claimCheck.resolve(message.getContent());
+        if (payload != null) {
+            claimCheck.verify(message.getContent(), payload);
+        }
+        
         // Simulace náhodných chyb
         if (simulateFailures && random.nextDouble() < failureRate) {
             throw new RuntimeException("Simulovaná chyba zpracování");
         }
         
-        // Simulace zpracování
-        Thread.sleep(1);
+        // Simulace zpracování podle modelu (sleep, cpu, alloc, downstream)
+        processingEngine.process();
         
         log.debug("✓ Zpracována zpráva: {}", message.getId());
     }
@@ -143,7 +367,7 @@ public class MessageConsumer {
      */
     private void sendToDLQ(WorkshopMessage message, String error) {
         try {
-            message.setContent(message.getContent() + " [ERROR: " + error + "]");
+            message.setContent(message.getContent() + ERROR_MARKER + error + "]");
             message.setRetryCount(maxRetries);
             
             kafkaTemplate.send(dlqTopicName, "dlq-" + message.getId(), message);
@@ -152,13 +376,12 @@ public class MessageConsumer {
         }
     }
 
-    public int getProcessedCount() {
-        return processedCount;
+    public long getProcessedCount() {
+        return bookkeeping.getProcessedCount();
     }
 
     public void resetProcessedCount() {
-        this.processedCount = 0;
-        this.retryCountMap.clear();
+        bookkeeping.reset();
     }
 }
 
@@ -1,16 +1,73 @@
 package com.workshop.kafka.controller;
 
+import com.workshop.benchmark.batch.BatchPublisher;
+import com.workshop.benchmark.claimcheck.ClaimCheck;
+import com.workshop.benchmark.claimcheck.ClaimCheckStatus;
+import com.workshop.benchmark.fault.FaultProfile;
+import com.workshop.benchmark.fault.FaultProxy;
+import com.workshop.benchmark.fault.FaultProxyStatus;
+import com.workshop.benchmark.ingest.IngestSummary;
+import com.workshop.benchmark.ingest.NdjsonIngester;
+import com.workshop.benchmark.metrics.FleetAggregator;
+import com.workshop.benchmark.metrics.LatencyHistogramExport;
+import com.workshop.benchmark.metrics.LiveMetricsPublisher;
+import com.workshop.benchmark.metrics.PerformanceSummary;
+import com.workshop.benchmark.metrics.StartupReport;
+import com.workshop.benchmark.outbox.OutboxService;
+import com.workshop.benchmark.outbox.OutboxStatus;
+import com.workshop.benchmark.profiling.JfrProfiler;
+import com.workshop.benchmark.redrive.ParkingLotStore;
+import com.workshop.benchmark.redrive.RedriveRequest;
+import com.workshop.benchmark.redrive.RedriveService;
+import com.workshop.benchmark.redrive.RedriveStatus;
+import com.workshop.benchmark.tracing.HopTracer;
+import com.workshop.benchmark.tracing.TraceBreakdown;
+import com.workshop.benchmark.view.ViewStatus;
+import com.workshop.benchmark.runner.BenchmarkRunner;
+import com.workshop.benchmark.scenario.Scenario;
+import com.workshop.benchmark.scenario.ScenarioExecutor;
+import com.workshop.benchmark.scenario.ScenarioLoader;
+import com.workshop.benchmark.sink.FileSink;
+import com.workshop.benchmark.sink.FileSinkStatus;
+import com.workshop.benchmark.spool.ProducerSpool;
+import com.workshop.benchmark.spool.SpoolStatus;
+import com.workshop.benchmark.workload.ProcessingEngine;
+import com.workshop.benchmark.workload.ProcessingSpec;
+import com.workshop.benchmark.workload.ProcessingStatus;
+import com.workshop.benchmark.workload.Workload;
 import com.workshop.kafka.consumer.MessageConsumer;
 import com.workshop.kafka.metrics.MetricsService;
-import com.workshop.kafka.metrics.PerformanceSummary;
+import com.workshop.kafka.model.WorkshopMessage;
+import com.workshop.kafka.producer.KafkaMessagingDriver;
 import com.workshop.kafka.producer.MessageProducer;
+import com.workshop.kafka.replay.ReplayRequest;
+import com.workshop.kafka.replay.ReplayService;
+import com.workshop.kafka.replay.ReplayStatus;
+import com.workshop.kafka.view.StateView;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.aot.AotDetector;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
 
 /**
  * REST Controller pro ovládání workshopu.
@@ -22,8 +79,34 @@ import java.util.Map;
 public class WorkshopController {
 
     private final MessageProducer messageProducer;
+    private final BatchPublisher<WorkshopMessage> batchPublisher;
+    private final NdjsonIngester ndjsonIngester;
+    private final KafkaMessagingDriver messagingDriver;
+    private final BenchmarkRunner benchmarkRunner;
+    private final ScenarioLoader scenarioLoader;
+    private final ScenarioExecutor scenarioExecutor;
     private final MessageConsumer messageConsumer;
     private final MetricsService metricsService;
+    private final LiveMetricsPublisher liveMetricsPublisher;
+    private final FleetAggregator fleetAggregator;
+    private final HopTracer hopTracer;
+    private final JfrProfiler jfrProfiler;
+    private final ProcessingEngine processingEngine;
+    private final FaultProxy faultProxy;
+    private final ParkingLotStore<WorkshopMessage> parkingLot;
+    private final RedriveService<WorkshopMessage> redriveService;
+    private final ReplayService replayService;
+    private final ClaimCheck claimCheck;
+    private final ProducerSpool<WorkshopMessage> producerSpool;
+    private final FileSink<WorkshopMessage> fileSink;
+    private final OutboxService<WorkshopMessage> outboxService;
+    private final StateView stateView;
+
+    @Value("${spring.main.lazy-initialization:false}")
+    private boolean lazyInitialization;
+
+    @Value("${workshop.kafka.fleet.instances:http://localhost:8082}")
+    private List<String> fleetInstances;
 
     /**
      * Odeslání dávky zpráv.
@@ -57,6 +140,113 @@ public class WorkshopController {
         }
     }
 
+    /**
+     * Publikování jedné zprávy přes group commit.
+     * Odpověď přijde až po potvrzení dávky brokerem, souběžné požadavky sdílí dávku.
+     * 
+     * POST /api/workshop/publish
+     * Body: {"content": "Hello"}
+     */
+    @PostMapping("/publish")
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> publish(@RequestBody WorkshopMessage message) {
+        return batchPublisher.submit(message).handle((batchSize, ex) -> {
+            Map<String, Object> response = new HashMap<>();
+            response.put("id", message.getId());
+            if (ex == null) {
+                response.put("status", "success");
+                response.put("batchSize", batchSize);
+                return ResponseEntity.ok(response);
+            }
+            
+            Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+            response.put("status", "error");
+            response.put("message", cause.getMessage());
+            HttpStatus status = cause instanceof RejectedExecutionException || cause instanceof TimeoutException
+                    ? HttpStatus.SERVICE_UNAVAILABLE
+                    : HttpStatus.INTERNAL_SERVER_ERROR;
+            return ResponseEntity.status(status).body(response);
+        });
+    }
+
+    /**
+     * Streamované nahrání zpráv ve formátu NDJSON (jedna zpráva na řádek).
+     * Zprávy jdou přes group commit, pomalý broker zpomalí upload.
+     * 
+     * POST /api/workshop/ingest
+     * Content-Type: application/x-ndjson
+     */
+    @PostMapping(value = "/ingest", consumes = "application/x-ndjson")
+    public ResponseEntity<IngestSummary> ingest(InputStream body) throws IOException {
+        log.info("📥 NDJSON ingest");
+        IngestSummary summary = ndjsonIngester.ingest(body, WorkshopMessage.class, batchPublisher::submit);
+        return summary.getError() == null
+                ? ResponseEntity.ok(summary)
+                : ResponseEntity.badRequest().body(summary);
+    }
+
+    /**
+     * Benchmark přes společný runner - stejný workload pro oba brokery.
+     * 
+     * POST /api/workshop/benchmark
+     * Body: {"name": "baseline", "messageCount": 10000, "payloadBytes": 1024}
+     */
+    @PostMapping("/benchmark")
+    public ResponseEntity<?> benchmark(@RequestBody(required = false) Workload workload) {
+        Workload resolved = workload != null ? workload : new Workload();
+        try {
+            resolved.validate();
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("status", "error");
+            response.put("message", e.getMessage());
+            
+            return ResponseEntity.badRequest().body(response);
+        }
+        messageConsumer.resetProcessedCount();
+        return ResponseEntity.ok(benchmarkRunner.run(messagingDriver, resolved));
+    }
+
+    /**
+     * Spuštění zátěžového scénáře (fáze ramp/spike/soak) - výsledek po fázích.
+     * 
+     * POST /api/workshop/scenario               (tělo: YAML nebo JSON scénář)
+     * POST /api/workshop/scenario?file=scenarios/ramp-spike-soak.yml
+     */
+    @PostMapping("/scenario")
+    public ResponseEntity<?> runScenario(
+            @RequestParam(required = false) String file,
+            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+            @RequestBody(required = false) String body) {
+        
+        Scenario scenario;
+        try {
+            if (file != null) {
+                scenario = scenarioLoader.load(Path.of(file));
+            } else {
+                boolean yaml = contentType == null || contentType.contains("yaml") || contentType.startsWith("text/");
+                scenario = scenarioLoader.parse(body != null ? body : "", yaml);
+            }
+        } catch (Exception e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("status", "error");
+            response.put("message", "Neplatný scénář: " + e.getMessage());
+            
+            return ResponseEntity.badRequest().body(response);
+        }
+        
+        log.info("📤 Požadavek na scénář '{}'", scenario.getName());
+        messageConsumer.resetProcessedCount();
+        try {
+            return ResponseEntity.ok(scenarioExecutor.execute(scenario, messagingDriver, messageConsumer));
+        } catch (IllegalStateException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("status", "error");
+            response.put("message", e.getMessage() + " (workshop.kafka.fault-proxy.enabled)");
+            
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
     /**
      * Získání metrik výkonu.
      * 
@@ -68,6 +258,440 @@ public class WorkshopController {
         return ResponseEntity.ok(summary);
     }
 
+    /**
+     * Počty a histogramy latence od posledního resetu ve slučitelném tvaru (HdrHistogram, Base64).
+     * 
+     * GET /api/workshop/metrics/histogram
+     */
+    @GetMapping("/metrics/histogram")
+    public ResponseEntity<LatencyHistogramExport> getMetricsHistogram() {
+        return ResponseEntity.ok(metricsService.exportHistograms());
+    }
+
+    /**
+     * Souhrn za více instancí - percentily ze sloučených histogramů, propustnost jako součet.
+     * 
+     * GET /api/workshop/metrics/fleet?instances=http://host1:8082,http://host2:8082
+     * Dotazovat lze jen členy flotily z workshop.kafka.fleet.instances.
+     */
+    @GetMapping("/metrics/fleet")
+    public ResponseEntity<?> getFleetMetrics(@RequestParam(required = false) List<String> instances) {
+        if (instances != null) {
+            List<String> unknown = FleetAggregator.nonMembers(instances, fleetInstances);
+            if (!unknown.isEmpty()) {
+                Map<String, Object> response = new HashMap<>();
+                response.put("status", "error");
+                response.put("message", "Instance nejsou členy flotily (workshop.kafka.fleet.instances): " + unknown);
+                return ResponseEntity.badRequest().body(response);
+            }
+        }
+        return ResponseEntity.ok(fleetAggregator.aggregate(instances != null ? instances : fleetInstances));
+    }
+
+    /**
+     * Živé metriky přes Server-Sent Events - jeden snapshot za interval pro všechny odběratele.
+     * 
+     * GET /api/workshop/metrics/stream
+     */
+    @GetMapping(value = "/metrics/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamMetrics() {
+        SseEmitter emitter = new SseEmitter(0L);
+        Runnable unsubscribe = liveMetricsPublisher.subscribe(json -> {
+            try {
+                emitter.send(SseEmitter.event().name("metrics").data(json, MediaType.APPLICATION_JSON));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, emitter::complete);
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(e -> unsubscribe.run());
+        return emitter;
+    }
+
+    /**
+     * Stav parking lotu (zprávy z DLQ čekající na redrive).
+     * 
+     * GET /api/workshop/dlq
+     */
+    @GetMapping("/dlq")
+    public ResponseEntity<Map<String, Object>> getParkingLot() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("parked", parkingLot.size());
+        response.put("redrive", redriveService.getStatus());
+        
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Spuštění redrive zpráv z DLQ zpět do hlavního topicu.
+     * 
+     * POST /api/workshop/dlq/redrive
+     * Body: {"fromId": 1, "toId": 1000, "errorContains": "Simulovaná", "ratePerSecond": 5000, "batchSize": 500}
+     */
+    @PostMapping("/dlq/redrive")
+    public ResponseEntity<?> startRedrive(@RequestBody(required = false) RedriveRequest request) {
+        try {
+            return ResponseEntity.ok(redriveService.start(request != null ? request : new RedriveRequest()));
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("status", "error");
+            response.put("message", e.getMessage());
+            
+            return ResponseEntity.badRequest().body(response);
+        } catch (IllegalStateException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("status", "error");
+            response.put("message", e.getMessage());
+            
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        }
+    }
+
+    /**
+     * Průběh redrive.
+     * 
+     * GET /api/workshop/dlq/redrive
+     */
+    @GetMapping("/dlq/redrive")
+    public ResponseEntity<RedriveStatus> getRedriveStatus() {
+        return ResponseEntity.ok(redriveService.getStatus());
+    }
+
+    /**
+     * Zastavení běžícího redrive.
+     * 
+     * POST /api/workshop/dlq/redrive/stop
+     */
+    @PostMapping("/dlq/redrive/stop")
+    public ResponseEntity<RedriveStatus> stopRedrive() {
+        return ResponseEntity.ok(redriveService.stop());
+    }
+
+    /**
+     * Replay zpráv z časového rozsahu přes stejné zpracování jako živý consumer.
+     * 
+     * POST /api/workshop/replay
+     * Body: {"from": "2024-01-01T10:00:00Z", "to": "2024-01-01T11:00:00Z", "ratePerSecond": 5000}
+     */
+    @PostMapping("/replay")
+    public ResponseEntity<?> startReplay(@RequestBody ReplayRequest request) {
+        try {
+            return ResponseEntity.ok(replayService.start(request));
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("status", "error");
+            response.put("message", e.getMessage());
+            
+            HttpStatus status = e instanceof IllegalStateException ? HttpStatus.CONFLICT : HttpStatus.BAD_REQUEST;
+            return ResponseEntity.status(status).body(response);
+        }
+    }
+
+    /**
+     * Průběh replay - postup, propustnost a odhad zbývajícího času.
+     * 
+     * GET /api/workshop/replay
+     */
+    @GetMapping("/replay")
+    public ResponseEntity<ReplayStatus> getReplayStatus() {
+        return ResponseEntity.ok(replayService.getStatus());
+    }
+
+    /**
+     * Zastavení běžícího replay.
+     * 
+     * POST /api/workshop/replay/stop
+     */
+    @PostMapping("/replay/stop")
+    public ResponseEntity<ReplayStatus> stopReplay() {
+        return ResponseEntity.ok(replayService.stop());
+    }
+
+    /**
+     * Stav claim checku a blob store.
+     * 
+     * GET /api/workshop/claim-check
+     */
+    @GetMapping("/claim-check")
+    public ResponseEntity<ClaimCheckStatus> getClaimCheck() {
+        return ResponseEntity.ok(claimCheck.getStatus());
+    }
+
+    /**
+     * Zapnutí/vypnutí claim checku za běhu - pro srovnání propustnosti s velkými payloady.
+     * 
+     * POST /api/workshop/claim-check?enabled=true
+     */
+    @PostMapping("/claim-check")
+    public ResponseEntity<ClaimCheckStatus> setClaimCheck(@RequestParam boolean enabled) {
+        claimCheck.setEnabled(enabled);
+        log.info("Claim check {}", enabled ? "zapnut" : "vypnut");
+        return ResponseEntity.ok(claimCheck.getStatus());
+    }
+
+    /**
+     * Rozpad latence vzorkovaných zpráv po úsecích (serialize, broker, dispatch, process).
+     * 
+     * GET /api/workshop/tracing
+     */
+    @GetMapping("/tracing")
+    public ResponseEntity<TraceBreakdown> getTracing() {
+        return ResponseEntity.ok(hopTracer.getBreakdown());
+    }
+
+    /**
+     * Změna poměru vzorkování za běhu (0 = vypnuto).
+     * 
+     * POST /api/workshop/tracing?sampleRate=0.01
+     */
+    @PostMapping("/tracing")
+    public ResponseEntity<?> setTracing(@RequestParam double sampleRate) {
+        try {
+            hopTracer.setSampleRate(sampleRate);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("status", "error");
+            response.put("message", e.getMessage());
+            
+            return ResponseEntity.badRequest().body(response);
+        }
+        log.info("Tracing: vzorkování {}", sampleRate);
+        return ResponseEntity.ok(hopTracer.getBreakdown());
+    }
+
+    /**
+     * Zapnutí/vypnutí JFR profilování běhů (/send, /benchmark) za běhu.
+     * Report je v souhrnu metrik (pole profile), záznam .jfr zůstává na disku.
+     * 
+     * POST /api/workshop/profiling?enabled=true
+     */
+    @PostMapping("/profiling")
+    public ResponseEntity<Map<String, Object>> setProfiling(@RequestParam boolean enabled) {
+        jfrProfiler.setEnabled(enabled);
+        log.info("JFR profilování {}", enabled ? "zapnuto" : "vypnuto");
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", "success");
+        response.put("enabled", jfrProfiler.isEnabled());
+        
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Aktuální model zpracování v consumeru a stav simulované závislosti.
+     * 
+     * GET /api/workshop/processing
+     */
+    @GetMapping("/processing")
+    public ResponseEntity<ProcessingStatus> getProcessing() {
+        return ResponseEntity.ok(processingEngine.getStatus());
+    }
+
+    /**
+     * Změna modelu zpracování za běhu - platí od další zprávy.
+     * 
+     * POST /api/workshop/processing
+     * Body: {"model": "cpu", "distribution": "exponential", "delayMs": 0.5}
+     */
+    @PostMapping("/processing")
+    public ResponseEntity<?> setProcessing(@RequestBody ProcessingSpec spec) {
+        try {
+            messageConsumer.setProcessing(spec);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("status", "error");
+            response.put("message", e.getMessage());
+            
+            return ResponseEntity.badRequest().body(response);
+        }
+        log.info("Model zpracování: {} ({})", spec.getModel(), spec.getDistribution());
+        return ResponseEntity.ok(processingEngine.getStatus());
+    }
+
+    /**
+     * Návrat k modelu zpracování z application.yml.
+     * 
+     * DELETE /api/workshop/processing
+     */
+    @DeleteMapping("/processing")
+    public ResponseEntity<ProcessingStatus> resetProcessing() {
+        processingEngine.resetToDefaults();
+        return ResponseEntity.ok(processingEngine.getStatus());
+    }
+
+    /**
+     * Stav fault proxy - aktuální porucha, spojení a přenesené bajty.
+     * 
+     * GET /api/workshop/fault
+     */
+    @GetMapping("/fault")
+    public ResponseEntity<FaultProxyStatus> getFault() {
+        return ResponseEntity.ok(faultProxy.getStatus());
+    }
+
+    /**
+     * Nastavení poruchy sítě za běhu - platí pro data přenesená po změně.
+     * 
+     * POST /api/workshop/fault
+     * Body: {"name": "wan", "latencyMs": 50, "jitterMs": 20, "bandwidthBytesPerSec": 1048576, "resetProbability": 0}
+     */
+    @PostMapping("/fault")
+    public ResponseEntity<?> setFault(@RequestBody FaultProfile profile) {
+        Map<String, Object> response = new HashMap<>();
+        if (!faultProxy.isRunning()) {
+            response.put("status", "error");
+            response.put("message", "Fault proxy neběží (workshop.kafka.fault-proxy.enabled)");
+            return ResponseEntity.badRequest().body(response);
+        }
+        try {
+            faultProxy.setProfile(profile);
+        } catch (IllegalArgumentException e) {
+            response.put("status", "error");
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+        return ResponseEntity.ok(faultProxy.getStatus());
+    }
+
+    /**
+     * Zrušení poruchy sítě.
+     * 
+     * DELETE /api/workshop/fault
+     */
+    @DeleteMapping("/fault")
+    public ResponseEntity<FaultProxyStatus> clearFault() {
+        faultProxy.clearProfile();
+        return ResponseEntity.ok(faultProxy.getStatus());
+    }
+
+    /**
+     * Shození všech spojení přes proxy (TCP RST) - klient se musí připojit znovu.
+     * 
+     * POST /api/workshop/fault/reset
+     */
+    @PostMapping("/fault/reset")
+    public ResponseEntity<Map<String, Object>> resetFaultConnections() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("reset", faultProxy.resetConnections());
+        response.put("proxy", faultProxy.getStatus());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Stav producer spoolu a jeho přehrávání.
+     * 
+     * GET /api/workshop/spool
+     */
+    @GetMapping("/spool")
+    public ResponseEntity<SpoolStatus> getSpool() {
+        return ResponseEntity.ok(producerSpool.getStatus());
+    }
+
+    /**
+     * Stav souborového sinku zpracovaných zpráv - propustnost zápisu a latence fsync.
+     * 
+     * GET /api/workshop/sink
+     */
+    @GetMapping("/sink")
+    public ResponseEntity<FileSinkStatus> getSink() {
+        return ResponseEntity.ok(fileSink.getStatus());
+    }
+
+    /**
+     * Zápis zpráv přes transactional outbox - každá transakce uloží transactionSize zpráv
+     * do business tabulky i outboxu, do brokeru je odešle relay.
+     * 
+     * POST /api/workshop/outbox?count=1000&transactionSize=100
+     */
+    @PostMapping("/outbox")
+    public ResponseEntity<Map<String, Object>> writeOutbox(
+            @RequestParam(defaultValue = "1000") int count,
+            @RequestParam(defaultValue = "100") int transactionSize) throws SQLException {
+        
+        Map<String, Object> response = new HashMap<>();
+        if (!outboxService.isEnabled()) {
+            response.put("status", "error");
+            response.put("message", "Outbox je vypnutý (workshop.kafka.outbox.enabled)");
+            return ResponseEntity.badRequest().body(response);
+        }
+        if (transactionSize <= 0) {
+            response.put("status", "error");
+            response.put("message", "transactionSize musí být kladné");
+            return ResponseEntity.badRequest().body(response);
+        }
+        
+        long startTime = System.nanoTime();
+        for (int written = 0; written < count; written += transactionSize) {
+            int size = Math.min(transactionSize, count - written);
+            List<WorkshopMessage> messages = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                messages.add(WorkshopMessage.builder()
+                        .content("Outbox message " + (written + i + 1))
+                        .build());
+            }
+            outboxService.save(messages);
+        }
+        double seconds = (System.nanoTime() - startTime) / 1_000_000_000.0;
+        log.info("📥 Do outboxu zapsáno {} zpráv za {} s", count, String.format("%.2f", seconds));
+        
+        response.put("status", "success");
+        response.put("count", count);
+        response.put("transactions", (count + transactionSize - 1) / transactionSize);
+        response.put("writeThroughputMsgPerSec", count / seconds);
+        response.put("outbox", outboxService.getStatus());
+        
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Stav outboxu a relay do brokeru (hloubka, lag, propustnost).
+     * 
+     * GET /api/workshop/outbox
+     */
+    @GetMapping("/outbox")
+    public ResponseEntity<OutboxStatus> getOutbox() {
+        return ResponseEntity.ok(outboxService.getStatus());
+    }
+
+    /**
+     * Stav materializovaného pohledu: připravenost, doba obnovy, paměť na položku.
+     * 
+     * GET /api/workshop/view
+     */
+    @GetMapping("/view")
+    public ResponseEntity<ViewStatus> getView() {
+        return ResponseEntity.ok(stateView.getStatus());
+    }
+
+    /**
+     * Poslední zpráva pro id z materializovaného pohledu (bez čtení topicu).
+     * 
+     * GET /api/workshop/view/42
+     */
+    @GetMapping("/view/{id}")
+    public ResponseEntity<?> getViewEntry(@PathVariable long id) {
+        if (!stateView.isReady()) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("status", "error");
+            response.put("message", stateView.isEnabled()
+                    ? "Pohled se obnovuje" : "Pohled je vypnutý (workshop.kafka.view.enabled)");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+        }
+        WorkshopMessage message = stateView.get(id);
+        return message != null ? ResponseEntity.ok(message) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Doba startu instance - do připravenosti a do první zpracované zprávy.
+     * 
+     * GET /api/workshop/startup
+     */
+    @GetMapping("/startup")
+    public ResponseEntity<StartupReport> getStartup() {
+        return ResponseEntity.ok(metricsService.getStartupReport(AotDetector.useGeneratedArtifacts(), lazyInitialization));
+    }
+
     /**
      * Reset metrik.
      * 
@@ -0,0 +1,78 @@
+package com.workshop.kafka.metrics;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.ListOffsetsResult;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lag hlavní consumer group - součet (konec partition - commitnutý offset).
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ConsumerLagProbe {
+
+    private static final String GROUP_ID = "workshop-consumer-group";
+    private static final long TIMEOUT_MS = 2000;
+
+    private final KafkaAdmin kafkaAdmin;
+    private AdminClient adminClient;
+
+    @Value("${workshop.kafka.topic}")
+    private String topicName;
+
+    /**
+     * @return celkový lag, -1 pokud broker neodpověděl
+     */
+    public synchronized long totalLag() {
+        try {
+            if (adminClient == null) {
+                adminClient = AdminClient.create(kafkaAdmin.getConfigurationProperties());
+            }
+            Map<TopicPartition, OffsetAndMetadata> committed = adminClient.listConsumerGroupOffsets(GROUP_ID)
+                    .partitionsToOffsetAndMetadata()
+                    .get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            
+            Map<TopicPartition, OffsetSpec> latest = new HashMap<>();
+            committed.forEach((partition, offset) -> {
+                if (offset != null && partition.topic().equals(topicName)) {
+                    latest.put(partition, OffsetSpec.latest());
+                }
+            });
+            Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> ends = adminClient.listOffsets(latest)
+                    .all()
+                    .get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            
+            long lag = 0;
+            for (Map.Entry<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> end : ends.entrySet()) {
+                lag += Math.max(0, end.getValue().offset() - committed.get(end.getKey()).offset());
+            }
+            return lag;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        } catch (Exception e) {
+            log.debug("Lag consumer group nelze zjistit: {}", e.getMessage());
+            return -1;
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (adminClient != null) {
+            adminClient.close();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.workshop.kafka.producer;
+
+import com.workshop.benchmark.batch.BatchPublisher;
+import com.workshop.benchmark.batch.MicroBatcher;
+import com.workshop.kafka.metrics.MetricsService;
+import com.workshop.kafka.model.WorkshopMessage;
+import com.workshop.kafka.view.StateView;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Odeslání dávky group commitu do Kafky pro {@link BatchPublisher}.
+ *
+ * Dávka jde do produceru najednou, každá zpráva se potvrdí až s acks=all.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class KafkaBatchSink implements MicroBatcher.BatchSink<WorkshopMessage> {
+
+    private final KafkaTemplate<String, WorkshopMessage> kafkaTemplate;
+    private final MetricsService metricsService;
+    private final StateView stateView;
+
+    @Value("${workshop.kafka.topic}")
+    private String topicName;
+
+    /**
+     * Předá dávku produceru, ten ji odešle v co nejmenším počtu requestů.
+     */
+    @Override
+    public List<CompletableFuture<?>> publish(List<WorkshopMessage> batch) {
+        long startTime = System.nanoTime();
+        List<CompletableFuture<?>> acks = new ArrayList<>(batch.size());
+        for (WorkshopMessage message : batch) {
+            try {
+                acks.add(kafkaTemplate.send(topicName, "msg-" + message.getId(), message)
+                        .thenAccept(result -> metricsService.recordMessageProduced(System.nanoTime() - startTime)));
+                stateView.mirror(message);
+            } catch (Exception e) {
+                acks.add(CompletableFuture.failedFuture(e));
+            }
+        }
+        return acks;
+    }
+}
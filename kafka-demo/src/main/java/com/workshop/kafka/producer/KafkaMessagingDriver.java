@@ -0,0 +1,51 @@
+package com.workshop.kafka.producer;
+
+import com.workshop.benchmark.driver.MessagingDriver;
+import com.workshop.benchmark.metrics.MetricsEngine;
+import com.workshop.kafka.metrics.MetricsService;
+import com.workshop.kafka.model.WorkshopMessage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Kafka implementace {@link MessagingDriver} pro benchmark runner.
+ */
+@Component
+@RequiredArgsConstructor
+public class KafkaMessagingDriver implements MessagingDriver {
+
+    private final MessageProducer messageProducer;
+    private final KafkaTemplate<String, WorkshopMessage> kafkaTemplate;
+    private final MetricsService metricsService;
+
+    @Override
+    public String getName() {
+        return "kafka";
+    }
+
+    @Override
+    public boolean send(long id, String content) {
+        messageProducer.sendMessage(WorkshopMessage.builder()
+                .id(id)
+                .content(content)
+                .timestamp(System.currentTimeMillis())
+                .broker("Kafka")
+                .retryCount(0)
+                .build());
+        return true;
+    }
+
+    /**
+     * KafkaProducer.flush() čeká na dokončení všech odeslaných požadavků.
+     */
+    @Override
+    public void flush() {
+        kafkaTemplate.flush();
+    }
+
+    @Override
+    public MetricsEngine getMetrics() {
+        return metricsService;
+    }
+}
@@ -1,15 +1,27 @@
 package com.workshop.kafka.producer;
 
+import com.workshop.benchmark.claimcheck.ClaimCheck;
+import com.workshop.benchmark.profiling.JfrProfiler;
+import com.workshop.benchmark.profiling.JfrSession;
+import com.workshop.benchmark.spool.ProducerSpool;
+import com.workshop.benchmark.tracing.HopTracer;
 import com.workshop.kafka.metrics.MetricsService;
 import com.workshop.kafka.model.WorkshopMessage;
+import com.workshop.kafka.tracing.KafkaTraceHeaders;
+import com.workshop.kafka.view.StateView;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.KafkaException;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * Producer service pro odesílání zpráv do Kafka.
@@ -21,23 +33,55 @@ public class MessageProducer {
 
     private final KafkaTemplate<String, WorkshopMessage> kafkaTemplate;
     private final MetricsService metricsService;
+    private final ClaimCheck claimCheck;
+    private final ProducerSpool<WorkshopMessage> producerSpool;
+    private final HopTracer hopTracer;
+    private final JfrProfiler jfrProfiler;
+    private final StateView stateView;
 
     @Value("${workshop.kafka.topic}")
     private String topicName;
 
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    // Dokončení odeslání - ve virtuálním režimu na virtuálním vlákně, jinak přímo ve vlákně klienta
+    private Executor callbackExecutor = Runnable::run;
+
+    @PostConstruct
+    void initCallbackExecutor() {
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("producer-callback-");
+            executor.setVirtualThreads(true);
+            callbackExecutor = executor;
+        }
+    }
+
     /**
      * Odešle jednu zprávu.
+     * Se zapnutým spoolem se zpráva, kterou broker nepřijal, uloží lokálně a odešle později.
      */
     public void sendMessage(WorkshopMessage message) {
+        // Velký payload jde do blob store, brokerem putuje jen odkaz
+        message.setContent(claimCheck.checkIn(message.getContent()));
+        
+        if (producerSpool.isBrokerUnavailable()) {
+            producerSpool.append(message);
+            return;
+        }
+        
         long startTime = System.nanoTime();
         
         try {
             String key = "msg-" + message.getId();
             
-            CompletableFuture<SendResult<String, WorkshopMessage>> future = 
-                    kafkaTemplate.send(topicName, key, message);
+            CompletableFuture<SendResult<String, WorkshopMessage>> future = hopTracer.sample()
+                    ? kafkaTemplate.send(tracedRecord(key, message))
+                    : kafkaTemplate.send(topicName, key, message);
+            // Poslední verze zprávy pro materializovaný pohled (jen se zapnutým view.enabled)
+            stateView.mirror(message);
             
-            future.whenComplete((result, ex) -> {
+            future.whenCompleteAsync((result, ex) -> {
                 if (ex == null) {
                     long latency = System.nanoTime() - startTime;
                     metricsService.recordMessageProduced(latency);
@@ -46,23 +90,42 @@ public class MessageProducer {
                             message.getId(),
                             result.getRecordMetadata().partition(),
                             result.getRecordMetadata().offset());
+                } else if (producerSpool.isEnabled()) {
+                    log.debug("Zpráva {} nedoručena, uložena do spoolu: {}", message.getId(), ex.getMessage());
+                    producerSpool.append(message);
                 } else {
                     log.error("Chyba při odesílání zprávy {}: {}", message.getId(), ex.getMessage());
                 }
-            });
+            }, callbackExecutor);
             
         } catch (Exception e) {
+            // Chyba klienta (metadata, timeout, buffer) - Spring ji může zabalit do vlastní výjimky
+            if (producerSpool.isEnabled() && (e instanceof KafkaException || e.getCause() instanceof KafkaException)) {
+                log.debug("Broker nedostupný, zpráva {} uložena do spoolu: {}", message.getId(), e.getMessage());
+                producerSpool.append(message);
+                return;
+            }
             log.error("Chyba při odesílání zprávy: {}", e.getMessage());
             throw e;
         }
     }
 
+    /**
+     * Záznam vzorkované zprávy se značkou odeslání pro per-hop tracing.
+     */
+    private ProducerRecord<String, WorkshopMessage> tracedRecord(String key, WorkshopMessage message) {
+        ProducerRecord<String, WorkshopMessage> record = new ProducerRecord<>(topicName, key, message);
+        record.headers().add(HopTracer.SENT_HEADER, KafkaTraceHeaders.encode(HopTracer.nowMicros()));
+        return record;
+    }
+
     /**
      * Odešle dávku zpráv.
      */
     public void sendBatch(int count) {
         log.info("Odesílání {} zpráv do Kafka...", count);
         metricsService.resetStartTime();
+        JfrSession recording = jfrProfiler.start("send-" + count);
         
         for (int i = 0; i < count; i++) {
             WorkshopMessage message = WorkshopMessage.builder()
@@ -92,6 +155,7 @@ public class MessageProducer {
             Thread.currentThread().interrupt();
         }
         
+        metricsService.setProfile(recording.stop(count));
         metricsService.printSummary("Kafka Producer - Výsledky");
     }
 }
@@ -0,0 +1,81 @@
+package com.workshop.kafka.redrive;
+
+import com.workshop.benchmark.redrive.ParkedMessage;
+import com.workshop.benchmark.redrive.RedriveService;
+import com.workshop.kafka.model.WorkshopMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Redrive dávky zpět do hlavního topicu.
+ *
+ * Po potvrzení zapíše do stejné partition DLQ tombstone s pozicí původní zprávy
+ * v hlavičce {@link #REDRIVEN_FROM_HEADER}. DLQ listener čte topic při každém přiřazení
+ * od začátku, takže parking lot se po restartu obnoví bez již vrácených zpráv.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class KafkaRepublisher implements RedriveService.Republisher<WorkshopMessage> {
+
+    public static final String REDRIVEN_FROM_HEADER = "x-redriven-from";
+
+    private final KafkaTemplate<String, WorkshopMessage> kafkaTemplate;
+
+    @Value("${workshop.kafka.topic}")
+    private String topicName;
+
+    @Value("${workshop.kafka.dlq-topic}")
+    private String dlqTopicName;
+
+    /**
+     * Pozice zprávy v DLQ pro parking lot - "partition@offset".
+     */
+    public static String source(int partition, long offset) {
+        return partition + "@" + offset;
+    }
+
+    @Override
+    public List<CompletableFuture<?>> republish(List<ParkedMessage<WorkshopMessage>> batch) {
+        List<CompletableFuture<?>> futures = new ArrayList<>(batch.size());
+        for (ParkedMessage<WorkshopMessage> parked : batch) {
+            WorkshopMessage message = parked.getMessage();
+            message.setRetryCount(0);
+            CompletableFuture<?> sent = kafkaTemplate.send(topicName, "msg-" + message.getId(), message);
+            // Mimo I/O vlákno producera - send() z jeho callbacku může při plném bufferu zablokovat
+            sent.thenRunAsync(() -> markRedriven(parked));
+            futures.add(sent);
+        }
+        kafkaTemplate.flush();
+        return futures;
+    }
+
+    /**
+     * Bez tombstonu by se zpráva po restartu vrátila do parking lotu a redrive by ji poslal znovu.
+     */
+    private void markRedriven(ParkedMessage<WorkshopMessage> parked) {
+        String source = parked.getSource();
+        if (source == null) {
+            return;
+        }
+        int partition = Integer.parseInt(source.substring(0, source.indexOf('@')));
+        ProducerRecord<String, WorkshopMessage> tombstone =
+                new ProducerRecord<>(dlqTopicName, partition, "dlq-" + parked.getMessageId(), null);
+        tombstone.headers().add(REDRIVEN_FROM_HEADER, source.getBytes(StandardCharsets.UTF_8));
+        kafkaTemplate.send(tombstone).whenComplete((result, ex) -> {
+            if (ex != null) {
+                log.warn("⚠ Tombstone redrive zprávy {} do DLQ selhal, po restartu bude znovu v parking lotu: {}",
+                        parked.getMessageId(), ex.getMessage());
+            }
+        });
+    }
+}
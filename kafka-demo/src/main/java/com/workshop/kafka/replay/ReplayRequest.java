@@ -0,0 +1,22 @@
+package com.workshop.kafka.replay;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Parametry replay - časový rozsah [from, to) a omezení rychlosti.
+ * Nevyplněné hodnoty znamenají výchozí konfiguraci, bez to se čte po aktuální konec topicu.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReplayRequest {
+    private Instant from;
+    private Instant to;
+    private Double ratePerSecond;
+}
@@ -0,0 +1,319 @@
+package com.workshop.kafka.replay;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.workshop.benchmark.redrive.TokenBucket;
+import com.workshop.kafka.consumer.MessageConsumer;
+import com.workshop.kafka.metrics.MetricsService;
+import com.workshop.kafka.model.WorkshopMessage;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetAndTimestamp;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Replay zpráv z časového rozsahu [from, to) přes stejnou cestu zpracování jako živý consumer -
+ * včetně retry, zápisu do sinku a DLQ.
+ *
+ * Rozsah offsetů každé partition se zjistí přes offsetsForTimes, partition se pak čtou
+ * paralelně - každá vlastním consumerem (assign + seek) s velkými fetch limity. Offsety se
+ * commitují do samostatné consumer group, živá {@code workshop-consumer-group} zůstává
+ * netknutá. Společný token bucket omezuje rychlost, aby replay nevyhladověl živé zpracování.
+ * Běh lze kdykoli zastavit, rozpracovaná dávka se dokončí.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ReplayService {
+
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(500);
+    private static final Duration METADATA_TIMEOUT = Duration.ofSeconds(30);
+
+    private final MessageConsumer messageConsumer;
+    private final MetricsService metricsService;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> new Thread(r, "kafka-replay"));
+
+    private final AtomicLong replayed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong deadLettered = new AtomicLong();
+    private volatile String state = "IDLE";
+    private volatile boolean stopRequested;
+    private volatile long startNanos;
+    private volatile long endNanos;
+    private volatile long total;
+    private volatile int partitions;
+    private volatile Instant from;
+    private volatile Instant to;
+
+    @Value("${spring.kafka.bootstrap-servers}")
+    private String bootstrapServers;
+
+    @Value("${workshop.kafka.topic}")
+    private String topicName;
+
+    @Value("${workshop.kafka.replay.group-id:workshop-replay-group}")
+    private String groupId;
+
+    @Value("${workshop.kafka.replay.rate-per-second:5000}")
+    private double defaultRatePerSecond;
+
+    @Value("${workshop.kafka.replay.max-threads:8}")
+    private int maxThreads;
+
+    @Value("${workshop.kafka.replay.max-poll-records:2000}")
+    private int maxPollRecords;
+
+    @Value("${workshop.kafka.replay.max-partition-fetch-bytes:16777216}")
+    private int maxPartitionFetchBytes;
+
+    /**
+     * Rozsah offsetů jedné partition, konec je exkluzivní.
+     */
+    private record Range(TopicPartition partition, long start, long end) {
+    }
+
+    /**
+     * Zjistí rozsahy offsetů a spustí replay na pozadí.
+     *
+     * @throws IllegalStateException pokud replay již běží
+     * @throws IllegalArgumentException při chybném časovém rozsahu
+     */
+    public synchronized ReplayStatus start(ReplayRequest request) {
+        if (isRunning()) {
+            throw new IllegalStateException("Replay již běží");
+        }
+        if (request.getFrom() == null) {
+            throw new IllegalArgumentException("Chybí začátek rozsahu 'from'");
+        }
+        if (request.getTo() != null && !request.getTo().isAfter(request.getFrom())) {
+            throw new IllegalArgumentException("'to' musí být po 'from'");
+        }
+        
+        List<Range> ranges = resolveRanges(request.getFrom(), request.getTo());
+        
+        from = request.getFrom();
+        to = request.getTo();
+        partitions = ranges.size();
+        total = ranges.stream().mapToLong(range -> range.end() - range.start()).sum();
+        replayed.set(0);
+        failed.set(0);
+        deadLettered.set(0);
+        stopRequested = false;
+        startNanos = System.nanoTime();
+        endNanos = 0;
+        state = "RUNNING";
+        
+        double rate = request.getRatePerSecond() != null ? request.getRatePerSecond() : defaultRatePerSecond;
+        log.info("🔁 Replay {} záznamů z {} partition ({} - {}), {} msg/s", total, partitions, from,
+                to != null ? to : "konec", rate);
+        
+        executor.execute(() -> run(ranges, new TokenBucket(rate, maxPollRecords)));
+        return getStatus();
+    }
+
+    /**
+     * Požádá o zastavení běžícího replay.
+     */
+    public ReplayStatus stop() {
+        if (isRunning()) {
+            stopRequested = true;
+            state = "STOPPING";
+        }
+        return getStatus();
+    }
+
+    public ReplayStatus getStatus() {
+        long end = endNanos != 0 ? endNanos : System.nanoTime();
+        double durationSeconds = startNanos != 0 ? (end - startNanos) / 1_000_000_000.0 : 0;
+        long done = replayed.get() + failed.get() + deadLettered.get();
+        double throughput = durationSeconds > 0 ? done / durationSeconds : 0;
+        long remaining = Math.max(0, total - done);
+        
+        return ReplayStatus.builder()
+                .state(state)
+                .from(from)
+                .to(to)
+                .partitions(partitions)
+                .total(total)
+                .replayed(replayed.get())
+                .failed(failed.get())
+                .deadLettered(deadLettered.get())
+                .progressPercent(total > 0 ? done * 100.0 / total : 0)
+                .durationSeconds(durationSeconds)
+                .throughputMsgPerSec(throughput)
+                .etaSeconds(isRunning() && throughput > 0 ? remaining / throughput : 0)
+                .build();
+    }
+
+    private boolean isRunning() {
+        return "RUNNING".equals(state) || "STOPPING".equals(state);
+    }
+
+    /**
+     * Začátek: první offset s časem &gt;= from. Konec: první offset s časem &gt;= to,
+     * bez 'to' (nebo bez takového záznamu) konec partition v okamžiku startu.
+     */
+    private List<Range> resolveRanges(Instant from, Instant to) {
+        try (KafkaConsumer<String, byte[]> consumer = createConsumer(1)) {
+            Map<TopicPartition, Long> fromQuery = new HashMap<>();
+            for (PartitionInfo info : consumer.partitionsFor(topicName, METADATA_TIMEOUT)) {
+                fromQuery.put(new TopicPartition(topicName, info.partition()), from.toEpochMilli());
+            }
+            Map<TopicPartition, Long> endOffsets = consumer.endOffsets(fromQuery.keySet(), METADATA_TIMEOUT);
+            Map<TopicPartition, OffsetAndTimestamp> starts = consumer.offsetsForTimes(fromQuery, METADATA_TIMEOUT);
+            Map<TopicPartition, OffsetAndTimestamp> ends = Map.of();
+            if (to != null) {
+                Map<TopicPartition, Long> toQuery = new HashMap<>();
+                fromQuery.keySet().forEach(partition -> toQuery.put(partition, to.toEpochMilli()));
+                ends = consumer.offsetsForTimes(toQuery, METADATA_TIMEOUT);
+            }
+            
+            List<Range> ranges = new ArrayList<>();
+            for (TopicPartition partition : fromQuery.keySet()) {
+                long endOffset = endOffsets.get(partition);
+                OffsetAndTimestamp start = starts.get(partition);
+                OffsetAndTimestamp end = ends.get(partition);
+                long startOffset = start != null ? start.offset() : endOffset;
+                long stopOffset = end != null ? end.offset() : endOffset;
+                if (stopOffset > startOffset) {
+                    ranges.add(new Range(partition, startOffset, stopOffset));
+                }
+            }
+            return ranges;
+        }
+    }
+
+    private void run(List<Range> ranges, TokenBucket tokenBucket) {
+        ExecutorService workers = Executors.newFixedThreadPool(Math.max(1, Math.min(maxThreads, ranges.size())),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "kafka-replay-worker");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (Range range : ranges) {
+                results.add(workers.submit(() -> replayPartition(range, tokenBucket)));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+            state = stopRequested ? "STOPPED" : "COMPLETED";
+        } catch (Exception e) {
+            log.error("Chyba při replay: {}", e.getMessage(), e);
+            stopRequested = true;
+            state = "FAILED";
+        } finally {
+            workers.shutdownNow();
+            endNanos = System.nanoTime();
+            ReplayStatus status = getStatus();
+            log.info("✓ Replay {}: {} zpráv, {} v DLQ, {} nečitelných, {} msg/s", status.getState(),
+                    status.getReplayed(), status.getDeadLettered(), status.getFailed(),
+                    String.format("%.2f", status.getThroughputMsgPerSec()));
+        }
+    }
+
+    private void replayPartition(Range range, TokenBucket tokenBucket) {
+        try (KafkaConsumer<String, byte[]> consumer = createConsumer(maxPollRecords)) {
+            TopicPartition partition = range.partition();
+            consumer.assign(List.of(partition));
+            consumer.seek(partition, range.start());
+            
+            while (!stopRequested && consumer.position(partition) < range.end()) {
+                ConsumerRecords<String, byte[]> records = consumer.poll(POLL_TIMEOUT);
+                if (records.isEmpty()) {
+                    continue;
+                }
+                
+                List<ConsumerRecord<String, byte[]>> batch = records.records(partition);
+                int inRange = 0;
+                while (inRange < batch.size() && batch.get(inRange).offset() < range.end()) {
+                    inRange++;
+                }
+                tokenBucket.acquire(inRange);
+                for (int i = 0; i < inRange; i++) {
+                    reprocess(batch.get(i));
+                }
+                metricsService.recordMessagesReplayed(inRange);
+                
+                if (inRange > 0) {
+                    long next = batch.get(inRange - 1).offset() + 1;
+                    consumer.commitSync(Map.of(partition, new OffsetAndMetadata(next)));
+                }
+            }
+        }
+    }
+
+    /**
+     * Zpracování, retry, zápis do sinku i DLQ řeší {@link MessageConsumer#reprocess}.
+     * Záznam, který nejde dekódovat, se jen započítá do failed - do DLQ ho nelze poslat.
+     */
+    private void reprocess(ConsumerRecord<String, byte[]> record) {
+        WorkshopMessage message;
+        try {
+            message = objectMapper.readValue(record.value(), WorkshopMessage.class);
+        } catch (IOException e) {
+            failed.incrementAndGet();
+            log.warn("⚠ Záznam {}-{}@{} nelze přečíst: {}", record.topic(), record.partition(), record.offset(),
+                    e.getMessage());
+            return;
+        }
+        try {
+            if (messageConsumer.reprocess(message)) {
+                replayed.incrementAndGet();
+            } else {
+                deadLettered.incrementAndGet();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Replay přerušen", e);
+        }
+    }
+
+    /**
+     * Consumer replay group s velkými fetch limity - méně round-tripů na broker.
+     */
+    private KafkaConsumer<String, byte[]> createConsumer(int pollRecords) {
+        Properties props = new Properties();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, pollRecords);
+        props.put(ConsumerConfig.MAX_PARTITION_FETCH_BYTES_CONFIG, maxPartitionFetchBytes);
+        props.put(ConsumerConfig.FETCH_MAX_BYTES_CONFIG, Math.max(maxPartitionFetchBytes, 64 * 1024 * 1024));
+        props.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, 1024 * 1024);
+        props.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, 100);
+        props.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
+        return new KafkaConsumer<>(props, new StringDeserializer(), new ByteArrayDeserializer());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stopRequested = true;
+        executor.shutdown();
+    }
+}
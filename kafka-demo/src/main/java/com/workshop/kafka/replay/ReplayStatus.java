@@ -0,0 +1,27 @@
+package com.workshop.kafka.replay;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReplayStatus {
+    private String state;
+    private Instant from;
+    private Instant to;
+    private int partitions;
+    private long total;                 // záznamů mezi offsety z offsetsForTimes
+    private long replayed;
+    private long deadLettered;          // po vyčerpání retry přesunuto do DLQ
+    private long failed;                // záznamy, které nejde dekódovat
+    private double progressPercent;
+    private double durationSeconds;
+    private double throughputMsgPerSec;
+    private double etaSeconds;
+}
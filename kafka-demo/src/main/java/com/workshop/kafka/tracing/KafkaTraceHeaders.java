@@ -0,0 +1,58 @@
+package com.workshop.kafka.tracing;
+
+import com.workshop.benchmark.tracing.HopTrace;
+import com.workshop.benchmark.tracing.HopTracer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Kódování časových značek per-hop tracingu do Kafka hlaviček.
+ * 
+ * Producer a serializer posílají značky jako 8bajtové hlavičky, interceptor consumeru
+ * je při příjmu spojí s vlastní značkou do jediné hlavičky {@link #TRACE_HEADER},
+ * kterou listener dostane jako jeden parametr.
+ */
+public final class KafkaTraceHeaders {
+
+    public static final String TRACE_HEADER = "x-trace";
+
+    private KafkaTraceHeaders() {
+    }
+
+    /**
+     * Vzorkovaný záznam producera nebo consumeru - nese značku odeslání.
+     */
+    public static boolean isSampled(Object carrier) {
+        if (carrier instanceof ProducerRecord<?, ?> record) {
+            return record.headers().lastHeader(HopTracer.SENT_HEADER) != null;
+        }
+        return carrier instanceof ConsumerRecord<?, ?> record
+                && record.headers().lastHeader(HopTracer.SENT_HEADER) != null;
+    }
+
+    public static byte[] encode(long micros) {
+        return ByteBuffer.allocate(Long.BYTES).putLong(micros).array();
+    }
+
+    public static long decode(byte[] value) {
+        return value != null && value.length == Long.BYTES ? ByteBuffer.wrap(value).getLong() : 0;
+    }
+
+    static byte[] pack(long sentMicros, long serializedMicros, long receivedMicros) {
+        return ByteBuffer.allocate(3 * Long.BYTES)
+                .putLong(sentMicros)
+                .putLong(serializedMicros)
+                .putLong(receivedMicros)
+                .array();
+    }
+
+    /**
+     * Značky z hlavičky {@link #TRACE_HEADER}.
+     */
+    public static HopTrace unpack(byte[] trace) {
+        ByteBuffer buffer = ByteBuffer.wrap(trace);
+        return new HopTrace(buffer.getLong(), buffer.getLong(), buffer.getLong());
+    }
+}
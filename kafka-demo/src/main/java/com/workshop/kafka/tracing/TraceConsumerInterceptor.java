@@ -0,0 +1,55 @@
+package com.workshop.kafka.tracing;
+
+import com.workshop.benchmark.tracing.HopTracer;
+import org.apache.kafka.clients.consumer.ConsumerInterceptor;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+import java.util.Map;
+
+/**
+ * Označí příjem vzorkovaných zpráv v okamžiku, kdy je vrátí poll().
+ * Úsek dispatch tak zahrnuje i čekání za předchozími zprávami stejné dávky.
+ */
+public class TraceConsumerInterceptor implements ConsumerInterceptor<Object, Object> {
+
+    @Override
+    public ConsumerRecords<Object, Object> onConsume(ConsumerRecords<Object, Object> records) {
+        long receivedMicros = 0;
+        for (ConsumerRecord<Object, Object> record : records) {
+            Headers headers = record.headers();
+            Header sent = headers.lastHeader(HopTracer.SENT_HEADER);
+            if (sent == null) {
+                continue;
+            }
+            if (receivedMicros == 0) {
+                receivedMicros = HopTracer.nowMicros();
+            }
+            headers.add(KafkaTraceHeaders.TRACE_HEADER, KafkaTraceHeaders.pack(
+                    KafkaTraceHeaders.decode(sent.value()),
+                    KafkaTraceHeaders.decode(valueOf(headers.lastHeader(HopTracer.SERIALIZED_HEADER))),
+                    receivedMicros));
+        }
+        return records;
+    }
+
+    private static byte[] valueOf(Header header) {
+        return header != null ? header.value() : null;
+    }
+
+    @Override
+    public void onCommit(Map<TopicPartition, OffsetAndMetadata> offsets) {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+    }
+}
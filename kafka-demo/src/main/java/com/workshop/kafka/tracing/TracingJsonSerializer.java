@@ -0,0 +1,21 @@
+package com.workshop.kafka.tracing;
+
+import com.workshop.benchmark.tracing.HopTracer;
+import org.apache.kafka.common.header.Headers;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+/**
+ * JSON serializer, který u vzorkovaných zpráv označí dokončení serializace.
+ * Nevzorkované zprávy stojí jen jedno vyhledání hlavičky.
+ */
+public class TracingJsonSerializer<T> extends JsonSerializer<T> {
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, T data) {
+        byte[] bytes = super.serialize(topic, headers, data);
+        if (headers.lastHeader(HopTracer.SENT_HEADER) != null) {
+            headers.add(HopTracer.SERIALIZED_HEADER, KafkaTraceHeaders.encode(HopTracer.nowMicros()));
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,325 @@
+package com.workshop.kafka.view;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.workshop.benchmark.view.LongObjectMap;
+import com.workshop.benchmark.view.ViewStatus;
+import com.workshop.kafka.model.WorkshopMessage;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Materializovaný pohled "poslední zpráva pro id" nad log-compacted topicem.
+ *
+ * Producer zrcadlí každou zprávu do compacted topicu s klíčem msg-&lt;id&gt;, broker v něm drží
+ * jen poslední verzi klíče. Po startu se pohled obnoví od začátku topicu - každou partition
+ * čte vlastní consumer paralelně až po konec zjištěný na začátku obnovy. Pak jeden
+ * consumer bez consumer group (assign) pokračuje od obnovených offsetů a drží pohled aktuální.
+ * Tombstone (null hodnota) položku odebere.
+ *
+ * Do dokončení obnovy hlásí {@link StateViewHealthIndicator} OUT_OF_SERVICE (readiness).
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class StateView {
+
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(500);
+    private static final String KEY_PREFIX = "msg-";
+
+    private final KafkaTemplate<String, WorkshopMessage> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${spring.kafka.bootstrap-servers}")
+    private String bootstrapServers;
+
+    @Value("${workshop.kafka.view.enabled:false}")
+    private boolean enabled;
+
+    @Value("${workshop.kafka.view.topic:workshop-state}")
+    private String topic;
+
+    @Value("${workshop.kafka.view.restore-threads:8}")
+    private int restoreThreads;
+
+    @Value("${workshop.kafka.view.initial-capacity:65536}")
+    private int initialCapacity;
+
+    private final AtomicLong valueBytes = new AtomicLong();
+    private final AtomicLong updates = new AtomicLong();
+    private LongObjectMap<WorkshopMessage> view;
+    private Timer lookupTimer;
+    private Thread restorer;
+    private volatile KafkaConsumer<String, byte[]> tailConsumer;
+    private volatile boolean running;
+    private volatile boolean ready;
+    private volatile int partitions;
+    private volatile long restoredRecords;
+    private volatile long restoreNanos;
+    private volatile String lastError;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        view = new LongObjectMap<>(Runtime.getRuntime().availableProcessors() * 4, initialCapacity);
+        
+        lookupTimer = Timer.builder("view.lookup")
+                .description("Point lookups in the materialized view of the compacted state topic")
+                .publishPercentiles(0.5, 0.99)
+                .tag("broker", "kafka")
+                .register(meterRegistry);
+        
+        Gauge.builder("view.entries", view, LongObjectMap::size)
+                .description("Entries in the materialized view of the compacted state topic")
+                .tag("broker", "kafka")
+                .register(meterRegistry);
+        
+        running = true;
+        // Obnova běží na pozadí, start aplikace nečeká - připravenost hlásí health indicator
+        restorer = new Thread(this::restoreAndTail, "state-view");
+        restorer.setDaemon(true);
+        restorer.start();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Zrcadlí zprávu do compacted topicu (klíč jako v hlavním topicu).
+     */
+    public void mirror(WorkshopMessage message) {
+        if (enabled) {
+            kafkaTemplate.send(topic, KEY_PREFIX + message.getId(), message);
+        }
+    }
+
+    /**
+     * Poslední zpráva pro id, null pokud v pohledu není.
+     */
+    public WorkshopMessage get(long id) {
+        long start = System.nanoTime();
+        WorkshopMessage message = view.get(id);
+        lookupTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return message;
+    }
+
+    public ViewStatus getStatus() {
+        if (!enabled) {
+            return ViewStatus.builder().build();
+        }
+        int entries = view.size();
+        long tableBytes = view.getTableBytes();
+        double restoreSeconds = restoreNanos / 1_000_000_000.0;
+        return ViewStatus.builder()
+                .enabled(true)
+                .ready(ready)
+                .partitions(partitions)
+                .entries(entries)
+                .restoredRecords(restoredRecords)
+                .restoreSeconds(restoreSeconds)
+                .restoreRecordsPerSec(restoreSeconds > 0 ? restoredRecords / restoreSeconds : 0)
+                .updates(updates.get())
+                .tableBytes(tableBytes)
+                .valueBytes(valueBytes.get())
+                .bytesPerEntry(entries > 0 ? (double) (tableBytes + valueBytes.get()) / entries : 0)
+                .lookupMeanMicros(lookupTimer.mean(TimeUnit.MICROSECONDS))
+                .lastError(lastError)
+                .build();
+    }
+
+    private void restoreAndTail() {
+        try {
+            Map<TopicPartition, Long> positions = restore();
+            tail(positions);
+        } catch (WakeupException e) {
+            // Ukončení aplikace
+        } catch (Exception e) {
+            lastError = e.getMessage();
+            log.error("❌ Materializovaný pohled {} selhal: {}", topic, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Paralelní obnova - jeden consumer na partition, každý čte až po konec zjištěný na začátku.
+     *
+     * @return offsety, kde obnova skončila
+     */
+    private Map<TopicPartition, Long> restore() throws Exception {
+        long start = System.nanoTime();
+        List<TopicPartition> topicPartitions = new ArrayList<>();
+        try (KafkaConsumer<String, byte[]> metadata = createConsumer()) {
+            for (PartitionInfo info : metadata.partitionsFor(topic)) {
+                topicPartitions.add(new TopicPartition(topic, info.partition()));
+            }
+        }
+        partitions = topicPartitions.size();
+        log.info("📥 Obnova pohledu z {}: {} partition", topic, partitions);
+        
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(restoreThreads, partitions)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "state-view-restore");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        Map<TopicPartition, Long> positions = new HashMap<>();
+        long restored = 0;
+        try {
+            List<Future<long[]>> results = new ArrayList<>();
+            for (TopicPartition partition : topicPartitions) {
+                results.add(executor.submit(() -> restorePartition(partition)));
+            }
+            for (int i = 0; i < topicPartitions.size(); i++) {
+                long[] endAndCount = results.get(i).get();
+                positions.put(topicPartitions.get(i), endAndCount[0]);
+                restored += endAndCount[1];
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        restoredRecords = restored;
+        restoreNanos = System.nanoTime() - start;
+        ready = true;
+        log.info("✓ Pohled {} obnoven: {} záznamů, {} klíčů za {} s", topic, restored, view.size(),
+                String.format("%.2f", restoreNanos / 1_000_000_000.0));
+        return positions;
+    }
+
+    /**
+     * @return konec partition při startu obnovy a počet přečtených záznamů
+     */
+    private long[] restorePartition(TopicPartition partition) {
+        try (KafkaConsumer<String, byte[]> consumer = createConsumer()) {
+            consumer.assign(List.of(partition));
+            consumer.seekToBeginning(List.of(partition));
+            long end = consumer.endOffsets(List.of(partition)).get(partition);
+            long count = 0;
+            while (running && consumer.position(partition) < end) {
+                for (ConsumerRecord<String, byte[]> record : consumer.poll(POLL_TIMEOUT)) {
+                    apply(record);
+                    count++;
+                }
+            }
+            return new long[] {end, count};
+        }
+    }
+
+    /**
+     * Po obnově jeden consumer pro všechny partition, od offsetů obnovy.
+     */
+    private void tail(Map<TopicPartition, Long> positions) {
+        if (positions.isEmpty()) {
+            lastError = "Topic " + topic + " nemá žádnou partition";
+            return;
+        }
+        try (KafkaConsumer<String, byte[]> consumer = createConsumer()) {
+            tailConsumer = consumer;
+            consumer.assign(positions.keySet());
+            positions.forEach(consumer::seek);
+            while (running) {
+                ConsumerRecords<String, byte[]> records = consumer.poll(POLL_TIMEOUT);
+                for (ConsumerRecord<String, byte[]> record : records) {
+                    apply(record);
+                }
+                updates.addAndGet(records.count());
+            }
+        }
+    }
+
+    private void apply(ConsumerRecord<String, byte[]> record) {
+        if (record.value() == null) {
+            if (record.key() != null && record.key().startsWith(KEY_PREFIX)) {
+                WorkshopMessage removed = view.remove(Long.parseLong(record.key().substring(KEY_PREFIX.length())));
+                if (removed != null) {
+                    valueBytes.addAndGet(-estimateBytes(removed));
+                }
+            }
+            return;
+        }
+        try {
+            WorkshopMessage message = objectMapper.readValue(record.value(), WorkshopMessage.class);
+            // Broker má pár hodnot - sdílená instance řetězce místo kopie v každé položce
+            if (message.getBroker() != null) {
+                message.setBroker(message.getBroker().intern());
+            }
+            WorkshopMessage previous = view.put(message.getId(), message);
+            valueBytes.addAndGet(estimateBytes(message) - (previous != null ? estimateBytes(previous) : 0));
+        } catch (IOException e) {
+            lastError = e.getMessage();
+            log.warn("⚠ Záznam {}@{} nelze přečíst: {}", record.partition(), record.offset(), e.getMessage());
+        }
+    }
+
+    /**
+     * Odhad velikosti zprávy na haldě (compressed oops): objekt, Long id a timestamp, obsah.
+     * Řetězec broker je sdílený, malé Integer retryCount jsou z cache.
+     */
+    private static long estimateBytes(WorkshopMessage message) {
+        long bytes = 32 + 16 + 16;
+        String content = message.getContent();
+        if (content != null) {
+            // String + byte[] (Latin-1), zarovnáno na 8 B
+            bytes += 24 + ((16 + content.length() + 7) & ~7);
+        }
+        return bytes;
+    }
+
+    private KafkaConsumer<String, byte[]> createConsumer() {
+        Properties props = new Properties();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 5000);
+        props.put(ConsumerConfig.MAX_PARTITION_FETCH_BYTES_CONFIG, 8 * 1024 * 1024);
+        return new KafkaConsumer<>(props, new StringDeserializer(), new ByteArrayDeserializer());
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (!enabled) {
+            return;
+        }
+        running = false;
+        KafkaConsumer<String, byte[]> consumer = tailConsumer;
+        if (consumer != null) {
+            consumer.wakeup();
+        }
+        restorer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+}
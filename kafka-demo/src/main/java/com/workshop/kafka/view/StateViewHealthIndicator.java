@@ -0,0 +1,27 @@
+package com.workshop.kafka.view;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Připravenost materializovaného pohledu - OUT_OF_SERVICE do dokončení obnovy.
+ * Je součástí skupiny readiness (/actuator/health/readiness).
+ */
+@Component
+@RequiredArgsConstructor
+public class StateViewHealthIndicator implements HealthIndicator {
+
+    private final StateView stateView;
+
+    @Override
+    public Health health() {
+        if (!stateView.isEnabled()) {
+            return Health.up().withDetail("enabled", false).build();
+        }
+        return (stateView.isReady() ? Health.up() : Health.outOfService())
+                .withDetail("entries", stateView.getStatus().getEntries())
+                .build();
+    }
+}
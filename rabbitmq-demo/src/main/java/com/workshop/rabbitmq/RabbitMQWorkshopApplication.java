@@ -1,9 +1,35 @@
 package com.workshop.rabbitmq;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.workshop.benchmark.fault.FaultProxy;
+import com.workshop.benchmark.ingest.NdjsonIngester;
+import com.workshop.benchmark.metrics.FleetAggregator;
+import com.workshop.benchmark.metrics.LiveMetricsPublisher;
+import com.workshop.benchmark.outbox.OutboxService;
+import com.workshop.benchmark.profiling.JfrProfiler;
+import com.workshop.benchmark.profiling.PinningMonitor;
+import com.workshop.benchmark.runner.BenchmarkRunner;
+import com.workshop.benchmark.scenario.ScenarioExecutor;
+import com.workshop.benchmark.scenario.ScenarioLoader;
+import com.workshop.benchmark.spool.ProducerSpool;
+import com.workshop.rabbitmq.metrics.MetricsService;
+import com.workshop.rabbitmq.producer.ShardRouter;
+import com.workshop.rabbitmq.consumer.MessageConsumer;
+import com.workshop.rabbitmq.consumer.ShardedMessageConsumer;
+import com.workshop.rabbitmq.consumer.RequestReplyConsumer;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.QueueInformation;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.LazyInitializationExcludeFilter;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Bean;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
+import java.nio.file.Path;
+import java.time.Duration;
+
 /**
  * RabbitMQ Workshop - Spring Boot Application
  * 
@@ -20,5 +46,119 @@ public class RabbitMQWorkshopApplication {
     public static void main(String[] args) {
         SpringApplication.run(RabbitMQWorkshopApplication.class, args);
     }
-}
 
+    /**
+     * Beany, které zůstávají eager i s lazy inicializací (profil fast-startup):
+     * listenery se registrují až při vytvoření beanu a spool i outbox mají přehrát zprávy hned po startu.
+     */
+    @Bean
+    public static LazyInitializationExcludeFilter eagerMessagingBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(MessageConsumer.class, ShardedMessageConsumer.class,
+                RequestReplyConsumer.class, ProducerSpool.class, OutboxService.class);
+    }
+
+    /**
+     * JFR profilování běhů benchmarku - záznamy zůstávají v adresáři.
+     */
+    @Bean
+    public JfrProfiler jfrProfiler(@Value("${workshop.rabbitmq.profiling.enabled:false}") boolean enabled,
+                                   @Value("${workshop.rabbitmq.profiling.directory}") String directory,
+                                   @Value("${workshop.rabbitmq.profiling.top:10}") int top) {
+        return new JfrProfiler(Path.of(directory), enabled, top);
+    }
+
+    /**
+     * Sledování pinningu virtuálních vláken - jen ve virtuálním režimu.
+     */
+    @Bean(destroyMethod = "close")
+    public PinningMonitor pinningMonitor(MeterRegistry meterRegistry,
+                                         @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        PinningMonitor monitor = new PinningMonitor(meterRegistry, "rabbitmq", Duration.ofMillis(1));
+        if (virtualThreads) {
+            monitor.start();
+        }
+        return monitor;
+    }
+
+    /**
+     * Společný benchmark runner (benchmark-core).
+     */
+    @Bean
+    public BenchmarkRunner benchmarkRunner(JfrProfiler jfrProfiler) {
+        return new BenchmarkRunner(jfrProfiler);
+    }
+
+    @Bean
+    public ScenarioLoader scenarioLoader() {
+        return new ScenarioLoader();
+    }
+
+    /**
+     * TCP proxy pro vkládání poruch sítě mezi aplikaci a broker - poslouchá jen při enabled.
+     */
+    @Bean(destroyMethod = "close")
+    public FaultProxy faultProxy(MeterRegistry meterRegistry,
+                                 @Value("${workshop.rabbitmq.fault-proxy.enabled:false}") boolean enabled,
+                                 @Value("${workshop.rabbitmq.fault-proxy.listen-port:25672}") int listenPort,
+                                 @Value("${workshop.rabbitmq.fault-proxy.target-host:localhost}") String targetHost,
+                                 @Value("${workshop.rabbitmq.fault-proxy.target-port:5672}") int targetPort) {
+        FaultProxy proxy = new FaultProxy(listenPort, targetHost, targetPort, meterRegistry, "rabbitmq");
+        if (enabled) {
+            proxy.start();
+        }
+        return proxy;
+    }
+
+    @Bean
+    public ScenarioExecutor scenarioExecutor(FaultProxy faultProxy) {
+        return new ScenarioExecutor(faultProxy);
+    }
+
+    /**
+     * Streamované nahrání NDJSON s omezeným počtem nepotvrzených zpráv.
+     */
+    @Bean
+    public NdjsonIngester ndjsonIngester(ObjectMapper objectMapper,
+                                         @Value("${workshop.rabbitmq.ingest.max-in-flight:1000}") int maxInFlight) {
+        return new NdjsonIngester(objectMapper, maxInFlight);
+    }
+
+    /**
+     * Slučování histogramů latence z více instancí.
+     */
+    @Bean
+    public FleetAggregator fleetAggregator(ObjectMapper objectMapper,
+                                           @Value("${workshop.rabbitmq.fleet.timeout-ms:5000}") long timeoutMs) {
+        return new FleetAggregator(objectMapper, Duration.ofMillis(timeoutMs));
+    }
+
+    /**
+     * Živé metriky - hloubka hlavní fronty (a shardů) z brokeru.
+     */
+    @Bean(destroyMethod = "close")
+    public LiveMetricsPublisher liveMetricsPublisher(MetricsService metricsService, AmqpAdmin amqpAdmin,
+                                                     ShardRouter shardRouter, ObjectMapper objectMapper,
+                                                     @Value("${workshop.rabbitmq.queue}") String queueName,
+                                                     @Value("${workshop.rabbitmq.live-metrics.interval-ms:1000}") long intervalMs,
+                                                     @Value("${workshop.rabbitmq.live-metrics.send-timeout-ms:5000}") long sendTimeoutMs) {
+        return new LiveMetricsPublisher(metricsService, () -> {
+            long depth = queueDepth(amqpAdmin, queueName);
+            if (shardRouter.isEnabled()) {
+                for (int shard = 0; shard < shardRouter.getShardCount() && depth >= 0; shard++) {
+                    long shardDepth = queueDepth(amqpAdmin, shardRouter.shardQueueName(shard));
+                    depth = shardDepth >= 0 ? depth + shardDepth : -1;
+                }
+            }
+            return depth;
+        }, objectMapper, intervalMs, sendTimeoutMs);
+    }
+
+    private static long queueDepth(AmqpAdmin amqpAdmin, String queueName) {
+        try {
+            QueueInformation info = amqpAdmin.getQueueInfo(queueName);
+            return info != null ? info.getMessageCount() : -1;
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+}
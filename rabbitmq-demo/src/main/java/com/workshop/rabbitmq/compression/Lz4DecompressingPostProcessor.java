@@ -0,0 +1,23 @@
+package com.workshop.rabbitmq.compression;
+
+import net.jpountz.lz4.LZ4FrameInputStream;
+import org.springframework.amqp.support.postprocessor.AbstractDecompressingPostProcessor;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Dekomprese zpráv s content-encoding "lz4".
+ */
+public class Lz4DecompressingPostProcessor extends AbstractDecompressingPostProcessor {
+
+    @Override
+    protected InputStream getDecompressorStream(InputStream stream) throws IOException {
+        return new LZ4FrameInputStream(stream);
+    }
+
+    @Override
+    protected String getEncoding() {
+        return Lz4CompressingPostProcessor.ENCODING;
+    }
+}
@@ -0,0 +1,32 @@
+package com.workshop.rabbitmq.compression;
+
+import com.workshop.rabbitmq.metrics.MetricsService;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.support.postprocessor.DelegatingDecompressingPostProcessor;
+
+/**
+ * Dekomprese podle content-encoding (gzip, deflate, zip, lz4) s měřením času.
+ * Zprávy bez komprese (např. content-encoding "UTF-8") projdou beze změny,
+ * takže listener zvládne smíšený provoz.
+ */
+public class MeteredDecompressingPostProcessor extends DelegatingDecompressingPostProcessor {
+
+    private final MetricsService metricsService;
+
+    public MeteredDecompressingPostProcessor(MetricsService metricsService) {
+        this.metricsService = metricsService;
+        addDecompressor(Lz4CompressingPostProcessor.ENCODING, new Lz4DecompressingPostProcessor());
+    }
+
+    @Override
+    public Message postProcessMessage(Message message) throws AmqpException {
+        long startTime = System.nanoTime();
+        Message result = super.postProcessMessage(message);
+        
+        if (result != message) {
+            metricsService.recordDecompression(System.nanoTime() - startTime);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,42 @@
+package com.workshop.rabbitmq.compression;
+
+import com.workshop.rabbitmq.metrics.MetricsService;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessagePostProcessor;
+
+/**
+ * Komprimuje tělo zprávy pouze nad zadanou velikostí.
+ * Malé zprávy odchází beze změny - komprese by stála víc CPU, než ušetří na síti.
+ * Poměr komprese a čas komprese se zapisují do metrik.
+ */
+public class ThresholdCompressingPostProcessor implements MessagePostProcessor {
+
+    private final MessagePostProcessor compressor;
+    private final int thresholdBytes;
+    private final MetricsService metricsService;
+
+    public ThresholdCompressingPostProcessor(MessagePostProcessor compressor,
+                                             int thresholdBytes,
+                                             MetricsService metricsService) {
+        this.compressor = compressor;
+        this.thresholdBytes = thresholdBytes;
+        this.metricsService = metricsService;
+    }
+
+    @Override
+    public Message postProcessMessage(Message message) throws AmqpException {
+        int originalSize = message.getBody().length;
+        if (originalSize < thresholdBytes) {
+            metricsService.recordCompressionSkipped();
+            return message;
+        }
+        
+        long startTime = System.nanoTime();
+        Message compressed = compressor.postProcessMessage(message);
+        long duration = System.nanoTime() - startTime;
+        
+        metricsService.recordCompression(originalSize, compressed.getBody().length, duration);
+        return compressed;
+    }
+}
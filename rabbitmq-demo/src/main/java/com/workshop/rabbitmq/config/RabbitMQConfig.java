@@ -1,14 +1,62 @@
 package com.workshop.rabbitmq.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.workshop.benchmark.batch.BatchPublisher;
+import com.workshop.benchmark.batch.MicroBatcher;
+import com.workshop.benchmark.claimcheck.BlobStore;
+import com.workshop.benchmark.claimcheck.ClaimCheck;
+import com.workshop.benchmark.consumer.ConsumerBookkeeping;
+import com.workshop.benchmark.outbox.OutboxService;
+import com.workshop.benchmark.redrive.ParkingLotStore;
+import com.workshop.benchmark.redrive.RedriveService;
+import com.workshop.benchmark.sink.FileSink;
+import com.workshop.benchmark.sink.FsyncPolicy;
+import com.workshop.benchmark.sink.RecordEncoder;
+import com.workshop.benchmark.spool.ProducerSpool;
+import com.workshop.benchmark.tracing.HopTracer;
+import com.workshop.benchmark.workload.ProcessingEngine;
+import com.workshop.benchmark.workload.ProcessingSpec;
+import com.workshop.rabbitmq.compression.Lz4CompressingPostProcessor;
+import com.workshop.rabbitmq.compression.MeteredDecompressingPostProcessor;
+import com.workshop.rabbitmq.compression.ThresholdCompressingPostProcessor;
+import com.workshop.rabbitmq.metrics.MetricsService;
+import com.workshop.rabbitmq.model.WorkshopMessage;
+import com.workshop.rabbitmq.producer.PublishThrottle;
+import com.workshop.rabbitmq.producer.RabbitBatchSink;
+import com.workshop.rabbitmq.producer.ShardRouter;
+import com.workshop.rabbitmq.redrive.RabbitRepublisher;
+import com.workshop.rabbitmq.tracing.RabbitTraceHeaders;
+import com.workshop.rabbitmq.tracing.TraceStampingPostProcessor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationPredicate;
 import org.springframework.amqp.core.*;
 import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.amqp.support.postprocessor.AbstractCompressingPostProcessor;
+import org.springframework.amqp.support.postprocessor.DeflaterPostProcessor;
+import org.springframework.amqp.support.postprocessor.GZipPostProcessor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * RabbitMQ konfigurace pro workshop.
@@ -17,7 +65,13 @@ import org.springframework.context.annotation.Configuration;
  * - Exchange (topic)
  * - Queue s DLQ
  * - Bindings
+ * - Shardované fronty (volitelně)
+ * - Request/reply frontu (direct reply-to)
  * - Message converter (JSON)
+ * - Kompresi zpráv nad velikostním limitem (volitelně)
+ * - Claim check velkých payloadů přes lokální blob store (volitelně)
+ * - Per-hop tracing vzorkovaných zpráv a Micrometer observations (volitelně)
+ * - Soubor zpracovaných zpráv s ACK po trvalém zápisu (volitelně)
  */
 @Configuration
 public class RabbitMQConfig {
@@ -37,6 +91,183 @@ public class RabbitMQConfig {
     @Value("${workshop.rabbitmq.dlq-routing-key}")
     private String dlqRoutingKey;
 
+    @Value("${workshop.rabbitmq.flow-control.max-length:0}")
+    private int maxLength;
+
+    @Value("${workshop.rabbitmq.flow-control.overflow:reject-publish}")
+    private String overflow;
+
+    @Value("${workshop.rabbitmq.rpc.queue}")
+    private String rpcQueueName;
+
+    @Value("${workshop.rabbitmq.rpc.routing-key}")
+    private String rpcRoutingKey;
+
+    @Value("${workshop.rabbitmq.rpc.reply-timeout:5000}")
+    private long rpcReplyTimeout;
+
+    @Value("${workshop.rabbitmq.rpc.server-concurrency:4}")
+    private int rpcServerConcurrency;
+
+    @Value("${workshop.rabbitmq.compression.enabled:false}")
+    private boolean compressionEnabled;
+
+    @Value("${workshop.rabbitmq.compression.codec:gzip}")
+    private String compressionCodec;
+
+    @Value("${workshop.rabbitmq.compression.threshold-bytes:1024}")
+    private int compressionThresholdBytes;
+
+    @Value("${workshop.rabbitmq.claim-check.enabled:false}")
+    private boolean claimCheckEnabled;
+
+    @Value("${workshop.rabbitmq.claim-check.threshold-bytes:1048576}")
+    private int claimCheckThresholdBytes;
+
+    @Value("${workshop.rabbitmq.claim-check.directory}")
+    private String claimCheckDirectory;
+
+    @Value("${workshop.rabbitmq.claim-check.segment-bytes:268435456}")
+    private int claimCheckSegmentBytes;
+
+    @Value("${workshop.rabbitmq.claim-check.retention:10m}")
+    private Duration claimCheckRetention;
+
+    @Value("${workshop.rabbitmq.claim-check.cleanup-interval:1m}")
+    private Duration claimCheckCleanupInterval;
+
+    @Value("${workshop.rabbitmq.tracing.enabled:false}")
+    private boolean tracingEnabled;
+
+    @Value("${workshop.rabbitmq.tracing.sample-rate:0.01}")
+    private double tracingSampleRate;
+
+    @Value("${workshop.rabbitmq.processing.model:sleep}")
+    private String processingModel;
+
+    @Value("${workshop.rabbitmq.processing.distribution:fixed}")
+    private String processingDistribution;
+
+    // Bez processing.delay-ms platí původní processing-delay-ms
+    @Value("${workshop.rabbitmq.processing.delay-ms:${workshop.rabbitmq.processing-delay-ms:1}}")
+    private double processingDelayMs;
+
+    @Value("${workshop.rabbitmq.processing.min-delay-ms:0}")
+    private double processingMinDelayMs;
+
+    @Value("${workshop.rabbitmq.processing.max-delay-ms:0}")
+    private double processingMaxDelayMs;
+
+    @Value("${workshop.rabbitmq.processing.pareto-shape:1.5}")
+    private double processingParetoShape;
+
+    @Value("${workshop.rabbitmq.processing.alloc-bytes:65536}")
+    private long processingAllocBytes;
+
+    @Value("${workshop.rabbitmq.processing.alloc-chunk-bytes:1024}")
+    private int processingAllocChunkBytes;
+
+    @Value("${workshop.rabbitmq.processing.downstream-concurrency:10}")
+    private int processingDownstreamConcurrency;
+
+    @Value("${workshop.rabbitmq.sink.enabled:false}")
+    private boolean sinkEnabled;
+
+    @Value("${workshop.rabbitmq.sink.directory}")
+    private String sinkDirectory;
+
+    @Value("${workshop.rabbitmq.sink.fsync:batch}")
+    private String sinkFsync;
+
+    @Value("${workshop.rabbitmq.sink.fsync-interval-ms:10}")
+    private long sinkFsyncIntervalMs;
+
+    @Value("${workshop.rabbitmq.sink.segment-bytes:268435456}")
+    private long sinkSegmentBytes;
+
+    @Value("${workshop.rabbitmq.sink.retain-segments:8}")
+    private int sinkRetainSegments;
+
+    @Value("${workshop.rabbitmq.sink.buffer-bytes:4194304}")
+    private int sinkBufferBytes;
+
+    @Value("${workshop.rabbitmq.sink.max-batch-size:1000}")
+    private int sinkMaxBatchSize;
+
+    @Value("${workshop.rabbitmq.sink.queue-capacity:10000}")
+    private int sinkQueueCapacity;
+
+    @Value("${workshop.rabbitmq.sink.prefetch:250}")
+    private int sinkPrefetch;
+
+    @Value("${workshop.rabbitmq.redrive.rate-per-second:1000}")
+    private double redriveRatePerSecond;
+
+    @Value("${workshop.rabbitmq.redrive.batch-size:500}")
+    private int redriveBatchSize;
+
+    @Value("${workshop.rabbitmq.redrive.ack-timeout-ms:30000}")
+    private long redriveAckTimeoutMs;
+
+    @Value("${workshop.rabbitmq.redrive.max-parked:10000}")
+    private int redriveMaxParked;
+
+    @Value("${workshop.rabbitmq.publish.max-batch-size:500}")
+    private int publishMaxBatchSize;
+
+    @Value("${workshop.rabbitmq.publish.max-wait-ms:5}")
+    private long publishMaxWaitMs;
+
+    @Value("${workshop.rabbitmq.publish.queue-capacity:10000}")
+    private int publishQueueCapacity;
+
+    @Value("${workshop.rabbitmq.publish.ack-timeout-ms:30000}")
+    private long publishAckTimeoutMs;
+
+    @Value("${workshop.rabbitmq.outbox.enabled:false}")
+    private boolean outboxEnabled;
+
+    @Value("${workshop.rabbitmq.outbox.batch-size:1000}")
+    private int outboxBatchSize;
+
+    @Value("${workshop.rabbitmq.outbox.poll-interval-ms:50}")
+    private long outboxPollIntervalMs;
+
+    @Value("${workshop.rabbitmq.outbox.ack-timeout-ms:30000}")
+    private long outboxAckTimeoutMs;
+
+    @Value("${workshop.rabbitmq.outbox.retry-backoff-ms:1000}")
+    private long outboxRetryBackoffMs;
+
+    @Value("${workshop.rabbitmq.spool.enabled:false}")
+    private boolean spoolEnabled;
+
+    @Value("${workshop.rabbitmq.spool.directory}")
+    private String spoolDirectory;
+
+    @Value("${workshop.rabbitmq.spool.segment-bytes:67108864}")
+    private int spoolSegmentBytes;
+
+    @Value("${workshop.rabbitmq.spool.fsync-interval-ms:10}")
+    private long spoolFsyncIntervalMs;
+
+    @Value("${workshop.rabbitmq.spool.replay-rate-per-second:1000}")
+    private double spoolReplayRatePerSecond;
+
+    @Value("${workshop.rabbitmq.spool.replay-batch-size:200}")
+    private int spoolReplayBatchSize;
+
+    @Value("${workshop.rabbitmq.spool.retry-backoff-ms:1000}")
+    private long spoolRetryBackoffMs;
+
+    @Value("${workshop.rabbitmq.spool.ack-timeout-ms:30000}")
+    private long spoolAckTimeoutMs;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private final AtomicLong idSequence = new AtomicLong(System.currentTimeMillis() * 1000);
+
     /**
      * Topic Exchange pro směrování zpráv.
      */
@@ -53,13 +284,25 @@ public class RabbitMQConfig {
      */
     @Bean
     public Queue workshopQueue() {
-        return QueueBuilder
+        return withLengthLimit(QueueBuilder
                 .durable(queueName)
                 .withArgument("x-dead-letter-exchange", exchangeName)
-                .withArgument("x-dead-letter-routing-key", dlqRoutingKey)
+                .withArgument("x-dead-letter-routing-key", dlqRoutingKey))
                 .build();
     }
 
+    /**
+     * Limit délky fronty (x-max-length) a chování při přetečení (x-overflow).
+     * S reject-publish broker odmítne nové zprávy nackem, na který reaguje producer.
+     */
+    private QueueBuilder withLengthLimit(QueueBuilder builder) {
+        if (maxLength > 0) {
+            builder.withArgument("x-max-length", maxLength)
+                    .withArgument("x-overflow", overflow);
+        }
+        return builder;
+    }
+
     /**
      * Dead Letter Queue pro neúspěšné zprávy.
      */
@@ -92,6 +335,50 @@ public class RabbitMQConfig {
                 .with(dlqRoutingKey);
     }
 
+    /**
+     * Fronta pro request/reply. Není durable - požadavky bez odpovědi po restartu nemají smysl.
+     */
+    @Bean
+    public Queue workshopRpcQueue() {
+        return QueueBuilder
+                .nonDurable(rpcQueueName)
+                .build();
+    }
+
+    /**
+     * Binding RPC fronty na exchange.
+     */
+    @Bean
+    public Binding rpcBinding(Queue workshopRpcQueue, TopicExchange workshopExchange) {
+        return BindingBuilder
+                .bind(workshopRpcQueue)
+                .to(workshopExchange)
+                .with(rpcRoutingKey);
+    }
+
+    /**
+     * Shardované fronty - N front se stejnou DLQ konfigurací jako hlavní fronta,
+     * každá navázaná vlastním routing key. Producer vybírá shard podle ID zprávy.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "workshop.rabbitmq.sharding.enabled", havingValue = "true")
+    public Declarables shardDeclarables(TopicExchange workshopExchange, ShardRouter shardRouter) {
+        List<Declarable> declarables = new ArrayList<>();
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            Queue queue = withLengthLimit(QueueBuilder
+                    .durable(shardRouter.shardQueueName(shard))
+                    .withArgument("x-dead-letter-exchange", exchangeName)
+                    .withArgument("x-dead-letter-routing-key", dlqRoutingKey))
+                    .build();
+            declarables.add(queue);
+            declarables.add(BindingBuilder
+                    .bind(queue)
+                    .to(workshopExchange)
+                    .with(shardRouter.shardRoutingKey(shard)));
+        }
+        return new Declarables(declarables);
+    }
+
     /**
      * JSON message converter.
      */
@@ -101,27 +388,294 @@ public class RabbitMQConfig {
     }
 
     /**
-     * RabbitTemplate s JSON converterem.
+     * RabbitTemplate s JSON converterem a volitelnou kompresí.
      */
     @Bean
-    public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory) {
+    public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory,
+                                         MetricsService metricsService,
+                                         PublishThrottle publishThrottle) {
         RabbitTemplate template = new RabbitTemplate(connectionFactory);
         template.setMessageConverter(jsonMessageConverter());
+        // Bez reply address používá convertSendAndReceive direct reply-to (amq.rabbitmq.reply-to)
+        template.setUseDirectReplyToContainer(true);
+        template.setReplyTimeout(rpcReplyTimeout);
+        // Publisher confirms - nack (např. x-overflow reject-publish) zpomalí producera
+        template.setConfirmCallback(publishThrottle::onConfirm);
+        if (compressionEnabled) {
+            template.setBeforePublishPostProcessors(new ThresholdCompressingPostProcessor(
+                    compressor(compressionCodec), compressionThresholdBytes, metricsService));
+        }
+        // Značka konce serializace (a komprese) vzorkovaných zpráv
+        template.addBeforePublishPostProcessors(new TraceStampingPostProcessor(HopTracer.SERIALIZED_HEADER));
+        // Micrometer observation (timer spring.rabbit.template) - vzorkuje ji hopTracer
+        template.setObservationEnabled(tracingEnabled);
         return template;
     }
 
+    /**
+     * Kompresor podle názvu kodeku - nastaví odpovídající content-encoding.
+     */
+    private AbstractCompressingPostProcessor compressor(String codec) {
+        return switch (codec) {
+            case "gzip" -> new GZipPostProcessor();
+            case "deflate" -> new DeflaterPostProcessor();
+            case "lz4" -> new Lz4CompressingPostProcessor();
+            default -> throw new IllegalArgumentException("Nepodporovaný kodek komprese: " + codec);
+        };
+    }
+
     /**
      * Listener container factory s retry konfigurací.
      */
     @Bean
     public SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory(
-            ConnectionFactory connectionFactory) {
+            ConnectionFactory connectionFactory, MetricsService metricsService) {
         SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
         factory.setConnectionFactory(connectionFactory);
         factory.setMessageConverter(jsonMessageConverter());
-        factory.setPrefetchCount(1);
+        // Značka příjmu vzorkovaných zpráv, pak dekomprese podle content-encoding
+        // (nekomprimované zprávy projdou beze změny)
+        factory.setAfterReceivePostProcessors(
+                new TraceStampingPostProcessor(HopTracer.RECEIVED_HEADER),
+                new MeteredDecompressingPostProcessor(metricsService));
+        // Se sinkem čekají ACK na fsync - prefetch 1 by z každé dávky zápisu udělal jedinou zprávu
+        factory.setPrefetchCount(sinkEnabled ? sinkPrefetch : 1);
         factory.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+        factory.setObservationEnabled(tracingEnabled);
+        withVirtualThreads(factory, "rabbit-listener-");
         return factory;
     }
-}
 
+    /**
+     * Listener container factory pro DLQ.
+     * Jediný consumer drží zprávy parking lotu nepotvrzené až do redrive - prefetch je strop parking lotu.
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory dlqListenerContainerFactory(
+            ConnectionFactory connectionFactory, MetricsService metricsService) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setMessageConverter(jsonMessageConverter());
+        factory.setAfterReceivePostProcessors(new MeteredDecompressingPostProcessor(metricsService));
+        factory.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+        factory.setPrefetchCount(redriveMaxParked);
+        factory.setConcurrentConsumers(1);
+        factory.setMaxConcurrentConsumers(1);
+        withVirtualThreads(factory, "rabbit-dlq-");
+        return factory;
+    }
+
+    /**
+     * Listener container factory pro request/reply.
+     * Auto ACK a vyšší prefetch - odpověď odchází hned po zpracování, bez retry.
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory rpcListenerContainerFactory(
+            ConnectionFactory connectionFactory, MetricsService metricsService) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setMessageConverter(jsonMessageConverter());
+        factory.setAfterReceivePostProcessors(new MeteredDecompressingPostProcessor(metricsService));
+        factory.setAcknowledgeMode(AcknowledgeMode.AUTO);
+        factory.setDefaultRequeueRejected(false);
+        factory.setPrefetchCount(rpcServerConcurrency * 4);
+        factory.setConcurrentConsumers(rpcServerConcurrency);
+        withVirtualThreads(factory, "rabbit-rpc-");
+        return factory;
+    }
+
+    /**
+     * S spring.threads.virtual.enabled běží consumery containeru na virtuálních vláknech.
+     */
+    private void withVirtualThreads(SimpleRabbitListenerContainerFactory factory, String threadNamePrefix) {
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+            executor.setVirtualThreads(true);
+            factory.setTaskExecutor(executor);
+        }
+    }
+
+    /**
+     * Lokální blob store pro claim check velkých payloadů.
+     */
+    @Bean(destroyMethod = "close")
+    public BlobStore claimCheckStore() throws IOException {
+        return new BlobStore(Path.of(claimCheckDirectory), claimCheckSegmentBytes,
+                claimCheckRetention, claimCheckCleanupInterval);
+    }
+
+    /**
+     * Claim check - obsah nad limitem jde do blob store, brokerem putuje jen odkaz.
+     */
+    @Bean
+    public ClaimCheck claimCheck(BlobStore claimCheckStore, MeterRegistry meterRegistry) {
+        return new ClaimCheck(claimCheckStore, claimCheckThresholdBytes, claimCheckEnabled,
+                meterRegistry, "rabbitmq");
+    }
+
+    /**
+     * Evidence zpracovaných zpráv consumeru - počty bez alokace na zprávu.
+     */
+    @Bean
+    public ConsumerBookkeeping consumerBookkeeping(MetricsService metricsService) {
+        return new ConsumerBookkeeping(metricsService);
+    }
+
+    /**
+     * Group commit zpráv z HTTP - dávky skládá core, odeslání dávky dodává {@link RabbitBatchSink}.
+     */
+    @Bean(destroyMethod = "close")
+    public BatchPublisher<WorkshopMessage> batchPublisher(RabbitBatchSink rabbitBatchSink, ClaimCheck claimCheck,
+                                                         MeterRegistry meterRegistry) {
+        Consumer<WorkshopMessage> preparer = message -> {
+            prepare(message);
+            message.setContent(claimCheck.checkIn(message.getContent()));
+        };
+        return new BatchPublisher<>(rabbitBatchSink, preparer, publishMaxBatchSize, publishMaxWaitMs,
+                publishQueueCapacity, publishAckTimeoutMs, meterRegistry, "rabbitmq");
+    }
+
+    /**
+     * Transactional outbox nad embedded H2 - relay odesílá přes {@link RabbitBatchSink}.
+     */
+    @Bean(destroyMethod = "close")
+    public OutboxService<WorkshopMessage> outboxService(DataSource dataSource, ObjectMapper objectMapper,
+                                                       RabbitBatchSink rabbitBatchSink, ClaimCheck claimCheck,
+                                                       MeterRegistry meterRegistry) throws SQLException {
+        Function<WorkshopMessage, Object[]> preparer = message -> {
+            prepare(message);
+            Object[] row = {message.getId(), message.getContent(), message.getTimestamp()};
+            // Velký payload jde do blob store, outboxem putuje jen odkaz
+            message.setContent(claimCheck.checkIn(message.getContent()));
+            return row;
+        };
+        OutboxService<WorkshopMessage> outboxService = new OutboxService<>(dataSource, objectMapper,
+                WorkshopMessage.class, preparer, rabbitBatchSink, outboxBatchSize, outboxPollIntervalMs,
+                outboxAckTimeoutMs, outboxRetryBackoffMs, meterRegistry, "rabbitmq");
+        if (outboxEnabled) {
+            outboxService.start();
+        }
+        return outboxService;
+    }
+
+    /**
+     * Doplní id, čas a broker zprávě z HTTP před odesláním nebo zápisem do outboxu.
+     */
+    private void prepare(WorkshopMessage message) {
+        if (message.getId() == null) {
+            message.setId(idSequence.incrementAndGet());
+        }
+        if (message.getTimestamp() == null) {
+            message.setTimestamp(System.currentTimeMillis());
+        }
+        message.setBroker("RabbitMQ");
+        message.setRetryCount(0);
+    }
+
+    /**
+     * Lokální write-ahead spool producera pro výpadek brokeru - přehrává se s publisher confirms.
+     */
+    @Bean(destroyMethod = "close")
+    public ProducerSpool<WorkshopMessage> producerSpool(RabbitTemplate rabbitTemplate, ShardRouter shardRouter,
+                                                        ObjectMapper objectMapper, MeterRegistry meterRegistry)
+            throws IOException {
+        MicroBatcher.BatchSink<WorkshopMessage> replay = batch -> {
+            List<CompletableFuture<?>> confirms = new ArrayList<>(batch.size());
+            for (WorkshopMessage message : batch) {
+                CorrelationData correlationData = new CorrelationData("spool-" + message.getId());
+                rabbitTemplate.convertAndSend(exchangeName, shardRouter.routingKeyFor(message.getId()),
+                        message, correlationData);
+                confirms.add(correlationData.getFuture().thenAccept(confirm -> {
+                    if (!confirm.isAck()) {
+                        throw new IllegalStateException("nack: " + confirm.getReason());
+                    }
+                }));
+            }
+            return confirms;
+        };
+        ProducerSpool<WorkshopMessage> spool = new ProducerSpool<>(Path.of(spoolDirectory), spoolSegmentBytes,
+                spoolFsyncIntervalMs, spoolReplayRatePerSecond, spoolReplayBatchSize, spoolRetryBackoffMs,
+                spoolAckTimeoutMs, objectMapper, WorkshopMessage.class, replay, meterRegistry, "rabbitmq");
+        if (spoolEnabled) {
+            spool.start();
+        }
+        return spool;
+    }
+
+    /**
+     * Parking lot zpráv z DLQ čekajících na redrive.
+     */
+    @Bean
+    public ParkingLotStore<WorkshopMessage> parkingLotStore() {
+        return new ParkingLotStore<>();
+    }
+
+    /**
+     * Redrive z parking lotu - dávky omezené token bucketem, odeslání přes {@link RabbitRepublisher}.
+     */
+    @Bean(destroyMethod = "close")
+    public RedriveService<WorkshopMessage> redriveService(ParkingLotStore<WorkshopMessage> parkingLotStore,
+                                                          RabbitRepublisher rabbitRepublisher, MeterRegistry meterRegistry) {
+        return new RedriveService<>(parkingLotStore, rabbitRepublisher, redriveRatePerSecond, redriveBatchSize,
+                redriveAckTimeoutMs, meterRegistry, "rabbitmq");
+    }
+
+    /**
+     * Append-only soubor zpracovaných zpráv - consumer potvrdí zprávu až po trvalém zápisu.
+     */
+    @Bean(destroyMethod = "close")
+    public FileSink<WorkshopMessage> fileSink(MeterRegistry meterRegistry) {
+        FileSink<WorkshopMessage> sink = new FileSink<>(Path.of(sinkDirectory), sinkSegmentBytes,
+                FsyncPolicy.parse(sinkFsync), sinkFsyncIntervalMs, sinkMaxBatchSize, sinkQueueCapacity,
+                sinkBufferBytes, sinkRetainSegments, RabbitMQConfig::encodeMessage, meterRegistry, "rabbitmq");
+        if (sinkEnabled) {
+            sink.start();
+        }
+        return sink;
+    }
+
+    /**
+     * Záznam sinku: [id long][timestamp long][retryCount int][content].
+     */
+    private static void encodeMessage(WorkshopMessage message, ByteBuffer out) {
+        out.putLong(message.getId() != null ? message.getId() : -1);
+        out.putLong(message.getTimestamp() != null ? message.getTimestamp() : -1);
+        out.putInt(message.getRetryCount() != null ? message.getRetryCount() : 0);
+        RecordEncoder.putString(out, message.getContent());
+    }
+
+    /**
+     * Per-hop tracing vzorkovaných zpráv.
+     */
+    @Bean
+    public HopTracer hopTracer(MeterRegistry meterRegistry) {
+        return new HopTracer(meterRegistry, "rabbitmq", tracingEnabled ? tracingSampleRate : 0);
+    }
+
+    /**
+     * Observations šablony a listener containeru jen pro zprávy se značkou per-hop tracingu.
+     */
+    @Bean
+    public ObservationPredicate messagingObservationSampler(HopTracer hopTracer) {
+        return hopTracer.observationPredicate(RabbitTraceHeaders::isSampled);
+    }
+
+    /**
+     * Model zpracování zprávy v consumeru - výchozí hodnoty z application.yml, za běhu mění scénáře a REST.
+     */
+    @Bean
+    public ProcessingEngine processingEngine(MeterRegistry meterRegistry) {
+        ProcessingSpec defaults = ProcessingSpec.builder()
+                .model(processingModel)
+                .distribution(processingDistribution)
+                .delayMs(processingDelayMs)
+                .minDelayMs(processingMinDelayMs)
+                .maxDelayMs(processingMaxDelayMs)
+                .paretoShape(processingParetoShape)
+                .allocBytes(processingAllocBytes)
+                .allocChunkBytes(processingAllocChunkBytes)
+                .downstreamConcurrency(processingDownstreamConcurrency)
+                .build();
+        return new ProcessingEngine(defaults, meterRegistry, "rabbitmq");
+    }
+}
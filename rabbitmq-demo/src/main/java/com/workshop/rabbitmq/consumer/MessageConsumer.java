@@ -1,8 +1,19 @@
 package com.workshop.rabbitmq.consumer;
 
 import com.rabbitmq.client.Channel;
-import com.workshop.rabbitmq.metrics.MetricsService;
+import com.workshop.benchmark.claimcheck.ClaimCheck;
+import com.workshop.benchmark.consumer.ConsumerBookkeeping;
+import com.workshop.benchmark.driver.ConsumerControl;
+import com.workshop.benchmark.sink.FileSink;
+import com.workshop.benchmark.tracing.HopTrace;
+import com.workshop.benchmark.tracing.HopTracer;
+import com.workshop.benchmark.workload.ProcessingEngine;
+import com.workshop.benchmark.workload.ProcessingSpec;
 import com.workshop.rabbitmq.model.WorkshopMessage;
+import com.workshop.rabbitmq.redrive.DlqDeliveries;
+import com.workshop.rabbitmq.tracing.RabbitTraceHeaders;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.core.Message;
@@ -14,8 +25,13 @@ import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Consumer service pro zpracování zpráv z RabbitMQ.
@@ -24,18 +40,59 @@ import java.util.Random;
 @Service
 @Slf4j
 @RequiredArgsConstructor
-public class MessageConsumer {
+public class MessageConsumer implements ConsumerControl {
 
-    private final MetricsService metricsService;
+    private static final long SINK_RETRY_BACKOFF_MS = 100;
+
+    private final DlqDeliveries dlqDeliveries;
+    private final ClaimCheck claimCheck;
+    private final HopTracer hopTracer;
+    private final ProcessingEngine processingEngine;
+    private final FileSink<WorkshopMessage> fileSink;
+    private final ConsumerBookkeeping bookkeeping;
     private final Random random = new Random();
-    
-    private int processedCount = 0;
+    private final ScheduledExecutorService sinkRetryExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "sink-retry");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${workshop.rabbitmq.max-retries:3}")
+    private int maxRetries;
 
     @Value("${workshop.rabbitmq.simulate-failures:false}")
-    private boolean simulateFailures;
+    private boolean configuredSimulateFailures;
 
     @Value("${workshop.rabbitmq.failure-rate:0.1}")
-    private double failureRate;
+    private double configuredFailureRate;
+
+    // Aktuální hodnoty - za běhu je mění scénáře přes ConsumerControl
+    private volatile boolean simulateFailures;
+    private volatile double failureRate;
+
+    @PostConstruct
+    @Override
+    public void resetToDefaults() {
+        this.simulateFailures = configuredSimulateFailures;
+        this.failureRate = configuredFailureRate;
+        processingEngine.resetToDefaults();
+    }
+
+    @Override
+    public void setFailureRate(double failureRate) {
+        this.failureRate = failureRate;
+        this.simulateFailures = failureRate > 0;
+    }
+
+    @Override
+    public void setProcessingDelayMs(long delayMs) {
+        processingEngine.setSpec(ProcessingSpec.sleep(delayMs));
+    }
+
+    @Override
+    public void setProcessing(ProcessingSpec processing) {
+        processingEngine.setSpec(processing);
+    }
 
     /**
      * Listener pro hlavní frontu.
@@ -46,79 +103,152 @@ public class MessageConsumer {
                               @Header(value = "x-retry-count", required = false) Integer retryCount,
                               Channel channel,
                               Message amqpMessage) throws IOException {
+        handleDelivery(message, deliveryTag, retryCount, channel,
+                RabbitTraceHeaders.read(amqpMessage.getMessageProperties()));
+    }
+
+    /**
+     * Zpracování doručené zprávy včetně ACK/NACK.
+     * Sdílí ho hlavní listener i listenery shardovaných front.
+     *
+     * @param trace značky per-hop tracingu, null pokud zpráva není vzorkovaná
+     * @return true pokud byla zpráva úspěšně zpracována a potvrzena
+     *         (se sinkem předána k zápisu, ACK přijde po fsync)
+     */
+    public boolean handleDelivery(WorkshopMessage message,
+                                  long deliveryTag,
+                                  Integer retryCount,
+                                  Channel channel,
+                                  HopTrace trace) throws IOException {
         
         long startTime = System.nanoTime();
+        long dispatchedMicros = trace != null ? HopTracer.nowMicros() : 0;
         
         try {
             // Zpracování zprávy
             processMessage(message);
             
-            // ACK - úspěšné zpracování
-            channel.basicAck(deliveryTag, false);
-            
-            long latency = System.nanoTime() - startTime;
-            metricsService.recordMessageConsumed(latency);
-            
-            processedCount++;
-            if (processedCount % 100 == 0) {
-                log.info("  Zpracováno: {} zpráv", processedCount);
+            // Vzorkovaná zpráva - rozpad latence po úsecích
+            if (trace != null) {
+                hopTracer.record(trace, dispatchedMicros, HopTracer.nowMicros());
             }
             
+            if (fileSink.isRunning()) {
+                // ACK až po trvalém zápisu do sinku, do té doby drží zprávu prefetch
+                appendToSink(message, deliveryTag, channel, startTime, 0);
+            } else {
+                // ACK - úspěšné zpracování
+                channel.basicAck(deliveryTag, false);
+                bookkeeping.recordConsumed(startTime);
+            }
+            return true;
+        
         } catch (Exception e) {
             // Získání retry počtu
             int currentRetryCount = retryCount != null ? retryCount : 0;
-            int maxRetries = 3;
             
             if (currentRetryCount < maxRetries) {
                 // NACK s requeue - zpráva bude znovu zpracována
                 log.warn("⚠ Chyba zpracování zprávy {} (pokus {}/{}): {}", 
                         message.getId(), currentRetryCount + 1, maxRetries, e.getMessage());
                 channel.basicNack(deliveryTag, false, true);
+                bookkeeping.recordRetry();
             } else {
                 // NACK bez requeue - zpráva půjde do DLQ
                 log.error("✗ Zpráva {} přesunuta do DLQ po {} pokusech", 
                         message.getId(), maxRetries);
                 channel.basicNack(deliveryTag, false, false);
-                metricsService.recordMessageFailed();
+                bookkeeping.recordDeadLettered();
             }
+            return false;
         }
     }
 
     /**
-     * Listener pro DLQ - pouze logování.
+     * Zápis zpracované zprávy do souborového sinku, ACK v callbacku po fsync.
+     * Při chybě zápisu se zápis zopakuje s backoffem mimo vlákno sinku, po maxRetries jde NACK
+     * bez requeue - zpráva přes dead-letter exchange skončí v DLQ místo nekonečného requeue.
      */
-    @RabbitListener(queues = "${workshop.rabbitmq.dlq}")
+    private void appendToSink(WorkshopMessage message, long deliveryTag, Channel channel, long startTime,
+                              int attempt) {
+        fileSink.append(message).whenComplete((result, ex) -> {
+            try {
+                if (ex == null) {
+                    channel.basicAck(deliveryTag, false);
+                    bookkeeping.recordConsumed(startTime);
+                } else if (attempt < maxRetries && fileSink.isRunning()) {
+                    // Callback běží ve vlákně zapisovače sinku - append z něj by při plné frontě čekal sám na sebe
+                    long backoffMs = SINK_RETRY_BACKOFF_MS << attempt;
+                    log.warn("⚠ Zápis zprávy {} do sinku selhal (pokus {}/{}): {}. Backoff: {} ms",
+                            message.getId(), attempt + 1, maxRetries, ex.getMessage(), backoffMs);
+                    sinkRetryExecutor.schedule(() -> appendToSink(message, deliveryTag, channel, startTime,
+                            attempt + 1), backoffMs, TimeUnit.MILLISECONDS);
+                } else {
+                    log.error("✗ Zpráva {} není v sinku, přesunuta do DLQ: {}", message.getId(), ex.getMessage());
+                    channel.basicNack(deliveryTag, false, false);
+                    bookkeeping.recordDeadLettered();
+                }
+            } catch (IOException | RuntimeException e) {
+                // Zavřený kanál - broker zprávu doručí znovu
+                log.warn("⚠ Potvrzení zprávy {} po zápisu do sinku selhalo: {}", message.getId(), e.getMessage());
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sinkRetryExecutor.shutdownNow();
+    }
+
+    /**
+     * Listener pro DLQ - odkládá zprávy do parking lotu pro pozdější redrive.
+     * Zpráva zůstává v DLQ nepotvrzená, ACK přijde až po redrive.
+     */
+    @RabbitListener(queues = "${workshop.rabbitmq.dlq}", containerFactory = "dlqListenerContainerFactory")
     public void receiveDLQMessage(@Payload WorkshopMessage message,
                                   @Header(AmqpHeaders.DELIVERY_TAG) long deliveryTag,
-                                  Channel channel) throws IOException {
+                                  @Header(value = "x-death", required = false) List<Map<String, ?>> xDeath,
+                                  Channel channel) {
         
         log.info("📥 DLQ: Přijata zpráva {} do Dead Letter Queue", message.getId());
         
-        // ACK zprávy v DLQ
-        channel.basicAck(deliveryTag, false);
+        // Důvod a původní fronta z x-death hlavičky
+        String error = null;
+        if (xDeath != null && !xDeath.isEmpty()) {
+            Map<String, ?> death = xDeath.get(0);
+            error = death.get("reason") + " from " + death.get("queue");
+        }
+        dlqDeliveries.park(message, error, deliveryTag, channel);
     }
 
     /**
      * Zpracování zprávy s možností simulace chyb.
      */
-    private void processMessage(WorkshopMessage message) throws Exception {
+    void processMessage(WorkshopMessage message) throws Exception {
+        // Claim check - payload se čte přímo z mapovaného segmentu, bez kopie, a ověří se jeho CRC32C.
+        // Chybějící nebo poškozený blob je chyba zpracování -> retry / DLQ.
+        ByteBuffer payload = claimCheck.resolve(message.getContent());
+        if (payload != null) {
+            claimCheck.verify(message.getContent(), payload);
+        }
+        
         // Simulace náhodných chyb
         if (simulateFailures && random.nextDouble() < failureRate) {
             throw new RuntimeException("Simulovaná chyba zpracování");
         }
         
-        // Simulace zpracování
-        Thread.sleep(1);
+        // Simulace zpracování podle modelu (sleep, cpu, alloc, downstream)
+        processingEngine.process();
         
         log.debug("✓ Zpracována zpráva: {}", message.getId());
     }
 
-    public int getProcessedCount() {
-        return processedCount;
+    public long getProcessedCount() {
+        return bookkeeping.getProcessedCount();
     }
 
     public void resetProcessedCount() {
-        this.processedCount = 0;
+        bookkeeping.reset();
     }
 }
 
@@ -0,0 +1,56 @@
+package com.workshop.rabbitmq.consumer;
+
+import com.workshop.rabbitmq.model.WorkshopMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Service;
+
+/**
+ * Server strana request/reply.
+ * Návratová hodnota listeneru se odešle na reply-to adresu požadavku
+ * (direct reply-to), takže klient nepotřebuje vlastní dočasnou frontu.
+ * Chyba zpracování se vrací jako odpověď s hlavičkou {@value #ERROR_HEADER} - klient selže hned,
+ * ne až po reply timeoutu, a obsah odpovědi zůstává čistě na aplikaci.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class RequestReplyConsumer {
+
+    public static final String ERROR_HEADER = "x-error";
+
+    private final MessageConsumer messageConsumer;
+
+    /**
+     * Listener pro RPC frontu - vrací zpracovanou zprávu, při chybě nezpracovanou s chybovou hlavičkou.
+     */
+    @RabbitListener(queues = "${workshop.rabbitmq.rpc.queue}", containerFactory = "rpcListenerContainerFactory")
+    public Message<WorkshopMessage> handleRequest(@Payload WorkshopMessage request) {
+        String content = request.getContent();
+        String error = null;
+        try {
+            messageConsumer.processMessage(request);
+            content = content + " [processed]";
+        } catch (Exception e) {
+            log.warn("⚠ Chyba zpracování RPC požadavku {}: {}", request.getId(), e.getMessage());
+            error = String.valueOf(e.getMessage());
+        }
+        
+        WorkshopMessage reply = WorkshopMessage.builder()
+                .id(request.getId())
+                .content(content)
+                .timestamp(System.currentTimeMillis())
+                .broker("RabbitMQ")
+                .retryCount(request.getRetryCount())
+                .build();
+        MessageBuilder<WorkshopMessage> builder = MessageBuilder.withPayload(reply);
+        if (error != null) {
+            builder.setHeader(ERROR_HEADER, error);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,90 @@
+package com.workshop.rabbitmq.consumer;
+
+import com.workshop.rabbitmq.metrics.MetricsService;
+import com.workshop.rabbitmq.metrics.ShardStats;
+import com.workshop.rabbitmq.model.WorkshopMessage;
+import com.workshop.rabbitmq.producer.ShardRouter;
+import com.workshop.rabbitmq.tracing.RabbitTraceHeaders;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.amqp.rabbit.annotation.RabbitListenerConfigurer;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerEndpoint;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistrar;
+import org.springframework.amqp.rabbit.listener.api.ChannelAwareMessageListener;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Consumer pro shardované fronty.
+ * Registruje jeden listener container pro každý shard, takže každá fronta
+ * má vlastního konzumenta a propustnost škáluje s počtem shardů.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "workshop.rabbitmq.sharding.enabled", havingValue = "true")
+public class ShardedMessageConsumer implements RabbitListenerConfigurer {
+
+    private final MessageConsumer messageConsumer;
+    private final MetricsService metricsService;
+    private final ShardRouter shardRouter;
+    private final MessageConverter jsonMessageConverter;
+    private final AmqpAdmin amqpAdmin;
+
+    @Override
+    public void configureRabbitListeners(RabbitListenerEndpointRegistrar registrar) {
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            SimpleRabbitListenerEndpoint endpoint = new SimpleRabbitListenerEndpoint();
+            endpoint.setId("workshop-shard-" + shard);
+            endpoint.setQueueNames(shardRouter.shardQueueName(shard));
+            endpoint.setMessageListener(shardListener(shard));
+            registrar.registerEndpoint(endpoint);
+        }
+        log.info("Registrováno {} shard listenerů", shardRouter.getShardCount());
+    }
+
+    private ChannelAwareMessageListener shardListener(int shard) {
+        return (message, channel) -> {
+            MessageProperties properties = message.getMessageProperties();
+            WorkshopMessage payload = (WorkshopMessage) jsonMessageConverter.fromMessage(message);
+            Integer retryCount = properties.getHeader("x-retry-count");
+            
+            if (messageConsumer.handleDelivery(payload, properties.getDeliveryTag(), retryCount, channel,
+                    RabbitTraceHeaders.read(properties))) {
+                metricsService.recordShardConsumed(shard);
+            }
+        };
+    }
+
+    /**
+     * Hloubka a propustnost jednotlivých shardů.
+     */
+    public List<ShardStats> getShardStats() {
+        double durationSeconds = metricsService.getDurationSeconds();
+        List<ShardStats> stats = new ArrayList<>();
+        
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            String queue = shardRouter.shardQueueName(shard);
+            QueueInformation info = amqpAdmin.getQueueInfo(queue);
+            long consumed = metricsService.getShardConsumed(shard);
+            
+            stats.add(ShardStats.builder()
+                    .shard(shard)
+                    .queue(queue)
+                    .depth(info != null ? info.getMessageCount() : 0)
+                    .consumers(info != null ? info.getConsumerCount() : 0)
+                    .produced(metricsService.getShardProduced(shard))
+                    .consumed(consumed)
+                    .throughputMsgPerSec(durationSeconds > 0 ? consumed / durationSeconds : 0)
+                    .build());
+        }
+        return stats;
+    }
+}
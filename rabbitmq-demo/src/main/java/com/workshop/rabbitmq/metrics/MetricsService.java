@@ -1,157 +1,162 @@
 package com.workshop.rabbitmq.metrics;
 
+import com.workshop.benchmark.metrics.MetricsEngine;
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
-import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Service pro měření a sledování výkonu messaging operací.
+ * Společné metriky poskytuje {@link MetricsEngine}, zde jsou metriky specifické pro RabbitMQ.
  */
 @Service
-@Slf4j
-public class MetricsService {
-
-    private final MeterRegistry meterRegistry;
-    private final List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
-    private long startTime;
-    
-    private final Counter messagesProducedCounter;
-    private final Counter messagesConsumedCounter;
-    private final Counter messagesFailedCounter;
-    private final Timer producerLatencyTimer;
-    private final Timer consumerLatencyTimer;
+public class MetricsService extends MetricsEngine {
+
+    private final Counter compressionSkippedCounter;
+    private final DistributionSummary compressionRatioSummary;
+    private final DistributionSummary compressionSavedBytesSummary;
+    private final Timer compressionTimer;
+    private final Timer decompressionTimer;
+    private final Timer rpcRoundTripTimer;
+    private final Counter rpcFailedCounter;
+    private final Timer producerThrottleTimer;
+    private final Counter publishNackedCounter;
+    private volatile boolean producerBlocked;
+    private final Map<Integer, Counter> shardProducedCounters = new ConcurrentHashMap<>();
+    private final Map<Integer, Counter> shardConsumedCounters = new ConcurrentHashMap<>();
 
     public MetricsService(MeterRegistry meterRegistry) {
-        this.meterRegistry = meterRegistry;
-        this.startTime = System.currentTimeMillis();
+        super(meterRegistry, "rabbitmq");
+        
+        // Metriky komprese
+        this.compressionSkippedCounter = Counter.builder("messages.compression.skipped")
+                .description("Messages sent uncompressed (below size threshold)")
+                .tag("broker", broker)
+                .register(meterRegistry);
+        
+        this.compressionRatioSummary = DistributionSummary.builder("messages.compression.ratio")
+                .description("Original size / compressed size")
+                .tag("broker", broker)
+                .register(meterRegistry);
         
-        // Inicializace counterů
-        this.messagesProducedCounter = Counter.builder("messages.produced")
-                .description("Total number of messages produced")
-                .tag("broker", "rabbitmq")
+        this.compressionSavedBytesSummary = DistributionSummary.builder("messages.compression.saved")
+                .description("Bytes saved by compression")
+                .baseUnit("bytes")
+                .tag("broker", broker)
                 .register(meterRegistry);
         
-        this.messagesConsumedCounter = Counter.builder("messages.consumed")
-                .description("Total number of messages consumed")
-                .tag("broker", "rabbitmq")
+        this.compressionTimer = Timer.builder("messages.compression.time")
+                .description("Time spent compressing message bodies")
+                .tag("broker", broker)
                 .register(meterRegistry);
         
-        this.messagesFailedCounter = Counter.builder("messages.failed")
-                .description("Total number of failed messages")
-                .tag("broker", "rabbitmq")
+        this.decompressionTimer = Timer.builder("messages.decompression.time")
+                .description("Time spent decompressing message bodies")
+                .tag("broker", broker)
                 .register(meterRegistry);
         
-        // Inicializace timerů
-        this.producerLatencyTimer = Timer.builder("messages.producer.latency")
-                .description("Producer latency")
-                .tag("broker", "rabbitmq")
+        // Metriky request/reply
+        this.rpcRoundTripTimer = Timer.builder("messages.rpc.roundtrip")
+                .description("Request/reply round-trip latency")
+                .tag("broker", broker)
+                .publishPercentiles(0.5, 0.95, 0.99)
                 .register(meterRegistry);
         
-        this.consumerLatencyTimer = Timer.builder("messages.consumer.latency")
-                .description("Consumer latency")
-                .tag("broker", "rabbitmq")
+        this.rpcFailedCounter = Counter.builder("messages.rpc.failed")
+                .description("Requests without reply (timeout or error)")
+                .tag("broker", broker)
+                .register(meterRegistry);
+        
+        // Metriky řízení toku
+        this.producerThrottleTimer = Timer.builder("messages.producer.throttle")
+                .description("Time the producer spent paused by flow control")
+                .tag("broker", broker)
+                .register(meterRegistry);
+        
+        this.publishNackedCounter = Counter.builder("messages.producer.nacked")
+                .description("Publishes rejected by the broker (nack)")
+                .tag("broker", broker)
+                .register(meterRegistry);
+        
+        Gauge.builder("messages.producer.blocked", this, m -> m.producerBlocked ? 1 : 0)
+                .description("1 while the broker blocks the publishing connection")
+                .tag("broker", broker)
                 .register(meterRegistry);
     }
 
-    public void recordMessageProduced(long latencyNanos) {
-        messagesProducedCounter.increment();
-        producerLatencyTimer.record(latencyNanos, TimeUnit.NANOSECONDS);
-        latencies.add(latencyNanos);
+    public void recordCompression(int originalBytes, int compressedBytes, long durationNanos) {
+        compressionTimer.record(durationNanos, TimeUnit.NANOSECONDS);
+        compressionSavedBytesSummary.record(originalBytes - compressedBytes);
+        if (compressedBytes > 0) {
+            compressionRatioSummary.record((double) originalBytes / compressedBytes);
+        }
     }
 
-    public void recordMessageConsumed(long latencyNanos) {
-        messagesConsumedCounter.increment();
-        consumerLatencyTimer.record(latencyNanos, TimeUnit.NANOSECONDS);
+    public void recordCompressionSkipped() {
+        compressionSkippedCounter.increment();
     }
 
-    public void recordMessageFailed() {
-        messagesFailedCounter.increment();
+    public void recordDecompression(long durationNanos) {
+        decompressionTimer.record(durationNanos, TimeUnit.NANOSECONDS);
     }
 
-    public void resetStartTime() {
-        this.startTime = System.currentTimeMillis();
-        this.latencies.clear();
+    public void recordRpcRoundTrip(long latencyNanos) {
+        rpcRoundTripTimer.record(latencyNanos, TimeUnit.NANOSECONDS);
     }
 
-    public PerformanceSummary getSummary() {
-        long duration = System.currentTimeMillis() - startTime;
-        double durationSeconds = duration / 1000.0;
-        
-        long produced = (long) messagesProducedCounter.count();
-        long consumed = (long) messagesConsumedCounter.count();
-        long failed = (long) messagesFailedCounter.count();
-        
-        double throughput = produced / durationSeconds;
-        double successRate = produced > 0 ? (consumed * 100.0 / produced) : 0;
-        
-        LatencyStats latencyStats = calculateLatencyStats();
-        
-        return PerformanceSummary.builder()
-                .totalProduced(produced)
-                .totalConsumed(consumed)
-                .totalFailed(failed)
-                .durationSeconds(durationSeconds)
-                .throughputMsgPerSec(throughput)
-                .successRatePercent(successRate)
-                .latencyStats(latencyStats)
-                .build();
+    public void recordRpcFailed() {
+        rpcFailedCounter.increment();
     }
 
-    private LatencyStats calculateLatencyStats() {
-        if (latencies.isEmpty()) {
-            return new LatencyStats(0, 0, 0, 0, 0, 0);
-        }
-        
-        List<Long> sorted = new ArrayList<>(latencies);
-        Collections.sort(sorted);
-        
-        long sum = sorted.stream().mapToLong(Long::longValue).sum();
-        double avgNanos = (double) sum / sorted.size();
-        long minNanos = sorted.get(0);
-        long maxNanos = sorted.get(sorted.size() - 1);
-        
-        long p50Nanos = sorted.get(sorted.size() / 2);
-        long p95Nanos = sorted.get((int) (sorted.size() * 0.95));
-        long p99Nanos = sorted.get((int) (sorted.size() * 0.99));
-        
-        return new LatencyStats(
-                avgNanos / 1_000_000.0,  // Convert to ms
-                minNanos / 1_000_000.0,
-                maxNanos / 1_000_000.0,
-                p50Nanos / 1_000_000.0,
-                p95Nanos / 1_000_000.0,
-                p99Nanos / 1_000_000.0
-        );
+    public void recordProducerThrottled(long durationNanos) {
+        producerThrottleTimer.record(durationNanos, TimeUnit.NANOSECONDS);
     }
 
-    public void printSummary(String title) {
-        PerformanceSummary summary = getSummary();
-        
-        log.info("=".repeat(60));
-        log.info("{}", title);
-        log.info("=".repeat(60));
-        log.info("Celkem odesláno:     {}", summary.getTotalProduced());
-        log.info("Celkem zpracováno:   {}", summary.getTotalConsumed());
-        log.info("Celkem selhalo:      {}", summary.getTotalFailed());
-        log.info("Doba běhu:           {:.2f} s", summary.getDurationSeconds());
-        log.info("Propustnost:         {:.2f} msg/s", summary.getThroughputMsgPerSec());
-        log.info("Úspěšnost:           {:.2f} %", summary.getSuccessRatePercent());
-        log.info("");
-        log.info("Latence (ms):");
-        log.info("  Průměrná:          {:.2f}", summary.getLatencyStats().getAvgMs());
-        log.info("  Minimální:         {:.2f}", summary.getLatencyStats().getMinMs());
-        log.info("  Maximální:         {:.2f}", summary.getLatencyStats().getMaxMs());
-        log.info("  P50 (medián):      {:.2f}", summary.getLatencyStats().getP50Ms());
-        log.info("  P95:               {:.2f}", summary.getLatencyStats().getP95Ms());
-        log.info("  P99:               {:.2f}", summary.getLatencyStats().getP99Ms());
-        log.info("=".repeat(60));
+    public void recordPublishNacked() {
+        publishNackedCounter.increment();
+    }
+
+    public void setProducerBlocked(boolean blocked) {
+        this.producerBlocked = blocked;
+    }
+
+    public void recordShardProduced(int shard) {
+        shardProducedCounters.computeIfAbsent(shard, s -> shardCounter("messages.shard.produced", s)).increment();
+    }
+
+    public void recordShardConsumed(int shard) {
+        shardConsumedCounters.computeIfAbsent(shard, s -> shardCounter("messages.shard.consumed", s)).increment();
     }
-}
 
+    public long getShardProduced(int shard) {
+        Counter counter = shardProducedCounters.get(shard);
+        return counter != null ? (long) counter.count() : 0;
+    }
+
+    public long getShardConsumed(int shard) {
+        Counter counter = shardConsumedCounters.get(shard);
+        return counter != null ? (long) counter.count() : 0;
+    }
+
+    private Counter shardCounter(String name, int shard) {
+        return Counter.builder(name)
+                .description("Messages per shard")
+                .tag("broker", broker)
+                .tag("shard", String.valueOf(shard))
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        markReady();
+    }
+}
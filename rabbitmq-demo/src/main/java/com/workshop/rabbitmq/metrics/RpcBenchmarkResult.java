@@ -1,5 +1,6 @@
 package com.workshop.rabbitmq.metrics;
 
+import com.workshop.benchmark.metrics.LatencyStats;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -9,13 +10,12 @@ import lombok.NoArgsConstructor;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class PerformanceSummary {
-    private long totalProduced;
-    private long totalConsumed;
-    private long totalFailed;
+public class RpcBenchmarkResult {
+    private int requests;
+    private int concurrency;
+    private long succeeded;
+    private long failed;
     private double durationSeconds;
     private double throughputMsgPerSec;
-    private double successRatePercent;
-    private LatencyStats latencyStats;
+    private LatencyStats roundTripStats;
 }
-
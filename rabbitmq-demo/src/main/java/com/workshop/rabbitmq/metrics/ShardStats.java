@@ -0,0 +1,20 @@
+package com.workshop.rabbitmq.metrics;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShardStats {
+    private int shard;
+    private String queue;
+    private long depth;
+    private int consumers;
+    private long produced;
+    private long consumed;
+    private double throughputMsgPerSec;
+}
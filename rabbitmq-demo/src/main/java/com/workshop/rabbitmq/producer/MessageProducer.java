@@ -1,13 +1,27 @@
 package com.workshop.rabbitmq.producer;
 
+import com.workshop.benchmark.claimcheck.ClaimCheck;
+import com.workshop.benchmark.profiling.JfrProfiler;
+import com.workshop.benchmark.profiling.JfrSession;
+import com.workshop.benchmark.spool.ProducerSpool;
+import com.workshop.benchmark.tracing.HopTracer;
 import com.workshop.rabbitmq.metrics.MetricsService;
 import com.workshop.rabbitmq.model.WorkshopMessage;
+import com.workshop.rabbitmq.tracing.RabbitTraceHeaders;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.AmqpResourceNotAvailableException;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.Executor;
+
 /**
  * Producer service pro odesílání zpráv do RabbitMQ.
  */
@@ -18,38 +32,116 @@ public class MessageProducer {
 
     private final RabbitTemplate rabbitTemplate;
     private final MetricsService metricsService;
+    private final ShardRouter shardRouter;
+    private final PublishThrottle publishThrottle;
+    private final ClaimCheck claimCheck;
+    private final ProducerSpool<WorkshopMessage> producerSpool;
+    private final HopTracer hopTracer;
+    private final JfrProfiler jfrProfiler;
 
     @Value("${workshop.rabbitmq.exchange}")
     private String exchangeName;
 
-    @Value("${workshop.rabbitmq.routing-key}")
-    private String routingKey;
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    // Dokončení odeslání - ve virtuálním režimu na virtuálním vlákně, jinak přímo ve vlákně klienta
+    private Executor callbackExecutor = Runnable::run;
+
+    @PostConstruct
+    void initCallbackExecutor() {
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("producer-callback-");
+            executor.setVirtualThreads(true);
+            callbackExecutor = executor;
+        }
+    }
 
     /**
-     * Odešle jednu zprávu.
+     * Odešle jednu zprávu, nebo ji hned odmítne, pokud broker omezuje publikování.
+     *
+     * @throws AmqpResourceNotAvailableException pokud broker publikování omezuje
      */
     public void sendMessage(WorkshopMessage message) {
+        if (!trySendMessage(message)) {
+            throw new AmqpResourceNotAvailableException("Broker omezuje publikování (connection.blocked / nack)");
+        }
+    }
+
+    /**
+     * Odešle jednu zprávu bez čekání na {@link PublishThrottle}.
+     * Se zapnutým spoolem se zpráva, kterou broker nepřijal, uloží lokálně a odešle později.
+     *
+     * @return false pokud broker omezuje publikování a zpráva nebyla odeslána ani uložena do spoolu
+     * @throws AmqpResourceNotAvailableException pokud pauza trvá déle než max-pause-ms
+     */
+    public boolean trySendMessage(WorkshopMessage message) {
+        boolean brokerUnavailable = producerSpool.isBrokerUnavailable();
+        boolean permitted = !brokerUnavailable && publishThrottle.tryAcquire();
+        if (!brokerUnavailable && !permitted && !producerSpool.isEnabled()) {
+            if (publishThrottle.isPausedTooLong()) {
+                throw new AmqpResourceNotAvailableException("Broker blokuje publikování déle než max-pause-ms");
+            }
+            return false;
+        }
+        
+        // Velký payload jde do blob store, brokerem putuje jen odkaz
+        message.setContent(claimCheck.checkIn(message.getContent()));
+        
+        if (!permitted) {
+            producerSpool.append(message);
+            return true;
+        }
+        
         long startTime = System.nanoTime();
+        // Vzorkovaná zpráva nese značku odeslání pro per-hop tracing
+        MessagePostProcessor trace = hopTracer.sample()
+                ? RabbitTraceHeaders.sent(HopTracer.nowMicros())
+                : RabbitTraceHeaders.NONE;
         
         try {
-            rabbitTemplate.convertAndSend(exchangeName, routingKey, message);
+            String routingKey = shardRouter.routingKeyFor(message.getId());
+            if (producerSpool.isEnabled()) {
+                // Nack nebo ztracené potvrzení (pád spojení) -> zpráva do spoolu
+                CorrelationData correlationData = new CorrelationData(String.valueOf(message.getId()));
+                correlationData.getFuture().whenCompleteAsync((confirm, ex) -> {
+                    if (ex != null || !confirm.isAck()) {
+                        producerSpool.append(message);
+                    }
+                }, callbackExecutor);
+                rabbitTemplate.convertAndSend(exchangeName, routingKey, message, trace, correlationData);
+            } else {
+                rabbitTemplate.convertAndSend(exchangeName, routingKey, message, trace);
+            }
             
             long latency = System.nanoTime() - startTime;
             metricsService.recordMessageProduced(latency);
+            if (shardRouter.isEnabled()) {
+                metricsService.recordShardProduced(shardRouter.shardFor(message.getId()));
+            }
             
             log.debug("Zpráva odeslána: {}", message.getId());
+            return true;
         } catch (Exception e) {
+            if (producerSpool.isEnabled() && e instanceof AmqpException) {
+                log.debug("Broker nedostupný, zpráva {} uložena do spoolu: {}", message.getId(), e.getMessage());
+                producerSpool.append(message);
+                return true;
+            }
             log.error("Chyba při odesílání zprávy: {}", e.getMessage());
             throw e;
         }
     }
 
     /**
-     * Odešle dávku zpráv.
+     * Odešle dávku zpráv. Když broker publikování omezuje, čeká podle {@link PublishThrottle}.
+     *
+     * @throws AmqpResourceNotAvailableException pokud pauza trvá déle než max-pause-ms
      */
     public void sendBatch(int count) {
         log.info("Odesílání {} zpráv do RabbitMQ...", count);
         metricsService.resetStartTime();
+        JfrSession recording = jfrProfiler.start("send-" + count);
         
         for (int i = 0; i < count; i++) {
             WorkshopMessage message = WorkshopMessage.builder()
@@ -60,7 +152,16 @@ public class MessageProducer {
                     .retryCount(0)
                     .build();
             
-            sendMessage(message);
+            try {
+                // Broker omezuje publikování - zpráva počká na další povolení, nic se nezahodí
+                while (!trySendMessage(message)) {
+                    publishThrottle.awaitRetry();
+                }
+            } catch (AmqpResourceNotAvailableException e) {
+                log.warn("⚠ Odesílání vzdáno po {}/{} zprávách: {}", i, count, e.getMessage());
+                recording.stop(i);
+                throw e;
+            }
             
             if ((i + 1) % 100 == 0) {
                 log.info("  Odesláno: {}/{} zpráv", i + 1, count);
@@ -68,6 +169,7 @@ public class MessageProducer {
         }
         
         log.info("✓ Odesláno celkem {} zpráv", count);
+        metricsService.setProfile(recording.stop(count));
         metricsService.printSummary("RabbitMQ Producer - Výsledky");
     }
 }
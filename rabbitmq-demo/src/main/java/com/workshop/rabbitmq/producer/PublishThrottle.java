@@ -0,0 +1,161 @@
+package com.workshop.rabbitmq.producer;
+
+import com.workshop.rabbitmq.metrics.MetricsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpResourceNotAvailableException;
+import org.springframework.amqp.rabbit.connection.ConnectionBlockedEvent;
+import org.springframework.amqp.rabbit.connection.ConnectionUnblockedEvent;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Řízení toku na straně producera.
+ *
+ * Reaguje na:
+ * - connection.blocked / unblocked (memory/disk alarm brokeru) - publikování se odmítá
+ * - nack potvrzení (x-overflow reject-publish) - mezi zprávami se vyžaduje rostoucí odstup,
+ *   který se s každým ACK zase zkracuje
+ *
+ * Generátor zátěže neblokuje: {@link #tryAcquire()} odpoví hned a odeslání si přeplánuje
+ * podle {@link #throttleNanos()}. Vlastní vlákna (dávka /send, group commit, redrive) počkají
+ * přes {@link #acquire()} a vzdají to až po max-pause-ms. Timer messages.producer.throttle měří
+ * délku každé pauzy od prvního odmítnutí do dalšího povoleného odeslání.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class PublishThrottle {
+
+    private static final long BLOCKED_RETRY_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long MIN_DELAY_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final long MIN_RESCHEDULE_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final MetricsService metricsService;
+
+    @Value("${workshop.rabbitmq.flow-control.max-pause-ms:30000}")
+    private long maxPauseMs;
+
+    @Value("${workshop.rabbitmq.flow-control.max-delay-ms:100}")
+    private long maxDelayMs;
+
+    private final AtomicLong nextPermitNanos = new AtomicLong();
+    private final AtomicLong throttledSinceNanos = new AtomicLong();
+    private volatile boolean blocked;
+    private volatile long delayNanos;
+
+    @EventListener
+    public void onBlocked(ConnectionBlockedEvent event) {
+        blocked = true;
+        metricsService.setProducerBlocked(true);
+        log.warn("⚠ Broker zablokoval spojení: {}", event.getReason());
+    }
+
+    @EventListener
+    public void onUnblocked(ConnectionUnblockedEvent event) {
+        blocked = false;
+        metricsService.setProducerBlocked(false);
+        log.info("✓ Broker odblokoval spojení");
+    }
+
+    /**
+     * Confirm callback z RabbitTemplate - nack zvětšuje odstup, ack ho zmenšuje.
+     */
+    public void onConfirm(CorrelationData correlationData, boolean ack, String cause) {
+        long current = delayNanos;
+        if (ack) {
+            if (current > 0) {
+                delayNanos = current > MIN_DELAY_NANOS ? current / 2 : 0;
+            }
+        } else {
+            metricsService.recordPublishNacked();
+            long maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+            delayNanos = Math.min(maxDelayNanos, Math.max(MIN_DELAY_NANOS, current * 2));
+            log.debug("Nack od brokeru ({}), odstup {} µs", cause, delayNanos / 1000);
+        }
+    }
+
+    /**
+     * Povolí jedno odeslání, bez čekání.
+     *
+     * @return false pokud je spojení blokované nebo ještě neuplynul odstup po nack -
+     *         volající odeslání přeplánuje po {@link #throttleNanos()}
+     */
+    public boolean tryAcquire() {
+        long now = System.nanoTime();
+        if (blocked) {
+            markThrottled(now);
+            return false;
+        }
+        long delay = delayNanos;
+        if (delay > 0) {
+            long permit = nextPermitNanos.get();
+            if (now - permit < 0 || !nextPermitNanos.compareAndSet(permit, now + delay)) {
+                markThrottled(now);
+                return false;
+            }
+        }
+        if (throttledSinceNanos.get() != 0) {
+            long since = throttledSinceNanos.getAndSet(0);
+            if (since != 0) {
+                metricsService.recordProducerThrottled(now - since);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Počká na povolení jednoho odeslání. Jen pro vlákna, která smí čekat - ne pro generátor zátěže.
+     *
+     * @throws AmqpResourceNotAvailableException pokud pauza trvá déle než max-pause-ms
+     */
+    public void acquire() {
+        while (!tryAcquire()) {
+            awaitRetry();
+        }
+    }
+
+    /**
+     * Uspí volající vlákno do chvíle, kdy má smysl odeslání zkusit znovu.
+     *
+     * @throws AmqpResourceNotAvailableException pokud pauza trvá déle než max-pause-ms
+     */
+    public void awaitRetry() {
+        if (isPausedTooLong()) {
+            throw new AmqpResourceNotAvailableException("Broker blokuje publikování déle než max-pause-ms");
+        }
+        LockSupport.parkNanos(Math.max(throttleNanos(), MIN_RESCHEDULE_NANOS));
+    }
+
+    /**
+     * @return za kolik ns má smysl odeslání zkusit znovu, 0 = hned
+     */
+    public long throttleNanos() {
+        if (blocked) {
+            return BLOCKED_RETRY_NANOS;
+        }
+        return delayNanos > 0 ? Math.max(0, nextPermitNanos.get() - System.nanoTime()) : 0;
+    }
+
+    /**
+     * @return true pokud pauza trvá déle než max-pause-ms - generátor má skončit místo dalšího čekání
+     */
+    public boolean isPausedTooLong() {
+        long since = throttledSinceNanos.get();
+        return since != 0 && System.nanoTime() - since > TimeUnit.MILLISECONDS.toNanos(maxPauseMs);
+    }
+
+    public boolean isBlocked() {
+        return blocked;
+    }
+
+    private void markThrottled(long now) {
+        throttledSinceNanos.compareAndSet(0, now);
+    }
+}
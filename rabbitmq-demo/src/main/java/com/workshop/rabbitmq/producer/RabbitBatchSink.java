@@ -0,0 +1,77 @@
+package com.workshop.rabbitmq.producer;
+
+import com.workshop.benchmark.batch.BatchPublisher;
+import com.workshop.benchmark.batch.MicroBatcher;
+import com.workshop.rabbitmq.metrics.MetricsService;
+import com.workshop.rabbitmq.model.WorkshopMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpResourceNotAvailableException;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Odeslání dávky group commitu do RabbitMQ pro {@link BatchPublisher}.
+ *
+ * Dávka odchází na jednom kanálu, každá zpráva se potvrdí až publisher confirmem.
+ * Když broker publikování omezuje, vlákno dávkovače počká na {@link PublishThrottle} -
+ * fronta {@link BatchPublisher} se mezitím plní a brzdí klienty. Dávka selže až po max-pause-ms.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class RabbitBatchSink implements MicroBatcher.BatchSink<WorkshopMessage> {
+
+    private final RabbitTemplate rabbitTemplate;
+    private final MetricsService metricsService;
+    private final ShardRouter shardRouter;
+    private final PublishThrottle publishThrottle;
+
+    @Value("${workshop.rabbitmq.exchange}")
+    private String exchangeName;
+
+    /**
+     * Odešle dávku na jednom kanálu, potvrzení chodí asynchronně.
+     */
+    @Override
+    public List<CompletableFuture<?>> publish(List<WorkshopMessage> batch) {
+        publishThrottle.acquire();
+        
+        long startTime = System.nanoTime();
+        List<CompletableFuture<?>> acks = new ArrayList<>(batch.size());
+        rabbitTemplate.invoke(operations -> {
+            for (WorkshopMessage message : batch) {
+                acks.add(send(operations, message, startTime));
+            }
+            return null;
+        });
+        return acks;
+    }
+
+    private CompletableFuture<?> send(RabbitOperations operations, WorkshopMessage message,
+                                      long startTime) {
+        try {
+            CorrelationData correlationData = new CorrelationData(String.valueOf(message.getId()));
+            operations.convertAndSend(exchangeName, shardRouter.routingKeyFor(message.getId()),
+                    message, correlationData);
+            return correlationData.getFuture().thenAccept(confirm -> {
+                if (!confirm.isAck()) {
+                    throw new AmqpResourceNotAvailableException("Broker zprávu odmítl (nack): " + confirm.getReason());
+                }
+                metricsService.recordMessageProduced(System.nanoTime() - startTime);
+                if (shardRouter.isEnabled()) {
+                    metricsService.recordShardProduced(shardRouter.shardFor(message.getId()));
+                }
+            });
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
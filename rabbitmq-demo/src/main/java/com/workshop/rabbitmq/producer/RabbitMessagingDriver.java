@@ -0,0 +1,54 @@
+package com.workshop.rabbitmq.producer;
+
+import com.workshop.benchmark.driver.MessagingDriver;
+import com.workshop.benchmark.metrics.MetricsEngine;
+import com.workshop.rabbitmq.metrics.MetricsService;
+import com.workshop.rabbitmq.model.WorkshopMessage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * RabbitMQ implementace {@link MessagingDriver} pro benchmark runner.
+ */
+@Component
+@RequiredArgsConstructor
+public class RabbitMessagingDriver implements MessagingDriver {
+
+    private final MessageProducer messageProducer;
+    private final PublishThrottle publishThrottle;
+    private final MetricsService metricsService;
+
+    @Override
+    public String getName() {
+        return "rabbitmq";
+    }
+
+    @Override
+    public boolean send(long id, String content) {
+        return messageProducer.trySendMessage(WorkshopMessage.builder()
+                .id(id)
+                .content(content)
+                .timestamp(System.currentTimeMillis())
+                .broker("RabbitMQ")
+                .retryCount(0)
+                .build());
+    }
+
+    @Override
+    public long throttleNanos() {
+        return publishThrottle.throttleNanos();
+    }
+
+    /**
+     * convertAndSend je synchronní vůči klientovi - publisher confirms
+     * zpracovává asynchronně {@link PublishThrottle}, není na co čekat.
+     */
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public MetricsEngine getMetrics() {
+        return metricsService;
+    }
+}
@@ -0,0 +1,166 @@
+package com.workshop.rabbitmq.producer;
+
+import com.workshop.benchmark.metrics.LatencyStats;
+import com.workshop.rabbitmq.consumer.RequestReplyConsumer;
+import com.workshop.rabbitmq.metrics.MetricsService;
+import com.workshop.rabbitmq.metrics.RpcBenchmarkResult;
+import com.workshop.rabbitmq.model.WorkshopMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Klient request/reply přes RabbitMQ direct reply-to.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class RequestReplyClient {
+
+    private final RabbitTemplate rabbitTemplate;
+    private final MetricsService metricsService;
+
+    @Value("${workshop.rabbitmq.exchange}")
+    private String exchangeName;
+
+    @Value("${workshop.rabbitmq.rpc.routing-key}")
+    private String rpcRoutingKey;
+
+    @Value("${workshop.rabbitmq.rpc.client-concurrency:8}")
+    private int defaultConcurrency;
+
+    @Value("${workshop.rabbitmq.rpc.max-client-concurrency:64}")
+    private int maxConcurrency;
+
+    /**
+     * Odpověď serveru - chyba zpracování přichází v hlavičce {@link RequestReplyConsumer#ERROR_HEADER},
+     * ne v obsahu zprávy.
+     */
+    public record RpcReply(WorkshopMessage message, String error) {
+
+        public boolean isError() {
+            return error != null;
+        }
+    }
+
+    /**
+     * Synchronní požadavek - vrací odpověď (i chybovou) nebo null při timeoutu.
+     */
+    public RpcReply sendAndReceive(WorkshopMessage request) {
+        long startTime = System.nanoTime();
+        
+        MessageConverter converter = rabbitTemplate.getMessageConverter();
+        Message response = rabbitTemplate.sendAndReceive(exchangeName, rpcRoutingKey,
+                converter.toMessage(request, new MessageProperties()));
+        
+        if (response == null) {
+            metricsService.recordRpcFailed();
+            log.warn("⚠ Bez odpovědi na požadavek {}", request.getId());
+            return null;
+        }
+        Object error = response.getMessageProperties().getHeader(RequestReplyConsumer.ERROR_HEADER);
+        RpcReply reply = new RpcReply((WorkshopMessage) converter.fromMessage(response),
+                error != null ? error.toString() : null);
+        if (reply.isError()) {
+            metricsService.recordRpcFailed();
+            log.warn("⚠ Chybová odpověď na požadavek {}: {}", request.getId(), reply.error());
+        } else {
+            metricsService.recordRpcRoundTrip(System.nanoTime() - startTime);
+        }
+        return reply;
+    }
+
+    /**
+     * Benchmark request/reply s daným počtem souběžně čekajících požadavků.
+     * Souběžnost (počet vláken) je omezená na workshop.rabbitmq.rpc.max-client-concurrency.
+     *
+     * @throws IllegalArgumentException při nekladném počtu požadavků nebo souběžnosti
+     */
+    public RpcBenchmarkResult runBenchmark(int count, Integer concurrency) {
+        int threads = concurrency != null ? concurrency : defaultConcurrency;
+        if (count <= 0) {
+            throw new IllegalArgumentException("count musí být kladné");
+        }
+        if (threads <= 0) {
+            throw new IllegalArgumentException("concurrency musí být kladné");
+        }
+        if (threads > maxConcurrency) {
+            log.warn("⚠ Souběžnost RPC benchmarku {} omezena na {}", threads, maxConcurrency);
+            threads = maxConcurrency;
+        }
+        log.info("RPC benchmark: {} požadavků, souběžnost {}", count, threads);
+        
+        List<Long> roundTrips = Collections.synchronizedList(new ArrayList<>(count));
+        AtomicInteger nextId = new AtomicInteger();
+        AtomicLong failed = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        
+        long startTime = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                int id;
+                while ((id = nextId.incrementAndGet()) <= count) {
+                    WorkshopMessage request = WorkshopMessage.builder()
+                            .id((long) id)
+                            .content("RPC request " + id)
+                            .timestamp(System.currentTimeMillis())
+                            .broker("RabbitMQ")
+                            .retryCount(0)
+                            .build();
+                    
+                    long requestStart = System.nanoTime();
+                    try {
+                        RpcReply reply = sendAndReceive(request);
+                        if (reply != null && !reply.isError()) {
+                            roundTrips.add(System.nanoTime() - requestStart);
+                        } else {
+                            failed.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        metricsService.recordRpcFailed();
+                        failed.incrementAndGet();
+                        log.error("Chyba RPC požadavku {}: {}", id, e.getMessage());
+                    }
+                }
+            });
+        }
+        
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.HOURS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        
+        double durationSeconds = (System.nanoTime() - startTime) / 1_000_000_000.0;
+        RpcBenchmarkResult result = RpcBenchmarkResult.builder()
+                .requests(count)
+                .concurrency(threads)
+                .succeeded(roundTrips.size())
+                .failed(failed.get())
+                .durationSeconds(durationSeconds)
+                .throughputMsgPerSec(roundTrips.size() / durationSeconds)
+                .roundTripStats(LatencyStats.fromNanos(roundTrips))
+                .build();
+        
+        log.info("✓ RPC benchmark: {} odpovědí, {} msg/s, P99 {} ms",
+                result.getSucceeded(),
+                String.format("%.2f", result.getThroughputMsgPerSec()),
+                String.format("%.2f", result.getRoundTripStats().getP99Ms()));
+        return result;
+    }
+}
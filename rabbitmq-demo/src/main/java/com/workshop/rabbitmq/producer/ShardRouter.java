@@ -0,0 +1,70 @@
+package com.workshop.rabbitmq.producer;
+
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Směrování zpráv do shardů (front) podle ID zprávy.
+ *
+ * Používá jump consistent hash (Lamping &amp; Veach), takže zprávy se stejným ID
+ * končí vždy ve stejném shardu a při přidání shardu se přesune jen ~1/N klíčů.
+ */
+@Component
+@Getter
+public class ShardRouter {
+
+    @Value("${workshop.rabbitmq.sharding.enabled:false}")
+    private boolean enabled;
+
+    @Value("${workshop.rabbitmq.sharding.shards:4}")
+    private int shardCount;
+
+    @Value("${workshop.rabbitmq.queue}")
+    private String queueName;
+
+    @Value("${workshop.rabbitmq.routing-key}")
+    private String routingKey;
+
+    /**
+     * Index shardu pro dané ID zprávy.
+     */
+    public int shardFor(Long id) {
+        if (id == null) {
+            return 0;
+        }
+        return jumpConsistentHash(id, shardCount);
+    }
+
+    /**
+     * Routing key pro zprávu - bez shardingu vrací výchozí routing key.
+     */
+    public String routingKeyFor(Long id) {
+        if (!enabled) {
+            return routingKey;
+        }
+        return shardRoutingKey(shardFor(id));
+    }
+
+    public String shardQueueName(int shard) {
+        return queueName + ".shard-" + shard;
+    }
+
+    public String shardRoutingKey(int shard) {
+        return routingKey + ".shard." + shard;
+    }
+
+    /**
+     * Jump consistent hash - O(ln n), bez paměťových nároků.
+     */
+    static int jumpConsistentHash(long key, int buckets) {
+        long b = -1;
+        long j = 0;
+        while (j < buckets) {
+            b = j;
+            key = key * 2862933555777941757L + 1;
+            j = (long) ((b + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) b;
+    }
+}
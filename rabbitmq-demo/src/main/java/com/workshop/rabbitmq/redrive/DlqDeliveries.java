@@ -0,0 +1,77 @@
+package com.workshop.rabbitmq.redrive;
+
+import com.rabbitmq.client.Channel;
+import com.workshop.benchmark.redrive.ParkedMessage;
+import com.workshop.benchmark.redrive.ParkingLotStore;
+import com.workshop.rabbitmq.model.WorkshopMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Zprávy parking lotu drží RabbitMQ - v DLQ zůstávají nepotvrzené, dokud je redrive neodešle.
+ *
+ * Parking lot je jen pohled na doručené a nepotvrzené zprávy DLQ, ACK v DLQ přijde až po
+ * publisher confirmu redrive. Po restartu nebo pádu kanálu broker nepotvrzené zprávy doručí
+ * znovu a parking lot se z nich obnoví. Počet zpráv v parking lotu omezuje prefetch DLQ
+ * listeneru (workshop.rabbitmq.redrive.max-parked), zbytek čeká v DLQ.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class DlqDeliveries {
+
+    private final ParkingLotStore<WorkshopMessage> parkingLot;
+
+    private Channel channel;
+    private long epoch;
+
+    /**
+     * Odloží zprávu doručenou z DLQ do parking lotu, bez ACK.
+     * Volá ji jediný consumer DLQ.
+     */
+    public synchronized void park(WorkshopMessage message, String error, long deliveryTag, Channel channel) {
+        if (channel != this.channel) {
+            // Nový kanál - nepotvrzené zprávy starého broker doručí znovu, jejich delivery tagy už neplatí
+            if (this.channel != null) {
+                log.info("🔄 Nový kanál DLQ, parking lot se obnoví z doručených zpráv ({} odloženo)",
+                        parkingLot.size());
+            }
+            parkingLot.clear();
+            this.channel = channel;
+            epoch++;
+        }
+        parkingLot.park(message.getId(), message, error, epoch + ":" + deliveryTag);
+    }
+
+    /**
+     * @return false pokud byla zpráva doručena na kanálu, který už neexistuje - broker ji doručí znovu
+     */
+    public synchronized boolean isCurrent(ParkedMessage<WorkshopMessage> parked) {
+        return epochOf(parked) == epoch && channel.isOpen();
+    }
+
+    /**
+     * Potvrdí zprávu v DLQ po úspěšném redrive - tím ji broker definitivně odstraní.
+     *
+     * @throws IOException pokud kanál doručení už neexistuje
+     */
+    public void ack(ParkedMessage<WorkshopMessage> parked) throws IOException {
+        Channel current;
+        synchronized (this) {
+            if (epochOf(parked) != epoch) {
+                throw new IOException("Kanál DLQ se změnil, zprávu " + parked.getMessageId() + " broker doručí znovu");
+            }
+            current = channel;
+        }
+        String source = parked.getSource();
+        current.basicAck(Long.parseLong(source, source.indexOf(':') + 1, source.length(), 10), false);
+    }
+
+    private static long epochOf(ParkedMessage<WorkshopMessage> parked) {
+        String source = parked.getSource();
+        return Long.parseLong(source, 0, source.indexOf(':'), 10);
+    }
+}
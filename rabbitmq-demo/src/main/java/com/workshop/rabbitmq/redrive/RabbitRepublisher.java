@@ -0,0 +1,68 @@
+package com.workshop.rabbitmq.redrive;
+
+import com.workshop.benchmark.redrive.ParkedMessage;
+import com.workshop.benchmark.redrive.RedriveService;
+import com.workshop.rabbitmq.model.WorkshopMessage;
+import com.workshop.rabbitmq.producer.PublishThrottle;
+import com.workshop.rabbitmq.producer.ShardRouter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Redrive dávky zpět do hlavního exchange s publisher confirms.
+ * Respektuje řízení toku producera - dávku odešle až po povolení {@link PublishThrottle}.
+ * Po potvrzení brokerem zprávu potvrdí i v DLQ, kde do té doby čekala nepotvrzená ({@link DlqDeliveries}).
+ */
+@Component
+@RequiredArgsConstructor
+public class RabbitRepublisher implements RedriveService.Republisher<WorkshopMessage> {
+
+    private final RabbitTemplate rabbitTemplate;
+    private final ShardRouter shardRouter;
+    private final PublishThrottle publishThrottle;
+    private final DlqDeliveries dlqDeliveries;
+
+    @Value("${workshop.rabbitmq.exchange}")
+    private String exchangeName;
+
+    @Override
+    public List<CompletableFuture<?>> republish(List<ParkedMessage<WorkshopMessage>> batch) {
+        // Redrive běží ve vlastním vlákně - odmítnutou dávku přeplánuje podle throttlu
+        publishThrottle.acquire();
+        
+        List<CompletableFuture<?>> confirms = new ArrayList<>(batch.size());
+        for (ParkedMessage<WorkshopMessage> parked : batch) {
+            if (!dlqDeliveries.isCurrent(parked)) {
+                // Doručení z uzavřeného kanálu - broker zprávu doručí znovu, odeslání by ji zdvojilo
+                confirms.add(CompletableFuture.failedFuture(
+                        new IllegalStateException("zpráva čeká na nové doručení z DLQ")));
+                continue;
+            }
+            WorkshopMessage message = parked.getMessage();
+            message.setRetryCount(0);
+            CorrelationData correlationData = new CorrelationData(String.valueOf(parked.getSequence()));
+            rabbitTemplate.convertAndSend(exchangeName, shardRouter.routingKeyFor(message.getId()),
+                    message, correlationData);
+            confirms.add(correlationData.getFuture().thenAccept(confirm -> {
+                if (!confirm.isAck()) {
+                    throw new IllegalStateException("nack: " + confirm.getReason());
+                }
+                try {
+                    dlqDeliveries.ack(parked);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+        }
+        return confirms;
+    }
+}
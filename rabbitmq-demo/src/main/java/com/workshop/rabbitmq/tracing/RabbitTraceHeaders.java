@@ -0,0 +1,57 @@
+package com.workshop.rabbitmq.tracing;
+
+import com.workshop.benchmark.tracing.HopTrace;
+import com.workshop.benchmark.tracing.HopTracer;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.core.MessageProperties;
+
+/**
+ * Časové značky per-hop tracingu v hlavičkách AMQP zprávy.
+ */
+public final class RabbitTraceHeaders {
+
+    /**
+     * Post-processor pro nevzorkované zprávy - zprávu nemění.
+     */
+    public static final MessagePostProcessor NONE = message -> message;
+
+    private RabbitTraceHeaders() {
+    }
+
+    /**
+     * Post-processor, který vzorkované zprávě nastaví značku odeslání.
+     */
+    public static MessagePostProcessor sent(long sentMicros) {
+        return message -> {
+            message.getMessageProperties().setHeader(HopTracer.SENT_HEADER, sentMicros);
+            return message;
+        };
+    }
+
+    /**
+     * Vzorkovaná zpráva - nese značku odeslání.
+     */
+    public static boolean isSampled(Object carrier) {
+        return carrier instanceof Message message
+                && message.getMessageProperties().getHeader(HopTracer.SENT_HEADER) != null;
+    }
+
+    /**
+     * Značky přijaté zprávy, null pokud zpráva není vzorkovaná.
+     */
+    public static HopTrace read(MessageProperties properties) {
+        Object sent = properties.getHeader(HopTracer.SENT_HEADER);
+        if (sent == null) {
+            return null;
+        }
+        return new HopTrace(
+                ((Number) sent).longValue(),
+                micros(properties.getHeader(HopTracer.SERIALIZED_HEADER)),
+                micros(properties.getHeader(HopTracer.RECEIVED_HEADER)));
+    }
+
+    private static long micros(Object value) {
+        return value instanceof Number number ? number.longValue() : 0;
+    }
+}
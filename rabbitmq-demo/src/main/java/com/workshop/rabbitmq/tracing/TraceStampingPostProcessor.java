@@ -0,0 +1,30 @@
+package com.workshop.rabbitmq.tracing;
+
+import com.workshop.benchmark.tracing.HopTracer;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.core.MessageProperties;
+
+/**
+ * Doplní vzorkované zprávě časovou značku do zadané hlavičky.
+ * 
+ * Jako before-publish post-processor šablony označí konec serializace (a komprese),
+ * jako after-receive post-processor containeru příjem zprávy před konverzí.
+ */
+public class TraceStampingPostProcessor implements MessagePostProcessor {
+
+    private final String header;
+
+    public TraceStampingPostProcessor(String header) {
+        this.header = header;
+    }
+
+    @Override
+    public Message postProcessMessage(Message message) {
+        MessageProperties properties = message.getMessageProperties();
+        if (properties.getHeader(HopTracer.SENT_HEADER) != null) {
+            properties.setHeader(header, HopTracer.nowMicros());
+        }
+        return message;
+    }
+}
@@ -0,0 +1,104 @@
+#!/usr/bin/env bash
+# Startup benchmark: time-to-first-message-consumed s fast-startup režimem a bez něj.
+#
+# Předpoklady: běžící broker (docker compose) a build s profilem fast-startup:
+#   mvn -Pfast-startup package -DskipTests
+#
+# Použití: scripts/startup-benchmark.sh kafka-demo|rabbitmq-demo [počet běhů]
+#
+# Každý běh spustí instanci, po připravenosti pošle jednu zprávu a čte
+# GET /api/workshop/startup, dokud instance zprávu nezpracuje.
+# Běh, který do TIMEOUT_SECONDS (výchozí 120) nedoběhne, benchmark ukončí s chybou.
+set -euo pipefail
+
+MODULE=${1:?"Použití: $0 kafka-demo|rabbitmq-demo [počet běhů]"}
+RUNS=${2:-5}
+TIMEOUT_SECONDS=${TIMEOUT_SECONDS:-120}
+TARGET="$(cd "$(dirname "$0")/.." && pwd)/$MODULE/target"
+
+case "$MODULE" in
+    kafka-demo) PORT=8082 ;;
+    rabbitmq-demo) PORT=8081 ;;
+    *) echo "Neznámý modul: $MODULE" >&2; exit 1 ;;
+esac
+
+BASE="http://localhost:$PORT/api/workshop"
+JAR="$TARGET/$MODULE-1.0.0.jar"
+EXEC_JAR="$TARGET/$MODULE-1.0.0-exec.jar"
+CDS="$TARGET/app-cds.jsa"
+
+if [[ ! -f "$EXEC_JAR" || ! -f "$CDS" ]]; then
+    echo "Chybí $EXEC_JAR nebo $CDS - spusťte mvn -Pfast-startup package" >&2
+    exit 1
+fi
+
+# Ukončí běžící instanci a benchmark s čitelnou chybou
+fail() {
+    local pid=$1 log=$2 message=$3
+    kill "$pid" 2> /dev/null || true
+    echo "Chyba: $message (log: $log)" >&2
+    exit 1
+}
+
+# Hodnota číselného pole z JSON odpovědi /startup, prázdná pokud pole chybí
+field() {
+    local name=$1 json=$2
+    sed -nE "s/.*\"$name\":(-?[0-9]+).*/\1/p" <<< "$json"
+}
+
+run_once() {
+    local mode=$1
+    local log="/tmp/$MODULE-startup-$mode.log"
+    local pid
+    if [[ "$mode" == "fast" ]]; then
+        java -XX:SharedArchiveFile="$CDS" -Dspring.aot.enabled=true \
+             -Dspring.profiles.active=fast-startup -jar "$JAR" > "$log" 2>&1 &
+    else
+        java -jar "$EXEC_JAR" > "$log" 2>&1 &
+    fi
+    pid=$!
+    local deadline=$((SECONDS + TIMEOUT_SECONDS))
+    
+    until curl -sf "$BASE/health" > /dev/null; do
+        kill -0 "$pid" 2> /dev/null || fail "$pid" "$log" "instance ($mode) skončila před připraveností"
+        (( SECONDS < deadline )) || fail "$pid" "$log" "instance ($mode) není připravená do ${TIMEOUT_SECONDS} s"
+        sleep 0.05
+    done
+    curl -sf -X POST "$BASE/send?count=1" > /dev/null \
+        || fail "$pid" "$log" "odeslání zprávy selhalo - běží broker?"
+    
+    local report="" first=""
+    while true; do
+        if report=$(curl -sf "$BASE/startup"); then
+            first=$(field jvmToFirstMessageConsumedMs "$report")
+            [[ -n "$first" ]] || fail "$pid" "$log" "neočekávaná odpověď /startup: $report"
+            (( first >= 0 )) && break
+        fi
+        kill -0 "$pid" 2> /dev/null || fail "$pid" "$log" "instance ($mode) skončila před zpracováním zprávy"
+        (( SECONDS < deadline )) || fail "$pid" "$log" "zpráva nezpracována do ${TIMEOUT_SECONDS} s"
+        sleep 0.05
+    done
+    
+    kill "$pid" 2> /dev/null
+    wait "$pid" 2> /dev/null || true
+    
+    local ready
+    ready=$(field jvmToReadyMs "$report")
+    [[ -n "$ready" ]] || fail "$pid" "$log" "odpověď /startup bez jvmToReadyMs: $report"
+    echo "$ready $first"
+}
+
+printf "%-8s %-5s %12s %20s\n" "režim" "běh" "ready [ms]" "první zpráva [ms]"
+for mode in default fast; do
+    total_ready=0
+    total_first=0
+    for run in $(seq 1 "$RUNS"); do
+        # Chyba běhu (fail) ukončí přes set -e i benchmark
+        result=$(run_once "$mode")
+        read -r ready first <<< "$result"
+        printf "%-8s %-5s %12s %20s\n" "$mode" "$run" "$ready" "$first"
+        total_ready=$((total_ready + ready))
+        total_first=$((total_first + first))
+    done
+    printf "%-8s %-5s %12s %20s\n" "$mode" "avg" "$((total_ready / RUNS))" "$((total_first / RUNS))"
+done